@@ -17,7 +17,7 @@
 
 package org.apache.streampark.common.conf
 
-import java.lang.{Integer => JavaInt, Long => JavaLong}
+import java.lang.{Boolean => JavaBool, Integer => JavaInt, Long => JavaLong}
 
 object CommonConfig {
 
@@ -48,6 +48,24 @@ object CommonConfig {
     classType = classOf[String],
     description = "yarn http auth type. ex: simple, kerberos")
 
+  val HTTP_CLIENT_MAX_CONNECTIONS: InternalOption = InternalOption(
+    key = "streampark.http-client.max-connections",
+    defaultValue = 200,
+    classType = classOf[JavaInt],
+    description = "max total connections of the pooled http client used by yarn and flink rest calls")
+
+  val HTTP_CLIENT_MAX_CONNECTIONS_PER_ROUTE: InternalOption = InternalOption(
+    key = "streampark.http-client.max-connections-per-route",
+    defaultValue = 50,
+    classType = classOf[JavaInt],
+    description = "default max connections per route(scheme://host:port) of the pooled http client")
+
+  val HTTP_CLIENT_ROUTE_MAX_CONNECTIONS: InternalOption = InternalOption(
+    key = "streampark.http-client.route-max-connections",
+    defaultValue = "",
+    classType = classOf[String],
+    description = "max connections of the given routes, ex: http://rm1:8088=100,http://rm2:8088=100")
+
   val DOCKER_HOST: InternalOption = InternalOption(
     key = "streampark.docker.http-client.docker-host",
     defaultValue = "",
@@ -96,6 +114,30 @@ object CommonConfig {
     classType = classOf[String],
     description = "maven repository used for built-in compilation")
 
+  val MAVEN_FAT_JAR_CACHE_ENABLED: InternalOption = InternalOption(
+    key = "streampark.maven.fat-jar-cache.enabled",
+    defaultValue = true,
+    classType = classOf[JavaBool],
+    description = "whether to reuse the fat-jar built from the same jars, main class and transformers")
+
+  val MAVEN_FAT_JAR_CACHE_MAX_SIZE_MB: InternalOption = InternalOption(
+    key = "streampark.maven.fat-jar-cache.max-size-mb",
+    defaultValue = 10240L,
+    classType = classOf[JavaLong],
+    description = "the disk quota(MB) of the fat-jar cache, the least recently used fat-jars are evicted beyond it")
+
+  val MAVEN_RESOLVE_THREADS: InternalOption = InternalOption(
+    key = "streampark.maven.resolve.threads",
+    defaultValue = 8,
+    classType = classOf[JavaInt],
+    description = "the number of threads resolving and downloading maven artifacts in parallel")
+
+  val MAVEN_RESOLVE_SNAPSHOT_TTL_SEC: InternalOption = InternalOption(
+    key = "streampark.maven.resolve.snapshot-ttl-sec",
+    defaultValue = 600L,
+    classType = classOf[JavaLong],
+    description = "how long the resolved files of a SNAPSHOT artifact are reused before resolving it again")
+
   val KERBEROS_TTL: InternalOption = InternalOption(
     key = "security.kerberos.ttl",
     defaultValue = "2h",
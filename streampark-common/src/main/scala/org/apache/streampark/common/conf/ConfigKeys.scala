@@ -177,6 +177,38 @@ object ConfigKeys {
 
   val DEFAULT_JDBC_INSERT_BATCH = 1
 
+  val KEY_JDBC_INSERT_BATCH_INTERVAL = "batch.interval"
+
+  val DEFAULT_JDBC_INSERT_BATCH_INTERVAL = 1000L
+
+  val KEY_JDBC_LOOKUP_CACHE_SIZE = "lookup.cache.size"
+
+  val DEFAULT_JDBC_LOOKUP_CACHE_SIZE = 10000
+
+  val KEY_JDBC_LOOKUP_CACHE_TTL = "lookup.cache.ttl"
+
+  val DEFAULT_JDBC_LOOKUP_CACHE_TTL = 60000L
+
+  val KEY_JDBC_LOOKUP_CACHE_EMPTY = "lookup.cache.empty"
+
+  val DEFAULT_JDBC_LOOKUP_CACHE_EMPTY = true
+
+  val KEY_JDBC_LOOKUP_BATCH = "lookup.batch.size"
+
+  val DEFAULT_JDBC_LOOKUP_BATCH = 100
+
+  val KEY_JDBC_LOOKUP_BATCH_LINGER = "lookup.batch.linger"
+
+  val DEFAULT_JDBC_LOOKUP_BATCH_LINGER = 10L
+
+  val KEY_JDBC_LOOKUP_THREADS = "lookup.threads"
+
+  val DEFAULT_JDBC_LOOKUP_THREADS = 2
+
+  val KEY_JDBC_LOOKUP_MAX_RETRIES = "lookup.max.retries"
+
+  val DEFAULT_JDBC_LOOKUP_MAX_RETRIES = 3
+
   val MONGO_PREFIX = "mongodb."
 
   /** about config HBase */
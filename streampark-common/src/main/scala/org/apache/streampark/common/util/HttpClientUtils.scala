@@ -17,8 +17,10 @@
 
 package org.apache.streampark.common.util
 
+import org.apache.streampark.common.conf.{CommonConfig, InternalConfigHolder}
 import org.apache.streampark.common.util.Implicits._
 
+import org.apache.hc.client5.http.HttpRoute
 import org.apache.hc.client5.http.auth.{AuthSchemeFactory, AuthScope, Credentials, StandardAuthScheme}
 import org.apache.hc.client5.http.classic.methods.{HttpGet, HttpPost, HttpUriRequestBase}
 import org.apache.hc.client5.http.config.RequestConfig
@@ -26,7 +28,7 @@ import org.apache.hc.client5.http.entity.UrlEncodedFormEntity
 import org.apache.hc.client5.http.impl.auth.{BasicCredentialsProvider, SPNegoSchemeFactory}
 import org.apache.hc.client5.http.impl.classic.{CloseableHttpClient, HttpClientBuilder, HttpClients}
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager
-import org.apache.hc.core5.http.NameValuePair
+import org.apache.hc.core5.http.{HttpHost, NameValuePair}
 import org.apache.hc.core5.http.config.RegistryBuilder
 import org.apache.hc.core5.http.io.entity.EntityUtils
 import org.apache.hc.core5.http.message.BasicNameValuePair
@@ -35,20 +37,68 @@ import org.apache.hc.core5.net.URIBuilder
 import java.nio.charset.{Charset, StandardCharsets}
 import java.security.Principal
 
-object HttpClientUtils {
+/**
+ * The http clients of the yarn and flink rest calls share one connection pool, sized by
+ * [[CommonConfig.HTTP_CLIENT_MAX_CONNECTIONS]] and per route by
+ * [[CommonConfig.HTTP_CLIENT_MAX_CONNECTIONS_PER_ROUTE]] and
+ * [[CommonConfig.HTTP_CLIENT_ROUTE_MAX_CONNECTIONS]]. The plain client and the kerberos (SPNEGO)
+ * client are built once and reused, gzip/deflate responses are decompressed transparently.
+ */
+object HttpClientUtils extends Logger {
 
   private[this] val defaultChart: Charset = StandardCharsets.UTF_8
 
   private[this] lazy val connectionManager: PoolingHttpClientConnectionManager = {
     val connectionManager = new PoolingHttpClientConnectionManager
-    connectionManager.setMaxTotal(50)
-    connectionManager.setDefaultMaxPerRoute(5)
+    connectionManager.setMaxTotal(
+      InternalConfigHolder.get[Integer](CommonConfig.HTTP_CLIENT_MAX_CONNECTIONS))
+    connectionManager.setDefaultMaxPerRoute(
+      InternalConfigHolder.get[Integer](CommonConfig.HTTP_CLIENT_MAX_CONNECTIONS_PER_ROUTE))
+    parseRouteMaxConnections(
+      InternalConfigHolder.get[String](CommonConfig.HTTP_CLIENT_ROUTE_MAX_CONNECTIONS))
+      .foreach {
+        case (route, max) =>
+          logInfo(s"max connections of route: ${route.getTargetHost}: $max")
+          connectionManager.setMaxPerRoute(route, max)
+      }
     connectionManager
   }
 
-  /** Get HttpClient with connection manager */
-  private[this] def getHttpClient =
-    HttpClients.custom.setConnectionManager(connectionManager).build
+  /** The shared HttpClient, the content compression is enabled by default */
+  private[this] lazy val httpClient: CloseableHttpClient =
+    HttpClients.custom
+      .setConnectionManager(connectionManager)
+      .setConnectionManagerShared(true)
+      .build
+
+  /**
+   * The shared SPNEGO HttpClient, the kerberos ticket is taken from the subject of the caller on
+   * negotiation, so the client survives the relogin of the ugi. The auth cookie of the server is
+   * kept in the cookie store of the client, which saves the negotiation of the following requests.
+   */
+  private[this] lazy val httpAuthClient: CloseableHttpClient = {
+    val credentialsProvider = new BasicCredentialsProvider
+
+    val credentials = new Credentials() {
+      def getPassword: Array[Char] = null
+      def getUserPrincipal: Principal = null
+    }
+
+    credentialsProvider.setCredentials(new AuthScope(null, -1), credentials)
+
+    val authSchemeRegistry = RegistryBuilder
+      .create[AuthSchemeFactory]
+      .register(StandardAuthScheme.SPNEGO, SPNegoSchemeFactory.DEFAULT)
+      .build
+
+    HttpClientBuilder
+      .create()
+      .setDefaultAuthSchemeRegistry(authSchemeRegistry)
+      .setDefaultCredentialsProvider(credentialsProvider)
+      .setConnectionManager(connectionManager)
+      .setConnectionManagerShared(true)
+      .build()
+  }
 
   private[this] def getHttpGet(
       url: String,
@@ -128,43 +178,41 @@ object HttpClientUtils {
   }
 
   def httpAuthGetRequest(url: String, config: RequestConfig): String = {
-    def getHttpAuthClient: CloseableHttpClient = {
-      val credentialsProvider = new BasicCredentialsProvider
-
-      val credentials = new Credentials() {
-        def getPassword: Array[Char] = null
-        def getUserPrincipal: Principal = null
-      }
-
-      credentialsProvider.setCredentials(new AuthScope(null, -1), credentials)
-
-      val authSchemeRegistry = RegistryBuilder
-        .create[AuthSchemeFactory]
-        .register(StandardAuthScheme.SPNEGO, SPNegoSchemeFactory.DEFAULT)
-        .build
-
-      HttpClientBuilder
-        .create()
-        .setDefaultAuthSchemeRegistry(authSchemeRegistry)
-        .setDefaultCredentialsProvider(credentialsProvider)
-        .setConnectionManager(connectionManager)
-        .build()
-    }
+    getHttpResult(getHttpGet(url, null, config), httpAuthClient)
+  }
 
-    getHttpResult(getHttpGet(url, null, config), getHttpAuthClient)
+  /** parse the routes of "http://host1:port1=max1,http://host2:port2=max2" */
+  private[util] def parseRouteMaxConnections(value: String): List[(HttpRoute, Int)] = {
+    Option(value)
+      .map(_.split(",").map(_.trim).filter(_.nonEmpty).toList)
+      .getOrElse(List.empty)
+      .map(
+        route => {
+          val index = route.lastIndexOf("=")
+          require(
+            index > 0,
+            s"[StreamPark] invalid ${CommonConfig.HTTP_CLIENT_ROUTE_MAX_CONNECTIONS.key}: $route")
+          val host = HttpHost.create(route.substring(0, index).trim)
+          val secure = "https".equalsIgnoreCase(host.getSchemeName)
+          val target = if (host.getPort > 0) host else new HttpHost(
+            host.getSchemeName,
+            host.getHostName,
+            if (secure) 443 else 80)
+          new HttpRoute(target, null, secure) -> route.substring(index + 1).trim.toInt
+        })
   }
 
   /** process http request */
   private[this] def getHttpResult(
       request: HttpUriRequestBase,
-      httpClient: CloseableHttpClient = getHttpClient): String = {
-    val response = httpClient.execute(request)
-    val entity = response.getEntity
-    if (entity != null) {
-      val result = EntityUtils.toString(entity)
-      response.close()
-      result
-    } else null
+      client: CloseableHttpClient = httpClient): String = {
+    client
+      .execute(request)
+      .using(
+        response => {
+          val entity = response.getEntity
+          if (entity != null) EntityUtils.toString(entity) else null
+        })
   }
 
 }
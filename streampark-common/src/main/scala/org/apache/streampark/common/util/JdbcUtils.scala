@@ -22,12 +22,11 @@ import org.apache.streampark.common.util.Implicits._
 
 import com.zaxxer.hikari.{HikariConfig, HikariDataSource}
 
+import java.lang.reflect.{Field, Method}
 import java.sql.{Connection, ResultSet, Statement}
 import java.util.Properties
 import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.locks.ReentrantLock
 
-import scala.collection.mutable
 import scala.collection.mutable.ArrayBuffer
 import scala.util.Try
 
@@ -37,9 +36,6 @@ import scala.util.Try
  */
 object JdbcUtils {
 
-  private val lockMap: mutable.Map[String, ReentrantLock] =
-    new ConcurrentHashMap[String, ReentrantLock]
-
   private[this] val dataSourceHolder =
     new ConcurrentHashMap[String, HikariDataSource]
 
@@ -56,15 +52,12 @@ object JdbcUtils {
         if (func != null) {
           func(result)
         }
-        val count = result.getMetaData.getColumnCount
+        val labels = columnLabels(result)
         val array = ArrayBuffer[Map[String, Any]]()
         while (result.next()) {
           var map = Map[String, Any]()
-          for (x <- 1 to count) {
-            val key = result.getMetaData.getColumnLabel(x)
-            result.getMetaData.getColumnType(x)
-            val value = result.getObject(x)
-            map += key -> value
+          for (x <- labels.indices) {
+            map += labels(x) -> result.getObject(x + 1)
           }
           array += map
         }
@@ -154,14 +147,12 @@ object JdbcUtils {
     try {
       stmt = createStatement(conn)
       result = stmt.executeQuery(sql)
-      val count = result.getMetaData.getColumnCount
+      val labels = columnLabels(result)
       if (!result.next()) Map.empty
       else {
         var map = Map[String, Any]()
-        for (x <- 1 to count) {
-          val key = result.getMetaData.getColumnLabel(x)
-          val value = result.getObject(x).asInstanceOf[Any]
-          map += key -> value
+        for (x <- labels.indices) {
+          map += labels(x) -> result.getObject(x + 1).asInstanceOf[Any]
         }
         map
       }
@@ -201,71 +192,85 @@ object JdbcUtils {
   }
 
   /** Get connection with HikariDataSource */
-  def getConnection(prop: Properties): Connection = {
+  def getConnection(prop: Properties): Connection = getDataSource(prop).getConnection()
+
+  /**
+   * Get the HikariDataSource of the alias, it's created at the first time. The existing data source
+   * is looked up without any lock, and computeIfAbsent makes sure the pool of the alias is built
+   * only once. The caller can keep the data source and check out the connections from it directly.
+   */
+  def getDataSource(prop: Properties): HikariDataSource = {
     val alias = prop(KEY_ALIAS)
-    val lock = lockMap.getOrElseUpdate(alias, new ReentrantLock())
-    try {
-      lock.lock()
-      val ds: HikariDataSource =
-        Try(Option(dataSourceHolder(alias))).getOrElse(None) match {
+    dataSourceHolder.get(alias) match {
+      case null => dataSourceHolder.computeIfAbsent(alias, _ => createDataSource(prop))
+      case ds => ds
+    }
+  }
+
+  /** The connections of the pool of the alias, or None if the pool is not created. */
+  def getPoolStats(alias: String): Option[PoolStats] = {
+    Option(dataSourceHolder.get(alias)).flatMap(ds => Option(ds.getHikariPoolMXBean)).map {
+      bean =>
+        PoolStats(
+          bean.getActiveConnections,
+          bean.getIdleConnections,
+          bean.getThreadsAwaitingConnection,
+          bean.getTotalConnections)
+    }
+  }
+
+  case class PoolStats(active: Int, idle: Int, waiting: Int, total: Int)
+
+  private[this] def createDataSource(prop: Properties): HikariDataSource = {
+    val jdbcConfig = new HikariConfig()
+    prop
+      .filter(
+        x =>
+          x._1 != KEY_ALIAS && x._1 != KEY_SEMANTIC && x._1 != KEY_JDBC_INSERT_BATCH &&
+            x._1 != KEY_JDBC_INSERT_BATCH_INTERVAL)
+      .foreach(x => {
+        val (valueType, setter) = hikariFields.get(x._1) match {
+          case Some(field) => field.getType.getSimpleName -> ((v: Object) => field.set(jdbcConfig, v))
           case None =>
-            val jdbcConfig = new HikariConfig()
-            prop
-              .filter(x => x._1 != KEY_ALIAS && x._1 != KEY_SEMANTIC)
-              .foreach(x => {
-                Try(Option(jdbcConfig.getClass.getDeclaredField(x._1)))
-                  .getOrElse(None) match {
-                  case Some(field) =>
-                    field.setAccessible(true)
-                    field.getType.getSimpleName match {
-                      case "String" =>
-                        field.set(jdbcConfig, x._2.asInstanceOf[Object])
-                      case "int" =>
-                        field.set(jdbcConfig, x._2.toInt.asInstanceOf[Object])
-                      case "long" =>
-                        field
-                          .set(jdbcConfig, x._2.toLong.asInstanceOf[Object])
-                      case "boolean" =>
-                        field.set(jdbcConfig, x._2.toBoolean.asInstanceOf[Object])
-                      case _ =>
-                    }
-                  case None =>
-                    val setMethod =
-                      s"set${x._1.substring(0, 1).toUpperCase}${x._1.substring(1)}"
-                    val method = Try(
-                      jdbcConfig.getClass.getMethods
-                        .filter(_.getName == setMethod)
-                        .filter(_.getParameterCount == 1)
-                        .head).getOrElse(null)
-                    method match {
-                      case m if m != null =>
-                        m.setAccessible(true)
-                        m.getParameterTypes.head.getSimpleName match {
-                          case "String" =>
-                            m.invoke(jdbcConfig, Seq(x._2.asInstanceOf[Object]): _*)
-                          case "int" =>
-                            m.invoke(jdbcConfig, Seq(x._2.toInt.asInstanceOf[Object]): _*)
-                          case "long" =>
-                            m.invoke(jdbcConfig, Seq(x._2.toLong.asInstanceOf[Object]): _*)
-                          case "boolean" =>
-                            m.invoke(jdbcConfig, Seq(x._2.toBoolean.asInstanceOf[Object]): _*)
-                          case _ =>
-                        }
-                      case null =>
-                        throw new IllegalArgumentException(
-                          s"jdbcConfig error,property:${x._1} invalid,please see more properties jdbcConfig https://github.com/brettwooldridge/HikariCP")
-                    }
-                }
-              })
-            val ds = new HikariDataSource(jdbcConfig)
-            dataSourceHolder += alias -> ds
-            ds
-          case Some(x) => x
+            val setMethod = s"set${x._1.substring(0, 1).toUpperCase}${x._1.substring(1)}"
+            hikariSetters.get(setMethod) match {
+              case Some(m) =>
+                m.getParameterTypes.head.getSimpleName -> ((v: Object) => m.invoke(jdbcConfig, v))
+              case None =>
+                throw new IllegalArgumentException(
+                  s"jdbcConfig error,property:${x._1} invalid,please see more properties jdbcConfig https://github.com/brettwooldridge/HikariCP")
+            }
         }
-      ds.getConnection()
-    } finally {
-      lock.unlock()
-    }
+        valueType match {
+          case "String" => setter(x._2)
+          case "int" => setter(x._2.toInt.asInstanceOf[Object])
+          case "long" => setter(x._2.toLong.asInstanceOf[Object])
+          case "boolean" => setter(x._2.toBoolean.asInstanceOf[Object])
+          case _ =>
+        }
+      })
+    new HikariDataSource(jdbcConfig)
+  }
+
+  /** The declared fields of HikariConfig by name, resolved by reflection once. */
+  private[this] lazy val hikariFields: Map[String, Field] =
+    classOf[HikariConfig].getDeclaredFields.map {
+      field =>
+        field.setAccessible(true)
+        field.getName -> field
+    }.toMap
+
+  /** The setters of HikariConfig with one parameter by name, resolved by reflection once. */
+  private[this] lazy val hikariSetters: Map[String, Method] =
+    classOf[HikariConfig].getMethods
+      .filter(m => m.getName.startsWith("set") && m.getParameterCount == 1)
+      .groupBy(_.getName)
+      .map(x => x._1 -> x._2.head)
+
+  /** The column labels of the result set, resolved once instead of for every cell. */
+  private[this] def columnLabels(result: ResultSet): Array[String] = {
+    val meta = result.getMetaData
+    (1 to meta.getColumnCount).map(meta.getColumnLabel).toArray
   }
 
   private[this] def createStatement(conn: Connection): Statement =
@@ -44,7 +44,7 @@ import scala.util.control.Breaks.{break, breakable}
 
 object YarnUtils extends Logger {
 
-  private[this] var rmHttpURL: String = _
+  @volatile private[this] var rmHttpURL: String = _
 
   lazy val PROXY_YARN_URL =
     InternalConfigHolder.get[String](CommonConfig.STREAMPARK_PROXY_YARN_URL)
@@ -265,28 +265,46 @@ object YarnUtils extends Logger {
             }
         }
       case _ =>
-        Try(request(s"${getRMWebAppURL()}/$url", timeout)) match {
+        val rmUrl = getRMWebAppURL()
+        Try(request(s"$rmUrl/$url", timeout)) match {
           case Success(v) => v
-          case Failure(_) =>
-            Utils.retry[String](5)(request(s"${getRMWebAppURL(true)}/$url", timeout)) match {
+          case Failure(e) =>
+            // the active resourcemanager may be switched, fail over once to the latest one
+            val activeUrl = Try(failoverRMWebAppURL(rmUrl)).getOrElse(rmUrl)
+            Try(request(s"$activeUrl/$url", timeout)) match {
               case Success(v) => v
-              case Failure(e) =>
-                throw new IOException(s"yarnUtils restRequest retry 5 times all failed. detail: $e")
+              case Failure(e1) =>
+                e1.addSuppressed(e)
+                throw new IOException(
+                  s"yarnUtils restRequest failed on $rmUrl and $activeUrl, detail: $e1")
             }
         }
     }
   }
 
+  /**
+   * Resolve the active resourcemanager again after a request to the failed url. Only the first
+   * caller resolves it, the concurrent callers failed on the same url get the resolved one.
+   */
+  private[this] def failoverRMWebAppURL(failedUrl: String): String = synchronized {
+    if (rmHttpURL != failedUrl) rmHttpURL
+    else {
+      logWarn(s"Yarn resourceManager webapp url: $failedUrl is unavailable, resolve it again.")
+      getRMWebAppURL(getLatest = true)
+    }
+  }
+
   private[this] def request(reqUrl: String, timeout: Timeout): String = {
     val config = RequestConfig.custom.setConnectTimeout(timeout).build
     if (hasYarnHttpKerberosAuth) {
-      HadoopUtils
-        .getUgi()
-        .doAs(new PrivilegedExceptionAction[String] {
-          override def run(): String = {
-            HttpClientUtils.httpAuthGetRequest(reqUrl, config)
-          }
-        })
+      val ugi = HadoopUtils.getUgi()
+      // renew the ticket before it expires, the shared SPNEGO client takes it on negotiation
+      Try(ugi.checkTGTAndReloginFromKeytab())
+      ugi.doAs(new PrivilegedExceptionAction[String] {
+        override def run(): String = {
+          HttpClientUtils.httpAuthGetRequest(reqUrl, config)
+        }
+      })
     } else {
       val url =
         if (!hasYarnHttpSimpleAuth) reqUrl
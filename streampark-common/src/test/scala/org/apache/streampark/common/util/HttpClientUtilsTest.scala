@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import com.sun.net.httpserver.{HttpExchange, HttpServer}
+import org.apache.hc.client5.http.config.RequestConfig
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.ByteArrayOutputStream
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{Callable, CountDownLatch, Executors, TimeUnit}
+import java.util.zip.GZIPOutputStream
+
+class HttpClientUtilsTest extends AnyFunSuite {
+
+  private[this] def withServer(handler: HttpExchange => Unit)(func: String => Unit): Unit = {
+    val server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0)
+    server.createContext("/", exchange => handler(exchange))
+    server.setExecutor(Executors.newCachedThreadPool())
+    server.start()
+    try {
+      func(s"http://127.0.0.1:${server.getAddress.getPort}")
+    } finally {
+      server.stop(0)
+    }
+  }
+
+  private[this] def respond(exchange: HttpExchange, body: Array[Byte]): Unit = {
+    exchange.sendResponseHeaders(200, body.length)
+    exchange.getResponseBody.write(body)
+    exchange.close()
+  }
+
+  test("gzip response is decompressed") {
+    withServer {
+      exchange =>
+        val acceptGzip = exchange.getRequestHeaders.getFirst("Accept-Encoding")
+        val out = new ByteArrayOutputStream()
+        val gzip = new GZIPOutputStream(out)
+        gzip.write("{\"state\":\"RUNNING\"}".getBytes(StandardCharsets.UTF_8))
+        gzip.close()
+        if (acceptGzip != null && acceptGzip.contains("gzip")) {
+          exchange.getResponseHeaders.add("Content-Encoding", "gzip")
+          respond(exchange, out.toByteArray)
+        } else {
+          respond(exchange, "plain".getBytes(StandardCharsets.UTF_8))
+        }
+    } {
+      url =>
+        val result = HttpClientUtils.httpGetRequest(s"$url/ws/v1/cluster", RequestConfig.DEFAULT)
+        assert(result == "{\"state\":\"RUNNING\"}")
+    }
+  }
+
+  test("requests of a route are not limited to 5 connections") {
+    val parallelism = 10
+    val arrived = new CountDownLatch(parallelism)
+    withServer {
+      exchange =>
+        arrived.countDown()
+        // every request waits for all of them, it passes only if they are served concurrently
+        val all = arrived.await(10, TimeUnit.SECONDS)
+        respond(exchange, all.toString.getBytes(StandardCharsets.UTF_8))
+    } {
+      url =>
+        val executor = Executors.newFixedThreadPool(parallelism)
+        try {
+          val futures = (1 to parallelism).map(
+            _ =>
+              executor.submit(new Callable[String] {
+                override def call(): String =
+                  HttpClientUtils.httpGetRequest(s"$url/jobs/overview", RequestConfig.DEFAULT)
+              }))
+          assert(futures.forall(_.get(20, TimeUnit.SECONDS) == "true"))
+        } finally {
+          executor.shutdownNow()
+        }
+    }
+  }
+
+  test("parse route max connections") {
+    val routes = HttpClientUtils.parseRouteMaxConnections(
+      " http://rm1:8088=100, https://rm2=20 ,")
+    assert(routes.size == 2)
+    assert(routes.head._1.getTargetHost.toURI == "http://rm1:8088")
+    assert(routes.head._2 == 100)
+    assert(routes(1)._1.getTargetHost.toURI == "https://rm2:443")
+    assert(routes(1)._1.isSecure)
+    assert(routes(1)._2 == 20)
+    assert(HttpClientUtils.parseRouteMaxConnections("").isEmpty)
+    assertThrows[IllegalArgumentException](HttpClientUtils.parseRouteMaxConnections("http://rm1"))
+  }
+
+}
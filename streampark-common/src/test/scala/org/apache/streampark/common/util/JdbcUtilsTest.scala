@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.common.util
+
+import org.apache.streampark.common.conf.ConfigKeys.{KEY_ALIAS, KEY_JDBC_URL}
+
+import com.zaxxer.hikari.HikariDataSource
+import org.scalatest.BeforeAndAfter
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.lang.reflect.{InvocationHandler, Method, Proxy}
+import java.sql.{Connection, Driver, DriverManager, DriverPropertyInfo}
+import java.util.Properties
+import java.util.concurrent.{Callable, CountDownLatch, Executors, TimeUnit}
+
+import scala.collection.mutable.ListBuffer
+
+class JdbcUtilsTest extends AnyFunSuite with BeforeAndAfter {
+
+  /** A driver of connections which do nothing, accepts the "jdbc:stub:" urls. */
+  class StubDriver extends Driver {
+    override def connect(url: String, info: Properties): Connection =
+      if (!acceptsURL(url)) null
+      else {
+        Proxy
+          .newProxyInstance(
+            getClass.getClassLoader,
+            Array(classOf[Connection]),
+            new InvocationHandler {
+              override def invoke(proxy: Any, method: Method, args: Array[AnyRef]): AnyRef = {
+                method.getName match {
+                  case "isValid" | "getAutoCommit" => java.lang.Boolean.TRUE
+                  case "isClosed" | "isReadOnly" | "isWrapperFor" => java.lang.Boolean.FALSE
+                  case "getTransactionIsolation" =>
+                    Integer.valueOf(Connection.TRANSACTION_READ_COMMITTED)
+                  case "getNetworkTimeout" => Integer.valueOf(0)
+                  case "hashCode" =>
+                    Integer.valueOf(System.identityHashCode(proxy.asInstanceOf[AnyRef]))
+                  case "equals" => java.lang.Boolean.valueOf(proxy == args(0))
+                  case _ => null
+                }
+              }
+            }
+          )
+          .asInstanceOf[Connection]
+      }
+
+    override def acceptsURL(url: String): Boolean = url.startsWith("jdbc:stub:")
+
+    override def getPropertyInfo(url: String, info: Properties): Array[DriverPropertyInfo] =
+      Array.empty
+
+    override def getMajorVersion: Int = 1
+
+    override def getMinorVersion: Int = 0
+
+    override def jdbcCompliant(): Boolean = false
+
+    override def getParentLogger: java.util.logging.Logger = java.util.logging.Logger.getGlobal
+  }
+
+  DriverManager.registerDriver(new StubDriver)
+
+  /** the configs of the pools created by a test, the pools are closed after the test */
+  private val configs = ListBuffer.empty[Properties]
+
+  after {
+    configs.foreach {
+      prop =>
+        JdbcUtils
+          .getPoolStats(prop.getProperty(KEY_ALIAS))
+          .foreach(_ => JdbcUtils.getDataSource(prop).close())
+    }
+    configs.clear()
+  }
+
+  private def jdbcConfig(alias: String): Properties = {
+    val prop = new Properties()
+    prop.setProperty(KEY_ALIAS, alias)
+    prop.setProperty(KEY_JDBC_URL, s"jdbc:stub:$alias")
+    prop.setProperty("maximumPoolSize", "4")
+    prop.setProperty("minimumIdle", "1")
+    configs += prop
+    prop
+  }
+
+  test("getDataSource should build the pool of an alias only once") {
+    val prop = jdbcConfig("once")
+    val threads = 32
+    val executor = Executors.newFixedThreadPool(threads)
+    val start = new CountDownLatch(1)
+    val futures = (0 until threads).map(
+      _ =>
+        executor.submit(new Callable[AnyRef] {
+          override def call(): AnyRef = {
+            start.await()
+            JdbcUtils.getDataSource(prop)
+          }
+        }))
+    start.countDown()
+    val dataSources = futures.map(_.get(30, TimeUnit.SECONDS)).distinct
+    executor.shutdown()
+    assert(dataSources.size == 1)
+    assert(JdbcUtils.getDataSource(prop).getMaximumPoolSize == 4)
+  }
+
+  test("getDataSource should reject the invalid property") {
+    val prop = jdbcConfig("invalid")
+    prop.setProperty("noSuchProperty", "1")
+    assertThrows[IllegalArgumentException](JdbcUtils.getDataSource(prop))
+  }
+
+  test("getPoolStats should report the connections of the pool") {
+    assert(JdbcUtils.getPoolStats("stats").isEmpty)
+    val prop = jdbcConfig("stats")
+    val conn = JdbcUtils.getConnection(prop)
+    val stats = JdbcUtils.getPoolStats("stats").get
+    assert(stats.active == 1)
+    assert(stats.total >= 1)
+    conn.close()
+    assert(JdbcUtils.getPoolStats("stats").get.active == 0)
+  }
+
+  test("getConnection of the shared alias from many threads") {
+    val prop = jdbcConfig("shared")
+    val threads = 16
+    val rounds = 500
+    val executor = Executors.newFixedThreadPool(threads)
+    val start = new CountDownLatch(1)
+    val futures = (0 until threads).map(
+      _ =>
+        executor.submit(new Callable[Seq[HikariDataSource]] {
+          override def call(): Seq[HikariDataSource] = {
+            start.await()
+            (0 until rounds).map {
+              _ =>
+                val conn = JdbcUtils.getConnection(prop)
+                try JdbcUtils.getDataSource(prop)
+                finally conn.close()
+            }.distinct
+          }
+        }))
+    start.countDown()
+    val dataSources = futures.flatMap(_.get(60, TimeUnit.SECONDS)).distinct
+    executor.shutdown()
+    // one pool for the alias, and every connection is back in the pool
+    assert(dataSources.size == 1)
+    val stats = JdbcUtils.getPoolStats("shared").get
+    assert(stats.active == 0)
+    assert(stats.total <= 4)
+  }
+}
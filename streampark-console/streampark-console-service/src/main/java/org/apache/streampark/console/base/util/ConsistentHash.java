@@ -17,17 +17,24 @@
 
 package org.apache.streampark.console.base.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * The hash ring is kept as an immutable snapshot of sorted primitive arrays, the hashes of the
+ * virtual nodes and the index of their servers. Readers binary search the current snapshot without
+ * any lock, writers build a new snapshot and publish it (copy-on-write).
+ */
 public class ConsistentHash<T> {
 
     // the number of virtual nodes for each server
     private final int numberOfReplicas = 2 << 16;
 
     // the hash ring of servers
-    private final SortedMap<Long, T> circle = new TreeMap<>();
+    private volatile Ring<T> ring = new Ring<>(new long[0], new int[0], Collections.emptyList());
 
     /**
      * Initialize the ConsistentHash with a collection of servers.
@@ -41,20 +48,68 @@ public class ConsistentHash<T> {
      * Add the virtual nodes of the server to the hash ring.
      * @param server the server to be added
      */
-    public void add(T server) {
-        for (int i = 0; i < numberOfReplicas; i++) {
-            circle.put(Murmur3Hash.hash64(server.toString() + i), server);
+    public synchronized void add(T server) {
+        Ring<T> current = ring;
+        if (current.servers.contains(server)) {
+            return;
+        }
+        long[] added = replicaHashes(server);
+        Arrays.sort(added);
+
+        List<T> servers = new ArrayList<>(current.servers);
+        servers.add(server);
+        int owner = servers.size() - 1;
+
+        // merge the sorted virtual nodes of the server into the ring
+        long[] hashes = new long[current.hashes.length + added.length];
+        int[] owners = new int[hashes.length];
+        int i = 0, j = 0, size = 0;
+        while (i < current.hashes.length || j < added.length) {
+            if (j > 0 && j < added.length && added[j] == added[j - 1]) {
+                j++;
+                continue;
+            }
+            if (j == added.length || (i < current.hashes.length && current.hashes[i] < added[j])) {
+                hashes[size] = current.hashes[i];
+                owners[size++] = current.owners[i++];
+            } else {
+                if (i < current.hashes.length && current.hashes[i] == added[j]) {
+                    // the hash collides with an existing virtual node, the new server wins
+                    i++;
+                }
+                hashes[size] = added[j++];
+                owners[size++] = owner;
+            }
         }
+        ring = new Ring<>(Arrays.copyOf(hashes, size), Arrays.copyOf(owners, size), servers);
     }
 
     /**
      * Remove the virtual nodes of the server from the hash ring.
      * @param server the server to be removed
      */
-    public void remove(T server) {
-        for (int i = 0; i < numberOfReplicas; i++) {
-            circle.remove(Murmur3Hash.hash64(server.toString() + i));
+    public synchronized void remove(T server) {
+        Ring<T> current = ring;
+        int removed = current.servers.indexOf(server);
+        if (removed < 0) {
+            return;
         }
+        List<T> servers = new ArrayList<>(current.servers);
+        servers.remove(removed);
+
+        long[] hashes = new long[current.hashes.length];
+        int[] owners = new int[current.owners.length];
+        int size = 0;
+        for (int i = 0; i < current.hashes.length; i++) {
+            int owner = current.owners[i];
+            if (owner == removed) {
+                continue;
+            }
+            hashes[size] = current.hashes[i];
+            // the servers after the removed one are shifted left
+            owners[size++] = owner > removed ? owner - 1 : owner;
+        }
+        ring = new Ring<>(Arrays.copyOf(hashes, size), Arrays.copyOf(owners, size), servers);
     }
 
     /**
@@ -63,15 +118,20 @@ public class ConsistentHash<T> {
      * @return the specified server
      */
     public T get(Object key) {
-        if (circle.isEmpty()) {
+        Ring<T> current = ring;
+        if (current.hashes.length == 0) {
             return null;
         }
         long hash = Murmur3Hash.hash64(key.toString());
-        if (!circle.containsKey(hash)) {
-            SortedMap<Long, T> tailMap = circle.tailMap(hash);
-            hash = tailMap.isEmpty() ? circle.firstKey() : tailMap.firstKey();
+        int index = Arrays.binarySearch(current.hashes, hash);
+        if (index < 0) {
+            // the first virtual node after the hash, wrap around to the first one
+            index = -index - 1;
+            if (index == current.hashes.length) {
+                index = 0;
+            }
         }
-        return circle.get(hash);
+        return current.servers.get(current.owners[index]);
     }
 
     /**
@@ -79,7 +139,51 @@ public class ConsistentHash<T> {
      * @return the size of the hash ring
      */
     public long getSize() {
-        return circle.size();
+        return ring.hashes.length;
+    }
+
+    /**
+     * Hash the virtual nodes "{server}{i}" of the server, the digits of i are written into a reused
+     * buffer after the server bytes instead of building a string for every virtual node.
+     */
+    private long[] replicaHashes(T server) {
+        byte[] prefix = server.toString().getBytes();
+        byte[] buffer = Arrays.copyOf(prefix, prefix.length + 10);
+        long[] hashes = new long[numberOfReplicas];
+        for (int i = 0; i < numberOfReplicas; i++) {
+            int length = prefix.length + writeDigits(buffer, prefix.length, i);
+            hashes[i] = Murmur3Hash.hash64(buffer, 0, length, Murmur3Hash.DEFAULT_SEED);
+        }
+        return hashes;
+    }
+
+    /** Write the decimal digits of the non-negative value into the buffer, return the digit count. */
+    private static int writeDigits(byte[] buffer, int offset, int value) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1, v = value; i >= offset; i--, v /= 10) {
+            buffer[i] = (byte) ('0' + v % 10);
+        }
+        return digits;
     }
 
+    /** An immutable snapshot of the hash ring. */
+    private static class Ring<T> {
+
+        // the sorted hashes of the virtual nodes
+        private final long[] hashes;
+
+        // the index of the server in {@link #servers} that the virtual node belongs to
+        private final int[] owners;
+
+        private final List<T> servers;
+
+        private Ring(long[] hashes, int[] owners, List<T> servers) {
+            this.hashes = hashes;
+            this.owners = owners;
+            this.servers = servers;
+        }
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.console.core.bean;
+
+import org.apache.streampark.console.core.entity.FlinkApplication;
+
+import org.apache.commons.lang3.StringUtils;
+
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * The immutable snapshot of the metric columns of an application, taken when the metrics are buffered
+ * for a batched write. The state and the option state are not part of it, they are always written at
+ * once.
+ */
+@Getter
+public final class FlinkAppMetrics {
+
+    private final Long id;
+
+    private final String jobId;
+
+    private final Date startTime;
+
+    private final Date endTime;
+
+    private final Long duration;
+
+    private final Integer totalTM;
+
+    private final Integer totalSlot;
+
+    private final Integer totalTask;
+
+    private final Integer availableSlot;
+
+    private final Integer jmMemory;
+
+    private final Integer tmMemory;
+
+    private FlinkAppMetrics(FlinkApplication app) {
+        this.id = app.getId();
+        this.jobId = app.getJobId();
+        this.startTime = copyOf(app.getStartTime());
+        this.endTime = copyOf(app.getEndTime());
+        this.duration = app.getDuration();
+        this.totalTM = app.getTotalTM();
+        this.totalSlot = app.getTotalSlot();
+        this.totalTask = app.getTotalTask();
+        this.availableSlot = app.getAvailableSlot();
+        this.jmMemory = app.getJmMemory();
+        this.tmMemory = app.getTmMemory();
+    }
+
+    public static FlinkAppMetrics of(FlinkApplication app) {
+        return new FlinkAppMetrics(app);
+    }
+
+    private static Date copyOf(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
+    /** Whether there is nothing to write. */
+    public boolean isEmpty() {
+        return StringUtils.isBlank(jobId)
+            && startTime == null
+            && endTime == null
+            && duration == null
+            && totalTM == null
+            && totalSlot == null
+            && totalTask == null
+            && availableSlot == null
+            && jmMemory == null
+            && tmMemory == null;
+    }
+
+    /**
+     * Whether the metrics are the same as the other ones, the duration grows on every watch and is not
+     * compared, it is written along with the other changes.
+     */
+    public boolean sameMetrics(FlinkAppMetrics other) {
+        return other != null
+            && Objects.equals(id, other.id)
+            && Objects.equals(jobId, other.jobId)
+            && Objects.equals(startTime, other.startTime)
+            && Objects.equals(endTime, other.endTime)
+            && Objects.equals(totalTM, other.totalTM)
+            && Objects.equals(totalSlot, other.totalSlot)
+            && Objects.equals(totalTask, other.totalTask)
+            && Objects.equals(availableSlot, other.availableSlot)
+            && Objects.equals(jmMemory, other.jmMemory)
+            && Objects.equals(tmMemory, other.tmMemory);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.component;
+
+import org.apache.streampark.console.core.bean.FlinkAppMetrics;
+import org.apache.streampark.console.core.entity.FlinkApplication;
+import org.apache.streampark.console.core.enums.FlinkAppStateEnum;
+import org.apache.streampark.console.core.service.application.FlinkApplicationManageService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ *
+ * <pre>
+ * Write-behind persistence of the application metrics reported by the watchers.
+ * 1) a change of the state is written at once by {@link #persistNow}, the state and the option state are
+ *    never buffered, so a delayed write can't overwrite the state set meanwhile by an operation
+ * 2) the metric columns are buffered as an immutable {@link FlinkAppMetrics} snapshot when they changed
+ *    since the last write, repeated updates of the same application between two flushes are merged,
+ *    and the dirty snapshots are flushed in JDBC batches every second
+ * </pre>
+ */
+@Slf4j
+@Component
+public class FlinkAppMetricsPersister {
+
+    @Autowired
+    private FlinkApplicationManageService applicationManageService;
+
+    /** dirty metrics, Map<applicationId, latest metrics> */
+    private final Map<Long, FlinkAppMetrics> dirtyApps = new ConcurrentHashMap<>(0);
+
+    /** the last written metrics, Map<applicationId, metrics> */
+    private final Map<Long, FlinkAppMetrics> persistedApps = new ConcurrentHashMap<>(0);
+
+    private final AtomicLong mergedCount = new AtomicLong(0);
+
+    private final AtomicLong flushedCount = new AtomicLong(0);
+
+    /**
+     * Buffer the metrics of the application if they changed since the last write, they will be written in
+     * the next flush.
+     *
+     * @param application application
+     */
+    public void persist(FlinkApplication application) {
+        FlinkAppMetrics metrics = FlinkAppMetrics.of(application);
+        if (metrics.isEmpty() || metrics.sameMetrics(persistedApps.get(metrics.getId()))) {
+            return;
+        }
+        if (dirtyApps.put(metrics.getId(), metrics) != null) {
+            mergedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Persist the application with its state immediately, the buffered metrics of the application are
+     * discarded.
+     *
+     * @param application application
+     */
+    public void persistNow(FlinkApplication application) {
+        Long appId = application.getId();
+        dirtyApps.remove(appId);
+        applicationManageService.persistMetrics(application);
+        if (FlinkAppStateEnum.isEndState(application.getState())) {
+            persistedApps.remove(appId);
+        } else {
+            persistedApps.put(appId, FlinkAppMetrics.of(application));
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 5, timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        if (dirtyApps.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<FlinkAppMetrics> apps = new ArrayList<>(dirtyApps.size());
+        dirtyApps.keySet().forEach(appId -> {
+            FlinkAppMetrics metrics = dirtyApps.remove(appId);
+            if (metrics != null) {
+                apps.add(metrics);
+            }
+        });
+        try {
+            applicationManageService.updateMetrics(apps);
+            apps.forEach(metrics -> persistedApps.put(metrics.getId(), metrics));
+            flushedCount.addAndGet(apps.size());
+        } catch (Exception e) {
+            log.error("[StreamPark][FlinkAppMetricsPersister] persist metrics failed, size: {}", apps.size(), e);
+            // put back the failed metrics unless a newer snapshot arrived
+            apps.forEach(metrics -> dirtyApps.putIfAbsent(metrics.getId(), metrics));
+        }
+        log.debug(
+            "[StreamPark][FlinkAppMetricsPersister] flushed {} applications in {} ms, pending: {}, "
+                + "total flushed: {}, total merged: {}",
+            apps.size(), System.currentTimeMillis() - start, dirtyApps.size(), flushedCount.get(),
+            mergedCount.get());
+    }
+
+    @PreDestroy
+    public void doStop() {
+        log.info(
+            "[StreamPark][FlinkAppMetricsPersister] StreamPark Console will be shutdown, flush pending applications: {}",
+            dirtyApps.size());
+        flush();
+    }
+}
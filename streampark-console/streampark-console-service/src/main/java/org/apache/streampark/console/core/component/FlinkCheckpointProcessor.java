@@ -31,8 +31,8 @@ import org.apache.streampark.console.core.watcher.FlinkAppHttpWatcher;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -41,6 +41,7 @@ import javax.annotation.Nullable;
 
 import java.util.Date;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -52,19 +53,26 @@ public class FlinkCheckpointProcessor {
     private static final Byte DEFAULT_FLAG_BYTE = Byte.valueOf("0");
     private static final Integer SAVEPOINT_CACHE_HOUR = 1;
 
-    private final Cache<String, Long> checkPointCache = Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.DAYS)
+    private final Cache<JobKey, Long> checkPointCache = Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.DAYS)
         .build();
 
     /**
-     * Cache to store the savepoint if be stored in the db. Use the {appId}_{jobID}_{chkId} from
-     * {@link CheckPointKey#getSavePointId()} as the cache key to save the trace of the savepoint. And
-     * try best to make sure the every savepoint would be stored into DB. Especially for the case
-     * 'maxConcurrent of Checkpoint' > 1: 1. savepoint(n-1) is completed after completed
-     * checkpoint(n); 2. savepoint(n-1) is completed after completed savepoint(n).
+     * Cache to store the savepoint if be stored in the db. Use the {appId, jobID, chkId} of
+     * {@link CheckPointKey} as the cache key to save the trace of the savepoint. And try best to make
+     * sure the every savepoint would be stored into DB. Especially for the case 'maxConcurrent of
+     * Checkpoint' > 1: 1. savepoint(n-1) is completed after completed checkpoint(n); 2. savepoint(n-1)
+     * is completed after completed savepoint(n).
      */
-    private final Cache<String, Byte> savepointedCache = Caffeine.newBuilder()
+    private final Cache<CheckPointKey, Byte> savepointedCache = Caffeine.newBuilder()
         .expireAfterWrite(SAVEPOINT_CACHE_HOUR, TimeUnit.HOURS).build();
 
+    /**
+     * The checkpoint counts of the last processed response of every app. If the counts of the job
+     * have not changed, there is no new checkpoint/savepoint, and the latest section can be skipped.
+     */
+    private final Cache<Long, ProcessedCounts> processedCountsCache = Caffeine.newBuilder()
+        .expireAfterAccess(1, TimeUnit.DAYS).build();
+
     private final Map<Long, Counter> checkPointFailedCache = new ConcurrentHashMap<>(0);
 
     @Autowired
@@ -80,7 +88,17 @@ public class FlinkCheckpointProcessor {
     private FlinkAppHttpWatcher flinkAppHttpWatcher;
 
     public void process(FlinkApplication application, @Nonnull CheckPoints checkPoints) {
+        CheckPoints.Counts counts = checkPoints.getCounts();
+        if (counts != null) {
+            ProcessedCounts processed = processedCountsCache.getIfPresent(application.getId());
+            if (processed != null && processed.matches(application.getJobId(), counts)) {
+                return;
+            }
+        }
         checkPoints.getLatestCheckpoint().forEach(checkPoint -> process(application, checkPoint));
+        if (counts != null) {
+            processedCountsCache.put(application.getId(), new ProcessedCounts(application.getJobId(), counts));
+        }
     }
 
     private void process(FlinkApplication application, @Nonnull CheckPoints.CheckPoint checkPoint) {
@@ -91,15 +109,16 @@ public class FlinkCheckpointProcessor {
 
         if (CheckPointStatusEnum.COMPLETED == status) {
             if (shouldStoreAsSavepoint(checkPointKey, checkPoint)) {
-                savepointedCache.put(checkPointKey.getSavePointId(), DEFAULT_FLAG_BYTE);
+                savepointedCache.put(checkPointKey, DEFAULT_FLAG_BYTE);
                 saveSavepoint(checkPoint, application.getId());
                 flinkAppHttpWatcher.cleanSavepoint(application);
                 return;
             }
 
-            Long latestChkId = getLatestCheckpointedId(appId, checkPointKey.getCheckPointId());
+            JobKey jobKey = checkPointKey.getJobKey();
+            Long latestChkId = getLatestCheckpointedId(appId, jobKey);
             if (shouldStoreAsCheckpoint(checkPoint, latestChkId)) {
-                checkPointCache.put(checkPointKey.getCheckPointId(), checkPoint.getId());
+                checkPointCache.put(jobKey, checkPoint.getId());
                 saveSavepoint(checkPoint, application.getId());
             }
         } else if (shouldProcessFailedTrigger(checkPoint, application.cpFailedTrigger(), status)) {
@@ -107,6 +126,11 @@ public class FlinkCheckpointProcessor {
         }
     }
 
+    /**
+     * Count the failed checkpoint towards {@link FlinkApplication#getCpMaxFailureInterval()}. Unchanged
+     * responses are skipped by {@link #process(FlinkApplication, CheckPoints)}, so every failed
+     * checkpoint is counted once rather than once per polling round.
+     */
     private void processFailedCheckpoint(
                                          FlinkApplication application, @Nonnull CheckPoints.CheckPoint checkPoint,
                                          Long appId) {
@@ -162,7 +186,7 @@ public class FlinkCheckpointProcessor {
         if (!checkPoint.getIsSavepoint()) {
             return false;
         }
-        return savepointedCache.getIfPresent(checkPointKey.getSavePointId()) == null
+        return savepointedCache.getIfPresent(checkPointKey) == null
             // If the savepoint triggered before SAVEPOINT_CACHE_HOUR span, we'll see it as out-of-time
             // savepoint and ignore it.
             && checkPoint.getTriggerTimestamp() >= System.currentTimeMillis()
@@ -170,9 +194,9 @@ public class FlinkCheckpointProcessor {
     }
 
     @Nullable
-    private Long getLatestCheckpointedId(Long appId, String cacheId) {
+    private Long getLatestCheckpointedId(Long appId, JobKey jobKey) {
         return checkPointCache.get(
-            cacheId,
+            jobKey,
             key -> {
                 FlinkSavepoint savepoint = savepointService.getLatest(appId);
                 return Optional.ofNullable(savepoint).map(FlinkSavepoint::getChkId).orElse(null);
@@ -220,29 +244,61 @@ public class FlinkCheckpointProcessor {
         }
     }
 
-    /** Util class for checkpoint key. */
+    /** Util class for checkpoint key, the savepoint cache key, see {@link #savepointedCache}. */
     @Getter
-    @Setter
+    @EqualsAndHashCode
     public static class CheckPointKey {
 
-        private Long appId;
-        private String jobId;
-        private Long checkId;
+        private final long appId;
+        private final String jobId;
+        private final long checkId;
 
-        public CheckPointKey(Long appId, String jobId, Long checkId) {
+        public CheckPointKey(long appId, String jobId, long checkId) {
             this.appId = appId;
             this.jobId = jobId;
             this.checkId = checkId;
         }
 
-        /** Get savepoint cache id, see {@link #savepointedCache}. */
-        public String getSavePointId() {
-            return String.format("%s_%s_%s", appId, jobId, checkId);
+        /** Get checkpoint cache key. */
+        public JobKey getJobKey() {
+            return new JobKey(appId, jobId);
+        }
+    }
+
+    /** Util class for job key, the checkpoint cache key. */
+    @Getter
+    @EqualsAndHashCode
+    public static class JobKey {
+
+        private final long appId;
+        private final String jobId;
+
+        public JobKey(long appId, String jobId) {
+            this.appId = appId;
+            this.jobId = jobId;
+        }
+    }
+
+    /** The checkpoint counts of the last processed response. */
+    private static class ProcessedCounts {
+
+        private final String jobId;
+        private final long total;
+        private final long completed;
+        private final long failed;
+
+        ProcessedCounts(String jobId, CheckPoints.Counts counts) {
+            this.jobId = jobId;
+            this.total = counts.getTotal();
+            this.completed = counts.getCompleted();
+            this.failed = counts.getFailed();
         }
 
-        /** Get checkpoint cache id. */
-        public String getCheckPointId() {
-            return String.format("%s_%s", appId, jobId);
+        boolean matches(String jobId, CheckPoints.Counts counts) {
+            return Objects.equals(this.jobId, jobId)
+                && total == counts.getTotal()
+                && completed == counts.getCompleted()
+                && failed == counts.getFailed();
         }
     }
 }
@@ -44,6 +44,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 @Slf4j
 @Validated
@@ -67,39 +68,43 @@ public class ProxyController {
     private MemberService memberService;
 
     @GetMapping("{type}/{id}/assets/**")
-    public ResponseEntity<?> proxyFlinkAssets(HttpServletRequest request, @PathVariable("type") String type,
+    public ResponseEntity<?> proxyFlinkAssets(HttpServletRequest request, HttpServletResponse response,
+                                              @PathVariable("type") String type,
                                               @PathVariable("id") Long id) throws Exception {
-        return proxy(type, request, id);
+        return proxy(type, request, response, id);
     }
 
     @GetMapping("{type}/{id}/**")
     @RequiresPermissions("app:view")
-    public ResponseEntity<?> proxyFlink(HttpServletRequest request, @PathVariable("type") String type,
+    public ResponseEntity<?> proxyFlink(HttpServletRequest request, HttpServletResponse response,
+                                        @PathVariable("type") String type,
                                         @PathVariable("id") Long id) throws Exception {
-        return proxy(type, request, id);
+        return proxy(type, request, response, id);
     }
 
-    private ResponseEntity<?> proxy(String type, HttpServletRequest request, Long id) throws Exception {
+    private ResponseEntity<?> proxy(
+                                    String type, HttpServletRequest request, HttpServletResponse response,
+                                    Long id) throws Exception {
         ApplicationLog log;
         switch (type) {
             case "flink":
                 FlinkApplication flinkApplication = flinkApplicationManageService.getApp(id);
                 checkProxyApp(flinkApplication.getTeamId());
-                return proxyService.proxyFlink(request, flinkApplication);
+                return proxyService.proxyFlink(request, response, flinkApplication);
             case "spark":
                 SparkApplication sparkApplication = sparkApplicationManageService.getApp(id);
                 checkProxyApp(sparkApplication.getTeamId());
-                return proxyService.proxySpark(request, sparkApplication);
+                return proxyService.proxySpark(request, response, sparkApplication);
             case "flink_cluster":
-                return proxyService.proxyFlinkCluster(request, id);
+                return proxyService.proxyFlinkCluster(request, response, id);
             case "history":
                 log = logService.getById(id);
                 checkProxyAppLog(log);
-                return proxyService.proxyHistory(request, log);
+                return proxyService.proxyHistory(request, response, log);
             case "yarn":
                 log = logService.getById(id);
                 checkProxyAppLog(log);
-                return proxyService.proxyYarn(request, log);
+                return proxyService.proxyYarn(request, response, log);
             default:
                 return ResponseEntity.notFound().build();
         }
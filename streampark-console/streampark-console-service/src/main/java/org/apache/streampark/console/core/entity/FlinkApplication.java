@@ -213,7 +213,8 @@ public class FlinkApplication extends BaseEntity {
     private Long duration;
 
     /**
-     * checkpoint max failure interval
+     * checkpoint max failure interval, the number of failed checkpoints within the failure rate interval
+     * to trigger the failure action, each failed checkpoint is counted once however often it is polled
      */
     @TableField(updateStrategy = FieldStrategy.IGNORED)
     private Integer cpMaxFailureInterval;
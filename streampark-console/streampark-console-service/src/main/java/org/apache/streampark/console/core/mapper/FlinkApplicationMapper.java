@@ -17,6 +17,7 @@
 
 package org.apache.streampark.console.core.mapper;
 
+import org.apache.streampark.console.core.bean.FlinkAppMetrics;
 import org.apache.streampark.console.core.entity.FlinkApplication;
 
 import org.apache.ibatis.annotations.Param;
@@ -35,6 +36,8 @@ public interface FlinkApplicationMapper extends BaseMapper<FlinkApplication> {
 
     void persistMetrics(@Param("app") FlinkApplication application);
 
+    void updateMetrics(@Param("metrics") FlinkAppMetrics metrics);
+
     List<FlinkApplication> selectAppsByTeamId(@Param("teamId") Long teamId);
 
     List<String> selectRecentK8sNamespaces(@Param("limitSize") Integer limit);
@@ -31,11 +31,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * The response of <code>jobs/:jobid/checkpoints</code>, only the <code>counts</code> and <code>latest
+ * </code> sections are decoded, the <code>history</code> section is skipped by the parser.
+ */
 @Getter
 @Setter
 public class CheckPoints implements Serializable {
 
-    private List<CheckPoint> history;
+    private Counts counts;
 
     private Latest latest;
 
@@ -96,6 +100,20 @@ public class CheckPoints implements Serializable {
         }
     }
 
+    @Getter
+    @Setter
+    public static class Counts implements Serializable {
+
+        private long restored;
+        private long total;
+
+        @JsonProperty("in_progress")
+        private long inProgress;
+
+        private long completed;
+        private long failed;
+    }
+
     @Getter
     @Setter
     public static class Latest implements Serializable {
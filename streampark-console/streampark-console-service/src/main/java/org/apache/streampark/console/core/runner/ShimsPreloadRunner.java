@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.runner;
+
+import org.apache.streampark.common.util.ThreadUtils;
+import org.apache.streampark.console.core.entity.FlinkEnv;
+import org.apache.streampark.console.core.service.FlinkEnvService;
+import org.apache.streampark.flink.client.FlinkClient;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Warm up the flink shims classloaders of all flink environments in the background at startup, so
+ * that the first submit of each flink version does not pay for building the classloader.
+ */
+@Order(2)
+@Slf4j
+@Component
+public class ShimsPreloadRunner implements ApplicationRunner {
+
+    @Autowired
+    private FlinkEnvService flinkEnvService;
+
+    @Value("${streampark.shims.preload:true}")
+    private boolean preload;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!preload) {
+            return;
+        }
+        List<FlinkEnv> flinkEnvs = flinkEnvService.list();
+        if (flinkEnvs.isEmpty()) {
+            return;
+        }
+        ExecutorService executor =
+            Executors.newSingleThreadExecutor(ThreadUtils.threadFactory("streampark-shims-preload"));
+        flinkEnvs.forEach(flinkEnv -> executor.execute(() -> {
+            try {
+                FlinkClient.preload(flinkEnv.getFlinkVersion());
+            } catch (Throwable e) {
+                log.warn(
+                    "[StreamPark] preload flink shims classloader failed, flink home: {}, error: {}",
+                    flinkEnv.getFlinkHome(), e.getMessage());
+            }
+        }));
+        executor.shutdown();
+    }
+}
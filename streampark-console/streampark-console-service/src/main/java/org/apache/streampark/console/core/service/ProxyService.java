@@ -24,16 +24,26 @@ import org.apache.streampark.console.core.entity.SparkApplication;
 import org.springframework.http.ResponseEntity;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Reverse proxy of the web UIs. The response of the target is streamed to the servlet response,
+ * null is returned in that case, otherwise the returned response entity describes the error.
+ */
 public interface ProxyService {
 
-    ResponseEntity<?> proxyFlink(HttpServletRequest request, FlinkApplication app) throws Exception;
+    ResponseEntity<?> proxyFlink(HttpServletRequest request, HttpServletResponse response,
+                                 FlinkApplication app) throws Exception;
 
-    ResponseEntity<?> proxySpark(HttpServletRequest request, SparkApplication app) throws Exception;
+    ResponseEntity<?> proxySpark(HttpServletRequest request, HttpServletResponse response,
+                                 SparkApplication app) throws Exception;
 
-    ResponseEntity<?> proxyYarn(HttpServletRequest request, ApplicationLog log) throws Exception;
+    ResponseEntity<?> proxyYarn(HttpServletRequest request, HttpServletResponse response,
+                                ApplicationLog log) throws Exception;
 
-    ResponseEntity<?> proxyHistory(HttpServletRequest request, ApplicationLog log) throws Exception;
+    ResponseEntity<?> proxyHistory(HttpServletRequest request, HttpServletResponse response,
+                                   ApplicationLog log) throws Exception;
 
-    ResponseEntity<?> proxyFlinkCluster(HttpServletRequest request, Long clusterId) throws Exception;
+    ResponseEntity<?> proxyFlinkCluster(HttpServletRequest request, HttpServletResponse response,
+                                        Long clusterId) throws Exception;
 }
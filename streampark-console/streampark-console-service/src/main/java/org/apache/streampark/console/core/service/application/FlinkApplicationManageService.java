@@ -19,6 +19,7 @@ package org.apache.streampark.console.core.service.application;
 
 import org.apache.streampark.common.enums.FlinkDeployMode;
 import org.apache.streampark.console.base.domain.RestRequest;
+import org.apache.streampark.console.core.bean.FlinkAppMetrics;
 import org.apache.streampark.console.core.entity.FlinkApplication;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -83,6 +84,21 @@ public interface FlinkApplicationManageService extends IService<FlinkApplication
      */
     void persistMetrics(FlinkApplication appParam);
 
+    /**
+     * Persists the metrics of the given applications in JDBC batches.
+     *
+     * @param apps The applications which metrics need to be persisted.
+     */
+    void persistMetrics(Collection<FlinkApplication> apps);
+
+    /**
+     * Updates the metric columns of the applications in JDBC batches, the state and the option state
+     * are left as they are.
+     *
+     * @param metrics The metric snapshots of the applications.
+     */
+    void updateMetrics(Collection<FlinkAppMetrics> metrics);
+
     /**
      * Maps the given application.
      *
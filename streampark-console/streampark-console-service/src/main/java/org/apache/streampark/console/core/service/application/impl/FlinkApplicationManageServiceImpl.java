@@ -30,6 +30,7 @@ import org.apache.streampark.console.base.mybatis.pager.MybatisPager;
 import org.apache.streampark.console.base.util.ObjectUtils;
 import org.apache.streampark.console.base.util.WebUtils;
 import org.apache.streampark.console.core.bean.AppControl;
+import org.apache.streampark.console.core.bean.FlinkAppMetrics;
 import org.apache.streampark.console.core.entity.FlinkApplication;
 import org.apache.streampark.console.core.entity.FlinkApplicationConfig;
 import org.apache.streampark.console.core.entity.FlinkCluster;
@@ -174,6 +175,28 @@ public class FlinkApplicationManageServiceImpl extends ServiceImpl<FlinkApplicat
         this.baseMapper.persistMetrics(appParam);
     }
 
+    @Override
+    public void persistMetrics(Collection<FlinkApplication> apps) {
+        if (apps.isEmpty()) {
+            return;
+        }
+        executeBatch(
+            apps,
+            DEFAULT_BATCH_SIZE,
+            (sqlSession, app) -> sqlSession.getMapper(FlinkApplicationMapper.class).persistMetrics(app));
+    }
+
+    @Override
+    public void updateMetrics(Collection<FlinkAppMetrics> metrics) {
+        if (metrics.isEmpty()) {
+            return;
+        }
+        executeBatch(
+            metrics,
+            DEFAULT_BATCH_SIZE,
+            (sqlSession, m) -> sqlSession.getMapper(FlinkApplicationMapper.class).updateMetrics(m));
+    }
+
     @Override
     public boolean mapping(FlinkApplication appParam) {
         boolean result = this.lambdaUpdate()
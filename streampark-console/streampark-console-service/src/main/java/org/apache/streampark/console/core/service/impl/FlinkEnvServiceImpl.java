@@ -26,6 +26,7 @@ import org.apache.streampark.console.core.mapper.FlinkEnvMapper;
 import org.apache.streampark.console.core.service.FlinkClusterService;
 import org.apache.streampark.console.core.service.FlinkEnvService;
 import org.apache.streampark.console.core.service.application.FlinkApplicationInfoService;
+import org.apache.streampark.flink.proxy.FlinkShimsProxy;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -108,6 +109,8 @@ public class FlinkEnvServiceImpl extends ServiceImpl<FlinkEnvMapper, FlinkEnv>
             "The flink home is set as default, please change it first.");
 
         this.baseMapper.deleteById(id);
+        // release the classloaders of the removed flink home
+        FlinkShimsProxy.invalidate(flinkEnv.getFlinkHome());
     }
 
     @Override
@@ -117,6 +120,7 @@ public class FlinkEnvServiceImpl extends ServiceImpl<FlinkEnvMapper, FlinkEnv>
         flinkEnv.setDescription(version.getDescription());
         flinkEnv.setFlinkName(version.getFlinkName());
         if (!version.getFlinkHome().equals(flinkEnv.getFlinkHome())) {
+            FlinkShimsProxy.invalidate(flinkEnv.getFlinkHome());
             flinkEnv.setFlinkHome(version.getFlinkHome());
             flinkEnv.doSetFlinkConf();
             flinkEnv.doSetVersion();
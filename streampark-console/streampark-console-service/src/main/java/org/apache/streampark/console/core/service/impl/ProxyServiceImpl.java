@@ -31,40 +31,85 @@ import org.apache.streampark.flink.kubernetes.FlinkK8sWatcher;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.DefaultResponseErrorHandler;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
-import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+/**
+ *
+ *
+ * <pre>
+ * Reverse proxy of the Flink/Spark/YARN web UIs.
+ * 1) the request and response bodies are piped through a bounded buffer, never held in the console heap
+ * 2) the headers are passed through (except the hop-by-hop ones), so the range requests of logs and the
+ *    compressed responses are served by the target as they are
+ * 3) one pooled client is shared by all targets, with a connection limit per target (route), the kerberos
+ *    credentials are set per request
+ * 4) the small static assets of the web UIs can be cached in a bounded cache
+ * </pre>
+ */
 @Slf4j
 @Service
 public class ProxyServiceImpl implements ProxyService {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int MAX_CONNECTIONS_PER_TARGET = 20;
+
+    private static final int MAX_CONNECTIONS_TOTAL = 200;
+
+    /** the max size of a cached static asset */
+    private static final long MAX_ASSET_SIZE = 1024 * 1024L;
+
+    /** the max size of all cached static assets */
+    private static final long MAX_ASSET_CACHE_SIZE = 64 * 1024 * 1024L;
+
+    private static final Pattern STATIC_ASSET_PATTERN = Pattern.compile(
+        ".*\\.(js|css|map|png|jpg|jpeg|gif|svg|ico|woff|woff2|ttf|eot)$", Pattern.CASE_INSENSITIVE);
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(Arrays.asList(
+        "host", "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te",
+        "trailer", "transfer-encoding", "upgrade", "content-length"));
+
     @Autowired
     private FlinkClusterService flinkClusterService;
 
@@ -74,27 +119,22 @@ public class ProxyServiceImpl implements ProxyService {
     @Autowired
     private FlinkK8sWatcherWrapper k8sWatcherWrapper;
 
-    private final RestTemplate proxyRestTemplate;
-
-    private String httpAuthUsername = "";
+    @Value("${streampark.proxy.static-cache.enabled:true}")
+    private boolean staticCacheEnabled;
 
-    public ProxyServiceImpl(RestTemplateBuilder restTemplateBuilder) {
-        this.proxyRestTemplate =
-            restTemplateBuilder
-                .errorHandler(
-                    new DefaultResponseErrorHandler() {
+    /** the pooled client shared by all targets, one idle-connection evictor and one pool for the console */
+    private final CloseableHttpClient proxyClient = createProxyClient();
 
-                        @Override
-                        public void handleError(@Nonnull ClientHttpResponse response) {
-                            // Ignore errors in the Flink Web UI itself, such as 404 errors.
-                        }
-                    })
-                .build();
-    }
+    private final Cache<String, StaticAsset> staticAssets = Caffeine.newBuilder()
+        .maximumWeight(MAX_ASSET_CACHE_SIZE)
+        .weigher((String url, StaticAsset asset) -> asset.body.length)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
 
     @Override
-    public ResponseEntity<?> proxyFlink(HttpServletRequest request, FlinkApplication app) throws Exception {
-        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+    public ResponseEntity<?> proxyFlink(
+                                        HttpServletRequest request, HttpServletResponse response,
+                                        FlinkApplication app) throws Exception {
         String url = null;
         switch (app.getDeployModeEnum()) {
             case YARN_PER_JOB:
@@ -103,7 +143,7 @@ public class ProxyServiceImpl implements ProxyService {
                 String yarnURL = YarnUtils.getRMWebAppProxyURL();
                 url = yarnURL + "/proxy/" + app.getClusterId();
                 url += getRequestURL(request, "/proxy/flink/" + app.getId());
-                return proxyYarnRequest(request, url);
+                return proxyYarnRequest(request, response, url);
             case REMOTE:
                 FlinkCluster cluster = flinkClusterService.getById(app.getFlinkClusterId());
                 url = cluster.getAddress();
@@ -124,19 +164,20 @@ public class ProxyServiceImpl implements ProxyService {
         }
 
         url += getRequestURL(request, "/proxy/flink/" + app.getId());
-        return proxyRequest(request, url);
+        return proxyRequest(request, response, url);
     }
 
     @Override
-    public ResponseEntity<?> proxySpark(HttpServletRequest request, SparkApplication app) throws Exception {
-        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+    public ResponseEntity<?> proxySpark(
+                                        HttpServletRequest request, HttpServletResponse response,
+                                        SparkApplication app) throws Exception {
         switch (app.getDeployModeEnum()) {
             case YARN_CLIENT:
             case YARN_CLUSTER:
                 String yarnURL = YarnUtils.getRMWebAppProxyURL();
                 String url = yarnURL + "/proxy/" + app.getClusterId();
                 url += getRequestURL(request, "/proxy/spark/" + app.getId());
-                return proxyYarnRequest(request, url);
+                return proxyYarnRequest(request, response, url);
             default:
                 throw new UnsupportedOperationException(
                     "unsupported deployMode ".concat(app.getDeployModeEnum().getName()));
@@ -144,7 +185,9 @@ public class ProxyServiceImpl implements ProxyService {
     }
 
     @Override
-    public ResponseEntity<?> proxyYarn(HttpServletRequest request, ApplicationLog log) throws Exception {
+    public ResponseEntity<?> proxyYarn(
+                                       HttpServletRequest request, HttpServletResponse response,
+                                       ApplicationLog log) throws Exception {
         ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
         String yarnId = log.getClusterId();
         if (StringUtils.isBlank(yarnId)) {
@@ -153,11 +196,13 @@ public class ProxyServiceImpl implements ProxyService {
         String yarnURL = YarnUtils.getRMWebAppProxyURL();
         String url = yarnURL + "/proxy/" + yarnId + "/";
         url += getRequestURL(request, "/proxy/yarn/" + log.getId());
-        return proxyYarnRequest(request, url);
+        return proxyYarnRequest(request, response, url);
     }
 
     @Override
-    public ResponseEntity<?> proxyHistory(HttpServletRequest request, ApplicationLog log) throws Exception {
+    public ResponseEntity<?> proxyHistory(
+                                          HttpServletRequest request, HttpServletResponse response,
+                                          ApplicationLog log) throws Exception {
         ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
 
         String url = log.getTrackingUrl();
@@ -165,11 +210,13 @@ public class ProxyServiceImpl implements ProxyService {
             return builder.body("The jobManager url is null.");
         }
         url += getRequestURL(request, "/proxy/history/" + log.getId());
-        return proxyRequest(request, url);
+        return proxyRequest(request, response, url);
     }
 
     @Override
-    public ResponseEntity<?> proxyFlinkCluster(HttpServletRequest request, Long clusterId) throws Exception {
+    public ResponseEntity<?> proxyFlinkCluster(
+                                               HttpServletRequest request, HttpServletResponse response,
+                                               Long clusterId) throws Exception {
         ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
         FlinkCluster cluster = flinkClusterService.getById(clusterId);
         if (cluster == null) {
@@ -185,63 +232,162 @@ public class ProxyServiceImpl implements ProxyService {
             case YARN_PER_JOB:
             case YARN_APPLICATION:
             case YARN_SESSION:
-                return proxyYarnRequest(request, url);
+                return proxyYarnRequest(request, response, url);
             case REMOTE:
             case KUBERNETES_NATIVE_APPLICATION:
             case KUBERNETES_NATIVE_SESSION:
-                return proxyRequest(request, url);
+                return proxyRequest(request, response, url);
             default:
                 throw new UnsupportedOperationException(
                     "unsupported deployMode ".concat(cluster.getFlinkDeployModeEnum().getName()));
         }
     }
 
-    private HttpEntity<?> getRequestEntity(HttpServletRequest request, String url) throws Exception {
-        HttpHeaders headers = new HttpHeaders();
-        Enumeration<String> headerNames = request.getHeaderNames();
-        while (headerNames.hasMoreElements()) {
-            String headerName = headerNames.nextElement();
-            headers.set(headerName, request.getHeader(headerName));
-        }
-
-        // Ensure the Host header is set correctly.
-        URI uri = new URI(url);
-        headers.set("Host", uri.getHost());
-        byte[] body = null;
-        if (request.getInputStream().available() > 0) {
-            InputStream inputStream = request.getInputStream();
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            IOUtils.copy(inputStream, byteArrayOutputStream);
-            body = byteArrayOutputStream.toByteArray();
-        }
-        return new HttpEntity<>(body, headers);
+    @PreDestroy
+    public void doStop() {
+        IOUtils.closeQuietly(proxyClient);
     }
 
-    private ResponseEntity<?> proxyRequest(HttpServletRequest request, String url) throws Exception {
-        return proxy(request, url, getRequestEntity(request, url));
+    private ResponseEntity<?> proxyRequest(
+                                           HttpServletRequest request, HttpServletResponse response,
+                                           String url) throws Exception {
+        return proxy(request, response, url, null);
     }
 
-    private ResponseEntity<?> proxyYarnRequest(HttpServletRequest request, String url) throws Exception {
+    private ResponseEntity<?> proxyYarnRequest(
+                                               HttpServletRequest request, HttpServletResponse response,
+                                               String url) throws Exception {
         if (YarnUtils.hasYarnHttpKerberosAuth()) {
-            UserGroupInformation ugi = HadoopUtils.getUgi();
-            HttpEntity<?> requestEntity = getRequestEntity(request, url);
-            setRestTemplateCredentials(ugi.getShortUserName());
-            return ugi.doAs(
-                (PrivilegedExceptionAction<ResponseEntity<?>>) () -> proxy(request, url, requestEntity));
+            return proxy(request, response, url, HadoopUtils.getUgi());
         } else {
-            return proxyRequest(request, url);
+            return proxyRequest(request, response, url);
         }
     }
 
+    /**
+     * Forward the request to the url and write the response of the target to the servlet response.
+     *
+     * @param ugi the kerberos user of the request, null if the target is not kerberized
+     * @return the error response, or null if the response of the target has been written
+     */
     private ResponseEntity<?> proxy(
-                                    HttpServletRequest request, String url, HttpEntity<?> requestEntity) {
+                                    HttpServletRequest request, HttpServletResponse response,
+                                    String url, UserGroupInformation ugi) throws Exception {
+        URI uri = new URI(url);
+        boolean cacheable = isStaticAsset(request, uri);
+        String cacheKey = url + "|" + StringUtils.defaultString(request.getHeader("Accept-Encoding"));
+        if (cacheable) {
+            StaticAsset asset = staticAssets.getIfPresent(cacheKey);
+            if (asset != null) {
+                asset.writeTo(response);
+                return null;
+            }
+        }
+
+        HttpUriRequest forwardRequest = buildProxyRequest(request, uri);
+        HttpClientContext context = HttpClientContext.create();
+        CloseableHttpResponse proxyResponse;
         try {
-            return proxyRestTemplate.exchange(
-                url, HttpMethod.valueOf(request.getMethod()), requestEntity, byte[].class);
-        } catch (RestClientException e) {
+            if (ugi == null) {
+                proxyResponse = proxyClient.execute(forwardRequest, context);
+            } else {
+                // credentials of the request only, the SPNEGO negotiation runs as the ugi
+                BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+                credentialsProvider.setCredentials(
+                    AuthScope.ANY, new UsernamePasswordCredentials(ugi.getShortUserName(), null));
+                context.setCredentialsProvider(credentialsProvider);
+                proxyResponse = ugi.doAs(
+                    (PrivilegedExceptionAction<CloseableHttpResponse>) () -> proxyClient.execute(forwardRequest, context));
+            }
+        } catch (IOException e) {
             log.error("Proxy url: {} failed. ", url, e);
             return new ResponseEntity<>(HttpStatus.BAD_GATEWAY);
         }
+
+        try {
+            // Ignore errors in the Flink Web UI itself, such as 404 errors, pass them to the browser
+            HttpEntity entity = proxyResponse.getEntity();
+            int status = proxyResponse.getStatusLine().getStatusCode();
+            List<Header> headers = new ArrayList<>();
+            for (Header header : proxyResponse.getAllHeaders()) {
+                if (!HOP_BY_HOP_HEADERS.contains(header.getName().toLowerCase())) {
+                    headers.add(header);
+                }
+            }
+
+            if (cacheable && status == HttpStatus.OK.value() && entity != null
+                && entity.getContentLength() >= 0 && entity.getContentLength() <= MAX_ASSET_SIZE
+                && proxyResponse.getFirstHeader("Set-Cookie") == null) {
+                StaticAsset asset = new StaticAsset(status, headers, IOUtils.toByteArray(entity.getContent()));
+                staticAssets.put(cacheKey, asset);
+                asset.writeTo(response);
+                return null;
+            }
+
+            response.setStatus(status);
+            headers.forEach(header -> response.addHeader(header.getName(), header.getValue()));
+            if (entity != null) {
+                if (entity.getContentLength() >= 0) {
+                    response.setContentLengthLong(entity.getContentLength());
+                }
+                try (InputStream in = entity.getContent()) {
+                    OutputStream out = response.getOutputStream();
+                    IOUtils.copy(in, out, BUFFER_SIZE);
+                    out.flush();
+                }
+            }
+            return null;
+        } finally {
+            proxyResponse.close();
+        }
+    }
+
+    private HttpUriRequest buildProxyRequest(HttpServletRequest request, URI uri) throws IOException {
+        RequestBuilder builder = RequestBuilder.create(request.getMethod()).setUri(uri);
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String headerName = headerNames.nextElement();
+            // the Host header is set by the client from the uri
+            if (!HOP_BY_HOP_HEADERS.contains(headerName.toLowerCase())) {
+                Enumeration<String> values = request.getHeaders(headerName);
+                while (values.hasMoreElements()) {
+                    builder.addHeader(headerName, values.nextElement());
+                }
+            }
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > 0 || request.getHeader("Transfer-Encoding") != null) {
+            builder.setEntity(new InputStreamEntity(request.getInputStream(), contentLength));
+        }
+        return builder.build();
+    }
+
+    private static CloseableHttpClient createProxyClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS_TOTAL);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_TARGET);
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            // pass the compressed content through as it is
+            .disableContentCompression()
+            .disableCookieManagement()
+            .evictIdleConnections(1, TimeUnit.MINUTES)
+            .evictExpiredConnections()
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout((int) TimeUnit.SECONDS.toMillis(10))
+                .setConnectionRequestTimeout((int) TimeUnit.SECONDS.toMillis(30))
+                // a stalled target must not hold a servlet thread and a pooled connection forever
+                .setSocketTimeout((int) TimeUnit.SECONDS.toMillis(60))
+                .build())
+            .build();
+    }
+
+    private boolean isStaticAsset(HttpServletRequest request, URI uri) {
+        return staticCacheEnabled
+            && "GET".equalsIgnoreCase(request.getMethod())
+            && request.getHeader("Range") == null
+            && uri.getPath() != null
+            && STATIC_ASSET_PATTERN.matcher(uri.getPath()).matches();
     }
 
     private String getRequestURL(HttpServletRequest request, String replaceString) {
@@ -251,28 +397,27 @@ public class ProxyServiceImpl implements ProxyService {
         return url.replace(replaceString, "");
     }
 
-    /**
-    * Configures the RestTemplate's HttpClient connector. This method is primarily used to configure
-    * the HttpClient authentication information and SSL certificate validation policies.
-    *
-    * @param username The username for HTTP basic authentication.
-    */
-    private void setRestTemplateCredentials(String username) {
-        // Check if the username is not null and has changed since the last configuration
-        if (username != null && !this.httpAuthUsername.equals(username)) {
-            // Create a new credentials provider
-            BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-            // Add the username and password for HTTP basic authentication
-            credentialsProvider.setCredentials(
-                AuthScope.ANY, new UsernamePasswordCredentials(username, null));
-            // Customize the HttpClient with the credentials provider
-            CloseableHttpClient httpClient =
-                HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
-            // Set the HttpClient request factory for the RestTemplate
-            this.proxyRestTemplate.setRequestFactory(
-                new HttpComponentsClientHttpRequestFactory(httpClient));
-            // Update the last known username
-            this.httpAuthUsername = username;
+    /** A static asset of the web UIs, the body is small enough to be kept in memory. */
+    private static class StaticAsset {
+
+        private final int status;
+
+        private final List<Header> headers;
+
+        private final byte[] body;
+
+        private StaticAsset(int status, List<Header> headers, byte[] body) {
+            this.status = status;
+            this.headers = Collections.unmodifiableList(headers);
+            this.body = body;
+        }
+
+        private void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            headers.forEach(header -> response.addHeader(header.getName(), header.getValue()));
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            response.getOutputStream().flush();
         }
     }
 }
@@ -23,6 +23,7 @@ import org.apache.streampark.common.util.HttpClientUtils;
 import org.apache.streampark.common.util.YarnUtils;
 import org.apache.streampark.console.base.util.JacksonUtils;
 import org.apache.streampark.console.core.bean.AlertTemplate;
+import org.apache.streampark.console.core.component.FlinkAppMetricsPersister;
 import org.apache.streampark.console.core.component.FlinkCheckpointProcessor;
 import org.apache.streampark.console.core.entity.FlinkApplication;
 import org.apache.streampark.console.core.entity.FlinkCluster;
@@ -62,6 +63,7 @@ import javax.annotation.PreDestroy;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -69,6 +71,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -92,6 +95,9 @@ public class FlinkAppHttpWatcher {
     @Autowired
     private FlinkCheckpointProcessor checkpointProcessor;
 
+    @Autowired
+    private FlinkAppMetricsPersister metricsPersister;
+
     @Autowired
     private FlinkClusterService flinkClusterService;
 
@@ -101,9 +107,21 @@ public class FlinkAppHttpWatcher {
     // track interval every 5 seconds
     public static final Duration WATCHING_INTERVAL = Duration.ofSeconds(5);
 
+    // track interval of the app in transition, every 1 second
+    private static final Duration URGENT_WATCHING_INTERVAL = Duration.ofSeconds(1);
+
+    // the max track interval of the long-term stable app
+    private static final Duration MAX_WATCHING_INTERVAL = Duration.ofSeconds(30);
+
+    // the track interval doubles after every 12 watching without state change (about 1 minute)
+    private static final int WATCHING_BACKOFF_ROUNDS = 12;
+
     // option interval within 10 seconds
     private static final Duration OPTION_INTERVAL = Duration.ofSeconds(10);
 
+    // a watching of an app longer than this is considered hung, the app is watched again regardless
+    private static final Duration MAX_WATCHING_DURATION = Duration.ofMinutes(1);
+
     private static final Timeout HTTP_TIMEOUT = Timeout.ofSeconds(5);
 
     /**
@@ -163,9 +181,12 @@ public class FlinkAppHttpWatcher {
 
     private static final Map<Long, OptionStateEnum> OPTIONING = new ConcurrentHashMap<>(0);
 
-    private Long lastWatchTime = 0L;
+    private static final FlinkAppWatchScheduler WATCH_SCHEDULER =
+        new FlinkAppWatchScheduler(
+            URGENT_WATCHING_INTERVAL, WATCHING_INTERVAL, MAX_WATCHING_INTERVAL, WATCHING_BACKOFF_ROUNDS);
 
-    private Long lastOptionTime = 0L;
+    /** The apps being watched, Map<applicationId, the start time of the watching> */
+    private static final Map<Long, Long> IN_FLIGHT_APPS = new ConcurrentHashMap<>(0);
 
     private static final Byte DEFAULT_FLAG_BYTE = Byte.valueOf("0");
 
@@ -176,6 +197,8 @@ public class FlinkAppHttpWatcher {
     @PostConstruct
     public void init() {
         WATCHING_APPS.clear();
+        WATCH_SCHEDULER.clear();
+        IN_FLIGHT_APPS.clear();
         List<FlinkApplication> applications = applicationManageService.list(
             new LambdaQueryWrapper<FlinkApplication>()
                 .eq(FlinkApplication::getTracking, 1)
@@ -191,46 +214,118 @@ public class FlinkAppHttpWatcher {
     public void doStop() {
         log.info(
             "[StreamPark][FlinkAppHttpWatcher] StreamPark Console will be shutdown,persistent application to database.");
-        WATCHING_APPS.forEach((k, v) -> applicationManageService.persistMetrics(v));
+        metricsPersister.flush();
+        applicationManageService.persistMetrics(WATCHING_APPS.values());
     }
 
     /**
-     * <strong>NOTE: The following conditions must be met for execution</strong>
+     * <strong>NOTE: Every app is watched on its own schedule, see {@link FlinkAppWatchScheduler}</strong>
      *
      * <p><strong>1) Program started or page operated task, such as start/stop, needs to return the
      * state immediately. (the frequency of 1 second once, continued 10 seconds (10 times))</strong>
      *
-     * <p><strong>2) Normal information obtain, once every 5 seconds</strong>
+     * <p><strong>2) App in transition (starting, cancelling, savepointing, lost), once every 1
+     * second</strong>
+     *
+     * <p><strong>3) Normal information obtain, once every 5 seconds, and gradually backs off to once
+     * every 30 seconds for the long-term stable running app</strong>
      */
     @Scheduled(fixedDelay = 1, initialDelay = 5, timeUnit = TimeUnit.SECONDS)
     public void start() {
-        Long timeMillis = System.currentTimeMillis();
-        if (lastWatchTime == null
-            || !OPTIONING.isEmpty()
-            || timeMillis - lastOptionTime <= OPTION_INTERVAL.toMillis()
-            || timeMillis - lastWatchTime >= WATCHING_INTERVAL.toMillis()) {
-            lastWatchTime = timeMillis;
-            WATCHING_APPS.forEach(this::watch);
+        long timeMillis = System.currentTimeMillis();
+        List<FlinkApplication> applications =
+            WATCHING_APPS.values().stream()
+                .filter(app -> WATCH_SCHEDULER.isDue(app.getId(), timeMillis))
+                .filter(app -> markInFlight(app.getId(), timeMillis))
+                .collect(Collectors.toList());
+        if (applications.isEmpty()) {
+            return;
         }
+        FlinkAppWatchCycle cycle = new FlinkAppWatchCycle(applications.size());
+        applications.forEach(application -> watch(cycle, application, timeMillis));
     }
 
-    private void watch(Long id, FlinkApplication application) {
-        watchExecutor.execute(
-            () -> {
-                try {
-                    // query status from flink rest api
-                    getStateFromFlink(application);
-                    cleanupLost(application);
-                } catch (Exception flinkException) {
-                    // query status from yarn rest api
+    /**
+     * Mark the app as being watched, an app whose previous watching is still running is skipped
+     * until the watching finishes or is considered hung.
+     *
+     * @return true if the app should be watched now
+     */
+    private boolean markInFlight(Long appId, long timeMillis) {
+        Long since = IN_FLIGHT_APPS.putIfAbsent(appId, timeMillis);
+        if (since == null) {
+            return true;
+        }
+        if (timeMillis - since < MAX_WATCHING_DURATION.toMillis()) {
+            log.debug("[StreamPark][FlinkAppHttpWatcher] previous watching is still running, skip app,appId:{}", appId);
+            return false;
+        }
+        log.warn(
+            "[StreamPark][FlinkAppHttpWatcher] previous watching has been running for {} ms, watch again,appId:{}",
+            timeMillis - since, appId);
+        return IN_FLIGHT_APPS.replace(appId, since, timeMillis);
+    }
+
+    private void watch(FlinkAppWatchCycle cycle, FlinkApplication application, long startTime) {
+        try {
+            watchExecutor.execute(
+                () -> {
                     try {
-                        getStateFromYarn(application);
+                        // query status from flink rest api
+                        getStateFromFlink(cycle, application);
                         cleanupLost(application);
-                    } catch (Exception yarnException) {
-                        doStateFailed(application);
+                    } catch (Exception flinkException) {
+                        // query status from yarn rest api
+                        try {
+                            getStateFromYarn(application);
+                            cleanupLost(application);
+                        } catch (Exception yarnException) {
+                            doStateFailed(application);
+                        }
+                    } finally {
+                        scheduleNextWatching(application);
+                        IN_FLIGHT_APPS.remove(application.getId(), startTime);
+                        finishWatching(cycle);
                     }
-                }
-            });
+                });
+        } catch (RejectedExecutionException e) {
+            log.warn(
+                "[StreamPark][FlinkAppHttpWatcher] watching executor is full, skip app,appId:{}", application.getId());
+            IN_FLIGHT_APPS.remove(application.getId(), startTime);
+            finishWatching(cycle);
+        }
+    }
+
+    private void scheduleNextWatching(FlinkApplication application) {
+        Long appId = application.getId();
+        if (!WATCHING_APPS.containsKey(appId)) {
+            WATCH_SCHEDULER.remove(appId);
+            return;
+        }
+        boolean inTransition =
+            OPTIONING.containsKey(appId)
+                || STARTING_CACHE.getIfPresent(appId) != null
+                || CANCELING_CACHE.getIfPresent(appId) != null
+                || SAVEPOINT_CACHE.getIfPresent(appId) != null
+                || LOST_CACHE.getIfPresent(appId) != null
+                || !FlinkAppStateEnum.RUNNING.equals(application.getStateEnum());
+        WATCH_SCHEDULER.scheduleNext(appId, inTransition);
+    }
+
+    private void finishWatching(FlinkAppWatchCycle cycle) {
+        if (!cycle.finishApp()) {
+            return;
+        }
+        long duration = cycle.getDuration();
+        if (duration > WATCHING_INTERVAL.toMillis()) {
+            log.warn(
+                "[StreamPark][FlinkAppHttpWatcher] watching cycle took {} ms, longer than the watching interval, requests: {}, shared requests: {}",
+                duration, cycle.getRequests(), cycle.getSharedRequests());
+        } else {
+            log.debug(
+                "[StreamPark][FlinkAppHttpWatcher] watching cycle took {} ms, requests: {}, shared requests: {}",
+                duration, cycle.getRequests(), cycle.getSharedRequests());
+        }
     }
 
     private void cleanupLost(FlinkApplication application) {
@@ -288,11 +383,12 @@ public class FlinkAppHttpWatcher {
     /**
      * Get the current task running status information from flink restapi
      *
+     * @param cycle current watching cycle
      * @param application application
      */
-    private void getStateFromFlink(FlinkApplication application) throws Exception {
+    private void getStateFromFlink(FlinkAppWatchCycle cycle, FlinkApplication application) throws Exception {
         StopFromEnum stopFrom = getStopFrom(application);
-        JobsOverview jobsOverview = httpJobsOverview(application);
+        JobsOverview jobsOverview = httpJobsOverview(cycle, application);
         Optional<JobsOverview.Job> optional;
         FlinkDeployMode deployMode = application.getDeployModeEnum();
         if (FlinkDeployMode.YARN_APPLICATION.equals(deployMode)
@@ -441,7 +537,8 @@ public class FlinkAppHttpWatcher {
 
     private void doPersistMetrics(FlinkApplication application, boolean stopWatch) {
         Long appId = application.getId();
-        if (FlinkAppStateEnum.isEndState(application.getState())) {
+        boolean endState = FlinkAppStateEnum.isEndState(application.getState());
+        if (endState) {
             application.setOverview(null);
             application.setTotalTM(null);
             application.setTotalSlot(null);
@@ -460,7 +557,12 @@ public class FlinkAppHttpWatcher {
         FlinkStateChangeEvent nowEvent = createStateChangeEvent(application);
         if (!nowEvent.equals(event)) {
             PREVIOUS_STATUS.put(appId, nowEvent);
-            applicationManageService.persistMetrics(application);
+            WATCH_SCHEDULER.changed(appId);
+            // the state is written at once, a delayed write could overwrite the state set by an operation
+            metricsPersister.persistNow(application);
+        } else if (!endState && !stopWatch) {
+            // the same state, the changed metrics are written behind in batches
+            metricsPersister.persist(application);
         }
     }
 
@@ -627,8 +729,9 @@ public class FlinkAppHttpWatcher {
 
     private void cleanOptioning(OptionStateEnum optionState, Long key) {
         if (optionState != null) {
-            lastOptionTime = System.currentTimeMillis();
             OPTIONING.remove(key);
+            // keep watching the app frequently for a while after the option is done
+            WATCH_SCHEDULER.urgent(key, OPTION_INTERVAL);
         }
     }
 
@@ -648,6 +751,7 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] setOptioning");
         OPTIONING.put(appId, state);
+        WATCH_SCHEDULER.urgent(appId, OPTION_INTERVAL);
         if (state.equals(OptionStateEnum.CANCELLING)) {
             STOP_FROM_MAP.put(appId, StopFromEnum.STREAMPARK);
         }
@@ -660,6 +764,7 @@ public class FlinkAppHttpWatcher {
         log.info("[StreamPark][FlinkAppHttpWatcher] add app to tracking,appId:{}", application.getId());
         WATCHING_APPS.put(application.getId(), application);
         STARTING_CACHE.put(application.getId(), DEFAULT_FLAG_BYTE);
+        WATCH_SCHEDULER.urgent(application.getId(), OPTION_INTERVAL);
     }
 
     public static void addSavepoint(Long appId) {
@@ -668,6 +773,7 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] add app to savepoint,appId:{}", appId);
         SAVEPOINT_CACHE.put(appId, DEFAULT_FLAG_BYTE);
+        WATCH_SCHEDULER.urgent(appId, OPTION_INTERVAL);
 
         // update to PREVIOUS_STATUS
         FlinkStateChangeEvent event = PREVIOUS_STATUS.getIfPresent(appId);
@@ -683,6 +789,7 @@ public class FlinkAppHttpWatcher {
         }
         log.info("[StreamPark][FlinkAppHttpWatcher] stop app,appId:{}", appId);
         WATCHING_APPS.remove(appId);
+        WATCH_SCHEDULER.remove(appId);
     }
 
     public static void stopCanceledJob(Long appId) {
@@ -738,7 +845,11 @@ public class FlinkAppHttpWatcher {
         return null;
     }
 
-    private JobsOverview httpJobsOverview(FlinkApplication application) throws Exception {
+    /**
+     * Get the jobs overview of the JobManager the application running on. The response is shared
+     * within the watching cycle, so a session cluster will be requested only once per cycle.
+     */
+    private JobsOverview httpJobsOverview(FlinkAppWatchCycle cycle, FlinkApplication application) throws Exception {
         final String flinkUrl = "jobs/overview";
         FlinkDeployMode deployMode = application.getDeployModeEnum();
         if (FlinkDeployMode.isYarnMode(deployMode)) {
@@ -750,7 +861,7 @@ public class FlinkAppHttpWatcher {
                 String format = "%s/" + flinkUrl;
                 reqURL = String.format(format, application.getJobManagerUrl());
             }
-            return yarnRestRequest(reqURL, JobsOverview.class);
+            return cycle.request(reqURL, () -> yarnRestRequest(reqURL, JobsOverview.class));
         }
 
         if (application.getJobId() != null && FlinkDeployMode.isRemoteMode(deployMode)) {
@@ -758,14 +869,17 @@ public class FlinkAppHttpWatcher {
                 application.getFlinkClusterId(),
                 cluster -> {
                     String remoteUrl = cluster.getAddress() + "/" + flinkUrl;
-                    JobsOverview jobsOverview = httpRestRequest(remoteUrl, JobsOverview.class);
-                    if (jobsOverview != null) {
-                        List<JobsOverview.Job> jobs =
-                            jobsOverview.getJobs().stream()
-                                .filter(x -> x.getId().equals(application.getJobId()))
-                                .collect(Collectors.toList());
-                        jobsOverview.setJobs(jobs);
+                    JobsOverview clusterOverview =
+                        cycle.request(remoteUrl, () -> httpRestRequest(remoteUrl, JobsOverview.class));
+                    if (clusterOverview == null) {
+                        return null;
                     }
+                    // the cluster overview is shared by all jobs of the cycle, do not modify it
+                    JobsOverview jobsOverview = new JobsOverview();
+                    jobsOverview.setJobs(
+                        clusterOverview.getJobs().stream()
+                            .filter(x -> x.getId().equals(application.getJobId()))
+                            .collect(Collectors.toList()));
                     return jobsOverview;
                 });
         }
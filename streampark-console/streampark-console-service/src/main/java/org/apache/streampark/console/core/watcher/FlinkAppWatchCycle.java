@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One polling round of {@link FlinkAppHttpWatcher}. The REST responses of a round are shared by
+ * request url, so all the jobs running on the same JobManager (session cluster, yarn session) are
+ * served by a single <code>jobs/overview</code> call.
+ */
+class FlinkAppWatchCycle {
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final AtomicInteger pendingApps;
+
+    private final AtomicInteger requests = new AtomicInteger(0);
+
+    private final AtomicInteger sharedRequests = new AtomicInteger(0);
+
+    private final Map<String, CompletableFuture<Object>> responses = new ConcurrentHashMap<>();
+
+    FlinkAppWatchCycle(int appSize) {
+        this.pendingApps = new AtomicInteger(appSize);
+    }
+
+    /**
+     * Get the response of the given url in the current round, the request will be sent only once
+     * and other callers will wait for the same response.
+     *
+     * @param url request url, used as the share key
+     * @param request the actual request
+     * @return response
+     */
+    @SuppressWarnings("unchecked")
+    <T> T request(String url, Callable<T> request) throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = responses.putIfAbsent(url, future);
+        if (existing == null) {
+            requests.incrementAndGet();
+            try {
+                future.complete(request.call());
+            } catch (Throwable e) {
+                // complete the future whatever happens, the other callers of the url wait for it
+                future.completeExceptionally(e);
+            }
+            existing = future;
+        } else {
+            sharedRequests.incrementAndGet();
+        }
+        try {
+            return (T) existing.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Mark one app of the round as finished.
+     *
+     * @return true if all the apps of the round are finished
+     */
+    boolean finishApp() {
+        return pendingApps.decrementAndGet() <= 0;
+    }
+
+    long getDuration() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    int getRequests() {
+        return requests.get();
+    }
+
+    int getSharedRequests() {
+        return sharedRequests.get();
+    }
+}
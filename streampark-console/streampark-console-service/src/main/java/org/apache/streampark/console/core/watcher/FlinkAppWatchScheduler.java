@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.console.core.watcher;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ *
+ * <pre>
+ * Per application watching schedule of {@link FlinkAppHttpWatcher}.
+ * 1) the application in transition (starting, cancelling, savepointing, lost...) is watched every urgent interval
+ * 2) the stable application is watched every normal interval, and the interval is doubled every
+ *    backoff rounds without any state change, up to the max interval
+ * 3) any state change or page operation resets the application to the urgent interval
+ * </pre>
+ */
+class FlinkAppWatchScheduler {
+
+    private final long urgentInterval;
+
+    private final long interval;
+
+    private final long maxInterval;
+
+    private final int backoffRounds;
+
+    private final Map<Long, Schedule> schedules = new ConcurrentHashMap<>(0);
+
+    FlinkAppWatchScheduler(
+                           Duration urgentInterval,
+                           Duration interval,
+                           Duration maxInterval,
+                           int backoffRounds) {
+        this.urgentInterval = urgentInterval.toMillis();
+        this.interval = interval.toMillis();
+        this.maxInterval = maxInterval.toMillis();
+        this.backoffRounds = backoffRounds;
+    }
+
+    /** Whether the application needs to be watched at the given time. */
+    boolean isDue(Long appId, long timeMillis) {
+        Schedule schedule = schedules.get(appId);
+        return schedule == null || timeMillis >= schedule.nextTime;
+    }
+
+    /**
+     * Watch the application immediately and keep the urgent interval for the given duration.
+     *
+     * @param appId application id
+     * @param duration how long the urgent interval lasts
+     */
+    void urgent(Long appId, Duration duration) {
+        long now = System.currentTimeMillis();
+        Schedule schedule = schedules.computeIfAbsent(appId, k -> new Schedule());
+        schedule.urgentUntil = Math.max(schedule.urgentUntil, now + duration.toMillis());
+        schedule.stableRounds = 0;
+        schedule.nextTime = now;
+    }
+
+    /** The state of the application has been changed, the backoff starts over. */
+    void changed(Long appId) {
+        Schedule schedule = schedules.get(appId);
+        if (schedule != null) {
+            schedule.stableRounds = 0;
+        }
+    }
+
+    /**
+     * Compute the next watching time after the application was watched.
+     *
+     * @param appId application id
+     * @param inTransition whether the application is in transition
+     */
+    void scheduleNext(Long appId, boolean inTransition) {
+        long now = System.currentTimeMillis();
+        Schedule schedule = schedules.computeIfAbsent(appId, k -> new Schedule());
+        if (inTransition || now < schedule.urgentUntil) {
+            schedule.stableRounds = 0;
+            schedule.nextTime = now + urgentInterval;
+            return;
+        }
+        int rounds = schedule.stableRounds++;
+        long delay = interval << Math.min(rounds / backoffRounds, 30);
+        schedule.nextTime = now + Math.min(delay, maxInterval);
+    }
+
+    void remove(Long appId) {
+        schedules.remove(appId);
+    }
+
+    void clear() {
+        schedules.clear();
+    }
+
+    private static class Schedule {
+
+        private volatile long nextTime = 0L;
+
+        private volatile long urgentUntil = 0L;
+
+        private volatile int stableRounds = 0;
+    }
+}
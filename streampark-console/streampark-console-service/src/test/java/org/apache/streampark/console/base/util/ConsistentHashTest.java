@@ -21,6 +21,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -87,4 +91,38 @@ public class ConsistentHashTest {
         });
         log.info("time: {}ms", System.currentTimeMillis() - startTime);
     }
+
+    @Test
+    public void removeServerKeepsOtherKeys() {
+        Map<Integer, String> before = jobIds.stream()
+            .collect(Collectors.toMap(Function.identity(), hash::get));
+        hash.remove("Server-C");
+        assertEquals(2L * (2 << 16), hash.getSize());
+        jobIds.forEach(jobId -> {
+            String server = hash.get(jobId);
+            assertNotEquals("Server-C", server);
+            if (!"Server-C".equals(before.get(jobId))) {
+                assertEquals(before.get(jobId), server);
+            }
+        });
+        // add back the server, the ring is the same as before
+        hash.add("Server-C");
+        jobIds.forEach(jobId -> assertEquals(before.get(jobId), hash.get(jobId)));
+    }
+
+    @Test
+    public void addExistingAndRemoveAll() {
+        hash.add("Server-A");
+        assertEquals(3L * (2 << 16), hash.getSize());
+        servers.forEach(hash::remove);
+        assertEquals(0L, hash.getSize());
+        assertNull(hash.get(1));
+    }
+
+    @Test
+    public void getCost() {
+        long start = System.nanoTime();
+        jobIds.forEach(hash::get);
+        log.info("get {} keys, time: {}ms", jobNum, (System.nanoTime() - start) / 1_000_000);
+    }
 }
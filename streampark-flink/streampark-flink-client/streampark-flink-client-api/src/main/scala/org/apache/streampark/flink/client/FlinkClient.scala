@@ -46,6 +46,9 @@ object FlinkClient extends Logger {
   private[this] val SAVEPOINT_REQUEST =
     "org.apache.streampark.flink.client.bean.TriggerSavepointRequest" -> "triggerSavepoint"
 
+  private[this] lazy val FLINK_REQUESTS =
+    Seq(SUBMIT_REQUEST, DEPLOY_REQUEST, CANCEL_REQUEST, SHUTDOWN_REQUEST, SAVEPOINT_REQUEST)
+
   def submit(submitRequest: SubmitRequest): SubmitResponse = {
     val securityManager = System.getSecurityManager
     try {
@@ -74,6 +77,17 @@ object FlinkClient extends Logger {
     proxy[SavepointResponse](savepointRequest, savepointRequest.flinkVersion, SAVEPOINT_REQUEST)
   }
 
+  /**
+   * Build the shims classloader of the flink version and load the client entrypoint with it ahead
+   * of the first request.
+   */
+  def preload(flinkVersion: FlinkVersion): Unit = {
+    flinkVersion.checkVersion()
+    FlinkShimsProxy.preload(
+      flinkVersion,
+      FLINK_CLIENT_ENTRYPOINT_CLASS +: FLINK_REQUESTS.map(_._1): _*)
+  }
+
   private[this] def proxy[T: ClassTag](
       request: Object,
       flinkVersion: FlinkVersion,
@@ -18,7 +18,8 @@
 package org.apache.streampark.flink.connector.conf
 
 import org.apache.streampark.common.util.ConfigUtils
-import org.apache.streampark.flink.connector.conf.FailoverStorageType.{Console, FailoverStorageType, Kafka, MySQL, NONE}
+import org.apache.streampark.flink.connector.conf.FailoverStorageType.{Console, FailoverStorageType, Kafka, Local, MySQL, NONE}
+import org.apache.streampark.flink.connector.failover.FailoverWriter
 
 import java.util.Properties
 
@@ -34,12 +35,15 @@ case class ThresholdConf(prefixStr: String, parameters: Properties) {
   val timeout: Int = option.timeout.get()
   val numWriters: Int = option.numWriters.get()
   val maxRetries: Int = option.maxRetries.get()
+  val maxInFlight: Int = option.maxInFlight.get()
   val storageType: FailoverStorageType = option.storageType.get()
   val failoverTable: String = option.failoverTable.get()
+  val failoverQueueCapacity: Int = option.failoverQueueCapacity.get()
+  val failoverLocalPath: String = option.failoverLocalPath.get()
 
   def getFailoverConfig: Properties = {
     storageType match {
-      case Console | NONE => null
+      case Console | Local | NONE => null
       case Kafka => ConfigUtils.getConf(parameters.toMap, "failover.kafka.")
       case MySQL => ConfigUtils.getConf(parameters.toMap, "failover.mysql.")
       case _ =>
@@ -47,11 +51,20 @@ case class ThresholdConf(prefixStr: String, parameters: Properties) {
           s"[StreamPark] usage error! failover.storage must not be null! ")
     }
   }
+
+  /** Create the failover writer of the sink, shared by all of its writer tasks. */
+  def createFailoverWriter(): FailoverWriter = {
+    val spillPath = if (failoverLocalPath.isEmpty) null else failoverLocalPath
+    if (storageType == Local) {
+      require(spillPath != null, "[StreamPark] failover.local.path is required by the Local storage")
+    }
+    new FailoverWriter(storageType, getFailoverConfig, failoverQueueCapacity, spillPath)
+  }
 }
 
 object FailoverStorageType extends Enumeration {
   type FailoverStorageType = Value
-  val Console, MySQL, Kafka, NONE = Value
+  val Console, MySQL, Kafka, Local, NONE = Value
 
   def get(key: String): Value = values.find(_.toString.equalsIgnoreCase(key)).get
 
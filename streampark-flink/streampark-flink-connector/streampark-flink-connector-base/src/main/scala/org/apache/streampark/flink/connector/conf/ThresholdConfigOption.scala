@@ -64,6 +64,13 @@ class ThresholdConfigOption(prefixStr: String, properties: Properties) {
     defaultValue = Runtime.getRuntime.availableProcessors(),
     classType = classOf[Int])
 
+  /** the max number of requests written but not acknowledged, the writing blocks when reached */
+  val maxInFlight: ConfigOption[Int] = ConfigOption(
+    key = "threshold.maxInFlight",
+    required = false,
+    defaultValue = 1000,
+    classType = classOf[Int])
+
   val maxRetries: ConfigOption[Int] = ConfigOption(
     key = "threshold.retries",
     required = false,
@@ -80,6 +87,23 @@ class ThresholdConfigOption(prefixStr: String, properties: Properties) {
     }
   )
 
+  /** the max number of requests waiting to be written to the failover storage */
+  val failoverQueueCapacity: ConfigOption[Int] = ConfigOption(
+    key = "failover.queueCapacity",
+    required = false,
+    defaultValue = 10000,
+    classType = classOf[Int])
+
+  /**
+   * the directory of the local spill files, required by the "Local" storage, the Kafka and MySQL
+   * storage also spill the records here when they are unreachable
+   */
+  val failoverLocalPath: ConfigOption[String] = ConfigOption(
+    key = "failover.local.path",
+    required = false,
+    defaultValue = "",
+    classType = classOf[String])
+
   val failoverTable: ConfigOption[String] = ConfigOption(
     key = "failover.table",
     required = false,
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.failover
+
+import org.apache.streampark.common.util.{JsonUtils, Logger}
+
+import java.io.{BufferedWriter, File, FileOutputStream, OutputStreamWriter}
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util
+import java.util.UUID
+
+import org.apache.streampark.common.util.Implicits._
+import scala.util.{Failure, Success, Try}
+
+/**
+ * Append-only local spill file of the failover requests, one json line for each request. The file
+ * is written as "failover-{uuid}.spilling" and renamed to "failover-{uuid}.spill" on close, the
+ * closed files can be re-ingested by [[FailoverSpill.replay]].
+ */
+class FailoverSpill(path: String) extends AutoCloseable with Logger {
+
+  private[this] val dir = new File(path)
+
+  private[this] val name = s"failover-${UUID.randomUUID()}"
+
+  private[this] val file = new File(dir, name + FailoverSpill.SPILLING)
+
+  private[this] var out: FileOutputStream = _
+
+  private[this] var writer: BufferedWriter = _
+
+  private[this] var spilled = 0L
+
+  /**
+   * Append the requests with their failover timestamp and flush them to the file, the file is
+   * created on the first append.
+   */
+  def append(requests: Seq[(SinkRequest, Long)]): Unit = this.synchronized {
+    if (writer == null) {
+      if (!dir.exists() && !dir.mkdirs() && !dir.exists()) {
+        throw new IllegalStateException(s"[StreamPark] can not create failover spill path: $path")
+      }
+      out = new FileOutputStream(file, true)
+      writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024)
+      logInfo(s"Failover spill file created: ${file.getAbsolutePath}")
+    }
+    requests.foreach {
+      case (request, timestamp) =>
+        writer.write(FailoverSpill.encode(request, timestamp))
+        writer.newLine()
+    }
+    writer.flush()
+    spilled += requests.size
+  }
+
+  /** The number of requests spilled. */
+  def size: Long = this.synchronized(spilled)
+
+  override def close(): Unit = this.synchronized {
+    if (writer != null) {
+      writer.flush()
+      out.getFD.sync()
+      writer.close()
+      writer = null
+      val closed = new File(dir, name + FailoverSpill.SPILL)
+      if (!file.renameTo(closed)) {
+        logWarn(s"Failed to rename failover spill file: ${file.getAbsolutePath}")
+      }
+      logInfo(s"Failover spill file closed: ${closed.getAbsolutePath}, requests: $spilled")
+    }
+  }
+
+}
+
+object FailoverSpill extends Logger {
+
+  val SPILL = ".spill"
+
+  val SPILLING = ".spilling"
+
+  val REPLAYED = ".replayed"
+
+  private def encode(request: SinkRequest, timestamp: Long): String = {
+    val line = new util.LinkedHashMap[String, Any]()
+    line.put("table", request.table)
+    line.put("rowTable", request.rowTable)
+    line.put("timestamp", timestamp)
+    line.put("records", request.records)
+    JsonUtils.write(line)
+  }
+
+  private def decode(line: String): SinkRequest = {
+    val json = JsonUtils.read[util.Map[String, AnyRef]](line)
+    val records = json.get("records").asInstanceOf[util.List[String]]
+    SinkRequest(records, rowTable = json.get("rowTable").asInstanceOf[String])
+  }
+
+  /**
+   * Re-ingest the spilled requests under the path by the writer (e.g. the sink writer of the
+   * connector once the target is reachable again). The replayed file is renamed to "*.replayed".
+   *
+   * @param path
+   *   the spill path, same as "failover.local.path"
+   * @param writer
+   *   the writer to re-ingest the requests, flushed after every file
+   * @param includeUnclosed
+   *   also replay the "*.spilling" files left by a crashed job, the job must not be running
+   * @return
+   *   the number of requests replayed
+   */
+  def replay(path: String, writer: SinkWriter, includeUnclosed: Boolean = false): Long = {
+    val files = new File(path).listFiles() match {
+      case null => Array.empty[File]
+      case fs =>
+        fs.filter(
+          f => f.getName.endsWith(SPILL) || (includeUnclosed && f.getName.endsWith(SPILLING)))
+          .sortBy(_.lastModified())
+    }
+    files.map {
+      file =>
+        var replayed = 0L
+        val lines = Files.lines(file.toPath, StandardCharsets.UTF_8)
+        try {
+          lines.forEach(
+            line =>
+              if (line.nonEmpty) {
+                Try(decode(line)) match {
+                  case Success(request) =>
+                    writer.write(request)
+                    replayed += 1
+                  // the last line may be partially written by a crashed job
+                  case Failure(e) => logWarn(s"Skip broken line of ${file.getName}, error: $e")
+                }
+              })
+        } finally {
+          lines.close()
+        }
+        writer.flush()
+        val done = new File(file.getParentFile, file.getName.replaceFirst("\\.[a-z]+$", REPLAYED))
+        file.renameTo(done)
+        logInfo(s"Replayed failover spill file: ${file.getName}, requests: $replayed")
+        replayed
+    }.sum
+  }
+
+}
@@ -17,122 +17,256 @@
 
 package org.apache.streampark.flink.connector.failover
 
-import org.apache.streampark.common.conf.ConfigConst._
+import org.apache.streampark.common.conf.ConfigKeys._
 import org.apache.streampark.common.util._
 import org.apache.streampark.flink.connector.conf.FailoverStorageType._
 
 import org.apache.kafka.clients.producer.{Callback, KafkaProducer, ProducerRecord, RecordMetadata}
+import org.apache.kafka.common.serialization.StringSerializer
 
-import java.util._
-import java.util.concurrent.locks.ReentrantLock
+import java.sql.Connection
+import java.util
+import java.util.Properties
+import java.util.concurrent.{ArrayBlockingQueue, CompletableFuture, TimeUnit}
+import java.util.concurrent.locks.ReentrantReadWriteLock
 
 import org.apache.streampark.common.util.Implicits._
+import scala.collection.mutable
+import scala.util.{Failure, Success, Try}
 
-class FailoverWriter(failoverStorage: FailoverStorageType, properties: Properties)
+/**
+ * Asynchronous failover writer. The requests are put into a bounded queue (the caller blocks when
+ * the queue is full) and written in batches by a single background thread, the returned future is
+ * completed once the request is durable in the failover storage:
+ *
+ *   - Kafka: one record for each request, sent without waiting, completed by the send callback
+ *   - MySQL: the records of the batch are inserted by a JDBC batch for each table
+ *   - Local: the requests are appended to a local spill file, see [[FailoverSpill]]
+ *
+ * When the Kafka or MySQL storage is unreachable and a spill path is given, the requests are
+ * spilled to the local file instead of failing.
+ *
+ * One writer is shared by all the writer tasks of a sink, it is thread-safe.
+ */
+class FailoverWriter(
+    failoverStorage: FailoverStorageType,
+    properties: Properties,
+    queueCapacity: Int = 10000,
+    spillPath: String = null)
   extends AutoCloseable
   with Logger {
 
-  private[this] object Lock {
-    @volatile var initialized = false
-    val lock = new ReentrantLock()
-  }
+  require(
+    queueCapacity > 0,
+    s"[StreamPark] FailoverWriter queueCapacity must be positive, but got $queueCapacity")
 
-  private var kafkaProducer: KafkaProducer[String, String] = _
-
-  def write(request: SinkRequest): Unit = {
-    this.synchronized {
-      val table = request.table.split("\\.").last
-      failoverStorage match {
-        case NONE =>
-        case Console =>
-          val records = request.records.map(x => s"(${cleanUp(x)})")
-          logInfo(s"failover body: [ ${records.mkString(",")} ]")
-        case Kafka =>
-          if (!Lock.initialized) {
-            try {
-              Lock.lock.lock()
-              if (!Lock.initialized) {
-                Lock.initialized = true
-                properties.put(
-                  "key.serializer",
-                  "org.apache.kafka.common.serialization.StringSerializer")
-                properties.put(
-                  "value.serializer",
-                  "org.apache.kafka.common.serialization.StringSerializer")
-                kafkaProducer = new KafkaProducer[String, String](properties)
-              }
-            } catch {
-              case exception: Exception => {
-                logError(
-                  s"build Failover storageType:KAFKA failed exception ${exception.getStackTrace
-                      .mkString("Array(", ", ", ")")}")
-                throw exception
-              }
-            } finally {
-              Lock.lock.unlock()
+  private[this] val maxBatchSize = 1000
+
+  private[this] case class Pending(
+      request: SinkRequest,
+      timestamp: Long,
+      future: CompletableFuture[Void])
+
+  private[this] val queue = new ArrayBlockingQueue[Pending](queueCapacity)
+
+  @volatile private[this] var running = true
+
+  // the requests are put under the read lock, close stops accepting them under the write lock, so
+  // no request is put after the worker has drained the queue
+  private[this] val closeLock = new ReentrantReadWriteLock()
+
+  private[this] val spill: FailoverSpill =
+    if (spillPath == null) null else new FailoverSpill(spillPath)
+
+  private[this] var kafkaProducer: KafkaProducer[String, String] = _
+
+  // the failover tables checked or created, only accessed by the worker thread
+  private[this] val mysqlTables = mutable.Set[String]()
+
+  private[this] val worker = ThreadUtils
+    .threadFactory("FailoverWriter")
+    .newThread(new Runnable {
+      override def run(): Unit = {
+        while (running || !queue.isEmpty) {
+          val head = queue.poll(100, TimeUnit.MILLISECONDS)
+          if (head != null) {
+            val batch = new util.ArrayList[Pending](maxBatchSize)
+            batch.add(head)
+            queue.drainTo(batch, maxBatchSize - 1)
+            Try(writeBatch(batch.toList)) match {
+              case Failure(e) => spillOrFail(batch.toList, e)
+              case _ =>
             }
           }
-          val topic = properties.getProperty(KEY_KAFKA_TOPIC)
-          val timestamp = System.currentTimeMillis()
-          val records = request.records.map(cleanUp)
-          val sendData =
-            s"""
-               |{
-               |"values":[${records.mkString(",")}],
-               |"timestamp":$timestamp
-               |}
-               |""".stripMargin
-          val record = new ProducerRecord[String, String](topic, sendData)
-          kafkaProducer
-            .send(
-              record,
-              new Callback() {
-                override def onCompletion(recordMetadata: RecordMetadata, e: Exception): Unit = {
+        }
+      }
+    })
+  worker.start()
+
+  /**
+   * Write the request to the failover storage asynchronously, block only when the queue is full.
+   *
+   * @return
+   *   the future completed when the request is written, or completed exceptionally when failed
+   */
+  def write(request: SinkRequest): CompletableFuture[Void] = {
+    val future = new CompletableFuture[Void]()
+    closeLock.readLock().lock()
+    try {
+      if (!running) {
+        future.completeExceptionally(
+          new IllegalStateException("[StreamPark] FailoverWriter is already closed"))
+      } else {
+        queue.put(Pending(request, System.currentTimeMillis(), future))
+      }
+    } finally {
+      closeLock.readLock().unlock()
+    }
+    future
+  }
+
+  /** The number of requests waiting to be written. */
+  def queueSize: Int = queue.size()
+
+  private[this] def writeBatch(batch: List[Pending]): Unit = {
+    failoverStorage match {
+      case NONE => batch.foreach(_.future.complete(null))
+      case Console =>
+        batch.foreach(
+          p => {
+            val records = p.request.records.map(x => s"(${cleanUp(x)})")
+            logInfo(s"failover body: [ ${records.mkString(",")} ]")
+            p.future.complete(null)
+          })
+      case Kafka =>
+        // created before sending, so a failure to create it spills the whole batch only once
+        val producer = getKafkaProducer
+        batch.foreach(sendToKafka(producer, _))
+      case MySQL =>
+        batch
+          .groupBy(_.request.table.split("\\.").last)
+          .foreach {
+            case (table, pendings) =>
+              Try(insertIntoMySQL(table, pendings)) match {
+                case Success(_) =>
                   logInfo(
-                    s"Failover successful!! storageType:Kafka,table: $table,size:${request.size}")
-                }
-              }
-            )
-            .get()
-        case MySQL =>
-          if (!Lock.initialized) {
-            try {
-              Lock.lock.lock()
-              if (!Lock.initialized) {
-                Lock.initialized = true
-                properties.put(KEY_ALIAS, s"failover-$table")
-                val mysqlConnect = JdbcUtils.getConnection(properties)
-                val mysqlTable =
-                  mysqlConnect.getMetaData.getTables(null, null, table, Array("TABLE", "VIEW"))
-                if (!mysqlTable.next()) {
-                  JdbcUtils.execute(
-                    mysqlConnect,
-                    s"create table $table (`values` text, `timestamp` bigint)")
-                  logWarn(s"Failover storageType:MySQL,table: $table is not exist,auto created...")
-                }
+                    s"Failover successful!! storageType:MySQL,table: $table,size:${pendings.map(_.request.size).sum}")
+                  pendings.foreach(_.future.complete(null))
+                case Failure(e) => spillOrFail(pendings, e)
               }
-            } catch {
-              case exception: Exception =>
-                logError(
-                  s"build Failover storageType:MySQL failed exception ${exception.getStackTrace}")
-                throw exception
-            } finally {
-              Lock.lock.unlock()
+          }
+      case Local =>
+        require(spill != null, "[StreamPark] failover.local.path is required by the Local storage")
+        spill.append(batch.map(p => p.request -> p.timestamp))
+        batch.foreach(_.future.complete(null))
+      case _ =>
+        throw new UnsupportedOperationException(
+          s"[StreamPark] unsupported failover storageType:$failoverStorage")
+    }
+  }
+
+  private[this] def getKafkaProducer: KafkaProducer[String, String] = {
+    if (kafkaProducer == null) {
+      properties.putIfAbsent("key.serializer", classOf[StringSerializer].getName)
+      properties.putIfAbsent("value.serializer", classOf[StringSerializer].getName)
+      // give the producer a chance to batch the records of the failed requests
+      properties.putIfAbsent("linger.ms", "5")
+      kafkaProducer = new KafkaProducer[String, String](properties)
+    }
+    kafkaProducer
+  }
+
+  private[this] def sendToKafka(producer: KafkaProducer[String, String], pending: Pending): Unit = {
+    val request = pending.request
+    val table = request.table.split("\\.").last
+    val topic = properties.getProperty(KEY_KAFKA_TOPIC)
+    val body = new util.LinkedHashMap[String, Any]()
+    body.put("values", request.records)
+    body.put("timestamp", pending.timestamp)
+    val record = new ProducerRecord[String, String](topic, JsonUtils.write(body))
+    Try(
+      producer.send(
+        record,
+        new Callback() {
+          override def onCompletion(recordMetadata: RecordMetadata, e: Exception): Unit = {
+            if (e == null) {
+              logInfo(s"Failover successful!! storageType:Kafka,table: $table,size:${request.size}")
+              pending.future.complete(null)
+            } else {
+              spillOrFail(List(pending), e)
             }
           }
-          val timestamp = System.currentTimeMillis()
-          val records = request.records.map(
-            x => {
-              val v = cleanUp(x)
-              s""" ($v,$timestamp) """.stripMargin
-            })
-          val sql = s"INSERT INTO $table(`values`,`timestamp`) VALUES ${records.mkString(",")} "
-          JdbcUtils.update(sql)(properties)
-          logInfo(s"Failover successful!! storageType:MySQL,table: $table,size:${request.size}")
-        case _ =>
-          throw new UnsupportedOperationException(
-            s"[StreamPark] unsupported failover storageType:$failoverStorage")
+        }
+      )) match {
+      case Failure(e) => spillOrFail(List(pending), e)
+      case _ =>
+    }
+  }
+
+  private[this] def insertIntoMySQL(table: String, pendings: List[Pending]): Unit = {
+    properties.putIfAbsent(KEY_ALIAS, s"failover-$table")
+    val connection = JdbcUtils.getConnection(properties)
+    try {
+      if (!mysqlTables.contains(table)) {
+        createTableIfAbsent(connection, table)
+        mysqlTables += table
+      }
+      connection.setAutoCommit(false)
+      val statement =
+        connection.prepareStatement(s"INSERT INTO $table(`values`,`timestamp`) VALUES (?,?)")
+      try {
+        pendings.foreach(
+          p =>
+            p.request.records.foreach(
+              record => {
+                statement.setString(1, record)
+                statement.setLong(2, p.timestamp)
+                statement.addBatch()
+              }))
+        statement.executeBatch()
+        connection.commit()
+      } catch {
+        case e: Exception =>
+          Try(connection.rollback())
+          throw e
+      } finally {
+        statement.close()
       }
+    } finally {
+      JdbcUtils.close(connection)
+    }
+  }
+
+  private[this] def createTableIfAbsent(connection: Connection, table: String): Unit = {
+    val tables = connection.getMetaData.getTables(null, null, table, Array("TABLE", "VIEW"))
+    try {
+      if (!tables.next()) {
+        JdbcUtils.execute(connection, s"create table $table (`values` text, `timestamp` bigint)")
+        logWarn(s"Failover storageType:MySQL,table: $table is not exist,auto created...")
+      }
+    } finally {
+      tables.close()
+    }
+  }
+
+  /** The remote failover storage is unreachable, spill the requests to the local file if given. */
+  private[this] def spillOrFail(pendings: List[Pending], cause: Throwable): Unit = {
+    val spilled = spill != null && {
+      Try(spill.append(pendings.map(p => p.request -> p.timestamp))) match {
+        case Success(_) =>
+          logWarn(
+            s"Failover storageType:$failoverStorage unreachable, spilled ${pendings.size} requests to $spillPath, error: $cause")
+          true
+        case Failure(e) =>
+          logError(s"Failed to spill failover requests to $spillPath, error: $e")
+          false
+      }
+    }
+    if (spilled) {
+      pendings.foreach(_.future.complete(null))
+    } else {
+      logError(s"build Failover storageType:$failoverStorage failed exception $cause")
+      pendings.foreach(_.future.completeExceptionally(cause))
     }
   }
 
@@ -140,8 +274,26 @@ class FailoverWriter(failoverStorage: FailoverStorageType, properties: Propertie
     s""" "${record.replace("\"", "\\\"")}" """.stripMargin
   }
 
+  /** Stop accepting requests, write the queued ones and wait for them to be acknowledged. */
   override def close(): Unit = {
-    if (kafkaProducer != null) kafkaProducer.close()
+    closeLock.writeLock().lock()
+    try {
+      running = false
+    } finally {
+      closeLock.writeLock().unlock()
+    }
+    worker.join()
+    // left by a worker died of a fatal error, fail them rather than leaving the callers waiting
+    val left = new util.ArrayList[Pending]()
+    queue.drainTo(left)
+    left.foreach(
+      _.future.completeExceptionally(
+        new IllegalStateException("[StreamPark] FailoverWriter is closed before writing")))
+    if (kafkaProducer != null) {
+      kafkaProducer.flush()
+      kafkaProducer.close()
+    }
+    if (spill != null) spill.close()
   }
 
 }
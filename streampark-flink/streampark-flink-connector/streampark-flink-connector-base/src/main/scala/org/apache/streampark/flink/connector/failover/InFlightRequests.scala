@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.failover
+
+import org.apache.streampark.common.util.Logger
+
+import java.io.IOException
+import java.util.concurrent.{Semaphore, TimeUnit}
+
+/**
+ * Tracks the requests handed over to a [[SinkWriter]] until they are acknowledged, i.e. written to
+ * the sink or to the failover storage. The number of requests in flight is bounded, [[acquire]]
+ * blocks the caller when the limit is reached, which backpressures the upstream. [[awaitAll]] is
+ * called on checkpoint, so all the records before the checkpoint barrier are written once the
+ * checkpoint completes (at-least-once).
+ *
+ * A request which can neither be written to the sink nor to the failover storage is reported by
+ * [[fail]], the next [[acquire]] or [[awaitAll]] throws, to fail the job and replay from the last
+ * checkpoint.
+ */
+class InFlightRequests(maxInFlight: Int) extends Logger {
+
+  require(
+    maxInFlight > 0,
+    s"[StreamPark] InFlightRequests maxInFlight must be positive, but got $maxInFlight")
+
+  private[this] val permits = new Semaphore(maxInFlight)
+
+  @volatile private[this] var failure: Throwable = _
+
+  /** Take a slot for a new request, block until there is a free one. */
+  def acquire(): Unit = {
+    while (!permits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+      checkFailure()
+    }
+    checkFailure()
+  }
+
+  /** The request is acknowledged. */
+  def release(): Unit = permits.release()
+
+  /** The request is lost, the failure is thrown to the sink function. */
+  def fail(cause: Throwable): Unit = {
+    if (failure == null) {
+      failure = cause
+    }
+    logError(s"Request failed and can not be acknowledged, error: $cause")
+    permits.release()
+  }
+
+  /** The number of requests not acknowledged yet. */
+  def size: Int = maxInFlight - permits.availablePermits()
+
+  /** Block until all the requests are acknowledged. */
+  def awaitAll(): Unit = {
+    while (!permits.tryAcquire(maxInFlight, 100, TimeUnit.MILLISECONDS)) {
+      checkFailure()
+    }
+    permits.release(maxInFlight)
+    checkFailure()
+  }
+
+  private[this] def checkFailure(): Unit = {
+    if (failure != null) {
+      throw new IOException("[StreamPark] Failed to write the sink requests", failure)
+    }
+  }
+
+}
@@ -20,56 +20,97 @@ package org.apache.streampark.flink.connector.failover
 import org.apache.streampark.common.util.Logger
 
 import java.util
-import java.util.Collections
-import java.util.concurrent.CopyOnWriteArrayList
 
-import org.apache.streampark.common.util.Implicits._
-
-case class SinkBuffer(writer: SinkWriter, flushInterval: Long, bufferSize: Int)
+/**
+ * Records are appended to a preallocated array. When the buffer is full or the flush interval is
+ * reached, the array is handed over to the [[SinkWriter]] as it is (no copy) and a new array is
+ * allocated for the next batch. The [[FailoverChecker]] reads the volatile size and timestamp
+ * without locking, and only takes the lock when a flush is really needed.
+ */
+case class SinkBuffer(
+    writer: SinkWriter,
+    flushInterval: Long,
+    bufferSize: Int,
+    rowTable: String = null)
   extends AutoCloseable
   with Logger {
 
-  private var timestamp = 0L
+  require(bufferSize > 0, s"[StreamPark] SinkBuffer bufferSize must be positive, but got $bufferSize")
+
+  @volatile private[this] var timestamp = 0L
 
-  var localValues = new CopyOnWriteArrayList[String]()
+  @volatile private[this] var size = 0
+
+  private[this] var values = new Array[String](bufferSize)
 
   def put(value: String): Unit = {
     tryAddToQueue()
-    localValues.add(value)
-    timestamp = System.currentTimeMillis
+    this.synchronized {
+      values(size) = value
+      size += 1
+      timestamp = System.currentTimeMillis
+      if (size >= bufferSize) {
+        addToQueue()
+      }
+    }
   }
 
   def tryAddToQueue(): Unit = {
-    this.synchronized {
-      if (flush) {
-        addToQueue()
+    if (needFlush) {
+      this.synchronized {
+        if (needFlush) {
+          addToQueue()
+        }
       }
     }
   }
 
+  /** The number of buffered records, can be read without lock. */
+  def bufferedSize: Int = size
+
   private[this] def addToQueue(): Unit = {
-    val deepCopy = buildDeepCopy(localValues)
-    val params = SinkRequest(deepCopy)
+    val records = if (size == values.length) values else util.Arrays.copyOf(values, size)
+    val params = SinkRequest(new SinkBuffer.Records(records), rowTable = rowTable)
+    values = new Array[String](bufferSize)
+    size = 0
     logDebug(s"Build blank with params: buffer size = ${params.size}")
     writer.write(params)
-    localValues.clear()
   }
 
-  private[this] def flush: Boolean = {
-    if (localValues.nonEmpty) {
-      localValues.size >= bufferSize || {
-        if (timestamp == 0) false
+  private[this] def needFlush: Boolean = {
+    val currentSize = size
+    if (currentSize > 0) {
+      currentSize >= bufferSize || {
+        val lastTime = timestamp
+        if (lastTime == 0) false
         else {
           val current = System.currentTimeMillis
-          current - timestamp > flushInterval
+          current - lastTime > flushInterval
         }
       }
     } else false
   }
 
-  private[this] def buildDeepCopy(original: util.List[String]): util.List[String] =
-    Collections.unmodifiableList(new util.ArrayList[String](original))
+  /** Hand over the buffered records to the writer at once, called on checkpoint and close. */
+  def flush(): Unit = this.synchronized {
+    if (size > 0) addToQueue()
+  }
+
+  override def close(): Unit = flush()
+
+}
+
+object SinkBuffer {
+
+  /** Read-only list view of a batch, the array is owned by the request after the hand over. */
+  private[failover] class Records(values: Array[String])
+    extends util.AbstractList[String]
+    with util.RandomAccess
+    with Serializable {
 
-  override def close(): Unit = if (localValues.nonEmpty) addToQueue()
+    override def get(index: Int): String = values(index)
+
+    override def size(): Int = values.length
+  }
 
 }
@@ -28,7 +28,17 @@ import scala.collection.convert.ImplicitConversions.`collection AsScalaIterable`
 import scala.collection.mutable
 import scala.collection.mutable.ListBuffer
 
-case class SinkRequest(records: util.List[String], var attemptCounter: Int = 0) extends Logger {
+/**
+ * @param records
+ *   the sql statements, or the encoded rows of rowTable
+ * @param rowTable
+ *   if set, the records are encoded rows (e.g. JSONEachRow) of this table instead of sql statements
+ */
+case class SinkRequest(
+    records: util.List[String],
+    var attemptCounter: Int = 0,
+    rowTable: String = null)
+  extends Logger {
   def incrementCounter(): Unit = attemptCounter += 1
 
   def size: Int = records.size()
@@ -70,14 +80,17 @@ case class SinkRequest(records: util.List[String], var attemptCounter: Int = 0)
   }
 
   lazy val table: String = {
-    // 1) insert into default.table(c1,c2) values ...
-    // 2) insert into default.table values ..."
-    // 3) update default.table where ..."
-    // 4) delete default.table where ..."
-    val matcher = TABLE_REGEXP.matcher(records.head)
-    if (matcher.find()) {
-      matcher.group(2)
-    } else null
+    if (rowTable != null) rowTable
+    else {
+      // 1) insert into default.table(c1,c2) values ...
+      // 2) insert into default.table values ..."
+      // 3) update default.table where ..."
+      // 4) delete default.table where ..."
+      val matcher = TABLE_REGEXP.matcher(records.head)
+      if (matcher.find()) {
+        matcher.group(2)
+      } else null
+    }
   }
 
 }
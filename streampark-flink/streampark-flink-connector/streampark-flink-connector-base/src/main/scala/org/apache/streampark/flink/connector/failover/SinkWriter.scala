@@ -21,4 +21,7 @@ import org.apache.streampark.common.util.Logger
 
 trait SinkWriter extends AutoCloseable with Logger {
   def write(request: SinkRequest): Unit
+
+  /** Block until all the requests written are acknowledged, called on checkpoint. */
+  def flush(): Unit = {}
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.failover
+
+import org.apache.streampark.flink.connector.conf.FailoverStorageType
+
+import org.junit.jupiter.api.{Assertions, Test}
+import org.junit.jupiter.api.io.TempDir
+
+import java.io.File
+import java.util.concurrent.{CompletableFuture, CopyOnWriteArrayList, ExecutionException, TimeUnit}
+
+import org.apache.streampark.common.util.Implicits._
+import scala.util.Try
+
+class FailoverWriterTest {
+
+  @TempDir
+  var spillDir: File = _
+
+  class CollectWriter extends SinkWriter {
+    val requests = new CopyOnWriteArrayList[SinkRequest]()
+
+    override def write(request: SinkRequest): Unit = requests.add(request)
+
+    override def close(): Unit = {}
+  }
+
+  @Test
+  def spillAndReplay(): Unit = {
+    val writer =
+      new FailoverWriter(FailoverStorageType.Local, null, 4, spillDir.getAbsolutePath)
+    val futures = (1 to 100).map(
+      i =>
+        writer.write(
+          SinkRequest(List(s"""insert into db.t values($i, "a\\"b")""", s"insert into db.t values(-$i)"))))
+    futures.foreach(_.get(5, TimeUnit.SECONDS))
+    writer.close()
+
+    val spilled = spillDir.listFiles().filter(_.getName.endsWith(FailoverSpill.SPILL))
+    Assertions.assertEquals(1, spilled.length)
+
+    val collect = new CollectWriter
+    Assertions.assertEquals(100, FailoverSpill.replay(spillDir.getAbsolutePath, collect))
+    Assertions.assertEquals(100, collect.requests.size())
+    Assertions.assertEquals(
+      List("""insert into db.t values(7, "a\"b")""", "insert into db.t values(-7)"),
+      collect.requests.get(6).records.toList)
+    Assertions.assertEquals("db.t", collect.requests.get(6).table)
+
+    // the replayed files are not replayed again
+    Assertions.assertEquals(0, FailoverSpill.replay(spillDir.getAbsolutePath, new CollectWriter))
+  }
+
+  @Test
+  def writeAfterClose(): Unit = {
+    val writer = new FailoverWriter(FailoverStorageType.NONE, null)
+    Assertions.assertNull(writer.write(SinkRequest(List("insert into t values(1)"))).get())
+    writer.close()
+    val closed = writer.write(SinkRequest(List("insert into t values(2)")))
+    Assertions.assertThrows(classOf[ExecutionException], () => closed.get())
+  }
+
+  @Test
+  def writeRacingClose(): Unit = {
+    val writer = new FailoverWriter(FailoverStorageType.NONE, null, 2)
+    val futures = new CopyOnWriteArrayList[CompletableFuture[Void]]()
+    val threads = (1 to 4).map(
+      i =>
+        new Thread(
+          () =>
+            (1 to 200).foreach(
+              j => futures.add(writer.write(SinkRequest(List(s"insert into t values($i, $j)")))))))
+    threads.foreach(_.start())
+    writer.close()
+    threads.foreach(_.join())
+    // every request is either written or rejected, none is left waiting
+    Assertions.assertEquals(800, futures.size())
+    futures.foreach(
+      f =>
+        Assertions.assertTrue(
+          Try(f.get(5, TimeUnit.SECONDS)).isSuccess || f.isCompletedExceptionally))
+  }
+
+  @Test
+  def localWithoutPath(): Unit = {
+    val writer = new FailoverWriter(FailoverStorageType.Local, null)
+    val future = writer.write(SinkRequest(List("insert into t values(1)")))
+    Assertions.assertThrows(classOf[ExecutionException], () => future.get(5, TimeUnit.SECONDS))
+    writer.close()
+  }
+}
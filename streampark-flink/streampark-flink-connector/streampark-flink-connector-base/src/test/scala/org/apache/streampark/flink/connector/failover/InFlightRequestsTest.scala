@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.failover
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.io.IOException
+import java.util.concurrent.{CountDownLatch, Executors, TimeUnit}
+
+class InFlightRequestsTest {
+
+  @Test
+  def backpressure(): Unit = {
+    val inFlight = new InFlightRequests(2)
+    inFlight.acquire()
+    inFlight.acquire()
+    Assertions.assertEquals(2, inFlight.size)
+
+    val acquired = new CountDownLatch(1)
+    val executor = Executors.newSingleThreadExecutor()
+    executor.submit(new Runnable {
+      override def run(): Unit = {
+        inFlight.acquire()
+        acquired.countDown()
+      }
+    })
+    Assertions.assertFalse(acquired.await(300, TimeUnit.MILLISECONDS))
+    inFlight.release()
+    Assertions.assertTrue(acquired.await(1, TimeUnit.SECONDS))
+    executor.shutdown()
+  }
+
+  @Test
+  def awaitAll(): Unit = {
+    val inFlight = new InFlightRequests(10)
+    (1 to 3).foreach(_ => inFlight.acquire())
+    val executor = Executors.newSingleThreadScheduledExecutor()
+    (1 to 3).foreach(
+      i =>
+        executor.schedule(
+          new Runnable {
+            override def run(): Unit = inFlight.release()
+          },
+          i * 50,
+          TimeUnit.MILLISECONDS))
+    inFlight.awaitAll()
+    Assertions.assertEquals(0, inFlight.size)
+    executor.shutdown()
+  }
+
+  @Test
+  def failure(): Unit = {
+    val inFlight = new InFlightRequests(10)
+    inFlight.acquire()
+    inFlight.acquire()
+    inFlight.fail(new RuntimeException("request failed"))
+    Assertions.assertThrows(classOf[IOException], () => inFlight.awaitAll())
+    Assertions.assertThrows(classOf[IOException], () => inFlight.acquire())
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.failover
+
+import org.apache.streampark.common.util.Logger
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+import org.apache.streampark.common.util.Implicits._
+
+class SinkBufferTest extends Logger {
+
+  class CollectWriter extends SinkWriter {
+    val requests = new CopyOnWriteArrayList[SinkRequest]()
+
+    override def write(request: SinkRequest): Unit = requests.add(request)
+
+    override def close(): Unit = {}
+  }
+
+  @Test
+  def flushBySize(): Unit = {
+    val writer = new CollectWriter
+    val buffer = SinkBuffer(writer, Long.MaxValue, 3)
+    (1 to 7).foreach(i => buffer.put(s"insert into t values($i)"))
+    Assertions.assertEquals(2, writer.requests.size())
+    Assertions.assertEquals(1, buffer.bufferedSize)
+    Assertions.assertEquals(
+      List("insert into t values(4)", "insert into t values(5)", "insert into t values(6)"),
+      writer.requests.get(1).records.toList)
+
+    buffer.close()
+    Assertions.assertEquals(3, writer.requests.size())
+    Assertions.assertEquals(List("insert into t values(7)"), writer.requests.get(2).records.toList)
+    Assertions.assertEquals(0, buffer.bufferedSize)
+  }
+
+  @Test
+  def flushByInterval(): Unit = {
+    val writer = new CollectWriter
+    val buffer = SinkBuffer(writer, 10, 100)
+    buffer.put("insert into t values(1)")
+    buffer.tryAddToQueue()
+    Assertions.assertTrue(writer.requests.isEmpty)
+
+    Thread.sleep(50)
+    buffer.tryAddToQueue()
+    Assertions.assertEquals(1, writer.requests.size())
+    Assertions.assertEquals(1, writer.requests.get(0).size)
+    Assertions.assertEquals(0, buffer.bufferedSize)
+  }
+
+  @Test
+  def putCost(): Unit = {
+    val writer = new SinkWriter {
+      override def write(request: SinkRequest): Unit = {}
+      override def close(): Unit = {}
+    }
+    val buffer = SinkBuffer(writer, Long.MaxValue, 50000)
+    val records = 5000000
+    val start = System.nanoTime()
+    (0 until records).foreach(_ => buffer.put("insert into t values(1)"))
+    buffer.close()
+    logInfo(s"put $records records, time: ${(System.nanoTime() - start) / 1000000}ms")
+  }
+}
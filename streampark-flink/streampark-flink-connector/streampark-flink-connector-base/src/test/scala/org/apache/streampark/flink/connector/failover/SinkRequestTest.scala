@@ -45,4 +45,12 @@ class SinkRequestTest {
     Assertions.assertTrue(sinkRequest.sqlStatement.toSet == expectedSqlStatement.toSet)
 
   }
+
+  @Test
+  def rowTable(): Unit = {
+    val rows = List("{\"id\":1,\"name\":\"a\"}", "{\"id\":2,\"name\":\"b\"}")
+    val sinkRequest = SinkRequest(rows, rowTable = "default.table_1")
+    Assertions.assertEquals("default.table_1", sinkRequest.table)
+    Assertions.assertEquals(2, sinkRequest.size)
+  }
 }
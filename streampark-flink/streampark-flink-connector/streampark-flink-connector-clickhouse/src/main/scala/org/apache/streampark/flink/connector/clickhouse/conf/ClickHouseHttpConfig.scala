@@ -46,6 +46,8 @@ class ClickHouseHttpConfig(parameters: Properties)
 
   val hosts: List[String] = sinkOption.hosts.get()
 
+  val gzipCompression: Boolean = "gzip".equalsIgnoreCase(sinkOption.compression.get())
+
   var currentHostId: Int = 0
 
   val credentials: String = (user, password) match {
@@ -99,6 +99,15 @@ class ClickHouseSinkConfigOption(prefixStr: String, properties: Properties) exte
     defaultValue = AsyncHttpClientConfigDefaults.defaultMaxConnections(),
     classType = classOf[Int])
 
+  /**
+   * compression of the row encoded request body of the asyncRowSink, "none" or "gzip"
+   */
+  val compression: ConfigOption[String] = ConfigOption(
+    key = "compression",
+    required = false,
+    defaultValue = "none",
+    classType = classOf[String])
+
   val failoverTable: ConfigOption[String] =
     ConfigOption(key = "failover.table", required = false, classType = classOf[String])
 
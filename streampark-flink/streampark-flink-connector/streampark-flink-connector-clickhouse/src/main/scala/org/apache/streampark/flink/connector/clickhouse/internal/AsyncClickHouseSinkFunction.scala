@@ -22,11 +22,13 @@ import org.apache.streampark.common.enums.ApiType.ApiType
 import org.apache.streampark.common.util.Logger
 import org.apache.streampark.flink.connector.clickhouse.conf.ClickHouseHttpConfig
 import org.apache.streampark.flink.connector.clickhouse.internal
-import org.apache.streampark.flink.connector.clickhouse.util.ClickhouseConvertUtils.convert
+import org.apache.streampark.flink.connector.clickhouse.util.ClickhouseConvertUtils.{convert, toJSONEachRow}
 import org.apache.streampark.flink.connector.failover.{FailoverChecker, SinkBuffer}
 import org.apache.streampark.flink.connector.function.TransformFunction
 
 import org.apache.flink.configuration.Configuration
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction
 
 import java.util.Properties
@@ -35,6 +37,7 @@ import scala.util.{Failure, Try}
 
 class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, properties: Properties)
   extends RichSinkFunction[T]
+  with CheckpointedFunction
   with Logger {
 
   private[this] object Lock {
@@ -45,6 +48,9 @@ class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, propertie
   private[this] var scalaSqlFunc: T => String = _
   private[this] var javaSqlFunc: TransformFunction[T, String] = _
 
+  // if set, records are encoded to JSONEachRow rows of this table instead of sql statements
+  private[clickhouse] var rowTable: String = _
+
   // for Scala
   def this(properties: Properties, scalaSqlFunc: T => String) = {
     this(ApiType.scala, properties)
@@ -72,7 +78,11 @@ class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, propertie
           clickHouseWriter = internal.ClickHouseSinkWriter(clickHouseConf)
           failoverChecker = FailoverChecker(clickHouseConf.delayTime)
           sinkBuffer =
-            SinkBuffer(clickHouseWriter, clickHouseConf.delayTime, clickHouseConf.bufferSize)
+            SinkBuffer(
+              clickHouseWriter,
+              clickHouseConf.delayTime,
+              clickHouseConf.bufferSize,
+              rowTable)
           failoverChecker.addSinkBuffer(sinkBuffer)
           logInfo("AsyncClickHouseSink initialize... ")
         }
@@ -82,6 +92,7 @@ class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, propertie
 
   override def invoke(value: T): Unit = {
     val sql = (javaSqlFunc, scalaSqlFunc) match {
+      case _ if rowTable != null => toJSONEachRow[T](value)
       case (null, null) => convert[T](value)
       case _ =>
         apiType match {
@@ -98,6 +109,17 @@ class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, propertie
     }
   }
 
+  /**
+   * Flush the buffered records and wait until all the requests in flight are acknowledged, so the
+   * records before the checkpoint barrier are not lost on failover.
+   */
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    sinkBuffer.flush()
+    clickHouseWriter.flush()
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
   override def close(): Unit = {
     if (!isClosed) {
       Lock.lock.synchronized {
@@ -112,3 +134,17 @@ class AsyncClickHouseSinkFunction[T](apiType: ApiType = ApiType.scala, propertie
     }
   }
 }
+
+object AsyncClickHouseSinkFunction {
+
+  /**
+   * Build the sink function which writes the fields of the records as rows of the given table, see
+   * [[org.apache.streampark.flink.connector.clickhouse.util.ClickhouseConvertUtils.toJSONEachRow]]
+   */
+  def rows[T](properties: Properties, table: String): AsyncClickHouseSinkFunction[T] = {
+    require(table != null && table.nonEmpty, "[StreamPark] ClickHouse row sink table must not be empty")
+    val sinkFunction = new AsyncClickHouseSinkFunction[T](ApiType.scala, properties)
+    sinkFunction.rowTable = table
+    sinkFunction
+  }
+}
@@ -20,7 +20,7 @@ package org.apache.streampark.flink.connector.clickhouse.internal
 import org.apache.streampark.common.util.{Logger, ThreadUtils}
 import org.apache.streampark.flink.connector.clickhouse.conf.ClickHouseHttpConfig
 import org.apache.streampark.flink.connector.clickhouse.internal
-import org.apache.streampark.flink.connector.failover.{SinkRequest, SinkWriter}
+import org.apache.streampark.flink.connector.failover.{FailoverWriter, InFlightRequests, SinkRequest, SinkWriter}
 
 import org.asynchttpclient.{AsyncHttpClient, DefaultAsyncHttpClientConfig, Dsl}
 
@@ -28,6 +28,7 @@ import java.util.concurrent._
 
 import org.apache.streampark.common.util.Implicits._
 import scala.collection.mutable.ListBuffer
+import scala.util.Try
 
 case class ClickHouseSinkWriter(clickHouseConfig: ClickHouseHttpConfig)
   extends SinkWriter
@@ -44,6 +45,8 @@ case class ClickHouseSinkWriter(clickHouseConfig: ClickHouseHttpConfig)
     new LinkedBlockingQueue[Runnable],
     callbackServiceFactory)
 
+  val inFlight: InFlightRequests = new InFlightRequests(clickHouseConfig.maxInFlight)
+
   var tasks: ListBuffer[ClickHouseWriterTask] = ListBuffer[ClickHouseWriterTask]()
   var recordQueue: BlockingQueue[SinkRequest] =
     new LinkedBlockingQueue[SinkRequest](clickHouseConfig.queueCapacity)
@@ -57,19 +60,24 @@ case class ClickHouseSinkWriter(clickHouseConfig: ClickHouseHttpConfig)
   var service: ExecutorService =
     Executors.newFixedThreadPool(clickHouseConfig.numWriters, threadFactory)
 
+  val failoverWriter: FailoverWriter = clickHouseConfig.createFailoverWriter()
+
   for (i <- 0 until clickHouseConfig.numWriters) {
     val task = internal.ClickHouseWriterTask(
       i,
       clickHouseConfig,
       asyncHttpClient,
       recordQueue,
-      callbackService)
+      inFlight,
+      callbackService,
+      failoverWriter)
     tasks.add(task)
     service.submit(task)
   }
 
   def write(request: SinkRequest): Unit = {
     try {
+      inFlight.acquire()
       recordQueue.put(request)
     } catch {
       case e: InterruptedException =>
@@ -79,11 +87,15 @@ case class ClickHouseSinkWriter(clickHouseConfig: ClickHouseHttpConfig)
     }
   }
 
+  override def flush(): Unit = inFlight.awaitAll()
+
   override def close(): Unit = {
     logInfo("Closing ClickHouse-writer...")
+    Try(flush()).failed.foreach(e => logError(s"Error while flushing ClickHouse-writer,error:$e"))
     tasks.foreach(_.close())
     ThreadUtils.shutdownExecutorService(service)
     ThreadUtils.shutdownExecutorService(callbackService)
+    failoverWriter.close()
     asyncHttpClient.close()
     logInfo(s"${classOf[ClickHouseSinkWriter].getSimpleName} is closed")
   }
@@ -19,12 +19,17 @@ package org.apache.streampark.flink.connector.clickhouse.internal
 
 import org.apache.streampark.common.util.Logger
 import org.apache.streampark.flink.connector.clickhouse.conf.ClickHouseHttpConfig
-import org.apache.streampark.flink.connector.failover.{FailoverWriter, SinkRequest}
+import org.apache.streampark.flink.connector.conf.FailoverStorageType
+import org.apache.streampark.flink.connector.failover.{FailoverWriter, InFlightRequests, SinkRequest}
 
 import io.netty.handler.codec.http.HttpHeaderNames
 import org.asynchttpclient.{AsyncHttpClient, ListenableFuture, Request, Response}
 
+import java.io.ByteArrayOutputStream
+import java.nio.charset.StandardCharsets
 import java.util.concurrent.{BlockingQueue, ExecutorService, TimeUnit}
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger}
+import java.util.zip.GZIPOutputStream
 
 import org.apache.streampark.common.util.Implicits._
 import scala.util.Try
@@ -34,16 +39,15 @@ case class ClickHouseWriterTask(
     clickHouseConf: ClickHouseHttpConfig,
     asyncHttpClient: AsyncHttpClient,
     queue: BlockingQueue[SinkRequest],
-    callbackService: ExecutorService)
+    inFlight: InFlightRequests,
+    callbackService: ExecutorService,
+    failoverWriter: FailoverWriter)
   extends Runnable
   with AutoCloseable
   with Logger {
 
   @volatile var isWorking = false
 
-  val failoverWriter: FailoverWriter =
-    new FailoverWriter(clickHouseConf.storageType, clickHouseConf.getFailoverConfig)
-
   override def run(): Unit =
     try {
       isWorking = true
@@ -51,7 +55,13 @@ case class ClickHouseWriterTask(
       while (isWorking || queue.nonEmpty) {
         val req = queue.poll(300, TimeUnit.MILLISECONDS)
         if (req != null) {
-          send(req)
+          try {
+            send(req)
+          } catch {
+            case e: Exception =>
+              inFlight.fail(e)
+              throw e
+          }
         }
       }
     } catch {
@@ -63,18 +73,29 @@ case class ClickHouseWriterTask(
     }
 
   def send(sinkRequest: SinkRequest): Unit = {
-    // ClickHouse's http API does not accept EMPTY request body
-    if (sinkRequest.sqlStatement == null || sinkRequest.sqlStatement.isEmpty) {
-      logWarn(s"Skip empty sql statement")
-      return
+    val requests = if (sinkRequest.rowTable != null) {
+      // ClickHouse's http API does not accept EMPTY request body
+      if (sinkRequest.records.isEmpty) {
+        logWarn(s"Skip empty rows")
+        inFlight.release()
+        return
+      }
+      List(buildRowRequest(sinkRequest))
+    } else {
+      // ClickHouse's http API does not accept EMPTY request body
+      if (sinkRequest.sqlStatement == null || sinkRequest.sqlStatement.isEmpty) {
+        logWarn(s"Skip empty sql statement")
+        inFlight.release()
+        return
+      }
+      buildRequest(sinkRequest)
     }
-
-    val requests = buildRequest(sinkRequest)
+    val pending = new PendingResponses(requests.size)
     requests.foreach(
       request => {
         logDebug(s"Ready to fire request: $request")
         val whenResponse = asyncHttpClient.executeRequest(request)
-        val callback = respCallback(whenResponse, sinkRequest)
+        val callback = respCallback(whenResponse, sinkRequest, pending)
         whenResponse.addListener(callback, callbackService)
       })
   }
@@ -97,20 +118,73 @@ case class ClickHouseWriterTask(
       })
   }
 
-  def respCallback(whenResponse: ListenableFuture[Response], sinkRequest: SinkRequest): Runnable =
+  /**
+   * The records of the request are already encoded rows, they are sent in one request as the body
+   * of "INSERT INTO table FORMAT JSONEachRow", without parsing and regrouping sql statements.
+   */
+  private def buildRowRequest(sinkRequest: SinkRequest): Request = {
+    val bytes = new ByteArrayOutputStream(sinkRequest.records.size * 64)
+    val out = if (clickHouseConf.gzipCompression) new GZIPOutputStream(bytes, 8192) else bytes
+    sinkRequest.records.foreach(
+      row => {
+        out.write(row.getBytes(StandardCharsets.UTF_8))
+        out.write('\n')
+      })
+    out.close()
+
+    val builder = asyncHttpClient
+      .preparePost(clickHouseConf.getRandomHostUrl)
+      .addQueryParam("query", s"INSERT INTO ${sinkRequest.rowTable} FORMAT JSONEachRow")
+      .setRequestTimeout(clickHouseConf.timeout)
+      .setHeader(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=utf-8")
+      .setBody(bytes.toByteArray)
+    if (clickHouseConf.gzipCompression) {
+      builder.setHeader(HttpHeaderNames.CONTENT_ENCODING, "gzip")
+    }
+    if (clickHouseConf.credentials != null) {
+      builder.setHeader(HttpHeaderNames.AUTHORIZATION, "Basic " + clickHouseConf.credentials)
+    }
+    builder.build
+  }
+
+  /**
+   * A SinkRequest may be sent by several http requests (one for each statement), it is
+   * acknowledged or retried once all of them are responded.
+   */
+  private class PendingResponses(requests: Int) {
+    val remaining = new AtomicInteger(requests)
+    val failed = new AtomicBoolean(false)
+    @volatile var failedResponse: Response = _
+
+    def fail(response: Response): Unit = {
+      if (failed.compareAndSet(false, true)) failedResponse = response
+    }
+  }
+
+  private def respCallback(
+      whenResponse: ListenableFuture[Response],
+      sinkRequest: SinkRequest,
+      pending: PendingResponses): Runnable =
     new Runnable {
       override def run(): Unit = {
         Try(whenResponse.get()).getOrElse(null) match {
           case null =>
             logError(
               s"""Error ClickHouseSink executing callback, params = $clickHouseConf,can not get Response. """)
-            handleFailedResponse(null, sinkRequest)
+            pending.fail(null)
           case resp if resp.getStatusCode != 200 =>
             logError(
               s"Error ClickHouseSink executing callback, params = $clickHouseConf, StatusCode = ${resp.getStatusCode} ")
-            handleFailedResponse(resp, sinkRequest)
+            pending.fail(resp)
           case _ =>
         }
+        if (pending.remaining.decrementAndGet() == 0) {
+          if (pending.failed.get()) {
+            handleFailedResponse(pending.failedResponse, sinkRequest)
+          } else {
+            inFlight.release()
+          }
+        }
       }
     }
 
@@ -125,9 +199,24 @@ case class ClickHouseWriterTask(
     if (sinkRequest.attemptCounter > clickHouseConf.maxRetries) {
       logWarn(
         s"""Failed to send data to ClickHouse, cause: limit of attempts is exceeded. ClickHouse response = $response. Ready to flush data to ${clickHouseConf.storageType}""")
-      failoverWriter.write(sinkRequest)
-      logInfo(
-        s"Failover Successful, StorageType = ${clickHouseConf.storageType}, size = ${sinkRequest.size}")
+      if (clickHouseConf.storageType == FailoverStorageType.NONE) {
+        // the records are lost without a failover storage, fail the sink to replay from the last checkpoint
+        inFlight.fail(
+          new RuntimeException(s"Failed to send data to ClickHouse, ClickHouse response = $response"))
+        return
+      }
+      // acknowledged asynchronously once the failover storage has written the request
+      failoverWriter
+        .write(sinkRequest)
+        .whenComplete(
+          (_: Void, e: Throwable) =>
+            if (e == null) {
+              logInfo(
+                s"Failover Successful, StorageType = ${clickHouseConf.storageType}, size = ${sinkRequest.size}")
+              inFlight.release()
+            } else {
+              inFlight.fail(e)
+            })
     } else {
       sinkRequest.incrementCounter()
       logWarn(
@@ -138,6 +227,5 @@ case class ClickHouseWriterTask(
 
   override def close(): Unit = {
     isWorking = false
-    failoverWriter.close()
   }
 }
@@ -119,6 +119,40 @@ class ClickHouseSink(
    */
   def asyncSink[T](stream: JavaDataStream[T]): DataStreamSink[T] = asyncSink(stream, null)
 
+  /**
+   * asynchronous Write, the fields of the records are encoded as JSONEachRow rows of the table, and
+   * sent by "INSERT INTO table FORMAT JSONEachRow"
+   *
+   * @param scala
+   *   stream
+   * @param table
+   * @tparam T
+   * @return
+   */
+  def asyncRowSink[T](stream: DataStream[T], table: String): DataStreamSink[T] = {
+    require(stream != null, () => sinkNullHintMsg)
+    val sinkFun = AsyncClickHouseSinkFunction.rows[T](prop, table)
+    val sink = stream.addSink(sinkFun)
+    afterSink(sink, parallelism, name, uid)
+  }
+
+  /**
+   * asynchronous Write, the fields of the records are encoded as JSONEachRow rows of the table, and
+   * sent by "INSERT INTO table FORMAT JSONEachRow"
+   *
+   * @param java
+   *   stream
+   * @param table
+   * @tparam T
+   * @return
+   */
+  def asyncRowSink[T](stream: JavaDataStream[T], table: String): DataStreamSink[T] = {
+    require(stream != null, () => sinkNullHintMsg)
+    val sinkFun = AsyncClickHouseSinkFunction.rows[T](prop, table)
+    val sink = stream.addSink(sinkFun)
+    afterSink(sink, parallelism, name, uid)
+  }
+
   /**
    * synchronous Write
    *
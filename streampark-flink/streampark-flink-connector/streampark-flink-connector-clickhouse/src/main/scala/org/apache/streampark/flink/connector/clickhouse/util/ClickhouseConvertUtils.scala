@@ -17,14 +17,34 @@
 
 package org.apache.streampark.flink.connector.clickhouse.util
 
+import java.lang.reflect.{Field, Modifier}
+import java.time.{Instant, LocalDate, LocalDateTime, OffsetDateTime, ZonedDateTime, ZoneId}
+import java.time.format.{DateTimeFormatter, DateTimeFormatterBuilder}
+import java.time.temporal.ChronoField
+import java.util.concurrent.ConcurrentHashMap
+
+import org.apache.streampark.common.util.Implicits._
+
 object ClickhouseConvertUtils {
 
+  /** the declared fields of every record class, resolved and made accessible only once */
+  private[this] val fieldsCache = new ConcurrentHashMap[Class[_], Array[Field]]()
+
+  private[this] def fieldsOf(clazz: Class[_]): Array[Field] = {
+    fieldsCache.computeIfAbsent(
+      clazz,
+      c => {
+        val fields = c.getDeclaredFields
+        fields.foreach(_.setAccessible(true))
+        fields
+      })
+  }
+
   def convert[T](value: T): String = {
     val buffer = new StringBuilder("(")
-    val fields = value.getClass.getDeclaredFields
+    val fields = fieldsOf(value.getClass)
     fields.foreach(
       f => {
-        f.setAccessible(true)
         val v = f.get(value)
         f.getType.getSimpleName match {
           case "String" => buffer.append(s""""$v",""".stripMargin)
@@ -33,4 +53,117 @@ object ClickhouseConvertUtils {
       })
     buffer.toString().replaceFirst(",$", ")")
   }
+
+  /**
+   * Encode the record to one row of ClickHouse JSONEachRow format, the field names of the record
+   * class are used as the column names. Option is unwrapped, NaN and Infinity are written as null,
+   * the dates and times are written as "yyyy-MM-dd HH:mm:ss[.fraction]" in the time zone of the
+   * task, the maps are written as objects, the arrays and collections as arrays, the other values
+   * as strings.
+   */
+  def toJSONEachRow[T](value: T): String = {
+    val buffer = new java.lang.StringBuilder("{")
+    var first = true
+    columnsOf(value.getClass).foreach(
+      f => {
+        if (!first) buffer.append(',')
+        first = false
+        appendString(buffer, f.getName)
+        buffer.append(':')
+        appendValue(buffer, f.get(value))
+      })
+    buffer.append('}').toString
+  }
+
+  /** the fields written as columns, without the static and the compiler generated ones */
+  private[this] val columnsCache = new ConcurrentHashMap[Class[_], Array[Field]]()
+
+  private[this] def columnsOf(clazz: Class[_]): Array[Field] = {
+    columnsCache.computeIfAbsent(
+      clazz,
+      c => fieldsOf(c).filter(f => !Modifier.isStatic(f.getModifiers) && !f.isSynthetic))
+  }
+
+  private[this] val dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd")
+
+  private[this] val dateTimeFormatter = new DateTimeFormatterBuilder()
+    .appendPattern("yyyy-MM-dd HH:mm:ss")
+    .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+    .toFormatter
+
+  private[this] def appendValue(buffer: java.lang.StringBuilder, value: Any): Unit = {
+    value match {
+      case null | None => buffer.append("null")
+      case Some(v) => appendValue(buffer, v)
+      case v: JavaDouble if v.isNaN || v.isInfinite => buffer.append("null")
+      case v: JavaFloat if v.isNaN || v.isInfinite => buffer.append("null")
+      case v: java.math.BigDecimal => buffer.append(v.toPlainString)
+      case v: BigDecimal => buffer.append(v.bigDecimal.toPlainString)
+      case v @ (_: java.lang.Number | _: java.lang.Boolean) => buffer.append(v)
+      case v: java.sql.Date => appendString(buffer, v.toLocalDate.format(dateFormatter))
+      case v: java.sql.Timestamp => appendDateTime(buffer, v.toLocalDateTime)
+      case v: java.util.Date => appendDateTime(buffer, v.toInstant)
+      case v: LocalDate => appendString(buffer, v.format(dateFormatter))
+      case v: LocalDateTime => appendDateTime(buffer, v)
+      case v: Instant => appendDateTime(buffer, v)
+      case v: ZonedDateTime => appendDateTime(buffer, v.toInstant)
+      case v: OffsetDateTime => appendDateTime(buffer, v.toInstant)
+      case v: JavaMap[_, _] => appendMap(buffer, v.asScala)
+      case v: collection.Map[_, _] => appendMap(buffer, v)
+      case v: Array[_] => appendArray(buffer, v)
+      case v: java.lang.Iterable[_] => appendArray(buffer, v.asScala)
+      case v: Iterable[_] => appendArray(buffer, v)
+      case v => appendString(buffer, v.toString)
+    }
+  }
+
+  private[this] def appendDateTime(buffer: java.lang.StringBuilder, value: Instant): Unit =
+    appendDateTime(buffer, LocalDateTime.ofInstant(value, ZoneId.systemDefault()))
+
+  private[this] def appendDateTime(buffer: java.lang.StringBuilder, value: LocalDateTime): Unit =
+    appendString(buffer, value.format(dateTimeFormatter))
+
+  private[this] def appendMap(buffer: java.lang.StringBuilder, map: collection.Map[_, _]): Unit = {
+    buffer.append('{')
+    var first = true
+    map.foreach {
+      case (k, v) =>
+        if (!first) buffer.append(',')
+        first = false
+        appendString(buffer, String.valueOf(k))
+        buffer.append(':')
+        appendValue(buffer, v)
+    }
+    buffer.append('}')
+  }
+
+  private[this] def appendArray(buffer: java.lang.StringBuilder, values: Iterable[_]): Unit = {
+    buffer.append('[')
+    var first = true
+    values.foreach(
+      v => {
+        if (!first) buffer.append(',')
+        first = false
+        appendValue(buffer, v)
+      })
+    buffer.append(']')
+  }
+
+  private[this] def appendString(buffer: java.lang.StringBuilder, value: String): Unit = {
+    buffer.append('"')
+    var i = 0
+    while (i < value.length) {
+      value.charAt(i) match {
+        case '"' => buffer.append("\\\"")
+        case '\\' => buffer.append("\\\\")
+        case '\n' => buffer.append("\\n")
+        case '\r' => buffer.append("\\r")
+        case '\t' => buffer.append("\\t")
+        case c if c < ' ' => buffer.append(f"\\u${c.toInt}%04x")
+        case c => buffer.append(c)
+      }
+      i += 1
+    }
+    buffer.append('"')
+  }
 }
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.connector.clickhouse.util
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.sql.Timestamp
+import java.time.{LocalDate, LocalDateTime}
+import java.util
+
+class ClickhouseConvertUtilsTest {
+
+  import ClickhouseConvertUtilsTest._
+
+  /** an inner class, it holds the compiler generated reference of the outer instance */
+  class Inner(val id: Int)
+
+  @Test
+  def escapeStrings(): Unit = {
+    Assertions.assertEquals(
+      """{"name":"a\"b\\c\nd\te""" + "\\u0001\"}",
+      ClickhouseConvertUtils.toJSONEachRow(Name("a\"b\\c\nd\te\u0001")))
+  }
+
+  @Test
+  def nullsAndOptions(): Unit = {
+    Assertions.assertEquals(
+      """{"name":null,"age":null,"email":"a@b.c"}""",
+      ClickhouseConvertUtils.toJSONEachRow(User(null, None, Some("a@b.c"))))
+  }
+
+  @Test
+  def numbers(): Unit = {
+    Assertions.assertEquals(
+      """{"i":1,"l":-2,"d":1.5,"nan":null,"inf":null,"f":null,""" +
+        """"big":100000000000000000000,"ok":true}""",
+      ClickhouseConvertUtils.toJSONEachRow(
+        Numbers(
+          1,
+          -2L,
+          1.5d,
+          Double.NaN,
+          Double.PositiveInfinity,
+          Float.NegativeInfinity,
+          new java.math.BigDecimal("1E+20"),
+          ok = true))
+    )
+  }
+
+  @Test
+  def datesAndTimes(): Unit = {
+    Assertions.assertEquals(
+      """{"day":"2024-02-29","time":"2024-02-29 12:30:05","precise":"2024-02-29 12:30:05.123"}""",
+      ClickhouseConvertUtils.toJSONEachRow(
+        Times(
+          LocalDate.of(2024, 2, 29),
+          LocalDateTime.of(2024, 2, 29, 12, 30, 5),
+          Timestamp.valueOf("2024-02-29 12:30:05.123")))
+    )
+  }
+
+  @Test
+  def nesting(): Unit = {
+    val attrs = new util.LinkedHashMap[String, Any]()
+    attrs.put("k", Seq(1, 2))
+    attrs.put("n", null)
+    Assertions.assertEquals(
+      """{"tags":["a","b"],"scores":[1.0,null],"attrs":{"k":[1,2],"n":null}}""",
+      ClickhouseConvertUtils.toJSONEachRow(
+        Nested(Array("a", "b"), util.Arrays.asList(1.0d, Double.NaN), attrs)))
+  }
+
+  @Test
+  def skipSyntheticFields(): Unit = {
+    Assertions.assertEquals("""{"id":7}""", ClickhouseConvertUtils.toJSONEachRow(new Inner(7)))
+  }
+
+}
+
+object ClickhouseConvertUtilsTest {
+
+  case class Name(name: String)
+
+  case class User(name: String, age: Option[Int], email: Option[String])
+
+  case class Numbers(
+      i: Int,
+      l: Long,
+      d: Double,
+      nan: Double,
+      inf: Double,
+      f: Float,
+      big: java.math.BigDecimal,
+      ok: Boolean)
+
+  case class Times(day: LocalDate, time: LocalDateTime, precise: Timestamp)
+
+  case class Nested(tags: Array[String], scores: util.List[Double], attrs: util.Map[String, Any])
+
+}
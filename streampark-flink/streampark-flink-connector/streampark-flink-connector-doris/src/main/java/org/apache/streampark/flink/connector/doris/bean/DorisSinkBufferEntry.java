@@ -17,31 +17,63 @@
 
 package org.apache.streampark.flink.connector.doris.bean;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
-/** doris sink buffer */
+/**
+ * doris sink buffer. A chunked buffer appends the records and the separators between them to fixed
+ * size chunks as they arrive, the chunks are written to the stream load as they are, without a per
+ * record array or a copy of the whole batch.
+ *
+ * <p>The buffers of EXACTLY_ONCE are the operator state, which Kryo serializes field by field, so
+ * they keep one array per record in {@link #buffer} and the serialized fields are unchanged, the
+ * chunks are transient and only used by the buffers never put into the state.
+ */
 public class DorisSinkBufferEntry implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  private static final int CHUNK_SIZE = 64 * 1024;
+
   public List<byte[]> getBuffer() {
     return buffer;
   }
 
   private List<byte[]> buffer = new ArrayList<>();
+
+  /**
+   * the chunks of the records and the separators, only the last chunk is partially filled. It is
+   * null unless the buffer is chunked, also after deserialization.
+   */
+  private transient List<byte[]> chunks;
+  // the filled size of the last chunk
+  private transient int position = 0;
   private int batchCount = 0;
-  private long batchSize = 0;
+  // the bytes of the records without the separators, volatile as it is read by the metric gauges
+  private volatile long batchSize = 0;
   private String label;
   private String database;
   private String table;
   private String labelPrefix;
 
   public DorisSinkBufferEntry(String database, String table, String labelPrefix) {
+    this(database, table, labelPrefix, false);
+  }
+
+  public DorisSinkBufferEntry(
+      String database, String table, String labelPrefix, boolean chunked) {
     this.database = database;
     this.table = table;
     this.labelPrefix = labelPrefix;
+    this.chunks = chunked ? new ArrayList<>() : null;
     label = createLabel();
   }
 
@@ -97,10 +129,80 @@ public class DorisSinkBufferEntry implements Serializable {
     this.labelPrefix = labelPrefix;
   }
 
-  public void addToBuffer(byte[] bytes) {
+  /**
+   * Append the record to the buffer.
+   *
+   * @param bytes the record
+   * @param separator the bytes between the records, e.g. the row delimiter
+   */
+  public void addToBuffer(byte[] bytes, byte[] separator) {
+    if (chunks == null) {
+      buffer.add(bytes);
+    } else {
+      if (batchCount > 0) {
+        append(separator);
+      }
+      append(bytes);
+    }
     incBatchCount();
     incBatchSize(bytes.length);
-    buffer.add(bytes);
+  }
+
+  private void append(byte[] bytes) {
+    int offset = 0;
+    while (offset < bytes.length) {
+      if (chunks.isEmpty() || position == CHUNK_SIZE) {
+        chunks.add(new byte[CHUNK_SIZE]);
+        position = 0;
+      }
+      int length = Math.min(bytes.length - offset, CHUNK_SIZE - position);
+      System.arraycopy(bytes, offset, chunks.get(chunks.size() - 1), position, length);
+      position += length;
+      offset += length;
+    }
+  }
+
+  /** The bytes of the records joined by the separator. */
+  public long getBodyLength(byte[] separator) {
+    return batchSize + (long) separator.length * Math.max(batchCount - 1, 0);
+  }
+
+  /** Write the records joined by the separator to the stream. */
+  public void writeTo(OutputStream out, byte[] separator) throws IOException {
+    if (chunks == null) {
+      for (int i = 0; i < buffer.size(); i++) {
+        if (i > 0) {
+          out.write(separator);
+        }
+        out.write(buffer.get(i));
+      }
+      return;
+    }
+    for (int i = 0; i < chunks.size(); i++) {
+      out.write(chunks.get(i), 0, chunkLength(i));
+    }
+  }
+
+  /** Read the records joined by the separator without copying them. */
+  public InputStream getInputStream(byte[] separator) {
+    List<InputStream> streams = new ArrayList<>();
+    if (chunks == null) {
+      for (int i = 0; i < buffer.size(); i++) {
+        if (i > 0) {
+          streams.add(new ByteArrayInputStream(separator));
+        }
+        streams.add(new ByteArrayInputStream(buffer.get(i)));
+      }
+    } else {
+      for (int i = 0; i < chunks.size(); i++) {
+        streams.add(new ByteArrayInputStream(chunks.get(i), 0, chunkLength(i)));
+      }
+    }
+    return new SequenceInputStream(Collections.enumeration(streams));
+  }
+
+  private int chunkLength(int index) {
+    return index == chunks.size() - 1 ? position : CHUNK_SIZE;
   }
 
   private void incBatchSize(long batchSize) {
@@ -113,6 +215,10 @@ public class DorisSinkBufferEntry implements Serializable {
 
   public synchronized void clear() {
     buffer.clear();
+    if (chunks != null) {
+      chunks.clear();
+    }
+    position = 0;
     batchCount = 0;
     batchSize = 0;
     label = createLabel();
@@ -25,6 +25,8 @@ import org.apache.streampark.flink.connector.doris.bean.LoadStatusFailedExceptio
 
 import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +42,15 @@ import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Buffers the records of every table and loads the batches to doris asynchronously. The batches
+ * are loaded by {@link DorisConfig#flushThreads()} workers, a table always goes to the same worker
+ * (partitioned by the hash of "database.table"), so different tables are loaded concurrently and
+ * the batches of one table are loaded in order.
+ */
 public class DorisSinkWriter implements Serializable {
   private static final long serialVersionUID = 1L;
   private static final Logger LOG = LoggerFactory.getLogger(DorisSinkWriter.class);
@@ -57,14 +67,26 @@ public class DorisSinkWriter implements Serializable {
   private transient Counter totalFlushTimeWithoutRetries;
   private transient Counter totalFlushSucceededTimes;
   private transient Counter totalFlushFailedTimes;
+  private transient MetricGroup metricGroup;
+  private transient Map<String, Gauge<Long>> bufferedBytesGauges;
 
   private final Map<String, DorisSinkBufferEntry> bufferMap = new ConcurrentHashMap<>();
+  /** the bytes of all the buffers, published to the gauge of the metrics thread */
+  private final AtomicLong bufferedBytes = new AtomicLong(0);
   private final Long timeout = 3000L;
   private volatile boolean closed = false;
   private volatile boolean flushThreadAlive = false;
   private volatile Throwable flushException;
 
-  final LinkedBlockingDeque<DorisSinkBufferEntry> flushQueue = new LinkedBlockingDeque<>(10);
+  /** the flush queue of every worker */
+  private final LinkedBlockingDeque<DorisSinkBufferEntry>[] flushQueues;
+
+  /** the number of batches offered but not loaded yet */
+  private final AtomicInteger pendingFlushes = new AtomicInteger(0);
+
+  // the locks must be serializable as the writer is a field of the sink function
+  private final Object scheduleLock = new Object[0];
+  private final Object metricsLock = new Object[0];
 
   private static final String COUNTER_TOTAL_FLUSH_BYTES = "totalFlushBytes";
   private static final String COUNTER_TOTAL_FLUSH_ROWS = "totalFlushRows";
@@ -73,13 +95,23 @@ public class DorisSinkWriter implements Serializable {
   private static final String COUNTER_TOTAL_FLUSH_COST_TIME = "totalFlushTimeNs";
   private static final String COUNTER_TOTAL_FLUSH_SUCCEEDED_TIMES = "totalFlushSucceededTimes";
   private static final String COUNTER_TOTAL_FLUSH_FAILED_TIMES = "totalFlushFailedTimes";
+  private static final String GAUGE_BUFFERED_BYTES = "bufferedBytes";
 
   private final Semantic semantic;
 
+  /** the bytes between two records in the load body */
+  private final byte[] recordSeparator;
+
+  @SuppressWarnings("unchecked")
   public DorisSinkWriter(DorisConfig dorisConfig) {
     this.streamLoader = new DorisStreamLoader(dorisConfig);
     this.dorisConfig = dorisConfig;
     semantic = Semantic.of(dorisConfig.semantic());
+    this.recordSeparator = streamLoader.getRecordSeparator();
+    this.flushQueues = new LinkedBlockingDeque[Math.max(dorisConfig.flushThreads(), 1)];
+    for (int i = 0; i < flushQueues.length; i++) {
+      flushQueues[i] = new LinkedBlockingDeque<>(10);
+    }
   }
 
   public void setRuntimeContext(RuntimeContext runtimeCtx) {
@@ -91,68 +123,100 @@ public class DorisSinkWriter implements Serializable {
     totalFlushSucceededTimes =
         runtimeCtx.getMetricGroup().counter(COUNTER_TOTAL_FLUSH_SUCCEEDED_TIMES);
     totalFlushFailedTimes = runtimeCtx.getMetricGroup().counter(COUNTER_TOTAL_FLUSH_FAILED_TIMES);
+    metricGroup = runtimeCtx.getMetricGroup();
+    bufferedBytesGauges = new ConcurrentHashMap<>();
+    metricGroup.gauge(GAUGE_BUFFERED_BYTES, (Gauge<Long>) bufferedBytes::get);
+  }
+
+  /** Register the gauge of the bytes buffered for the table, the first time it is written. */
+  private void registerBufferedBytesGauge(String bufferKey) {
+    if (metricGroup == null || bufferedBytesGauges.containsKey(bufferKey)) {
+      return;
+    }
+    Gauge<Long> gauge =
+        () -> {
+          DorisSinkBufferEntry entry = bufferMap.get(bufferKey);
+          return entry == null ? 0L : entry.getBatchSize();
+        };
+    bufferedBytesGauges.put(bufferKey, gauge);
+    metricGroup.addGroup("table", bufferKey).gauge(GAUGE_BUFFERED_BYTES, gauge);
   }
 
   public void startAsyncFlushing() {
-    final Thread flushThread =
-        new Thread(
-            () -> {
-              while (true) {
-                try {
-                  if (!asyncFlush()) {
-                    LOG.info("doris flush thread is about to exit.");
-                    flushThreadAlive = false;
-                    break;
+    for (int i = 0; i < flushQueues.length; i++) {
+      final LinkedBlockingDeque<DorisSinkBufferEntry> flushQueue = flushQueues[i];
+      final Thread flushThread =
+          new Thread(
+              () -> {
+                while (true) {
+                  try {
+                    if (!asyncFlush(flushQueue)) {
+                      LOG.info("doris flush thread is about to exit.");
+                      flushThreadAlive = false;
+                      break;
+                    }
+                  } catch (Exception e) {
+                    flushException = e;
                   }
-                } catch (Exception e) {
-                  flushException = e;
                 }
-              }
-            });
-    flushThread.setUncaughtExceptionHandler(
-        (t, e) -> {
-          LOG.error("dorics flush thread uncaught exception occurred:" + e.getMessage(), e);
-          flushException = e;
-          flushThreadAlive = false;
-        });
-    flushThread.setName("doris-flush");
-    flushThread.setDaemon(true);
-    flushThread.start();
+              });
+      flushThread.setUncaughtExceptionHandler(
+          (t, e) -> {
+            LOG.error("dorics flush thread uncaught exception occurred:" + e.getMessage(), e);
+            flushException = e;
+            flushThreadAlive = false;
+          });
+      flushThread.setName(flushQueues.length == 1 ? "doris-flush" : "doris-flush-" + i);
+      flushThread.setDaemon(true);
+      flushThread.start();
+    }
     flushThreadAlive = true;
   }
 
+  /**
+   * Start flushing all the tables every {@link DorisConfig#flushInterval()}, calling it again while
+   * the schedule is running is a no-op.
+   */
   public void startScheduler() {
     if (semantic.equals(Semantic.EXACTLY_ONCE)) {
       return;
     }
-    stopSchedule();
-    this.schedule =
-        Executors.newScheduledThreadPool(1, ThreadUtils.threadFactory("doris-interval-sink"));
-    this.scheduledFuture =
-        this.schedule.schedule(
-            () -> {
-              synchronized (DorisSinkWriter.this) {
-                if (!closed) {
-                  try {
-                    LOG.info("doris interval sinking trigger");
-                    if (bufferMap.isEmpty()) {
-                      startScheduler();
+    synchronized (scheduleLock) {
+      if (schedule != null) {
+        return;
+      }
+      this.schedule =
+          Executors.newScheduledThreadPool(1, ThreadUtils.threadFactory("doris-interval-sink"));
+      this.scheduledFuture =
+          this.schedule.scheduleWithFixedDelay(
+              () -> {
+                synchronized (DorisSinkWriter.this) {
+                  if (!closed && !bufferMap.isEmpty()) {
+                    try {
+                      LOG.info("doris interval sinking trigger");
+                      flush(null, false);
+                    } catch (Exception e) {
+                      flushException = e;
                     }
-                    flush(null, false);
-                  } catch (Exception e) {
-                    flushException = e;
                   }
                 }
-              }
-            },
-            dorisConfig.flushInterval(),
-            TimeUnit.MILLISECONDS);
+              },
+              dorisConfig.flushInterval(),
+              dorisConfig.flushInterval(),
+              TimeUnit.MILLISECONDS);
+    }
   }
 
+  /** Stop the interval flushing, calling it again after the schedule is stopped is a no-op. */
   private void stopSchedule() {
-    if (this.scheduledFuture != null) {
+    synchronized (scheduleLock) {
+      if (this.schedule == null) {
+        return;
+      }
       scheduledFuture.cancel(false);
       this.schedule.shutdown();
+      this.scheduledFuture = null;
+      this.schedule = null;
     }
   }
 
@@ -166,11 +230,21 @@ public class DorisSinkWriter implements Serializable {
       final String bufferKey = String.format("%s.%s", database, table);
       final DorisSinkBufferEntry bufferEntity =
           bufferMap.computeIfAbsent(
-              bufferKey, k -> new DorisSinkBufferEntry(database, table, dorisConfig.labelPrefix()));
+              bufferKey,
+              // the buffers of EXACTLY_ONCE are the operator state, they are not chunked
+              k ->
+                  new DorisSinkBufferEntry(
+                      database,
+                      table,
+                      dorisConfig.labelPrefix(),
+                      !Semantic.EXACTLY_ONCE.equals(semantic)));
+      registerBufferedBytesGauge(bufferKey);
+      final long bufferedBefore = bufferEntity.getBatchSize();
       for (String record : records) {
         byte[] bts = record.getBytes(StandardCharsets.UTF_8);
-        bufferEntity.addToBuffer(bts);
+        bufferEntity.addToBuffer(bts, recordSeparator);
       }
+      bufferedBytes.addAndGet(bufferEntity.getBatchSize() - bufferedBefore);
       if (Semantic.EXACTLY_ONCE.equals(semantic)) {
         return;
       }
@@ -193,8 +267,12 @@ public class DorisSinkWriter implements Serializable {
       return;
     }
     if (null == bufferKey) {
+      // offer all the tables to the workers at first, then wait for them together
       for (String key : bufferMap.keySet()) {
-        flushInternal(key, waitUntilDone);
+        flushInternal(key, false);
+      }
+      if (waitUntilDone) {
+        waitAsyncFlushingDone();
       }
       return;
     }
@@ -210,8 +288,10 @@ public class DorisSinkWriter implements Serializable {
       }
       return;
     }
-    offer(bufferMap.get(bufferKey));
+    DorisSinkBufferEntry bufferEntity = bufferMap.get(bufferKey);
+    offer(bufferKey, bufferEntity);
     bufferMap.remove(bufferKey);
+    bufferedBytes.addAndGet(-bufferEntity.getBatchSize());
     if (waitUntilDone) {
       // wait the last flush
       waitAsyncFlushingDone();
@@ -219,17 +299,27 @@ public class DorisSinkWriter implements Serializable {
   }
 
   private void waitAsyncFlushingDone() throws InterruptedException {
-    // wait for previous flushings
-    offer(new DorisSinkBufferEntry(null, null, null));
+    // wait for previous flushings of all the workers
+    synchronized (pendingFlushes) {
+      while (pendingFlushes.get() > 0) {
+        checkFlushException();
+        pendingFlushes.wait(100);
+      }
+    }
     checkFlushException();
   }
 
-  private void offer(DorisSinkBufferEntry bufferEntity) throws InterruptedException {
+  private void offer(String bufferKey, DorisSinkBufferEntry bufferEntity)
+      throws InterruptedException {
     if (!flushThreadAlive) {
       throw new RuntimeException(
           "Flush thread already exit or not start ,please exec  startAsyncFlushing() , ignore offer request for label[%s] ");
     }
+    LinkedBlockingDeque<DorisSinkBufferEntry> flushQueue =
+        flushQueues[Math.floorMod(bufferKey.hashCode(), flushQueues.length)];
+    pendingFlushes.incrementAndGet();
     if (!flushQueue.offer(bufferEntity, dorisConfig.sinkOfferTimeout(), TimeUnit.MILLISECONDS)) {
+      flushDone();
       throw new RuntimeException(
           "Timeout while offering data to flushQueue, exceed "
               + dorisConfig.sinkOfferTimeout()
@@ -238,12 +328,32 @@ public class DorisSinkWriter implements Serializable {
     }
   }
 
-  private boolean asyncFlush() throws Exception {
+  private void flushDone() {
+    if (pendingFlushes.decrementAndGet() == 0) {
+      synchronized (pendingFlushes) {
+        pendingFlushes.notifyAll();
+      }
+    }
+  }
+
+  private boolean asyncFlush(LinkedBlockingDeque<DorisSinkBufferEntry> flushQueue)
+      throws Exception {
     final DorisSinkBufferEntry flushData = flushQueue.poll(timeout, TimeUnit.MILLISECONDS);
-    if (flushData == null || flushData.getBatchCount() == 0) {
+    if (flushData == null) {
       return true;
     }
-    stopSchedule();
+    try {
+      loadBatch(flushData);
+    } finally {
+      flushDone();
+    }
+    return true;
+  }
+
+  private void loadBatch(DorisSinkBufferEntry flushData) throws Exception {
+    if (flushData.getBatchCount() == 0) {
+      return;
+    }
     LOG.info(
         String.format(
             "Async stream load: db[%s] table[%s] rows[%d] bytes[%d] label[%s].",
@@ -259,20 +369,23 @@ public class DorisSinkWriter implements Serializable {
         streamLoader.doStreamLoad(flushData);
         LOG.info(String.format("Async stream load finished: label[%s].", flushData.getLabel()));
         if (null != totalFlushBytes) {
-          totalFlushBytes.inc(flushData.getBatchSize());
-          totalFlushRows.inc(flushData.getBatchCount());
-          totalFlushTime.inc(System.nanoTime() - startWithRetries);
-          totalFlushTimeWithoutRetries.inc(System.nanoTime() - start);
-          totalFlushSucceededTimes.inc();
+          synchronized (metricsLock) {
+            totalFlushBytes.inc(flushData.getBatchSize());
+            totalFlushRows.inc(flushData.getBatchCount());
+            totalFlushTime.inc(System.nanoTime() - startWithRetries);
+            totalFlushTimeWithoutRetries.inc(System.nanoTime() - start);
+            totalFlushSucceededTimes.inc();
+          }
         }
-        startScheduler();
         break;
       } catch (Exception e) {
         if (totalFlushFailedTimes != null) {
-          totalFlushFailedTimes.inc();
+          synchronized (metricsLock) {
+            totalFlushFailedTimes.inc();
+          }
         }
         LOG.warn("Failed to flush batch data to doris, retry times = {}", i, e);
-        if (i >= dorisConfig.sinkMaxRetries()) {
+        if (i >= dorisConfig.sinkMaxRetries() - 1) {
           throw e;
         }
         if (e instanceof LoadStatusFailedException
@@ -291,18 +404,21 @@ public class DorisSinkWriter implements Serializable {
         throw new IOException("Unable to flush, interrupted while doing another attempt", ex);
       }
     }
-    return true;
   }
 
   public synchronized void close() throws Exception {
     if (!closed) {
       closed = true;
       LOG.info("Sink is about to close.");
-      flush(null, false);
-      this.bufferMap.clear();
-      if (scheduledFuture != null) {
-        scheduledFuture.cancel(false);
-        schedule.shutdown();
+      stopSchedule();
+      try {
+        // wait for the in-flight loads before closing the http client they are using
+        flush(null, true);
+        checkFlushException();
+      } finally {
+        this.bufferMap.clear();
+        bufferedBytes.set(0);
+        streamLoader.close();
       }
     }
     checkFlushException();
@@ -331,6 +447,8 @@ public class DorisSinkWriter implements Serializable {
     if (Semantic.EXACTLY_ONCE.equals(semantic)) {
       bufferMap.clear();
       bufferMap.putAll(newBufferMap);
+      bufferedBytes.set(
+          bufferMap.values().stream().mapToLong(DorisSinkBufferEntry::getBatchSize).sum());
     }
   }
 }
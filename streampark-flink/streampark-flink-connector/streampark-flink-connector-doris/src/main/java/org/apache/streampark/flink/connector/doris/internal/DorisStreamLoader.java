@@ -25,34 +25,49 @@ import org.apache.streampark.flink.connector.doris.util.DorisDelimiterParser;
 
 import org.apache.streampark.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.http.HttpHeaders;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.io.Serializable;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
-public class DorisStreamLoader implements Serializable {
+/**
+ * Stream load client of doris. All the loads share one pooled keep-alive http client, which is
+ * thread-safe and used by the concurrent flush workers of {@link DorisSinkWriter}. The load hosts
+ * are selected round-robin, a host failed to connect is skipped for {@link
+ * #UNHEALTHY_HOST_RETRY_MILLIS} instead of probing every host before each load.
+ */
+public class DorisStreamLoader implements Serializable, Closeable {
 
   private static final long serialVersionUID = 1L;
 
@@ -69,9 +84,27 @@ public class DorisStreamLoader implements Serializable {
   private static final String RESULT_LABEL_PREPARE = "PREPARE";
   private static final String RESULT_LABEL_ABORTED = "ABORTED";
   private static final String RESULT_LABEL_UNKNOWN = "UNKNOWN";
+  private static final long UNHEALTHY_HOST_RETRY_MILLIS = 30_000L;
+
+  /** Map<host, the time until which the host is skipped> */
+  private final Map<String, Long> unhealthyHosts = new ConcurrentHashMap<>();
+
+  private transient volatile CloseableHttpClient httpClient;
+
+  /** the bytes between two records in the load body */
+  private final byte[] recordSeparator;
 
   public DorisStreamLoader(DorisConfig dorisConfig) {
     this.dorisConfig = dorisConfig;
+    this.recordSeparator =
+        DorisConfig.JSON().equalsIgnoreCase(dorisConfig.loadFormat())
+            ? ",".getBytes(StandardCharsets.UTF_8)
+            : DorisDelimiterParser.parse(dorisConfig.rowDelimiter())
+                .getBytes(StandardCharsets.UTF_8);
+  }
+
+  public byte[] getRecordSeparator() {
+    return recordSeparator;
   }
 
   public RespContent doStreamLoad(DorisSinkBufferEntry bufferEntity) throws IOException {
@@ -80,14 +113,17 @@ public class DorisStreamLoader implements Serializable {
       throw new IOException("None of the hosts in `load_url` could be connected.");
     }
 
-    LOG.info(String.format("Start to join batch data: label[%s].", bufferEntity.getLabel()));
     String loadUrl =
         String.format(LOAD_URL_PATTERN, host, bufferEntity.getDatabase(), bufferEntity.getTable());
-    LoadResponse loadResponse =
-        doHttpPut(
-            loadUrl,
-            bufferEntity.getLabel(),
-            joinRows(bufferEntity.getBuffer(), (int) bufferEntity.getBatchSize()));
+    LoadResponse loadResponse;
+    try {
+      loadResponse = doHttpPut(loadUrl, bufferEntity.getLabel(), bodyEntity(bufferEntity));
+      unhealthyHosts.remove(host);
+    } catch (IOException e) {
+      unhealthyHosts.put(host, System.currentTimeMillis() + UNHEALTHY_HOST_RETRY_MILLIS);
+      LOG.warn("Failed to stream load to address:{}, skip it in the next loads", host);
+      throw e;
+    }
     if (LOG.isDebugEnabled()) {
       LOG.debug(String.format("Stream Load response: \n%s\n", loadResponse.respContent));
     }
@@ -122,59 +158,56 @@ public class DorisStreamLoader implements Serializable {
       } catch (InterruptedException e) {
         return;
       }
-      try (CloseableHttpClient httpclient = HttpClients.createDefault()) {
-        HttpGet httpGet = new HttpGet(String.format(GET_LOAD_STATUS_URL, host, database, label));
-        httpGet.setHeader(
-            HttpHeaders.AUTHORIZATION,
-            getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
-        httpGet.setHeader("Connection", "close");
-        try (CloseableHttpResponse response = httpclient.execute(httpGet)) {
-          final int statusCode = response.getStatusLine().getStatusCode();
-          String loadResult = "{}";
-          if (response.getEntity() != null) {
-            loadResult = EntityUtils.toString(response.getEntity());
-          }
-          if (statusCode != 200) {
+      HttpGet httpGet = new HttpGet(String.format(GET_LOAD_STATUS_URL, host, database, label));
+      httpGet.setHeader(
+          HttpHeaders.AUTHORIZATION,
+          getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
+      try (CloseableHttpResponse response = getHttpClient().execute(httpGet)) {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        String loadResult = "{}";
+        if (response.getEntity() != null) {
+          loadResult = EntityUtils.toString(response.getEntity());
+        }
+        if (statusCode != 200) {
+          throw new LoadStatusFailedException(
+              String.format(
+                  "Failed to flush data to doris, Error "
+                      + "could not get the final state of label[%s].%n",
+                  label),
+              null);
+        }
+        Map<String, Object> result = OBJECT_MAPPER.readValue(loadResult, HashMap.class);
+        String labelState = (String) result.get("state");
+        if (null == labelState) {
+          throw new LoadStatusFailedException(
+              String.format(
+                  "Failed to flush data to doris, Error "
+                      + "could not get the final state of label[%s]. response[%s]%n",
+                  label, loadResult),
+              null);
+        }
+        LOG.info(String.format("Checking label[%s] state[%s]%n", label, labelState));
+        switch (labelState) {
+          case LAEBL_STATE_VISIBLE:
+            return;
+          case LAEBL_STATE_COMMITTED:
+            return;
+          case RESULT_LABEL_PREPARE:
+            continue;
+          case RESULT_LABEL_ABORTED:
             throw new LoadStatusFailedException(
                 String.format(
-                    "Failed to flush data to doris, Error "
-                        + "could not get the final state of label[%s].%n",
-                    label),
-                null);
-          }
-          Map<String, Object> result = OBJECT_MAPPER.readValue(loadResult, HashMap.class);
-          String labelState = (String) result.get("state");
-          if (null == labelState) {
+                    "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
+                    label, labelState),
+                null,
+                true);
+          case RESULT_LABEL_UNKNOWN:
+          default:
             throw new LoadStatusFailedException(
                 String.format(
-                    "Failed to flush data to doris, Error "
-                        + "could not get the final state of label[%s]. response[%s]%n",
-                    label, loadResult),
+                    "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
+                    label, labelState),
                 null);
-          }
-          LOG.info(String.format("Checking label[%s] state[%s]%n", label, labelState));
-          switch (labelState) {
-            case LAEBL_STATE_VISIBLE:
-              return;
-            case LAEBL_STATE_COMMITTED:
-              return;
-            case RESULT_LABEL_PREPARE:
-              continue;
-            case RESULT_LABEL_ABORTED:
-              throw new LoadStatusFailedException(
-                  String.format(
-                      "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
-                      label, labelState),
-                  null,
-                  true);
-            case RESULT_LABEL_UNKNOWN:
-            default:
-              throw new LoadStatusFailedException(
-                  String.format(
-                      "Failed to flush data to doris, Error " + "label[%s] state[%s]%n",
-                      label, labelState),
-                  null);
-          }
         }
       }
     }
@@ -186,97 +219,197 @@ public class DorisStreamLoader implements Serializable {
     return "Basic " + new String(encodedAuth);
   }
 
-  private LoadResponse doHttpPut(String loadUrl, String label, byte[] data) throws IOException {
+  private LoadResponse doHttpPut(String loadUrl, String label, AbstractHttpEntity entity)
+      throws IOException {
     LOG.info(
         String.format(
-            "Executing stream load to: '%s', size: '%s', thread: %d",
-            loadUrl, data.length, Thread.currentThread().getId()));
-    final HttpClientBuilder httpClientBuilder =
-        HttpClients.custom()
-            .setRedirectStrategy(
-                new DefaultRedirectStrategy() {
-                  @Override
-                  protected boolean isRedirectable(String method) {
-                    return true;
-                  }
-                });
-    try (CloseableHttpClient httpclient = httpClientBuilder.build()) {
-      final HttpPut put = new HttpPut(loadUrl);
-      final Properties properties = dorisConfig.loadProperties();
-      properties.forEach((k, v) -> put.setHeader(k.toString(), v.toString()));
-      if (properties.containsKey("columns")) {
-        put.setHeader("timeout", String.valueOf(dorisConfig.timeout()));
+            "Executing stream load to: '%s', label: '%s', size: '%s', thread: %d",
+            loadUrl, label, entity.getContentLength(), Thread.currentThread().getId()));
+    final HttpPut put = new HttpPut(loadUrl);
+    final Properties properties = dorisConfig.loadProperties();
+    properties.forEach((k, v) -> put.setHeader(k.toString(), v.toString()));
+    if (properties.containsKey("columns")) {
+      put.setHeader("timeout", String.valueOf(dorisConfig.timeout()));
+    }
+    put.setHeader(HttpHeaders.EXPECT, "100-continue");
+    put.setHeader(
+        HttpHeaders.AUTHORIZATION, getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
+    put.setHeader("label", label);
+    if (!dorisConfig.compressType().isEmpty()) {
+      put.setHeader("compress_type", dorisConfig.compressType());
+    }
+    put.setEntity(entity);
+    try (CloseableHttpResponse response = getHttpClient().execute(put)) {
+      final int statusCode = response.getStatusLine().getStatusCode();
+      final String reasonPhrase = response.getStatusLine().getReasonPhrase();
+      String loadResult = "";
+      if (response.getEntity() != null) {
+        loadResult = EntityUtils.toString(response.getEntity());
       }
-      put.setHeader(HttpHeaders.EXPECT, "100-continue");
-      put.setHeader(
-          HttpHeaders.AUTHORIZATION,
-          getBasicAuthHeader(dorisConfig.user(), dorisConfig.password()));
-      put.setHeader("label", label);
-      put.setEntity(new ByteArrayEntity(data));
-      try (CloseableHttpResponse response = httpclient.execute(put)) {
-        final int statusCode = response.getStatusLine().getStatusCode();
-        final String reasonPhrase = response.getStatusLine().getReasonPhrase();
-        String loadResult = "";
-        if (response.getEntity() != null) {
-          loadResult = EntityUtils.toString(response.getEntity());
+      return new LoadResponse(statusCode, reasonPhrase, loadResult);
+    }
+  }
+
+  private CloseableHttpClient getHttpClient() {
+    if (httpClient == null) {
+      synchronized (this) {
+        if (httpClient == null) {
+          int maxConnections =
+              dorisConfig.maxConnections() > 0
+                  ? dorisConfig.maxConnections()
+                  : Math.max(dorisConfig.flushThreads() * 2, 2);
+          PoolingHttpClientConnectionManager connectionManager =
+              new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+          connectionManager.setMaxTotal(maxConnections);
+          connectionManager.setDefaultMaxPerRoute(maxConnections);
+          connectionManager.setValidateAfterInactivity(2000);
+          httpClient =
+              HttpClients.custom()
+                  .setConnectionManager(connectionManager)
+                  .setDefaultRequestConfig(
+                      RequestConfig.custom()
+                          .setConnectTimeout(dorisConfig.timeout())
+                          .setConnectionRequestTimeout(dorisConfig.timeout())
+                          .setSocketTimeout(dorisConfig.socketTimeout())
+                          .build())
+                  .setRedirectStrategy(
+                      new DefaultRedirectStrategy() {
+                        @Override
+                        protected boolean isRedirectable(String method) {
+                          return true;
+                        }
+                      })
+                  .build();
         }
-        return new LoadResponse(statusCode, reasonPhrase, loadResult);
       }
     }
+    return httpClient;
   }
 
-  private byte[] joinRows(List<byte[]> rows, int totalBytes) {
+  /**
+   * The body of the stream load. The buffered chunks are written to the connection as they are
+   * (compressed if {@link DorisConfig#compressType()} is set), the whole batch is never copied into
+   * one array. The entity is repeatable, so it can be sent again when the FE redirects the load to
+   * a BE.
+   */
+  private AbstractHttpEntity bodyEntity(DorisSinkBufferEntry bufferEntity) {
+    final byte[] prefix;
+    final byte[] suffix;
     if (DorisConfig.CSV().equalsIgnoreCase(dorisConfig.loadFormat())) {
-      byte[] lineDelimiter =
-          DorisDelimiterParser.parse(dorisConfig.rowDelimiter()).getBytes(StandardCharsets.UTF_8);
-      ByteBuffer bos = ByteBuffer.allocate(totalBytes + rows.size() * lineDelimiter.length);
-      for (byte[] row : rows) {
-        bos.put(row);
-        bos.put(lineDelimiter);
-      }
-      return bos.array();
+      prefix = new byte[0];
+      suffix = new byte[0];
+    } else if (DorisConfig.JSON().equalsIgnoreCase(dorisConfig.loadFormat())) {
+      prefix = "[".getBytes(StandardCharsets.UTF_8);
+      suffix = "]".getBytes(StandardCharsets.UTF_8);
+    } else {
+      throw new RuntimeException(
+          "Failed to join rows data, unsupported `format` from stream load properties:");
     }
+    final String compressType = dorisConfig.compressType();
+    final long length = prefix.length + bufferEntity.getBodyLength(recordSeparator) + suffix.length;
 
-    if (DorisConfig.JSON().equalsIgnoreCase(dorisConfig.loadFormat())) {
-      ByteBuffer bos = ByteBuffer.allocate(totalBytes + (rows.isEmpty() ? 2 : rows.size() + 1));
-      bos.put("[".getBytes(StandardCharsets.UTF_8));
-      byte[] jsonDelimiter = ",".getBytes(StandardCharsets.UTF_8);
-      boolean isFirstElement = true;
-      for (byte[] row : rows) {
-        if (!isFirstElement) {
-          bos.put(jsonDelimiter);
-        }
-        bos.put(row);
-        isFirstElement = false;
-      }
-      bos.put("]".getBytes(StandardCharsets.UTF_8));
-      return bos.array();
+    AbstractHttpEntity entity =
+        new AbstractHttpEntity() {
+          @Override
+          public boolean isRepeatable() {
+            return true;
+          }
+
+          @Override
+          public long getContentLength() {
+            // the length of the compressed body is unknown, it is sent in chunked transfer
+            return compressType.isEmpty() ? length : -1;
+          }
+
+          @Override
+          public InputStream getContent() throws IOException {
+            if (compressType.isEmpty()) {
+              return new SequenceInputStream(
+                  Collections.enumeration(
+                      Arrays.asList(
+                          new ByteArrayInputStream(prefix),
+                          bufferEntity.getInputStream(recordSeparator),
+                          new ByteArrayInputStream(suffix))));
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writeTo(buffer);
+            return new ByteArrayInputStream(buffer.toByteArray());
+          }
+
+          @Override
+          public void writeTo(OutputStream out) throws IOException {
+            OutputStream body = compress(new NonClosingOutputStream(out), compressType);
+            body.write(prefix);
+            bufferEntity.writeTo(body, recordSeparator);
+            body.write(suffix);
+            // finish the compressed stream, the connection stream is kept open
+            body.close();
+          }
+
+          @Override
+          public boolean isStreaming() {
+            return false;
+          }
+        };
+    entity.setChunked(!compressType.isEmpty());
+    return entity;
+  }
+
+  private static OutputStream compress(OutputStream out, String compressType) throws IOException {
+    if (compressType.isEmpty()) {
+      return out;
+    }
+    if (DorisConfig.COMPRESS_GZ().equals(compressType)) {
+      return new GZIPOutputStream(out, 64 * 1024);
+    }
+    if (DorisConfig.COMPRESS_LZ4().equals(compressType)) {
+      return new LZ4FrameOutputStream(out);
+    }
+    throw new IOException("Unsupported compress type of doris stream load: " + compressType);
+  }
+
+  /** Keeps the connection stream open when the compressed stream is closed to be finished. */
+  private static class NonClosingOutputStream extends FilterOutputStream {
+
+    NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.flush();
     }
-    throw new RuntimeException(
-        "Failed to join rows data, unsupported `format` from stream load properties:");
   }
 
   private String getWorkerHost() {
+    String fallback = null;
+    long fallbackUntil = Long.MAX_VALUE;
+    long now = System.currentTimeMillis();
     for (int pos = 0; pos < dorisConfig.getLoadUrlSize(); pos++) {
       String host = dorisConfig.getHostUrl();
-      if (tryHttpConnection(host)) {
+      Long unhealthyUntil = unhealthyHosts.get(host);
+      if (unhealthyUntil == null || unhealthyUntil <= now) {
         return host;
       }
+      if (unhealthyUntil < fallbackUntil) {
+        fallbackUntil = unhealthyUntil;
+        fallback = host;
+      }
     }
-    return null;
+    // all the hosts are unhealthy, try the one to recover first
+    return fallback;
   }
 
-  private boolean tryHttpConnection(String host) {
-    try {
-      URL url = new URL(host);
-      HttpURLConnection co = (HttpURLConnection) url.openConnection();
-      co.setConnectTimeout(dorisConfig.timeout());
-      co.connect();
-      co.disconnect();
-      return true;
-    } catch (Exception e1) {
-      LOG.warn("Failed to connect to address:{}", host, e1);
-      return false;
+  @Override
+  public void close() throws IOException {
+    if (httpClient != null) {
+      httpClient.close();
+      httpClient = null;
     }
   }
 
@@ -20,6 +20,8 @@ import org.apache.streampark.common.Constant
 import org.apache.streampark.common.conf.ConfigKeys
 
 import java.util.Properties
+import java.util.concurrent.atomic.AtomicLong
+
 import org.apache.streampark.common.util.Implicits._
 
 object DorisConfig {
@@ -28,6 +30,10 @@ object DorisConfig {
 
   val JSON = "json"
 
+  val COMPRESS_GZ = "gz"
+
+  val COMPRESS_LZ4 = "lz4"
+
   def apply(properties: Properties = new Properties): DorisConfig = new DorisConfig(properties)
 
 }
@@ -48,12 +54,27 @@ class DorisConfig(parameters: Properties) {
 
   val timeout: Int = sinkOption.connectTimeout.get()
 
+  val socketTimeout: Int = sinkOption.socketTimeout.get()
+
   val sinkMaxRow: Int = sinkOption.maxRow.get()
 
   val sinkMaxBytes: Int = sinkOption.maxBytes.get()
 
   val sinkMaxRetries: Int = sinkOption.maxRetries.get()
 
+  val compressType: String = sinkOption.compressType.get().trim.toLowerCase
+
+  require(
+    compressType.isEmpty ||
+      (DorisConfig.CSV.equalsIgnoreCase(loadFormat) &&
+        (compressType == DorisConfig.COMPRESS_GZ || compressType == DorisConfig.COMPRESS_LZ4)),
+    s"[StreamPark] doris stream load only supports gz or lz4 compression of csv format, but got: $compressType"
+  )
+
+  val flushThreads: Int = sinkOption.flushThreads.get()
+
+  val maxConnections: Int = sinkOption.maxConnections.get()
+
   val flushInterval: Long = sinkOption.flushInterval.get()
 
   val sinkOfferTimeout: Long = sinkOption.sinkOfferTimeout.get()
@@ -74,11 +95,10 @@ class DorisConfig(parameters: Properties) {
     loadUrl.size
   }
 
-  var currentHostId: Long = 0
+  private val currentHostId = new AtomicLong(0)
 
   def getHostUrl: String = {
-    currentHostId += 1
-    loadUrl.get((currentHostId % loadUrl.size).toInt)
+    loadUrl.get((currentHostId.incrementAndGet() % loadUrl.size).toInt)
   }
 
   override def toString: String = {
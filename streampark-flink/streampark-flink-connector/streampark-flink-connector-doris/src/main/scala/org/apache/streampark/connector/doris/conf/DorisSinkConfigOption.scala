@@ -102,6 +102,16 @@ class DorisSinkConfigOption(prefixStr: String, properties: Properties) extends S
     defaultValue = 5000,
     classType = classOf[Long])
 
+  /**
+   * the socket timeout (ms) of the stream load and label state requests, a load blocked on a stuck
+   * be is failed and retried instead of hanging the flush worker
+   */
+  val socketTimeout: ConfigOption[Int] = ConfigOption(
+    key = "socketTimeout",
+    required = false,
+    defaultValue = 600000,
+    classType = classOf[Int])
+
   val maxRequestRetry: ConfigOption[Int] = ConfigOption(
     key = "maxRequestRetry",
     required = false,
@@ -114,15 +124,32 @@ class DorisSinkConfigOption(prefixStr: String, properties: Properties) extends S
     defaultValue = -1,
     classType = classOf[Int])
 
+  /**
+   * the number of concurrent stream load workers, the tables are partitioned among the workers and
+   * the batches of one table are loaded in order
+   */
+  val flushThreads: ConfigOption[Int] = ConfigOption(
+    key = "flushThreads",
+    required = false,
+    defaultValue = 1,
+    classType = classOf[Int])
+
   val maxRow: ConfigOption[Int] =
     ConfigOption(key = "maxRow", required = false, defaultValue = 100000, classType = classOf[Int])
 
   val maxBytes: ConfigOption[Int] = ConfigOption(
-    key = "maxRow",
+    key = "maxBytes",
     required = false,
     defaultValue = 94371840,
     classType = classOf[Int])
 
+  /** compression of the stream load body, "gz" or "lz4" (only for csv), empty for none */
+  val compressType: ConfigOption[String] = ConfigOption(
+    key = "compressType",
+    required = false,
+    defaultValue = "",
+    classType = classOf[String])
+
   val maxRetries: ConfigOption[Int] =
     ConfigOption(key = "maxRetries", required = false, defaultValue = 1, classType = classOf[Int])
 
@@ -19,15 +19,20 @@ package org.apache.streampark.flink.connector.hbase.source;
 
 import org.apache.streampark.common.util.Utils;
 import org.apache.streampark.flink.connector.function.RunningFunction;
+import org.apache.streampark.flink.connector.hbase.bean.HBaseQuery;
+import org.apache.streampark.flink.connector.hbase.bean.HBaseSplit;
 import org.apache.streampark.flink.connector.hbase.function.HBaseQueryFunction;
 import org.apache.streampark.flink.connector.hbase.function.HBaseResultFunction;
 import org.apache.streampark.flink.connector.hbase.internal.HBaseSourceFunction;
+import org.apache.streampark.flink.connector.hbase.internal.HBaseSplitSourceFunction;
 import org.apache.streampark.flink.core.scala.StreamingContext;
 
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 
 import java.util.Properties;
 
+import scala.collection.Seq;
+
 public class HBaseJavaSource<T> {
   private final StreamingContext context;
   private final Properties property;
@@ -48,4 +53,24 @@ public class HBaseJavaSource<T> {
         new HBaseSourceFunction<>(property, queryFunction, resultFunction, runningFunc, null);
     return context.getJavaEnv().addSource(sourceFunction);
   }
+
+  /**
+   * Read the row key range of the query in parallel by region, the splits are computed when the job
+   * is built, every subtask scans its own regions and the position of every region is checkpointed.
+   *
+   * @param query the table and the scan to read
+   * @param caching the number of rows fetched by one RPC of the scanner
+   * @param batchSize the number of rows emitted under one checkpoint lock
+   * @param resultFunction the function to convert the row
+   */
+  public DataStreamSource<T> getSplitDataStream(
+      HBaseQuery query, int caching, int batchSize, HBaseResultFunction<T> resultFunction) {
+
+    Utils.requireNotNull(query, "query must not be null");
+    Utils.requireNotNull(resultFunction, "ResultFunction must not be null");
+    Seq<HBaseSplit> splits = HBaseSplitSourceFunction.split(property, query);
+    HBaseSplitSourceFunction<T> sourceFunction =
+        new HBaseSplitSourceFunction<>(property, query, splits, caching, batchSize, resultFunction);
+    return context.getJavaEnv().addSource(sourceFunction);
+  }
 }
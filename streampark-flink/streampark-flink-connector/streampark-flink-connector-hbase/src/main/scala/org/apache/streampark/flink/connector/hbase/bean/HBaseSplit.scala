@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.hbase.bean
+
+import org.apache.hadoop.hbase.util.Bytes
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * A row key range of the table read by one subtask: [startRow, stopRow), an empty row means the
+ * start or the end of the table. The offset is the row key of the last emitted row, a restored
+ * split continues after it.
+ */
+case class HBaseSplit(
+    id: Int,
+    startRow: Array[Byte],
+    stopRow: Array[Byte],
+    var offset: Array[Byte] = null,
+    var finished: Boolean = false)
+  extends Serializable {
+
+  def started: Boolean = offset != null
+
+  override def toString: String = {
+    val range = s"[${Bytes.toStringBinary(startRow)},${Bytes.toStringBinary(stopRow)})"
+    val position = if (started) Bytes.toStringBinary(offset) else "-"
+    s"(id:$id,range:$range,offset:$position,finished:$finished)"
+  }
+}
+
+object HBaseSplit {
+
+  /**
+   * Intersect the row key range [scanStart, scanStop) of the scan with the regions of the table,
+   * one split for each region overlapping the range.
+   */
+  def split(
+      regionStarts: Array[Array[Byte]],
+      regionStops: Array[Array[Byte]],
+      scanStart: Array[Byte],
+      scanStop: Array[Byte]): Seq[HBaseSplit] = {
+    val splits = ArrayBuffer[HBaseSplit]()
+    regionStarts.indices.sortWith((i, j) => Bytes.compareTo(regionStarts(i), regionStarts(j)) < 0)
+      .foreach(
+        i => {
+          val start = maxStart(regionStarts(i), scanStart)
+          val stop = minStop(regionStops(i), scanStop)
+          if (stop.isEmpty || Bytes.compareTo(start, stop) < 0) {
+            splits += HBaseSplit(splits.size, start, stop)
+          }
+        })
+    splits
+  }
+
+  private[this] def maxStart(a: Array[Byte], b: Array[Byte]): Array[Byte] =
+    if (Bytes.compareTo(a, b) >= 0) a else b
+
+  // the empty stop row is the end of the table
+  private[this] def minStop(a: Array[Byte], b: Array[Byte]): Array[Byte] =
+    if (a.isEmpty) b
+    else if (b.isEmpty) a
+    else if (Bytes.compareTo(a, b) <= 0) a
+    else b
+
+}
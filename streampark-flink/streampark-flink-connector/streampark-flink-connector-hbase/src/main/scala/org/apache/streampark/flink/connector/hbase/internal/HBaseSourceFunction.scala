@@ -19,7 +19,7 @@ package org.apache.streampark.flink.connector.hbase.internal
 
 import org.apache.streampark.common.enums.ApiType
 import org.apache.streampark.common.enums.ApiType.ApiType
-import org.apache.streampark.common.util.Logger
+import org.apache.streampark.common.util.{HBaseClient, Logger}
 import org.apache.streampark.flink.connector.function.RunningFunction
 import org.apache.streampark.flink.connector.hbase.bean.HBaseQuery
 import org.apache.streampark.flink.connector.hbase.function.{HBaseQueryFunction, HBaseResultFunction}
@@ -32,7 +32,8 @@ import org.apache.flink.runtime.state.{CheckpointListener, FunctionInitializatio
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.source.RichSourceFunction
 import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext
-import org.apache.hadoop.hbase.client.{Result, Table}
+import org.apache.hadoop.hbase.TableName
+import org.apache.hadoop.hbase.client.{Connection, Result, Table}
 
 import java.lang
 import java.util.Properties
@@ -50,8 +51,12 @@ class HBaseSourceFunction[R: TypeInformation](apiType: ApiType = ApiType.scala,
   private[this] var scalaRunningFunc: Unit => Boolean = _
   private[this] var javaRunningFunc: RunningFunction = _
 
+  @transient private[this] var connection: Connection = _
+
   @transient private[this] var table: Table = _
 
+  private[this] var tableName: String = _
+
   @volatile var query: HBaseQuery = _
 
   private[this] var scalaQueryFunc: R => HBaseQuery = _
@@ -104,45 +109,66 @@ class HBaseSourceFunction[R: TypeInformation](apiType: ApiType = ApiType.scala,
 
   override def run(ctx: SourceContext[R]): Unit = {
     while (this.running) {
-      apiType match {
-        case ApiType.scala =>
-          if (scalaRunningFunc()) {
-            ctx.getCheckpointLock.synchronized {
-              // Returns the query object of the last (or recovered from checkpoint) query to the user, and the user constructs the conditions for the next query based on this.
-              query = scalaQueryFunc(last)
-              require(
-                query != null && query.getTable != null,
-                "[StreamPark] HBaseSource query and query's param table must not be null ")
-              table = query.getTable(prop)
-              table
-                .getScanner(query)
-                .foreach(
-                  x => {
-                    last = scalaResultFunc(x)
-                    ctx.collectWithTimestamp(last, System.currentTimeMillis())
-                  })
-            }
-          }
-        case ApiType.java =>
-          if (javaRunningFunc.running()) {
-            ctx.getCheckpointLock.synchronized {
-              // Returns the query object of the last (or recovered from checkpoint) query to the user, and the user constructs the conditions for the next query based on this.
-              query = javaQueryFunc.query(last)
-              require(
-                query != null && query.getTable != null,
-                "[StreamPark] HBaseSource query and query's param table must not be null ")
-              table = query.getTable(prop)
-              table
-                .getScanner(query)
-                .foreach(
-                  x => {
-                    last = javaResultFunc.result(x)
-                    ctx.collectWithTimestamp(last, System.currentTimeMillis())
-                  })
+      val isRunning: Boolean = apiType match {
+        case ApiType.scala => scalaRunningFunc()
+        case ApiType.java => javaRunningFunc.running()
+      }
+      if (isRunning) {
+        // Returns the query object of the last (or recovered from checkpoint) query to the user, and the user constructs the conditions for the next query based on this.
+        query = apiType match {
+          case ApiType.scala => scalaQueryFunc(last)
+          case ApiType.java => javaQueryFunc.query(last)
+        }
+        require(
+          query != null && query.getTable != null,
+          "[StreamPark] HBaseSource query and query's param table must not be null ")
+        scan(query, ctx)
+      }
+    }
+  }
+
+  /**
+   * The results are pulled from the scanner in batches (the caching of the query, 100 by default)
+   * and the checkpoint lock is only held while a batch is emitted, so the checkpoint is not blocked
+   * by the whole scan.
+   */
+  private[this] def scan(query: HBaseQuery, ctx: SourceContext[R]): Unit = {
+    val batchSize = if (query.getCaching > 0) query.getCaching else 100
+    val scanner = getTable(query.getTable).getScanner(query)
+    try {
+      var results = scanner.next(batchSize)
+      while (running && results.nonEmpty) {
+        val records = results.map {
+          x =>
+            apiType match {
+              case ApiType.scala => scalaResultFunc(x)
+              case ApiType.java => javaResultFunc.result(x)
             }
-          }
+        }
+        ctx.getCheckpointLock.synchronized {
+          records.foreach(x => ctx.collectWithTimestamp(x, System.currentTimeMillis()))
+          last = records.last
+        }
+        results = if (running) scanner.next(batchSize) else Array.empty[Result]
+      }
+    } finally {
+      scanner.close()
+    }
+  }
+
+  /** The connection and the table are reused by all the queries instead of created every query. */
+  private[this] def getTable(name: String): Table = {
+    if (table == null || tableName != name) {
+      if (table != null) {
+        table.close()
       }
+      if (connection == null) {
+        connection = HBaseClient(prop).connection
+      }
+      table = connection.getTable(TableName.valueOf(name))
+      tableName = name
     }
+    table
   }
 
   override def cancel(): Unit = this.running = false
@@ -152,6 +178,9 @@ class HBaseSourceFunction[R: TypeInformation](apiType: ApiType = ApiType.scala,
     if (table != null) {
       table.close()
     }
+    if (connection != null) {
+      connection.close()
+    }
   }
 
   override def snapshotState(context: FunctionSnapshotContext): Unit = {
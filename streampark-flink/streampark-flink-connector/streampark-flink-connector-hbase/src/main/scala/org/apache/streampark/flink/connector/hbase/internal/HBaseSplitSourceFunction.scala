@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.hbase.internal
+
+import org.apache.streampark.common.enums.ApiType
+import org.apache.streampark.common.enums.ApiType.ApiType
+import org.apache.streampark.common.util.{HBaseClient, Logger, Utils}
+import org.apache.streampark.flink.connector.hbase.bean.{HBaseQuery, HBaseSplit}
+import org.apache.streampark.flink.connector.hbase.function.HBaseResultFunction
+import org.apache.streampark.flink.util.FlinkUtils
+
+import org.apache.flink.api.common.state.ListState
+import org.apache.flink.api.common.typeinfo.TypeInformation
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
+import org.apache.flink.streaming.api.functions.source.RichParallelSourceFunction
+import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext
+import org.apache.hadoop.hbase.TableName
+import org.apache.hadoop.hbase.client.{Connection, Result, ResultScanner, Scan, Table}
+import org.apache.hadoop.hbase.shaded.protobuf.ProtobufUtil
+import org.apache.hadoop.hbase.shaded.protobuf.generated.ClientProtos
+
+import java.util.Properties
+
+import org.apache.streampark.common.util.Implicits._
+
+/**
+ * Reads a table in parallel by region. The row key range of the query is intersected with the
+ * regions of the table, see [[HBaseSplitSourceFunction.split]], the splits are computed once when
+ * the job is built so that all the subtasks share the same splits. Split i is read by subtask (i %
+ * parallelism). Every split is read by one
+ * scanner with the given caching (rows fetched per RPC), the results are pulled and emitted in
+ * batches of batchSize, the checkpoint lock is only held while a batch is emitted. The row key of
+ * the last emitted row of every split is checkpointed, a restored split continues after it.
+ *
+ * The query (a Scan) is shipped to the subtasks in its protobuf form, so the start/stop rows,
+ * columns, filters and time range of the query are all kept.
+ */
+class HBaseSplitSourceFunction[R](
+    apiType: ApiType = ApiType.SCALA,
+    prop: Properties,
+    query: HBaseQuery,
+    initialSplits: Seq[HBaseSplit],
+    caching: Int,
+    batchSize: Int)
+  extends RichParallelSourceFunction[R]
+  with CheckpointedFunction
+  with Logger {
+
+  require(
+    query != null && query.getTable != null,
+    "[StreamPark] HBaseSource query and query's param table must not be null ")
+  require(initialSplits != null, "[StreamPark] HBaseSource splits must not be null")
+  require(batchSize > 0, s"[StreamPark] HBaseSource batchSize must be positive, but got $batchSize")
+
+  private[this] val tableName: String = query.getTable
+
+  private[this] val scanBytes: Array[Byte] = ProtobufUtil.toScan(query).toByteArray
+
+  @volatile private[this] var running = true
+
+  private[this] var scalaResultFunc: Result => R = _
+  private[this] var javaResultFunc: HBaseResultFunction[R] = _
+
+  @transient private[this] var connection: Connection = _
+
+  @transient private var state: ListState[HBaseSplit] = _
+  private val SPLITS_STATE_NAME: String = "hbase-source-split-states"
+  @transient private[this] var splits: Seq[HBaseSplit] = _
+
+  // for Scala
+  def this(
+      prop: Properties,
+      query: HBaseQuery,
+      splits: Seq[HBaseSplit],
+      caching: Int,
+      batchSize: Int,
+      resultFunc: Result => R) = {
+    this(ApiType.SCALA, prop, query, splits, caching, batchSize)
+    require(resultFunc != null, "[StreamPark] HBaseSource resultFunc must not be null")
+    this.scalaResultFunc = resultFunc
+  }
+
+  // for JAVA
+  def this(
+      prop: Properties,
+      query: HBaseQuery,
+      splits: Seq[HBaseSplit],
+      caching: Int,
+      batchSize: Int,
+      resultFunc: HBaseResultFunction[R]) = {
+    this(ApiType.JAVA, prop, query, splits, caching, batchSize)
+    require(resultFunc != null, "[StreamPark] HBaseSource resultFunc must not be null")
+    this.javaResultFunc = resultFunc
+  }
+
+  private[this] def newScan(): Scan =
+    ProtobufUtil.toScan(ClientProtos.Scan.parseFrom(scanBytes))
+
+  private[this] def getConnection: Connection = {
+    if (connection == null) {
+      connection = HBaseClient(prop).connection
+    }
+    connection
+  }
+
+  @throws[Exception]
+  override def run(ctx: SourceContext[R]): Unit = {
+    val pending = splits.filterNot(_.finished)
+    logInfo(s"HBaseSource subtask ${getRuntimeContext.getIndexOfThisSubtask} splits: $pending")
+    if (pending.nonEmpty) {
+      val table = getConnection.getTable(TableName.valueOf(tableName))
+      try {
+        pending.foreach(split => if (running) read(table, split, ctx))
+      } finally {
+        table.close()
+      }
+    }
+  }
+
+  private[this] def read(table: Table, split: HBaseSplit, ctx: SourceContext[R]): Unit = {
+    val scan = newScan().withStopRow(split.stopRow).setCacheBlocks(false)
+    if (split.started) {
+      // a row split into several results by Scan.setBatch is re-read from its start on restore
+      scan.withStartRow(split.offset, scan.getBatch > 0)
+    } else {
+      scan.withStartRow(split.startRow)
+    }
+    if (caching > 0) {
+      scan.setCaching(caching)
+    }
+    val start = System.currentTimeMillis()
+    var scanner: ResultScanner = null
+    var count = 0L
+    try {
+      scanner = table.getScanner(scan)
+      var results = scanner.next(batchSize)
+      while (running && results.nonEmpty) {
+        val records = results.map {
+          result =>
+            apiType match {
+              case ApiType.SCALA => scalaResultFunc(result)
+              case ApiType.JAVA => javaResultFunc.result(result)
+            }
+        }
+        ctx.getCheckpointLock.synchronized {
+          records.foreach(ctx.collect)
+          split.offset = results.last.getRow
+        }
+        count += results.length
+        results = if (running) scanner.next(batchSize) else Array.empty[Result]
+      }
+    } finally {
+      if (scanner != null) scanner.close()
+    }
+    if (running) {
+      ctx.getCheckpointLock.synchronized {
+        split.finished = true
+      }
+      logInfo(
+        s"HBaseSource split $split finished, $count rows use ${System.currentTimeMillis() - start} MS")
+    }
+  }
+
+  override def cancel(): Unit = this.running = false
+
+  override def close(): Unit = {
+    super.close()
+    if (connection != null) {
+      connection.close()
+      connection = null
+    }
+  }
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    state.clear()
+    splits.foreach(state.add)
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {
+    state = FlinkUtils.getUnionListState[HBaseSplit](context, SPLITS_STATE_NAME)(
+      TypeInformation.of(classOf[HBaseSplit]))
+    val parallelism = getRuntimeContext.getNumberOfParallelSubtasks
+    val index = getRuntimeContext.getIndexOfThisSubtask
+    // every subtask gets all the splits from the union state, so the splits are reassigned on
+    // restore with a different parallelism.
+    val allSplits = if (context.isRestored) state.get.toSeq.sortBy(_.id) else initialSplits
+    splits = HBaseSplitSourceFunction.assign(allSplits, parallelism, index)
+    logInfo(s"HBaseSource initializeState, restored: ${context.isRestored}, splits: $splits")
+  }
+
+}
+
+object HBaseSplitSourceFunction {
+
+  /** Divide the row key range of the query by the regions of the table, see [[HBaseSplit.split]]. */
+  def split(prop: Properties, query: HBaseQuery): Seq[HBaseSplit] = {
+    require(
+      query != null && query.getTable != null,
+      "[StreamPark] HBaseSource query and query's param table must not be null ")
+    // HBaseClient takes the auth user out of the properties, which are still used by the subtasks
+    val clientProp = new Properties()
+    Utils.copyProperties(prop, clientProp)
+    val connection = HBaseClient(clientProp).connection
+    try {
+      val locator = connection.getRegionLocator(TableName.valueOf(query.getTable))
+      try {
+        val keys = locator.getStartEndKeys
+        HBaseSplit.split(keys.getFirst, keys.getSecond, query.getStartRow, query.getStopRow)
+      } finally {
+        locator.close()
+      }
+    } finally {
+      connection.close()
+    }
+  }
+
+  /** The splits read by the subtask of the index. */
+  def assign(splits: Seq[HBaseSplit], parallelism: Int, index: Int): Seq[HBaseSplit] =
+    splits.filter(_.id % parallelism == index)
+
+}
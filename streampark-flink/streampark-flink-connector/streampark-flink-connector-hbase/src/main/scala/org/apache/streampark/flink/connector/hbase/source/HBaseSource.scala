@@ -19,7 +19,7 @@ package org.apache.streampark.flink.connector.hbase.source
 
 import org.apache.streampark.common.util.Utils
 import org.apache.streampark.flink.connector.hbase.bean.HBaseQuery
-import org.apache.streampark.flink.connector.hbase.internal.HBaseSourceFunction
+import org.apache.streampark.flink.connector.hbase.internal.{HBaseSourceFunction, HBaseSplitSourceFunction}
 import org.apache.streampark.flink.core.scala.StreamingContext
 
 import org.apache.flink.api.common.typeinfo.TypeInformation
@@ -56,4 +56,26 @@ class HBaseSource(
     ctx.addSource(hBaseFunc)
   }
 
+  /**
+   * Read the row key range of the query in parallel by region, see [[HBaseSplitSourceFunction]].
+   * The splits are computed when the job is built.
+   *
+   * @param query
+   *   the table and the scan (row key range, columns, filters...) to read
+   * @param caching
+   *   the number of rows fetched by one RPC of the scanner
+   * @param batchSize
+   *   the number of rows emitted under one checkpoint lock
+   */
+  def getSplitDataStream[R: TypeInformation](
+      query: HBaseQuery,
+      caching: Int = 1000,
+      batchSize: Int = 100)(func: Result => R)(implicit
+      prop: Properties = new Properties()): DataStream[R] = {
+    Utils.copyProperties(property, prop)
+    val splits = HBaseSplitSourceFunction.split(prop, query)
+    val splitFunc = new HBaseSplitSourceFunction[R](prop, query, splits, caching, batchSize, func)
+    ctx.addSource(splitFunc)
+  }
+
 }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.hbase.bean
+
+import org.apache.hadoop.hbase.util.Bytes
+import org.junit.jupiter.api.{Assertions, Test}
+
+class HBaseSplitTest {
+
+  private val empty = Array.emptyByteArray
+
+  // the regions of the table, not in order: [m,), [,g), [g,m)
+  private val regionStarts = Array(Bytes.toBytes("m"), empty, Bytes.toBytes("g"))
+  private val regionStops = Array(empty, Bytes.toBytes("g"), Bytes.toBytes("m"))
+
+  private def ranges(splits: Seq[HBaseSplit]): Seq[(Int, String, String)] =
+    splits.map(s => (s.id, Bytes.toString(s.startRow), Bytes.toString(s.stopRow)))
+
+  @Test
+  def splitWholeTable(): Unit = {
+    val splits = HBaseSplit.split(regionStarts, regionStops, empty, empty)
+    Assertions.assertEquals(Seq((0, "", "g"), (1, "g", "m"), (2, "m", "")), ranges(splits))
+    Assertions.assertTrue(splits.forall(s => !s.started && !s.finished))
+  }
+
+  @Test
+  def splitScanRange(): Unit = {
+    val splits =
+      HBaseSplit.split(regionStarts, regionStops, Bytes.toBytes("c"), Bytes.toBytes("h"))
+    Assertions.assertEquals(Seq((0, "c", "g"), (1, "g", "h")), ranges(splits))
+  }
+
+  @Test
+  def splitWithinOneRegion(): Unit = {
+    Assertions.assertEquals(
+      Seq((0, "g", "g0")),
+      ranges(HBaseSplit.split(regionStarts, regionStops, Bytes.toBytes("g"), Bytes.toBytes("g0"))))
+    Assertions.assertEquals(
+      Seq((0, "n", "")),
+      ranges(HBaseSplit.split(regionStarts, regionStops, Bytes.toBytes("n"), empty)))
+  }
+
+  @Test
+  def splitSingleRegionTable(): Unit = {
+    Assertions.assertEquals(
+      Seq((0, "", "")),
+      ranges(HBaseSplit.split(Array(empty), Array(empty), empty, empty)))
+  }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.hbase.internal
+
+import org.apache.streampark.flink.connector.hbase.bean.HBaseSplit
+
+import org.apache.hadoop.hbase.util.Bytes
+import org.junit.jupiter.api.{Assertions, Test}
+
+class HBaseSplitSourceFunctionTest {
+
+  private val splits: Seq[HBaseSplit] =
+    (0 until 5).map(i => HBaseSplit(i, Bytes.toBytes(s"r$i"), Bytes.toBytes(s"r${i + 1}")))
+
+  @Test
+  def assignByIndex(): Unit = {
+    Assertions.assertEquals(Seq(0, 2, 4), HBaseSplitSourceFunction.assign(splits, 2, 0).map(_.id))
+    Assertions.assertEquals(Seq(1, 3), HBaseSplitSourceFunction.assign(splits, 2, 1).map(_.id))
+    // more subtasks than splits, the extra subtasks read nothing
+    Assertions.assertEquals(Seq(4), HBaseSplitSourceFunction.assign(splits, 8, 4).map(_.id))
+    Assertions.assertTrue(HBaseSplitSourceFunction.assign(splits, 8, 5).isEmpty)
+  }
+
+  @Test
+  def assignEverySplitOnce(): Unit = {
+    (1 to 7).foreach(
+      parallelism => {
+        val assigned =
+          (0 until parallelism).flatMap(HBaseSplitSourceFunction.assign(splits, parallelism, _))
+        Assertions.assertEquals(splits.map(_.id), assigned.map(_.id).sorted)
+      })
+  }
+
+}
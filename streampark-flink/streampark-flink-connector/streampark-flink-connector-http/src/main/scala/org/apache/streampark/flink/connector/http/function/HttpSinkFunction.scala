@@ -24,6 +24,8 @@ import org.apache.streampark.flink.connector.http.conf.HttpConfigOption
 import org.apache.streampark.flink.connector.http.internal.HttpSinkWriter
 
 import org.apache.flink.configuration.Configuration
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction
 
 import java.util.Properties
@@ -36,6 +38,7 @@ class HttpSinkFunction(
     header: Map[String, String],
     method: String)
   extends RichSinkFunction[String]
+  with CheckpointedFunction
   with Logger {
 
   private[this] object Lock {
@@ -78,6 +81,17 @@ class HttpSinkFunction(
     sinkBuffer.put(s"$method///$url")
   }
 
+  /**
+   * Flush the buffered records and wait until all the requests in flight are acknowledged, so the
+   * records before the checkpoint barrier are not lost on failover.
+   */
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    sinkBuffer.flush()
+    httpSinkWriter.flush()
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
   override def close(): Unit = {
     if (!isClosed) {
       Lock.lock.synchronized {
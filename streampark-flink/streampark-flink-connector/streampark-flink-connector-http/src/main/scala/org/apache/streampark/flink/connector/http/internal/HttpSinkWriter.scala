@@ -19,7 +19,7 @@ package org.apache.streampark.flink.connector.http.internal
 
 import org.apache.streampark.common.util.{Logger, ThreadUtils}
 import org.apache.streampark.flink.connector.conf.ThresholdConf
-import org.apache.streampark.flink.connector.failover.{SinkRequest, SinkWriter}
+import org.apache.streampark.flink.connector.failover.{FailoverWriter, InFlightRequests, SinkRequest, SinkWriter}
 
 import org.asynchttpclient.{AsyncHttpClient, Dsl}
 
@@ -27,6 +27,7 @@ import java.util.concurrent._
 
 import org.apache.streampark.common.util.Implicits._
 import scala.collection.mutable.ListBuffer
+import scala.util.Try
 
 case class HttpSinkWriter(thresholdConf: ThresholdConf, header: Map[String, String])
   extends SinkWriter
@@ -43,6 +44,8 @@ case class HttpSinkWriter(thresholdConf: ThresholdConf, header: Map[String, Stri
     new LinkedBlockingQueue[Runnable],
     callbackServiceFactory)
 
+  val inFlight: InFlightRequests = new InFlightRequests(thresholdConf.maxInFlight)
+
   var tasks: ListBuffer[HttpWriterTask] = ListBuffer[HttpWriterTask]()
   var recordQueue: BlockingQueue[SinkRequest] =
     new LinkedBlockingQueue[SinkRequest](thresholdConf.queueCapacity)
@@ -51,15 +54,26 @@ case class HttpSinkWriter(thresholdConf: ThresholdConf, header: Map[String, Stri
   var service: ExecutorService =
     Executors.newFixedThreadPool(thresholdConf.numWriters, threadFactory)
 
+  val failoverWriter: FailoverWriter = thresholdConf.createFailoverWriter()
+
   for (i <- 0 until thresholdConf.numWriters) {
     val task =
-      HttpWriterTask(i, thresholdConf, asyncHttpClient, header, recordQueue, callbackService)
+      HttpWriterTask(
+        i,
+        thresholdConf,
+        asyncHttpClient,
+        header,
+        recordQueue,
+        inFlight,
+        callbackService,
+        failoverWriter)
     tasks.add(task)
     service.submit(task)
   }
 
   def write(request: SinkRequest): Unit =
     try {
+      inFlight.acquire()
       recordQueue.put(request)
     } catch {
       case e: InterruptedException =>
@@ -68,11 +82,15 @@ case class HttpSinkWriter(thresholdConf: ThresholdConf, header: Map[String, Stri
         throw new RuntimeException(e)
     }
 
+  override def flush(): Unit = inFlight.awaitAll()
+
   override def close(): Unit = {
     logInfo("Closing HttpSink-writer...")
+    Try(flush()).failed.foreach(e => logError(s"Error while flushing HttpSink-writer,error:$e"))
     tasks.foreach(_.close())
     ThreadUtils.shutdownExecutorService(service)
     ThreadUtils.shutdownExecutorService(callbackService)
+    failoverWriter.close()
     asyncHttpClient.close()
     logInfo(s"${classOf[HttpSinkWriter].getSimpleName} is closed")
   }
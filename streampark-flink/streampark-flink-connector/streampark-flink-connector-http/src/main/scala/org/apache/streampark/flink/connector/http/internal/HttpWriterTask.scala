@@ -18,8 +18,8 @@
 package org.apache.streampark.flink.connector.http.internal
 
 import org.apache.streampark.common.util.{JsonUtils, Logger}
-import org.apache.streampark.flink.connector.conf.ThresholdConf
-import org.apache.streampark.flink.connector.failover.{FailoverWriter, SinkRequest}
+import org.apache.streampark.flink.connector.conf.{FailoverStorageType, ThresholdConf}
+import org.apache.streampark.flink.connector.failover.{FailoverWriter, InFlightRequests, SinkRequest}
 
 import io.netty.handler.codec.http.HttpHeaders
 import org.apache.http.client.methods._
@@ -37,7 +37,9 @@ case class HttpWriterTask(
     asyncHttpClient: AsyncHttpClient,
     header: Map[String, String],
     queue: BlockingQueue[SinkRequest],
-    callbackService: ExecutorService)
+    inFlight: InFlightRequests,
+    callbackService: ExecutorService,
+    failoverWriter: FailoverWriter)
   extends Runnable
   with AutoCloseable
   with Logger {
@@ -54,9 +56,6 @@ case class HttpWriterTask(
     HttpTrace.METHOD_NAME
   )
 
-  val failoverWriter: FailoverWriter =
-    new FailoverWriter(thresholdConf.storageType, thresholdConf.getFailoverConfig)
-
   def buildRequest(url: String): Request = {
 
     val method = httpMethods.filter(x => url.startsWith(x)).head
@@ -107,8 +106,14 @@ case class HttpWriterTask(
         if (req != null) {
           val url = req.records.head
           val sinkRequest = SinkRequest(List(url), req.attemptCounter)
-          val request = buildRequest(url)
-          val whenResponse = asyncHttpClient.executeRequest(request)
+          val whenResponse =
+            try {
+              asyncHttpClient.executeRequest(buildRequest(url))
+            } catch {
+              case e: Exception =>
+                inFlight.fail(e)
+                throw e
+            }
           val callback = respCallback(whenResponse, sinkRequest)
           whenResponse.addListener(callback, callbackService)
           if (req.attemptCounter > 0) {
@@ -136,7 +141,7 @@ case class HttpWriterTask(
             logError(
               s"""Error HttpSink executing callback, params = $thresholdConf, StatusCode = ${resp.getStatusCode} """)
             handleFailedResponse(resp, sinkRequest)
-          case _ =>
+          case _ => inFlight.release()
         }
       }
     }
@@ -150,10 +155,19 @@ case class HttpWriterTask(
   def handleFailedResponse(response: Response, sinkRequest: SinkRequest): Unit =
     try {
       if (sinkRequest.attemptCounter >= thresholdConf.maxRetries) {
-        failoverWriter.write(
-          sinkRequest.copy(records = sinkRequest.records.map(_.replaceFirst("^[A-Z]+///", ""))))
+        if (thresholdConf.storageType == FailoverStorageType.NONE) {
+          // the records are lost without a failover storage, fail the sink to replay from the last checkpoint
+          inFlight.fail(new RuntimeException(s"Failed to send data to Http, Http response = $response"))
+          return
+        }
         logWarn(
           s"""Failed to send data to Http, Http response = $response. Ready to flush data to ${thresholdConf.storageType}""")
+        // acknowledged asynchronously once the failover storage has written the request, the url
+        // keeps the method prefix as it is needed by buildRequest to replay it
+        failoverWriter
+          .write(sinkRequest)
+          .whenComplete(
+            (_: Void, e: Throwable) => if (e == null) inFlight.release() else inFlight.fail(e))
       } else {
         sinkRequest.incrementCounter()
         logWarn(
@@ -161,11 +175,11 @@ case class HttpWriterTask(
         queue.put(sinkRequest)
       }
     } catch {
-      case e: Exception => new RuntimeException(s"[StreamPark] handleFailedResponse,error:$e")
+      case e: Exception =>
+        inFlight.fail(new RuntimeException(s"[StreamPark] handleFailedResponse,error:$e", e))
     }
 
   override def close(): Unit = {
     isWorking = false
-    failoverWriter.close()
   }
 }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.http.internal
+
+import org.apache.streampark.common.util.JsonUtils
+import org.apache.streampark.flink.connector.conf.ThresholdConf
+import org.apache.streampark.flink.connector.failover.{FailoverSpill, InFlightRequests, SinkRequest, SinkWriter}
+import org.apache.streampark.flink.connector.http.conf.HttpConfigOption
+
+import org.asynchttpclient.{AsyncHttpClient, Dsl, Request}
+import org.junit.jupiter.api.{AfterEach, Assertions, BeforeEach, Test}
+import org.junit.jupiter.api.io.TempDir
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.util
+import java.util.Properties
+import java.util.concurrent.{CopyOnWriteArrayList, Executors, ExecutorService, LinkedBlockingQueue}
+
+import org.apache.streampark.common.util.Implicits._
+
+class HttpWriterTaskTest {
+
+  @TempDir
+  var spillDir: File = _
+
+  var asyncHttpClient: AsyncHttpClient = _
+
+  var callbackService: ExecutorService = _
+
+  @BeforeEach
+  def setUp(): Unit = {
+    asyncHttpClient = Dsl.asyncHttpClient()
+    callbackService = Executors.newSingleThreadExecutor()
+  }
+
+  @AfterEach
+  def tearDown(): Unit = {
+    asyncHttpClient.close()
+    callbackService.shutdownNow()
+  }
+
+  private def thresholdConf(): ThresholdConf = {
+    val prop = new Properties()
+    prop.put(s"${HttpConfigOption.HTTP_SINK_PREFIX}.threshold.retries", "0")
+    prop.put(s"${HttpConfigOption.HTTP_SINK_PREFIX}.failover.storage", "Local")
+    prop.put(s"${HttpConfigOption.HTTP_SINK_PREFIX}.failover.local.path", spillDir.getAbsolutePath)
+    ThresholdConf(HttpConfigOption.HTTP_SINK_PREFIX, prop)
+  }
+
+  /** Builds the requests of the replayed urls by the writer task, as the http sink sends them. */
+  class BuildRequestWriter(task: HttpWriterTask) extends SinkWriter {
+    val requests = new CopyOnWriteArrayList[Request]()
+
+    override def write(request: SinkRequest): Unit =
+      request.records.foreach(url => requests.add(task.buildRequest(url)))
+
+    override def close(): Unit = {}
+  }
+
+  @Test
+  def replaySpilledRequests(): Unit = {
+    val conf = thresholdConf()
+    val failoverWriter = conf.createFailoverWriter()
+    val inFlight = new InFlightRequests(10)
+    val task = HttpWriterTask(
+      0,
+      conf,
+      asyncHttpClient,
+      Map.empty[String, String],
+      new LinkedBlockingQueue[SinkRequest](),
+      inFlight,
+      callbackService,
+      failoverWriter)
+
+    val urls = List(
+      "POST///http://localhost:8080/api/users?name=a&age=1",
+      "GET///http://localhost:8080/api/users")
+    urls.foreach(
+      url => {
+        inFlight.acquire()
+        task.handleFailedResponse(null, SinkRequest(List(url)))
+      })
+    // the failed requests are acknowledged once spilled
+    inFlight.awaitAll()
+    failoverWriter.close()
+
+    val replayWriter = new BuildRequestWriter(task)
+    Assertions.assertEquals(2, FailoverSpill.replay(spillDir.getAbsolutePath, replayWriter))
+    val post = replayWriter.requests.get(0)
+    Assertions.assertEquals("POST", post.getMethod)
+    Assertions.assertEquals("http://localhost:8080/api/users", post.getUrl)
+    val params =
+      JsonUtils.read[util.Map[String, String]](new String(post.getByteData, StandardCharsets.UTF_8))
+    Assertions.assertEquals("a", params.get("name"))
+    Assertions.assertEquals("1", params.get("age"))
+    val get = replayWriter.requests.get(1)
+    Assertions.assertEquals("GET", get.getMethod)
+    Assertions.assertEquals("http://localhost:8080/api/users", get.getUrl)
+  }
+
+}
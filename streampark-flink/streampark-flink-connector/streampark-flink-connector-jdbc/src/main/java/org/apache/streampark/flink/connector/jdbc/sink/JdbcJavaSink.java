@@ -20,7 +20,9 @@ package org.apache.streampark.flink.connector.jdbc.sink;
 import org.apache.streampark.common.util.ConfigUtils;
 import org.apache.streampark.common.util.Utils;
 import org.apache.streampark.flink.connector.function.TransformFunction;
+import org.apache.streampark.flink.connector.jdbc.function.StatementBinder;
 import org.apache.streampark.flink.connector.jdbc.internal.JdbcSinkFunction;
+import org.apache.streampark.flink.connector.jdbc.internal.JdbcStatementSinkFunction;
 import org.apache.streampark.flink.core.scala.StreamingContext;
 
 import org.apache.flink.streaming.api.datastream.DataStream;
@@ -33,6 +35,8 @@ public class JdbcJavaSink<T> {
   private final StreamingContext context;
   private Properties jdbc;
   private TransformFunction<T, String> sqlFunc;
+  private String statementSql;
+  private StatementBinder<T> binder;
   private String alias = "";
 
   public JdbcJavaSink(StreamingContext context) {
@@ -54,10 +58,24 @@ public class JdbcJavaSink<T> {
     return this;
   }
 
+  /**
+   * Write the records with one INSERT/UPSERT template, the statement is prepared once and the
+   * binder sets its parameters for every record.
+   */
+  public JdbcJavaSink<T> statement(String sql, StatementBinder<T> binder) {
+    this.statementSql = sql;
+    this.binder = binder;
+    return this;
+  }
+
   public DataStreamSink<T> sink(DataStream<T> dataStream) {
-    Utils.requireNotNull(sqlFunc, "TransformFunction can not be null");
     this.jdbc =
         this.jdbc == null ? ConfigUtils.getJdbcConf(context.parameter().toMap(), alias) : this.jdbc;
+    if (binder != null) {
+      Utils.requireNotNull(statementSql, "sql can not be null");
+      return dataStream.addSink(new JdbcStatementSinkFunction<>(this.jdbc, statementSql, binder));
+    }
+    Utils.requireNotNull(sqlFunc, "TransformFunction can not be null");
     JdbcSinkFunction<T> sinkFun = new JdbcSinkFunction<>(this.jdbc, this.sqlFunc);
     return dataStream.addSink(sinkFun);
   }
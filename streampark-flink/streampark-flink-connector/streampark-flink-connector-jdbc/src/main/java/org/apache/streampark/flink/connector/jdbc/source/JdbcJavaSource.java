@@ -22,11 +22,14 @@ import org.apache.streampark.common.util.Utils;
 import org.apache.streampark.flink.connector.function.RunningFunction;
 import org.apache.streampark.flink.connector.function.SQLQueryFunction;
 import org.apache.streampark.flink.connector.function.SQLResultFunction;
+import org.apache.streampark.flink.connector.function.TransformFunction;
 import org.apache.streampark.flink.connector.jdbc.internal.JdbcSourceFunction;
+import org.apache.streampark.flink.connector.jdbc.internal.JdbcSplitSourceFunction;
 import org.apache.streampark.flink.core.scala.StreamingContext;
 
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 
+import java.util.Map;
 import java.util.Properties;
 
 public class JdbcJavaSource<T> {
@@ -62,4 +65,34 @@ public class JdbcJavaSource<T> {
         new JdbcSourceFunction<>(jdbc, queryFunction, resultFunction, runningFunc, null);
     return context.getJavaEnv().addSource(sourceFunction);
   }
+
+  /**
+   * Read the table in parallel, the key range of the split column is divided into splits and the
+   * splits are assigned across the subtasks.
+   *
+   * @param table table name or a select query
+   * @param splitColumn a unique numeric or timestamp column, e.g. the primary key
+   * @param lowerBound the min key, a number or "yyyy-MM-dd HH:mm:ss"
+   * @param upperBound the max key (inclusive)
+   * @param numSplits the number of splits, 0 means the parallelism of the source
+   * @param fetchSize the number of rows fetched per round trip
+   * @param rowFunction converts a row to a record
+   */
+  public DataStreamSource<T> getSplitDataStream(
+      String table,
+      String splitColumn,
+      String lowerBound,
+      String upperBound,
+      int numSplits,
+      int fetchSize,
+      TransformFunction<Map<String, ?>, T> rowFunction) {
+
+    Utils.requireNotNull(rowFunction, "'rowFunction' must not be null");
+    this.jdbc =
+        this.jdbc == null ? ConfigUtils.getJdbcConf(context.parameter().toMap(), alias) : this.jdbc;
+    JdbcSplitSourceFunction<T> sourceFunction =
+        new JdbcSplitSourceFunction<>(
+            jdbc, table, splitColumn, lowerBound, upperBound, numSplits, fetchSize, rowFunction);
+    return context.getJavaEnv().addSource(sourceFunction);
+  }
 }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.bean
+
+import java.sql.Timestamp
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * A key range of the table read by one subtask: [lower, upper), the upper bound of the last split
+ * is inclusive. The offset is the key of the last emitted row, a restored split continues after it.
+ */
+case class JdbcSplit(
+    id: Int,
+    lower: Long,
+    upper: Long,
+    last: Boolean,
+    var offset: Long = 0L,
+    var started: Boolean = false,
+    var finished: Boolean = false)
+  extends Serializable {
+
+  override def toString: String =
+    s"(id:$id,range:[$lower,$upper${if (last) "]" else ")"},offset:${if (started) offset
+      else "-"},finished:$finished)"
+}
+
+object JdbcSplit {
+
+  private[this] val MICROS_PER_SECOND = 1000000L
+
+  /** The key of the timestamp: the microseconds since the epoch, as precise as most databases. */
+  def toKey(timestamp: Timestamp): Long =
+    Math.floorDiv(timestamp.getTime, 1000L) * MICROS_PER_SECOND + timestamp.getNanos / 1000
+
+  /** The timestamp of the key, see [[toKey]]. */
+  def toTimestamp(key: Long): Timestamp = {
+    val timestamp = new Timestamp(Math.floorDiv(key, MICROS_PER_SECOND) * 1000L)
+    timestamp.setNanos((Math.floorMod(key, MICROS_PER_SECOND) * 1000L).toInt)
+    timestamp
+  }
+
+  /** Divide the key range [lowerBound, upperBound] into at most numSplits splits of equal size. */
+  def split(lowerBound: Long, upperBound: Long, numSplits: Int): Seq[JdbcSplit] = {
+    require(
+      lowerBound <= upperBound,
+      s"[StreamPark] JdbcSource lowerBound $lowerBound must not be greater than upperBound $upperBound")
+    require(numSplits > 0, s"[StreamPark] JdbcSource numSplits must be positive, but got $numSplits")
+    val range = BigInt(upperBound) - BigInt(lowerBound) + 1
+    val size = ((range + numSplits - 1) / numSplits).max(1)
+    val splits = ArrayBuffer[JdbcSplit]()
+    var lower = BigInt(lowerBound)
+    while (lower <= upperBound) {
+      val upper = lower + size
+      val last = upper > upperBound
+      splits += JdbcSplit(splits.size, lower.toLong, if (last) upperBound else upper.toLong, last)
+      lower = upper
+    }
+    splits
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.util.{Logger, ThreadUtils}
+
+import java.util
+import java.util.concurrent.{Executors, ExecutorService, LinkedBlockingQueue, TimeUnit}
+
+/**
+ * Gathers the submitted keys into batches for [[JdbcLookupFunction]]. One thread collects the
+ * batches: after the first key it lingers up to `linger` ms for more keys, or until the batch has
+ * `batchSize` keys, then the batch is looked up on one of the `threads` query threads. The number
+ * of the query threads is independent of the async capacity, so the concurrent keys are merged
+ * into one batch instead of being taken by idle threads one by one.
+ *
+ * @param lookup
+ *   looks up a batch of keys, called on a query thread
+ */
+private[jdbc] class JdbcLookupDispatcher[K](
+    batchSize: Int,
+    linger: Long,
+    threads: Int,
+    lookup: util.List[K] => Unit)
+  extends Logger {
+
+  require(batchSize > 0, s"[StreamPark] JdbcLookup batch size must be positive, but got $batchSize")
+  require(threads > 0, s"[StreamPark] JdbcLookup threads must be positive, but got $threads")
+
+  private[this] val pending = new LinkedBlockingQueue[K]()
+
+  @volatile private[this] var running = true
+
+  private[this] val queryService: ExecutorService =
+    Executors.newFixedThreadPool(threads, ThreadUtils.threadFactory("jdbc-lookup-query"))
+
+  private[this] val collectService: ExecutorService =
+    Executors.newSingleThreadExecutor(ThreadUtils.threadFactory("jdbc-lookup-collect"))
+
+  collectService.execute(new Runnable {
+    override def run(): Unit = collect()
+  })
+
+  def submit(key: K): Unit = pending.put(key)
+
+  def close(): Unit = {
+    running = false
+    ThreadUtils.shutdownExecutorService(collectService)
+    ThreadUtils.shutdownExecutorService(queryService)
+  }
+
+  /** Gather the pending keys into batches, until the dispatcher is closed. */
+  private[this] def collect(): Unit = {
+    val lingerNanos = TimeUnit.MILLISECONDS.toNanos(linger)
+    while (running) {
+      val first = pending.poll(100, TimeUnit.MILLISECONDS)
+      if (first != null) {
+        val keys = new util.ArrayList[K](batchSize)
+        keys.add(first)
+        pending.drainTo(keys, batchSize - 1)
+        val deadline = System.nanoTime() + lingerNanos
+        var remaining = lingerNanos
+        while (keys.size() < batchSize && remaining > 0) {
+          val next = pending.poll(remaining, TimeUnit.NANOSECONDS)
+          if (next != null) {
+            keys.add(next)
+            pending.drainTo(keys, batchSize - keys.size())
+          }
+          remaining = deadline - System.nanoTime()
+        }
+        queryService.execute(new Runnable {
+          override def run(): Unit = lookup(keys)
+        })
+      }
+    }
+  }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.conf.ConfigKeys._
+import org.apache.streampark.common.util.{JdbcUtils, Logger}
+
+import org.apache.flink.api.common.typeinfo.TypeInformation
+import org.apache.flink.configuration.Configuration
+import org.apache.flink.metrics.{Counter, Gauge}
+import org.apache.flink.streaming.api.scala.async.{ResultFuture, RichAsyncFunction}
+
+import java.sql.{Connection, PreparedStatement, ResultSet, SQLException}
+import java.util
+import java.util.Properties
+import java.util.concurrent.{CompletableFuture, ConcurrentHashMap}
+import java.util.function.{BiConsumer, Function => JFunction}
+import javax.sql.DataSource
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Looks up the rows of the key in the table, e.g. the dimension table join.
+ *
+ * <pre> 1) the rows are cached by the key in a bounded LRU cache with ttl, the empty result is also
+ * cached unless lookup.cache.empty is false 2) the concurrent lookups of the same key share one
+ * query, and the pending keys gathered within lookup.batch.linger ms are merged into one
+ * "keyColumn IN (...)" query of at most lookup.batch.size keys, run on lookup.threads threads, see
+ * [[JdbcLookupDispatcher]] 3) a failed query is retried lookup.max.retries times before failing the
+ * records 4) the connections are checked out from the data source directly </pre>
+ *
+ * The key is matched with the value of the key column by its string form, so the type of the key
+ * should be consistent with the column.
+ *
+ * @param keyFun
+ *   the lookup key of the record
+ * @param table
+ *   table name or a select query
+ * @param keyColumn
+ *   the column of the lookup key
+ * @param resultFun
+ *   joins the record and a row, the row is empty if no row is found
+ */
+class JdbcLookupFunction[T: TypeInformation, K, R: TypeInformation](
+    keyFun: T => K,
+    table: String,
+    keyColumn: String,
+    resultFun: (T, Map[String, _]) => R,
+    jdbc: Properties)
+  extends RichAsyncFunction[T, R]
+  with Logger {
+
+  private[this] val cacheSize = jdbc.remove(KEY_JDBC_LOOKUP_CACHE_SIZE) match {
+    case null => DEFAULT_JDBC_LOOKUP_CACHE_SIZE
+    case size => size.toString.toInt
+  }
+
+  private[this] val cacheTtl = jdbc.remove(KEY_JDBC_LOOKUP_CACHE_TTL) match {
+    case null => DEFAULT_JDBC_LOOKUP_CACHE_TTL
+    case ttl => ttl.toString.toLong
+  }
+
+  private[this] val cacheEmpty = jdbc.remove(KEY_JDBC_LOOKUP_CACHE_EMPTY) match {
+    case null => DEFAULT_JDBC_LOOKUP_CACHE_EMPTY
+    case empty => empty.toString.toBoolean
+  }
+
+  private[this] val batchSize = jdbc.remove(KEY_JDBC_LOOKUP_BATCH) match {
+    case null => DEFAULT_JDBC_LOOKUP_BATCH
+    case size => size.toString.toInt
+  }
+
+  private[this] val batchLinger = jdbc.remove(KEY_JDBC_LOOKUP_BATCH_LINGER) match {
+    case null => DEFAULT_JDBC_LOOKUP_BATCH_LINGER
+    case linger => linger.toString.toLong
+  }
+
+  private[this] val threads = jdbc.remove(KEY_JDBC_LOOKUP_THREADS) match {
+    case null => DEFAULT_JDBC_LOOKUP_THREADS
+    case size => size.toString.toInt
+  }
+
+  private[this] val maxRetries = jdbc.remove(KEY_JDBC_LOOKUP_MAX_RETRIES) match {
+    case null => DEFAULT_JDBC_LOOKUP_MAX_RETRIES
+    case retries => retries.toString.toInt
+  }
+
+  @transient private[this] var dataSource: DataSource = _
+  @transient private[this] var dispatcher: JdbcLookupDispatcher[K] = _
+  @transient private[this] var cache: JdbcLookupFunction.LookupCache[K] = _
+  @transient private[this] var inflight: ConcurrentHashMap[K, CompletableFuture[Seq[Map[String, _]]]] = _
+
+  @transient private[this] var cacheHit: Counter = _
+  @transient private[this] var cacheMiss: Counter = _
+  @transient private[this] var queries: Counter = _
+  @transient private[this] var queryErrors: Counter = _
+  @volatile private[this] var lastQueryLatency = 0L
+
+  override def open(parameters: Configuration): Unit = {
+    super.open(parameters)
+    dataSource = JdbcUtils.getDataSource(jdbc)
+    JdbcPoolMetrics.register(getRuntimeContext.getMetricGroup, jdbc)
+    cache = new JdbcLookupFunction.LookupCache[K](cacheSize, cacheTtl)
+    inflight = new ConcurrentHashMap[K, CompletableFuture[Seq[Map[String, _]]]]()
+
+    val metricGroup = getRuntimeContext.getMetricGroup.addGroup("jdbcLookup")
+    cacheHit = metricGroup.counter("cacheHit")
+    cacheMiss = metricGroup.counter("cacheMiss")
+    queries = metricGroup.counter("queries")
+    queryErrors = metricGroup.counter("queryErrors")
+    metricGroup.gauge[Long, Gauge[Long]](
+      "lastQueryLatency",
+      new Gauge[Long] {
+        override def getValue: Long = lastQueryLatency
+      })
+    metricGroup.gauge[Int, Gauge[Int]](
+      "cacheSize",
+      new Gauge[Int] {
+        override def getValue: Int = cache.size
+      })
+
+    dispatcher = new JdbcLookupDispatcher[K](batchSize, batchLinger, threads, lookup)
+  }
+
+  override def close(): Unit = {
+    super.close()
+    if (dispatcher != null) {
+      dispatcher.close()
+    }
+  }
+
+  @throws[Exception]
+  def asyncInvoke(input: T, resultFuture: ResultFuture[R]): Unit = {
+    val key = keyFun(input)
+    if (key == null) {
+      complete(input, Nil, resultFuture)
+      return
+    }
+    cache.get(key) match {
+      case null =>
+        cacheMiss.inc()
+        val future = inflight.computeIfAbsent(
+          key,
+          new JFunction[K, CompletableFuture[Seq[Map[String, _]]]] {
+            override def apply(k: K): CompletableFuture[Seq[Map[String, _]]] = {
+              dispatcher.submit(k)
+              new CompletableFuture[Seq[Map[String, _]]]()
+            }
+          }
+        )
+        future.whenComplete(new BiConsumer[Seq[Map[String, _]], Throwable] {
+          override def accept(rows: Seq[Map[String, _]], error: Throwable): Unit = {
+            if (error != null) resultFuture.completeExceptionally(error)
+            else complete(input, rows, resultFuture)
+          }
+        })
+      case rows =>
+        cacheHit.inc()
+        complete(input, rows, resultFuture)
+    }
+  }
+
+  private[this] def complete(
+      input: T,
+      rows: Seq[Map[String, _]],
+      resultFuture: ResultFuture[R]): Unit = {
+    if (rows.isEmpty) {
+      resultFuture.complete(List(resultFun(input, Map.empty[String, Any])))
+    } else {
+      resultFuture.complete(rows.map(x => resultFun(input, x)))
+    }
+  }
+
+  private[this] def lookup(keys: util.List[K]): Unit = {
+    try {
+      val rows = queryWithRetry(keys)
+      keys.forEach(
+        key => {
+          val found = rows.getOrElse(String.valueOf(key), Nil)
+          if (found.nonEmpty || cacheEmpty) {
+            cache.put(key, found)
+          }
+          inflight.remove(key).complete(found)
+        })
+    } catch {
+      case e: Throwable =>
+        logError(s"JdbcLookup query failed, keys: ${keys.size()}, error: ${e.getMessage}")
+        keys.forEach(key => inflight.remove(key).completeExceptionally(e))
+    }
+  }
+
+  private[this] def queryWithRetry(keys: util.List[K]): Map[String, Seq[Map[String, _]]] = {
+    var attempt = 0
+    var result: Map[String, Seq[Map[String, _]]] = null
+    while (result == null) {
+      try {
+        result = query(keys)
+      } catch {
+        case e: SQLException if attempt < maxRetries =>
+          attempt += 1
+          queryErrors.inc()
+          logWarn(s"JdbcLookup query failed, retry $attempt/$maxRetries, error: ${e.getMessage}")
+          Thread.sleep(100L * attempt)
+      }
+    }
+    result
+  }
+
+  private[this] def query(keys: util.List[K]): Map[String, Seq[Map[String, _]]] = {
+    val source = if (table.trim.contains(" ")) s"(${table.trim}) t" else table
+    val sql = s"SELECT * FROM $source WHERE $keyColumn IN (${Array.fill(keys.size())("?").mkString(",")})"
+    val start = System.currentTimeMillis()
+    var conn: Connection = null
+    var stmt: PreparedStatement = null
+    var result: ResultSet = null
+    try {
+      conn = dataSource.getConnection
+      stmt = conn.prepareStatement(sql)
+      var i = 0
+      while (i < keys.size()) {
+        stmt.setObject(i + 1, keys.get(i))
+        i += 1
+      }
+      result = stmt.executeQuery()
+      val meta = result.getMetaData
+      val labels = (1 to meta.getColumnCount).map(meta.getColumnLabel).toArray
+      val keyLabel = keyColumn.substring(keyColumn.lastIndexOf('.') + 1)
+      val keyIndex = labels.indexWhere(_.equalsIgnoreCase(keyLabel)) + 1
+      require(keyIndex > 0, s"[StreamPark] JdbcLookup keyColumn $keyColumn not found in $sql")
+      val rows = mutable.HashMap[String, ArrayBuffer[Map[String, _]]]()
+      while (result.next()) {
+        val row = Map.newBuilder[String, Any]
+        for (x <- labels.indices) {
+          row += labels(x) -> result.getObject(x + 1)
+        }
+        rows.getOrElseUpdate(String.valueOf(result.getObject(keyIndex)), ArrayBuffer()) += row
+          .result()
+      }
+      queries.inc()
+      lastQueryLatency = System.currentTimeMillis() - start
+      rows.toMap
+    } finally {
+      JdbcUtils.close(result, stmt, conn)
+    }
+  }
+
+}
+
+object JdbcLookupFunction {
+
+  /** A bounded LRU cache, the entry expires after the ttl since it's put. */
+  private[jdbc] class LookupCache[K](maxSize: Int, ttl: Long) {
+
+    private[this] val entries = new util.LinkedHashMap[K, (Seq[Map[String, _]], Long)](16, 0.75f, true) {
+      override def removeEldestEntry(
+          eldest: util.Map.Entry[K, (Seq[Map[String, _]], Long)]): Boolean = size() > maxSize
+    }
+
+    def get(key: K): Seq[Map[String, _]] = entries.synchronized {
+      entries.get(key) match {
+        case null => null
+        case (_, expireAt) if expireAt < System.currentTimeMillis() =>
+          entries.remove(key)
+          null
+        case (rows, _) => rows
+      }
+    }
+
+    def put(key: K, rows: Seq[Map[String, _]]): Unit = {
+      if (maxSize > 0) entries.synchronized {
+        entries.put(key, (rows, System.currentTimeMillis() + ttl))
+      }
+    }
+
+    def size: Int = entries.synchronized(entries.size())
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.conf.ConfigKeys.KEY_ALIAS
+import org.apache.streampark.common.util.JdbcUtils
+import org.apache.streampark.common.util.JdbcUtils.PoolStats
+
+import org.apache.flink.metrics.{Gauge, MetricGroup}
+
+import java.util.Properties
+
+object JdbcPoolMetrics {
+
+  /**
+   * Register the connections of the pool of the alias (active, idle, waiting, total) as gauges of
+   * the "jdbcPool" group, the pool is shared by the operators of the same alias in the task manager.
+   */
+  def register(metricGroup: MetricGroup, jdbc: Properties): Unit = {
+    val alias = jdbc.getProperty(KEY_ALIAS)
+    if (alias != null) {
+      val group = metricGroup.addGroup("jdbcPool")
+      def gauge(name: String, value: PoolStats => Int): Unit =
+        group.gauge[Int, Gauge[Int]](
+          name,
+          new Gauge[Int] {
+            override def getValue: Int = JdbcUtils.getPoolStats(alias).map(value).getOrElse(0)
+          })
+      gauge("active", _.active)
+      gauge("idle", _.idle)
+      gauge("waiting", _.waiting)
+      gauge("total", _.total)
+    }
+  }
+
+}
@@ -17,13 +17,15 @@
 
 package org.apache.streampark.flink.connector.jdbc.internal
 
-import org.apache.streampark.common.conf.ConfigKeys.{DEFAULT_JDBC_INSERT_BATCH, KEY_JDBC_INSERT_BATCH}
+import org.apache.streampark.common.conf.ConfigKeys.{DEFAULT_JDBC_INSERT_BATCH, DEFAULT_JDBC_INSERT_BATCH_INTERVAL, KEY_JDBC_INSERT_BATCH, KEY_JDBC_INSERT_BATCH_INTERVAL}
 import org.apache.streampark.common.enums.ApiType
 import org.apache.streampark.common.enums.ApiType.ApiType
 import org.apache.streampark.common.util.{JdbcUtils, Logger}
 import org.apache.streampark.flink.connector.function.TransformFunction
 
 import org.apache.flink.configuration.Configuration
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.sink.{RichSinkFunction, SinkFunction}
 
 import java.sql.{Connection, PreparedStatement, Statement}
@@ -32,6 +34,7 @@ import java.util.concurrent.atomic.AtomicLong
 
 class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
   extends RichSinkFunction[T]
+  with CheckpointedFunction
   with Logger {
   private var connection: Connection = _
   private var statement: Statement = _
@@ -45,6 +48,11 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
     case batch => batch.toString.toInt
   }
 
+  private val batchInterval = jdbc.remove(KEY_JDBC_INSERT_BATCH_INTERVAL) match {
+    case null => DEFAULT_JDBC_INSERT_BATCH_INTERVAL
+    case interval => interval.toString.toLong
+  }
+
   def this(jdbc: Properties, toSQLFn: T => String) {
     this(ApiType.scala, jdbc)
     this.scalaToSQLFn = toSQLFn
@@ -61,6 +69,7 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
     require(jdbc != null, "[StreamPark] JdbcSink jdbc can not be null")
     logInfo("JdbcSink Open....")
     connection = JdbcUtils.getConnection(jdbc)
+    JdbcPoolMetrics.register(getRuntimeContext.getMetricGroup, jdbc)
     connection.setAutoCommit(false)
     if (batchSize > 1) {
       statement = connection.createStatement()
@@ -90,7 +99,7 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
           statement.addBatch(sql)
           (offset.incrementAndGet() % batch, System.currentTimeMillis()) match {
             case (0, _) => execBatch()
-            case (_, current) if current - timestamp > 1000 => execBatch()
+            case (_, current) if current - timestamp > batchInterval => execBatch()
             case _ =>
           }
         } catch {
@@ -102,6 +111,12 @@ class JdbcSinkFunction[T](apiType: ApiType = ApiType.scala, jdbc: Properties)
     }
   }
 
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    if (batchSize > 1) execBatch()
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
   override def close(): Unit = {
     execBatch()
     JdbcUtils.close(statement, connection)
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.enums.ApiType
+import org.apache.streampark.common.enums.ApiType.ApiType
+import org.apache.streampark.common.util.{JdbcUtils, Logger}
+import org.apache.streampark.flink.connector.function.TransformFunction
+import org.apache.streampark.flink.connector.jdbc.bean.JdbcSplit
+import org.apache.streampark.flink.util.FlinkUtils
+
+import org.apache.flink.api.common.state.ListState
+import org.apache.flink.api.common.typeinfo.TypeInformation
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
+import org.apache.flink.streaming.api.functions.source.RichParallelSourceFunction
+import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext
+
+import java.sql.{Connection, PreparedStatement, ResultSet, Timestamp}
+import java.util
+import java.util.Properties
+
+import org.apache.streampark.common.util.Implicits._
+import scala.collection.Map
+import scala.util.Try
+
+/**
+ * Reads a table in parallel. The key range [lowerBound, upperBound] of the split column is divided
+ * into splits, split i is read by subtask (i % parallelism). Every split is read with one
+ * forward-only query ordered by the split column, the rows are streamed with the fetch size and the
+ * column labels are resolved once per query. The offset of every split is checkpointed, a restored
+ * split continues after the last emitted key, so the split column should be unique (e.g. the
+ * primary key). The split column is numeric, or a timestamp when the bounds are given as
+ * "yyyy-MM-dd HH:mm:ss[.ffffff]", in which case the keys are compared in microseconds.
+ *
+ * Every split is read in its own transaction, as some drivers (e.g. postgresql) only stream the
+ * rows with a cursor inside a transaction. MySQL fetches the rows by the fetch size only with
+ * "useCursorFetch=true" in the url, otherwise the rows are streamed one by one (fetch size
+ * Integer.MIN_VALUE) instead of being loaded into memory at once.
+ */
+class JdbcSplitSourceFunction[R](
+    apiType: ApiType = ApiType.SCALA,
+    jdbc: Properties,
+    table: String,
+    splitColumn: String,
+    lowerBound: String,
+    upperBound: String,
+    numSplits: Int,
+    fetchSize: Int)
+  extends RichParallelSourceFunction[R]
+  with CheckpointedFunction
+  with Logger {
+
+  require(table != null && table.nonEmpty, "[StreamPark] JdbcSource table must not be empty")
+  require(splitColumn != null, "[StreamPark] JdbcSource splitColumn must not be null")
+
+  @volatile private[this] var running = true
+
+  private[this] var scalaRowFunc: Map[String, _] => R = _
+  private[this] var javaRowFunc: TransformFunction[util.Map[String, _], R] = _
+
+  private[this] val timeKey: Boolean = Try(lowerBound.trim.toLong).isFailure
+
+  @transient private var state: ListState[JdbcSplit] = _
+  private val SPLITS_STATE_NAME: String = "jdbc-source-split-states"
+  @transient private[this] var splits: Seq[JdbcSplit] = _
+
+  // for Scala
+  def this(
+      jdbc: Properties,
+      table: String,
+      splitColumn: String,
+      lowerBound: String,
+      upperBound: String,
+      numSplits: Int,
+      fetchSize: Int,
+      rowFunc: Map[String, _] => R) = {
+    this(ApiType.SCALA, jdbc, table, splitColumn, lowerBound, upperBound, numSplits, fetchSize)
+    require(rowFunc != null, "[StreamPark] JdbcSource rowFunc must not be null")
+    this.scalaRowFunc = rowFunc
+  }
+
+  // for JAVA
+  def this(
+      jdbc: Properties,
+      table: String,
+      splitColumn: String,
+      lowerBound: String,
+      upperBound: String,
+      numSplits: Int,
+      fetchSize: Int,
+      rowFunc: TransformFunction[util.Map[String, _], R]) = {
+    this(ApiType.JAVA, jdbc, table, splitColumn, lowerBound, upperBound, numSplits, fetchSize)
+    require(rowFunc != null, "[StreamPark] JdbcSource rowFunc must not be null")
+    this.javaRowFunc = rowFunc
+  }
+
+  private[this] def toKey(bound: String): Long =
+    if (timeKey) JdbcSplit.toKey(Timestamp.valueOf(bound.trim)) else bound.trim.toLong
+
+  @throws[Exception]
+  override def run(ctx: SourceContext[R]): Unit = {
+    val pending = splits.filterNot(_.finished)
+    logInfo(s"JdbcSource subtask ${getRuntimeContext.getIndexOfThisSubtask} splits: $pending")
+    if (pending.nonEmpty) {
+      val conn = JdbcUtils.getConnection(jdbc)
+      try {
+        conn.setAutoCommit(false)
+        val streamingFetchSize = getStreamingFetchSize(conn)
+        pending.foreach(
+          split =>
+            if (running) {
+              try {
+                read(conn, split, streamingFetchSize, ctx)
+                conn.commit()
+              } catch {
+                case e: Exception =>
+                  Try(conn.rollback())
+                  throw e
+              }
+            })
+      } finally {
+        Try(conn.setAutoCommit(true))
+        JdbcUtils.close(conn)
+      }
+    }
+  }
+
+  /**
+   * The fetch size to stream the rows, MySQL Connector/J ignores the fetch size and loads all the
+   * rows into memory, unless the cursor fetch is enabled in the url or the fetch size is
+   * Integer.MIN_VALUE (row by row) on a forward-only and read-only statement.
+   */
+  private[this] def getStreamingFetchSize(conn: Connection): Int = {
+    val url = Try(conn.getMetaData.getURL).toOption.flatMap(Option(_)).getOrElse("")
+    val mysql = url.startsWith("jdbc:mysql:")
+    if (mysql && !url.matches("(?i).*[?&]useCursorFetch=true.*")) Integer.MIN_VALUE else fetchSize
+  }
+
+  private[this] def read(
+      conn: Connection,
+      split: JdbcSplit,
+      streamingFetchSize: Int,
+      ctx: SourceContext[R]): Unit = {
+    val source = if (table.trim.contains(" ")) s"(${table.trim}) t" else table
+    val sql =
+      s"SELECT * FROM $source WHERE $splitColumn ${if (split.started) ">" else ">="} ? " +
+        s"AND $splitColumn ${if (split.last) "<=" else "<"} ? ORDER BY $splitColumn"
+    var stmt: PreparedStatement = null
+    var result: ResultSet = null
+    try {
+      stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+      stmt.setFetchSize(streamingFetchSize)
+      setKey(stmt, 1, if (split.started) split.offset else split.lower)
+      setKey(stmt, 2, split.upper)
+      val start = System.currentTimeMillis()
+      result = stmt.executeQuery()
+      val meta = result.getMetaData
+      val labels = (1 to meta.getColumnCount).map(meta.getColumnLabel).toArray
+      val keyLabel = splitColumn.substring(splitColumn.lastIndexOf('.') + 1)
+      val keyIndex = labels.indexWhere(_.equalsIgnoreCase(keyLabel)) + 1
+      require(keyIndex > 0, s"[StreamPark] JdbcSource splitColumn $splitColumn not found in $sql")
+      var count = 0L
+      while (running && result.next()) {
+        val record = apiType match {
+          case ApiType.SCALA => scalaRowFunc(scalaRow(result, labels))
+          case ApiType.JAVA => javaRowFunc.transform(javaRow(result, labels))
+        }
+        val key = getKey(result, keyIndex)
+        ctx.getCheckpointLock.synchronized {
+          ctx.collect(record)
+          split.offset = key
+          split.started = true
+        }
+        count += 1
+      }
+      if (running) {
+        ctx.getCheckpointLock.synchronized {
+          split.finished = true
+        }
+        logInfo(
+          s"JdbcSource split $split finished, $count rows use ${System.currentTimeMillis() - start} MS")
+      }
+    } finally {
+      JdbcUtils.close(result, stmt)
+    }
+  }
+
+  private[this] def scalaRow(result: ResultSet, labels: Array[String]): Map[String, _] = {
+    val builder = scala.collection.immutable.Map.newBuilder[String, Any]
+    var i = 0
+    while (i < labels.length) {
+      builder += labels(i) -> result.getObject(i + 1)
+      i += 1
+    }
+    builder.result()
+  }
+
+  private[this] def javaRow(result: ResultSet, labels: Array[String]): util.Map[String, _] = {
+    val row = new util.LinkedHashMap[String, Any](labels.length * 2)
+    var i = 0
+    while (i < labels.length) {
+      row.put(labels(i), result.getObject(i + 1))
+      i += 1
+    }
+    row
+  }
+
+  private[this] def setKey(stmt: PreparedStatement, index: Int, key: Long): Unit =
+    if (timeKey) stmt.setTimestamp(index, JdbcSplit.toTimestamp(key)) else stmt.setLong(index, key)
+
+  private[this] def getKey(result: ResultSet, index: Int): Long =
+    if (timeKey) JdbcSplit.toKey(result.getTimestamp(index)) else result.getLong(index)
+
+  override def cancel(): Unit = this.running = false
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    state.clear()
+    splits.foreach(state.add)
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {
+    state = FlinkUtils.getUnionListState[JdbcSplit](context, SPLITS_STATE_NAME)(
+      TypeInformation.of(classOf[JdbcSplit]))
+    val parallelism = getRuntimeContext.getNumberOfParallelSubtasks
+    val index = getRuntimeContext.getIndexOfThisSubtask
+    // every subtask gets all the splits from the union state, so the splits are reassigned on
+    // restore with a different parallelism.
+    val restored = if (context.isRestored) state.get.toSeq.sortBy(_.id) else Seq.empty
+    val allSplits = if (restored.nonEmpty) restored
+    else {
+      if (context.isRestored) {
+        // e.g. the source is added to a job restored from a savepoint without its state
+        logWarn("JdbcSource is restored without the split states, read the table from the start")
+      }
+      JdbcSplit.split(
+        toKey(lowerBound),
+        toKey(upperBound),
+        if (numSplits > 0) numSplits else parallelism)
+    }
+    splits = allSplits.filter(_.id % parallelism == index)
+    logInfo(s"JdbcSource initializeState, restored: ${context.isRestored}, splits: $splits")
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.conf.ConfigKeys._
+import org.apache.streampark.common.enums.ApiType
+import org.apache.streampark.common.enums.ApiType.ApiType
+import org.apache.streampark.common.util.{JdbcUtils, Logger, ThreadUtils, Utils}
+import org.apache.streampark.flink.connector.jdbc.function.StatementBinder
+
+import org.apache.flink.configuration.Configuration
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
+import org.apache.flink.streaming.api.functions.sink.{RichSinkFunction, SinkFunction}
+
+import java.io.IOException
+import java.sql.{Connection, PreparedStatement}
+import java.util.Properties
+import java.util.concurrent.{Executors, ScheduledExecutorService, TimeUnit}
+
+import scala.util.Try
+
+/**
+ * Writes the records with one INSERT/UPSERT template, the values are bound to a single reused
+ * PreparedStatement by the binder, so the database parses the statement once and the driver can
+ * rewrite the batch (e.g. MySQL rewriteBatchedStatements, PostgreSQL reWriteBatchedInserts, which
+ * are enabled on the jdbc url when batch.size is greater than 1, the pools are cached by alias,
+ * so the rewriting url gets its own pool under the alias suffixed by ".batched"). The batch is
+ * executed when it is full, every batch.interval ms, and on checkpoint, a failed batch is rolled
+ * back.
+ */
+class JdbcStatementSinkFunction[T](apiType: ApiType = ApiType.SCALA, jdbc: Properties, sql: String)
+  extends RichSinkFunction[T]
+  with CheckpointedFunction
+  with Logger {
+
+  require(sql != null && sql.nonEmpty, "[StreamPark] JdbcSink sql can not be empty")
+
+  private var connection: Connection = _
+  private var statement: PreparedStatement = _
+  private var scalaBinder: (PreparedStatement, T) => Unit = _
+  private var javaBinder: StatementBinder[T] = _
+  private var pending: Int = 0
+
+  @transient private var service: ScheduledExecutorService = _
+
+  @volatile private var failure: Throwable = _
+
+  private val batchSize = jdbc.remove(KEY_JDBC_INSERT_BATCH) match {
+    case null => DEFAULT_JDBC_INSERT_BATCH
+    case batch => batch.toString.toInt
+  }
+
+  private val batchInterval = jdbc.remove(KEY_JDBC_INSERT_BATCH_INTERVAL) match {
+    case null => DEFAULT_JDBC_INSERT_BATCH_INTERVAL
+    case interval => interval.toString.toLong
+  }
+
+  def this(jdbc: Properties, sql: String, binder: (PreparedStatement, T) => Unit) {
+    this(ApiType.SCALA, jdbc, sql)
+    require(binder != null, "[StreamPark] JdbcSink binder can not be null")
+    this.scalaBinder = binder
+  }
+
+  def this(jdbc: Properties, sql: String, binder: StatementBinder[T]) {
+    this(ApiType.JAVA, jdbc, sql)
+    require(binder != null, "[StreamPark] JdbcSink binder can not be null")
+    this.javaBinder = binder
+  }
+
+  @throws[Exception]
+  override def open(parameters: Configuration): Unit = {
+    require(jdbc != null, "[StreamPark] JdbcSink jdbc can not be null")
+    logInfo(s"JdbcSink Open, batchSize:$batchSize, batchInterval:$batchInterval, sql:$sql")
+    val poolConfig = if (batchSize > 1) rewriteBatched(jdbc) else jdbc
+    connection = JdbcUtils.getConnection(poolConfig)
+    JdbcPoolMetrics.register(getRuntimeContext.getMetricGroup, poolConfig)
+    connection.setAutoCommit(false)
+    statement = connection.prepareStatement(sql)
+    if (batchSize > 1 && batchInterval > 0) {
+      service = Executors.newSingleThreadScheduledExecutor(
+        ThreadUtils.threadFactory("jdbc-interval-sink"))
+      service.scheduleWithFixedDelay(
+        new Runnable {
+          override def run(): Unit = {
+            try {
+              execBatch()
+            } catch {
+              case e: Throwable =>
+                logError(s"JdbcSink batch error: ${e.getMessage}")
+                failure = e
+            }
+          }
+        },
+        batchInterval,
+        batchInterval,
+        TimeUnit.MILLISECONDS
+      )
+    }
+  }
+
+  override def invoke(value: T, context: SinkFunction.Context): Unit = {
+    checkFailure()
+    statement.synchronized {
+      apiType match {
+        case ApiType.SCALA => scalaBinder(statement, value)
+        case ApiType.JAVA => javaBinder.bind(statement, value)
+      }
+      if (batchSize == 1) {
+        rollbackOnFailure {
+          statement.executeUpdate()
+          connection.commit()
+        }
+      } else {
+        statement.addBatch()
+        pending += 1
+        if (pending >= batchSize) {
+          execBatch()
+        }
+      }
+    }
+  }
+
+  private[this] def execBatch(): Unit = statement.synchronized {
+    if (pending > 0) {
+      val start = System.currentTimeMillis()
+      try {
+        rollbackOnFailure {
+          statement.executeBatch()
+          connection.commit()
+        }
+        logInfo(s"JdbcSink batch $pending use ${System.currentTimeMillis() - start} MS")
+      } finally {
+        pending = 0
+      }
+    }
+  }
+
+  /**
+   * Roll back the transaction and drop the batch when the write fails, so the connection is not
+   * left in a half written transaction, the records are replayed from the last checkpoint.
+   */
+  private[this] def rollbackOnFailure(write: => Unit): Unit = {
+    try write
+    catch {
+      case e: Throwable =>
+        Try(connection.rollback()).failed.foreach(
+          t => logError(s"JdbcSink rollback error: ${t.getMessage}"))
+        Try(statement.clearBatch())
+        throw e
+    }
+  }
+
+  private[this] def checkFailure(): Unit = {
+    if (failure != null) {
+      throw new IOException("[StreamPark] JdbcSink writing records failed.", failure)
+    }
+  }
+
+  /**
+   * Enable the batch rewriting of the driver unless it's configured explicitly in the jdbc url, the
+   * rewriting url is pooled under its own alias, the pool of the alias may be created by the other
+   * operators with the original url.
+   */
+  private[this] def rewriteBatched(jdbc: Properties): Properties = {
+    val url = jdbc.getProperty(KEY_JDBC_URL)
+    val option = url match {
+      case null => null
+      case u if u.startsWith("jdbc:mysql:") => "rewriteBatchedStatements=true"
+      case u if u.startsWith("jdbc:postgresql:") => "reWriteBatchedInserts=true"
+      case _ => null
+    }
+    if (option == null || url.contains(option.split("=").head)) jdbc
+    else {
+      val prop = new Properties()
+      Utils.copyProperties(jdbc, prop)
+      prop.setProperty(KEY_JDBC_URL, s"$url${if (url.contains("?")) "&" else "?"}$option")
+      Option(jdbc.getProperty(KEY_ALIAS)).foreach(a => prop.setProperty(KEY_ALIAS, s"$a.batched"))
+      prop
+    }
+  }
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    checkFailure()
+    execBatch()
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
+  override def close(): Unit = {
+    if (service != null) {
+      ThreadUtils.shutdownExecutorService(service)
+    }
+    try {
+      if (statement != null && failure == null) execBatch()
+    } finally {
+      JdbcUtils.close(statement, connection)
+    }
+  }
+
+}
@@ -18,7 +18,7 @@
 package org.apache.streampark.flink.connector.jdbc.request
 
 import org.apache.streampark.common.util.Utils
-import org.apache.streampark.flink.connector.jdbc.internal.JdbcASyncFunction
+import org.apache.streampark.flink.connector.jdbc.internal.{JdbcASyncFunction, JdbcLookupFunction}
 
 import org.apache.flink.api.common.typeinfo.TypeInformation
 import org.apache.flink.streaming.api.scala.{AsyncDataStream, DataStream}
@@ -67,4 +67,41 @@ class JdbcRequest[T: TypeInformation](
     AsyncDataStream.unorderedWait(stream, async, timeout, TimeUnit.MILLISECONDS, capacity)
   }
 
+  /**
+   * Look up the rows of the key in the table, the rows are cached and the concurrent lookups are
+   * merged into one "keyColumn IN (...)" query, see [[JdbcLookupFunction]].
+   *
+   * @param keyFun
+   *   the lookup key of the record
+   * @param table
+   *   table name or a select query
+   * @param keyColumn
+   *   the column of the lookup key
+   * @param resultFun
+   *   joins the record and a row, the row is empty if no row is found
+   */
+  def lookupOrdered[K, R: TypeInformation](
+      @(transient @param) keyFun: T => K,
+      table: String,
+      keyColumn: String,
+      @(transient @param) resultFun: (T, Map[String, _]) => R,
+      timeout: Long = 1000,
+      capacity: Int = 10)(implicit jdbc: Properties): DataStream[R] = {
+    Utils.copyProperties(property, jdbc)
+    val async = new JdbcLookupFunction[T, K, R](keyFun, table, keyColumn, resultFun, jdbc)
+    AsyncDataStream.orderedWait(stream, async, timeout, TimeUnit.MILLISECONDS, capacity)
+  }
+
+  def lookupUnordered[K, R: TypeInformation](
+      @(transient @param) keyFun: T => K,
+      table: String,
+      keyColumn: String,
+      @(transient @param) resultFun: (T, Map[String, _]) => R,
+      timeout: Long = 1000,
+      capacity: Int = 10)(implicit jdbc: Properties): DataStream[R] = {
+    Utils.copyProperties(property, jdbc)
+    val async = new JdbcLookupFunction[T, K, R](keyFun, table, keyColumn, resultFun, jdbc)
+    AsyncDataStream.unorderedWait(stream, async, timeout, TimeUnit.MILLISECONDS, capacity)
+  }
+
 }
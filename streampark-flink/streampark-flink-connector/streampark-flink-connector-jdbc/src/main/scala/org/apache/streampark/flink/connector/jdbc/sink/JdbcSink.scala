@@ -20,7 +20,7 @@ package org.apache.streampark.flink.connector.jdbc.sink
 import org.apache.streampark.common.conf.ConfigKeys._
 import org.apache.streampark.common.enums.Semantic
 import org.apache.streampark.common.util.{ConfigUtils, Logger}
-import org.apache.streampark.flink.connector.jdbc.internal.{Jdbc2PCSinkFunction, JdbcSinkFunction}
+import org.apache.streampark.flink.connector.jdbc.internal.{Jdbc2PCSinkFunction, JdbcSinkFunction, JdbcStatementSinkFunction}
 import org.apache.streampark.flink.connector.sink.Sink
 import org.apache.streampark.flink.core.scala.StreamingContext
 
@@ -30,6 +30,7 @@ import org.apache.flink.configuration.Configuration
 import org.apache.flink.streaming.api.datastream.DataStreamSink
 import org.apache.flink.streaming.api.scala.DataStream
 
+import java.sql.PreparedStatement
 import java.util.Properties
 
 import scala.annotation.meta.param
@@ -87,6 +88,29 @@ class JdbcSink(
     }
     afterSink(sink, parallelism, name, uid)
   }
+
+  /**
+   * @param stream
+   *   : DataStream
+   * @param sql
+   *   : The INSERT/UPSERT template with '?' parameters, prepared once.
+   * @param binder
+   *   : Binds the fields of the record to the parameters of the statement.
+   * @tparam T
+   *   : The data type of the stream in the DataStream
+   * @return
+   */
+  def sink[T](stream: DataStream[T], sql: String)(
+      binder: (PreparedStatement, T) => Unit): DataStreamSink[T] = {
+    val prop = ConfigUtils.getJdbcConf(ctx.parameter.toMap, alias)
+    val semantic = Semantic.of(prop.getProperty(KEY_SEMANTIC, Semantic.NONE.name()))
+    require(
+      semantic != Semantic.EXACTLY_ONCE,
+      "[StreamPark] Jdbc Semantic EXACTLY_ONCE is not supported by the prepared statement sink.")
+    val sinkFun = new JdbcStatementSinkFunction[T](prop, sql, binder)
+    val sink = stream.addSink(sinkFun)
+    afterSink(sink, parallelism, name, uid)
+  }
 }
 
 class JdbcOutputFormat[T: TypeInformation](implicit prop: Properties, toSQlFun: T => String)
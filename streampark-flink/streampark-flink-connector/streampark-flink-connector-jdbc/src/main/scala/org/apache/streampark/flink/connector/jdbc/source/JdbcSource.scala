@@ -18,7 +18,7 @@
 package org.apache.streampark.flink.connector.jdbc.source
 
 import org.apache.streampark.common.util.Utils
-import org.apache.streampark.flink.connector.jdbc.internal.JdbcSourceFunction
+import org.apache.streampark.flink.connector.jdbc.internal.{JdbcSourceFunction, JdbcSplitSourceFunction}
 import org.apache.streampark.flink.core.scala.StreamingContext
 
 import org.apache.flink.api.common.typeinfo.TypeInformation
@@ -56,4 +56,46 @@ class JdbcSource(
     ctx.addSource(mysqlFun)
   }
 
+  /**
+   * Read the table in parallel, the key range of the split column is divided into splits and the
+   * splits are assigned across the subtasks.
+   *
+   * @param table
+   *   table name or a select query
+   * @param splitColumn
+   *   a unique numeric or timestamp column, e.g. the primary key
+   * @param lowerBound
+   *   the min key, a number or "yyyy-MM-dd HH:mm:ss"
+   * @param upperBound
+   *   the max key (inclusive)
+   * @param numSplits
+   *   the number of splits, defaults to the parallelism of the source
+   * @param fetchSize
+   *   the number of rows fetched per round trip
+   * @param fun
+   *   converts a row to a record
+   * @tparam R
+   * @return
+   */
+  def getSplitDataStream[R: TypeInformation](
+      table: String,
+      splitColumn: String,
+      lowerBound: String,
+      upperBound: String,
+      numSplits: Int = 0,
+      fetchSize: Int = 1000)(fun: Map[String, _] => R)(implicit
+      jdbc: Properties = new Properties()): DataStream[R] = {
+    Utils.copyProperties(property, jdbc)
+    val splitFun = new JdbcSplitSourceFunction[R](
+      jdbc,
+      table,
+      splitColumn,
+      lowerBound,
+      upperBound,
+      numSplits,
+      fetchSize,
+      fun)
+    ctx.addSource(splitFun)
+  }
+
 }
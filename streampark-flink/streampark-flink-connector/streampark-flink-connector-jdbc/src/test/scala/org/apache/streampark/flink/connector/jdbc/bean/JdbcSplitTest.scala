@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.jdbc.bean
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.sql.Timestamp
+
+class JdbcSplitTest {
+
+  private def ranges(splits: Seq[JdbcSplit]): Seq[(Int, Long, Long, Boolean)] =
+    splits.map(s => (s.id, s.lower, s.upper, s.last))
+
+  @Test
+  def splitEvenly(): Unit = {
+    Assertions.assertEquals(
+      Seq((0, 1L, 26L, false), (1, 26L, 51L, false), (2, 51L, 76L, false), (3, 76L, 100L, true)),
+      ranges(JdbcSplit.split(1, 100, 4)))
+  }
+
+  @Test
+  def splitUnevenly(): Unit = {
+    // 10 keys in 3 splits of 4 keys, the last split takes the rest
+    Assertions.assertEquals(
+      Seq((0, 0L, 4L, false), (1, 4L, 8L, false), (2, 8L, 9L, true)),
+      ranges(JdbcSplit.split(0, 9, 3)))
+  }
+
+  @Test
+  def splitMoreThanKeys(): Unit = {
+    // no empty split when there are fewer keys than splits
+    Assertions.assertEquals(
+      Seq((0, 5L, 6L, false), (1, 6L, 7L, false), (2, 7L, 7L, true)),
+      ranges(JdbcSplit.split(5, 7, 10)))
+    Assertions.assertEquals(Seq((0, 3L, 3L, true)), ranges(JdbcSplit.split(3, 3, 4)))
+  }
+
+  @Test
+  def splitWholeLongRange(): Unit = {
+    val splits = JdbcSplit.split(Long.MinValue, Long.MaxValue, 2)
+    Assertions.assertEquals(
+      Seq((0, Long.MinValue, 0L, false), (1, 0L, Long.MaxValue, true)),
+      ranges(splits))
+  }
+
+  @Test
+  def splitCoversRange(): Unit = {
+    (1 to 9).foreach(
+      n => {
+        val splits = JdbcSplit.split(-17, 1000, n)
+        Assertions.assertEquals(-17L, splits.head.lower)
+        Assertions.assertEquals(1000L, splits.last.upper)
+        Assertions.assertTrue(splits.last.last && splits.init.forall(!_.last))
+        splits
+          .sliding(2)
+          .filter(_.size == 2)
+          .foreach(p => Assertions.assertEquals(p.head.upper, p.last.lower))
+        Assertions.assertEquals(splits.indices, splits.map(_.id))
+      })
+  }
+
+  @Test
+  def splitInvalidBounds(): Unit = {
+    Assertions.assertThrows(classOf[IllegalArgumentException], () => JdbcSplit.split(10, 1, 2))
+    Assertions.assertThrows(classOf[IllegalArgumentException], () => JdbcSplit.split(1, 10, 0))
+  }
+
+  @Test
+  def timestampKeyKeepsMicros(): Unit = {
+    Seq(
+      "2024-05-01 12:30:45.123456",
+      "2024-05-01 12:30:45.123457",
+      "2024-05-01 12:30:45",
+      "1969-12-31 23:59:59.999999").foreach(
+      s => {
+        val timestamp = Timestamp.valueOf(s)
+        Assertions.assertEquals(timestamp, JdbcSplit.toTimestamp(JdbcSplit.toKey(timestamp)))
+      })
+    // two rows within the same millisecond have different keys
+    Assertions.assertEquals(
+      1L,
+      JdbcSplit.toKey(Timestamp.valueOf("2024-05-01 12:30:45.123457")) -
+        JdbcSplit.toKey(Timestamp.valueOf("2024-05-01 12:30:45.123456")))
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.connector.jdbc.internal
+
+import org.apache.streampark.common.util.Implicits._
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.util.concurrent.{CopyOnWriteArrayList, CountDownLatch, Executors, TimeUnit}
+
+class JdbcLookupTest {
+
+  private def dispatch(
+      keys: Seq[Int],
+      batchSize: Int,
+      linger: Long,
+      concurrency: Int): Seq[Seq[Int]] = {
+    val batches = new CopyOnWriteArrayList[Seq[Int]]()
+    val done = new CountDownLatch(keys.size)
+    val dispatcher = new JdbcLookupDispatcher[Int](
+      batchSize,
+      linger,
+      1,
+      batch => {
+        batches.add(batch.asScala.toList)
+        batch.forEach(_ => done.countDown())
+      })
+    val submitters = Executors.newFixedThreadPool(concurrency)
+    try {
+      val start = new CountDownLatch(1)
+      keys.foreach(
+        key =>
+          submitters.execute(new Runnable {
+            override def run(): Unit = {
+              start.await()
+              dispatcher.submit(key)
+            }
+          }))
+      start.countDown()
+      Assertions.assertTrue(done.await(10, TimeUnit.SECONDS))
+    } finally {
+      submitters.shutdownNow()
+      dispatcher.close()
+    }
+    batches.asScala.toList
+  }
+
+  @Test
+  def mergeConcurrentKeys(): Unit = {
+    // the keys submitted concurrently within the linger are looked up in one batch
+    val batches = dispatch(1 to 8, batchSize = 100, linger = 1000, concurrency = 8)
+    Assertions.assertEquals(1, batches.size)
+    Assertions.assertEquals((1 to 8).toSet, batches.head.toSet)
+  }
+
+  @Test
+  def boundBatchSize(): Unit = {
+    // a full batch is looked up without waiting out the linger
+    val start = System.currentTimeMillis()
+    val batches = dispatch(1 to 10, batchSize = 5, linger = 5000, concurrency = 10)
+    Assertions.assertTrue(System.currentTimeMillis() - start < 5000)
+    Assertions.assertEquals(Seq(5, 5), batches.map(_.size))
+    Assertions.assertEquals((1 to 10).toSet, batches.flatten.toSet)
+  }
+
+  @Test
+  def noLinger(): Unit = {
+    val batches = dispatch(1 to 3, batchSize = 100, linger = 0, concurrency = 1)
+    Assertions.assertEquals((1 to 3).toSet, batches.flatten.toSet)
+  }
+
+  @Test
+  def cacheHit(): Unit = {
+    val cache = new JdbcLookupFunction.LookupCache[String](10, 60000)
+    Assertions.assertNull(cache.get("a"))
+    val rows = Seq(Map("id" -> "a", "name" -> "x"))
+    cache.put("a", rows)
+    cache.put("b", Nil)
+    Assertions.assertEquals(rows, cache.get("a"))
+    // the empty result is a hit, not a miss
+    Assertions.assertEquals(Nil, cache.get("b"))
+    Assertions.assertEquals(2, cache.size)
+  }
+
+  @Test
+  def cacheExpiry(): Unit = {
+    val cache = new JdbcLookupFunction.LookupCache[String](10, 50)
+    cache.put("a", Seq(Map("id" -> "a")))
+    Assertions.assertNotNull(cache.get("a"))
+    Thread.sleep(100)
+    Assertions.assertNull(cache.get("a"))
+    Assertions.assertEquals(0, cache.size)
+  }
+
+  @Test
+  def cacheEviction(): Unit = {
+    val cache = new JdbcLookupFunction.LookupCache[Int](2, 60000)
+    cache.put(1, Nil)
+    cache.put(2, Nil)
+    // 1 is recently used, so 2 is evicted
+    cache.get(1)
+    cache.put(3, Nil)
+    Assertions.assertEquals(2, cache.size)
+    Assertions.assertNotNull(cache.get(1))
+    Assertions.assertNull(cache.get(2))
+    Assertions.assertNotNull(cache.get(3))
+
+    val disabled = new JdbcLookupFunction.LookupCache[Int](0, 60000)
+    disabled.put(1, Nil)
+    Assertions.assertNull(disabled.get(1))
+  }
+
+}
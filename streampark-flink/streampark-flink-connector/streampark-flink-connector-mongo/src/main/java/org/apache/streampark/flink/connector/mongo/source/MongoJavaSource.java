@@ -19,15 +19,23 @@ package org.apache.streampark.flink.connector.mongo.source;
 
 import org.apache.streampark.common.util.Utils;
 import org.apache.streampark.flink.connector.function.RunningFunction;
+import org.apache.streampark.flink.connector.function.TransformFunction;
+import org.apache.streampark.flink.connector.mongo.bean.MongoSplit;
 import org.apache.streampark.flink.connector.mongo.function.MongoQueryFunction;
 import org.apache.streampark.flink.connector.mongo.function.MongoResultFunction;
+import org.apache.streampark.flink.connector.mongo.internal.MongoChangeStreamSourceFunction;
 import org.apache.streampark.flink.connector.mongo.internal.MongoSourceFunction;
+import org.apache.streampark.flink.connector.mongo.internal.MongoSplitSourceFunction;
 import org.apache.streampark.flink.core.scala.StreamingContext;
 
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
+import org.bson.Document;
 
 import java.util.Properties;
 
+import scala.collection.Seq;
+
 public class MongoJavaSource<T> {
   private final StreamingContext context;
   private final Properties property;
@@ -51,4 +59,56 @@ public class MongoJavaSource<T> {
             collectionName, property, queryFunction, resultFunction, runningFunc, null);
     return context.getJavaEnv().addSource(sourceFunction);
   }
+
+  /**
+   * Read the collection in parallel by the ranges of the split key, the splits are computed when the
+   * job is built and the position of every split is checkpointed.
+   *
+   * @param collectionName the collection to read
+   * @param splitKey the top level and unique key to split the collection, e.g. "_id"
+   * @param numSplits the number of splits when the collection is not sharded by the split key
+   * @param batchSize the batch size of the cursor, also the documents emitted under one lock
+   * @param filter the optional filter of the documents
+   * @param resultFunction the function to convert the document
+   */
+  public DataStreamSource<T> getSplitDataStream(
+      String collectionName,
+      String splitKey,
+      int numSplits,
+      int batchSize,
+      Document filter,
+      TransformFunction<Document, T> resultFunction) {
+
+    Utils.requireNotNull(collectionName, "'collectionName' must not be null");
+    Utils.requireNotNull(resultFunction, "'resultFunction' must not be null");
+    Seq<MongoSplit> splits =
+        MongoSplitSourceFunction.split(
+            property,
+            collectionName,
+            splitKey,
+            numSplits > 0 ? numSplits : context.getJavaEnv().getParallelism());
+    MongoSplitSourceFunction<T> sourceFunction =
+        new MongoSplitSourceFunction<>(
+            property, collectionName, splitKey, filter, splits, batchSize, resultFunction);
+    return context.getJavaEnv().addSource(sourceFunction);
+  }
+
+  /**
+   * Consume the change stream of the collection, resumed by the checkpointed resume token.
+   *
+   * @param collectionName the collection to watch
+   * @param batchSize the max number of events emitted under one checkpoint lock
+   * @param resultFunction the function to convert the change event
+   */
+  public DataStreamSource<T> getChangeStream(
+      String collectionName,
+      int batchSize,
+      TransformFunction<ChangeStreamDocument<Document>, T> resultFunction) {
+
+    Utils.requireNotNull(collectionName, "'collectionName' must not be null");
+    Utils.requireNotNull(resultFunction, "'resultFunction' must not be null");
+    MongoChangeStreamSourceFunction<T> sourceFunction =
+        new MongoChangeStreamSourceFunction<>(property, collectionName, batchSize, resultFunction);
+    return context.getJavaEnv().addSource(sourceFunction);
+  }
 }
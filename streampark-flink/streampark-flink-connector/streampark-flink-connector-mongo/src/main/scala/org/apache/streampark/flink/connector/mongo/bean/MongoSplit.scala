@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.mongo.bean
+
+import com.mongodb.client.model.Filters
+import org.bson.{BsonDocument, BsonType, Document}
+import org.bson.conversions.Bson
+import org.bson.json.{JsonMode, JsonWriterSettings}
+
+import org.apache.streampark.common.util.Implicits._
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * A range of the split key read by one subtask: [lower, upper), a null bound is unbounded. The
+ * bounds and the offset (the split key of the last emitted document) are kept as extended json, so
+ * any bson type (ObjectId, date, number, string...) of the key can be checkpointed.
+ *
+ * A range query of mongodb only matches the values of the same bson type as the bound, so the
+ * bounds are compared in the comparison order of the bson types, see [[MongoSplit.after]] and
+ * [[MongoSplit.before]]: the keys of another type than the boundaries are read by the first or the
+ * last split. An array key is compared by its elements and is not supported.
+ */
+case class MongoSplit(
+    id: Int,
+    lower: String,
+    upper: String,
+    var offset: String = null,
+    var finished: Boolean = false)
+  extends Serializable {
+
+  def started: Boolean = offset != null
+
+  /** The filters of the keys left to read, from the lower bound or the offset to the upper. */
+  def bounds(key: String): Seq[Bson] = {
+    val from =
+      if (started) Some(MongoSplit.after(key, offset, inclusive = false))
+      else Option(lower).map(MongoSplit.after(key, _, inclusive = true))
+    val to = Option(upper).map(MongoSplit.before(key, _))
+    from.toSeq ++ to
+  }
+
+  override def toString: String =
+    s"(id:$id,range:[${Option(lower).getOrElse("-")},${Option(upper).getOrElse("-")})," +
+      s"offset:${Option(offset).getOrElse("-")},finished:$finished)"
+}
+
+object MongoSplit {
+
+  private[this] val settings = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build()
+
+  def encode(value: AnyRef): String = new Document("v", value).toJson(settings)
+
+  def decode(json: String): AnyRef = if (json == null) null else Document.parse(json).get("v")
+
+  def encodeDocument(document: Document): String =
+    if (document == null) null else document.toJson(settings)
+
+  def decodeDocument(json: String): Document = if (json == null) null else Document.parse(json)
+
+  // the comparison order of the bson types, the types in one group are compared by value
+  private[this] val typeOrder: Seq[Seq[BsonType]] = Seq(
+    Seq(BsonType.MIN_KEY),
+    Seq(BsonType.NULL),
+    Seq(BsonType.INT32, BsonType.INT64, BsonType.DOUBLE, BsonType.DECIMAL128),
+    Seq(BsonType.SYMBOL, BsonType.STRING),
+    Seq(BsonType.DOCUMENT),
+    Seq(BsonType.ARRAY),
+    Seq(BsonType.BINARY),
+    Seq(BsonType.OBJECT_ID),
+    Seq(BsonType.BOOLEAN),
+    Seq(BsonType.DATE_TIME),
+    Seq(BsonType.TIMESTAMP),
+    Seq(BsonType.REGULAR_EXPRESSION),
+    Seq(BsonType.MAX_KEY)
+  )
+
+  private[this] val typeAliases: Map[BsonType, String] = Map(
+    BsonType.MIN_KEY -> "minKey",
+    BsonType.NULL -> "null",
+    BsonType.INT32 -> "int",
+    BsonType.INT64 -> "long",
+    BsonType.DOUBLE -> "double",
+    BsonType.DECIMAL128 -> "decimal",
+    BsonType.SYMBOL -> "symbol",
+    BsonType.STRING -> "string",
+    BsonType.DOCUMENT -> "object",
+    BsonType.ARRAY -> "array",
+    BsonType.BINARY -> "binData",
+    BsonType.OBJECT_ID -> "objectId",
+    BsonType.BOOLEAN -> "bool",
+    BsonType.DATE_TIME -> "date",
+    BsonType.TIMESTAMP -> "timestamp",
+    BsonType.REGULAR_EXPRESSION -> "regex",
+    BsonType.MAX_KEY -> "maxKey"
+  )
+
+  private[this] val nullOrder = typeOrder.indexOf(Seq(BsonType.NULL))
+
+  private[this] def order(json: String): Int = {
+    val bsonType = BsonDocument.parse(json).get("v").getBsonType
+    typeOrder.indexWhere(_.contains(bsonType))
+  }
+
+  private[this] def typeIn(key: String, types: Seq[Seq[BsonType]]): Bson =
+    new Document(key, new Document("$type", types.flatten.map(typeAliases).asJava))
+
+  /**
+   * The filter of the keys after the encoded value: the greater keys of the same type, and the keys
+   * of the types ordered after it.
+   */
+  def after(key: String, json: String, inclusive: Boolean): Bson = {
+    val value = decode(json)
+    val compare = if (inclusive) Filters.gte(key, value) else Filters.gt(key, value)
+    order(json) match {
+      case -1 => compare
+      case o if o == typeOrder.size - 1 => compare
+      case o => Filters.or(compare, typeIn(key, typeOrder.drop(o + 1)))
+    }
+  }
+
+  /**
+   * The filter of the keys before the encoded value: the less keys of the same type, the keys of
+   * the types ordered before it, and the missing keys which are compared as null.
+   */
+  def before(key: String, json: String): Bson = {
+    val compare = Filters.lt(key, decode(json))
+    order(json) match {
+      case o if o <= 0 => compare
+      case o =>
+        val missing = if (o > nullOrder) Seq(Filters.exists(key, false)) else Seq.empty
+        Filters.or((Seq(compare, typeIn(key, typeOrder.take(o))) ++ missing).asJava)
+    }
+  }
+
+  /** The sorted boundaries divide the key space into (boundaries + 1) splits. */
+  def split(boundaries: Seq[AnyRef]): Seq[MongoSplit] = {
+    val bounds = boundaries.map(encode).distinct
+    val splits = ArrayBuffer[MongoSplit]()
+    var lower: String = null
+    bounds.foreach(
+      upper => {
+        splits += MongoSplit(splits.size, lower, upper)
+        lower = upper
+      })
+    splits += MongoSplit(splits.size, lower, null)
+    splits
+  }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.mongo.internal
+
+import org.apache.streampark.common.enums.ApiType
+import org.apache.streampark.common.enums.ApiType.ApiType
+import org.apache.streampark.common.util.{Logger, MongoConfig}
+import org.apache.streampark.flink.connector.function.TransformFunction
+import org.apache.streampark.flink.util.FlinkUtils
+
+import com.mongodb.MongoClient
+import com.mongodb.client.model.changestream.{ChangeStreamDocument, FullDocument}
+import org.apache.flink.api.common.state.ListState
+import org.apache.flink.api.common.typeinfo.TypeInformation
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
+import org.apache.flink.streaming.api.functions.source.RichSourceFunction
+import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext
+import org.bson.{BsonDocument, Document}
+
+import java.util.Properties
+import java.util.concurrent.TimeUnit
+
+import org.apache.streampark.common.util.Implicits._
+import scala.collection.mutable.ArrayBuffer
+import scala.util.{Success, Try}
+
+/**
+ * Consumes the change stream of a collection (the full document is looked up for the updates). The
+ * available events are emitted in batches of at most batchSize, the checkpoint lock is only held
+ * while a batch is emitted, and the resume token after the batch is checkpointed, a restored source
+ * resumes the change stream after it.
+ */
+class MongoChangeStreamSourceFunction[R](
+    apiType: ApiType = ApiType.SCALA,
+    prop: Properties,
+    collection: String,
+    batchSize: Int)
+  extends RichSourceFunction[R]
+  with CheckpointedFunction
+  with Logger {
+
+  require(collection != null, "[StreamPark] MongoSource collection must not be null")
+  require(batchSize > 0, s"[StreamPark] MongoSource batchSize must be positive, but got $batchSize")
+
+  @volatile private[this] var running = true
+
+  private[this] var scalaResultFunc: ChangeStreamDocument[Document] => R = _
+  private[this] var javaResultFunc: TransformFunction[ChangeStreamDocument[Document], R] = _
+
+  @transient private[this] var client: MongoClient = _
+
+  @transient private var state: ListState[String] = _
+  private val TOKEN_STATE_NAME: String = "mongo-source-resume-token-states"
+  private[this] var resumeToken: String = _
+
+  // for Scala
+  def this(
+      prop: Properties,
+      collection: String,
+      batchSize: Int,
+      resultFunc: ChangeStreamDocument[Document] => R) = {
+    this(ApiType.SCALA, prop, collection, batchSize)
+    require(resultFunc != null, "[StreamPark] MongoSource resultFunc must not be null")
+    this.scalaResultFunc = resultFunc
+  }
+
+  // for JAVA
+  def this(
+      prop: Properties,
+      collection: String,
+      batchSize: Int,
+      resultFunc: TransformFunction[ChangeStreamDocument[Document], R]) = {
+    this(ApiType.JAVA, prop, collection, batchSize)
+    require(resultFunc != null, "[StreamPark] MongoSource resultFunc must not be null")
+    this.javaResultFunc = resultFunc
+  }
+
+  @throws[Exception]
+  override def run(ctx: SourceContext[R]): Unit = {
+    client = MongoConfig.getClient(prop)
+    val database = MongoConfig.getProperty(prop, MongoConfig.database)
+    val watch = client
+      .getDatabase(database)
+      .getCollection(collection)
+      .watch()
+      .fullDocument(FullDocument.UPDATE_LOOKUP)
+      .batchSize(batchSize)
+      .maxAwaitTime(1, TimeUnit.SECONDS)
+    if (resumeToken != null) {
+      logInfo(s"MongoSource resume change stream of $collection after $resumeToken")
+      watch.resumeAfter(BsonDocument.parse(resumeToken))
+    }
+    val cursor = watch.cursor()
+    try {
+      val records = new ArrayBuffer[R](batchSize)
+      while (running) {
+        // tryNext waits at most the maxAwaitTime for a new event
+        var event = cursor.tryNext()
+        while (event != null) {
+          records += (apiType match {
+            case ApiType.SCALA => scalaResultFunc(event)
+            case ApiType.JAVA => javaResultFunc.transform(event)
+          })
+          event = if (records.size < batchSize) cursor.tryNext() else null
+        }
+        // the resume token moves forward even without events (post batch resume token)
+        val token = Option(cursor.getResumeToken).map(_.toJson).orNull
+        if (records.nonEmpty || token != null) {
+          ctx.getCheckpointLock.synchronized {
+            records.foreach(ctx.collect)
+            if (token != null) {
+              resumeToken = token
+            }
+          }
+          records.clear()
+        }
+      }
+    } finally {
+      cursor.close()
+    }
+  }
+
+  override def cancel(): Unit = this.running = false
+
+  override def close(): Unit = {
+    super.close()
+    if (client != null) {
+      client.close()
+      client = null
+    }
+  }
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    state.clear()
+    if (resumeToken != null) {
+      state.add(resumeToken)
+    }
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {
+    state = FlinkUtils.getUnionListState[String](context, TOKEN_STATE_NAME)(
+      TypeInformation.of(classOf[String]))
+    Try(state.get.head) match {
+      case Success(token) => resumeToken = token
+      case _ =>
+    }
+    logInfo(s"MongoSource initializeState, restored: ${context.isRestored}, token: $resumeToken")
+  }
+
+}
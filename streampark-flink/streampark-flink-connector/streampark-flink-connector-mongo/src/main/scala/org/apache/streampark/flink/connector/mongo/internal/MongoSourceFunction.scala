@@ -112,35 +112,24 @@ class MongoSourceFunction[R: TypeInformation](
   @throws[Exception]
   override def run(ctx: SourceContext[R]): Unit = {
     while (this.running) {
-      apiType match {
+      // the query is read outside the checkpoint lock, only the emitting of the results holds it
+      val records: Seq[R] = apiType match {
         case ApiType.scala =>
           if (scalaRunningFunc()) {
-            ctx.getCheckpointLock.synchronized {
-              val find = scalaQueryFunc(last, mongoCollection)
-              if (find != null) {
-                scalaResultFunc(find.iterator).foreach(
-                  x => {
-                    last = x
-                    ctx.collectWithTimestamp(last, System.currentTimeMillis())
-                  })
-              }
-            }
-          }
+            val find = scalaQueryFunc(last, mongoCollection)
+            if (find != null) scalaResultFunc(find.iterator) else Nil
+          } else Nil
         case ApiType.java =>
           if (javaRunningFunc.running()) {
-            ctx.getCheckpointLock.synchronized {
-              val find = javaQueryFunc.query(last, mongoCollection)
-              if (find != null) {
-                javaResultFunc
-                  .result(find.iterator)
-                  .foreach(
-                    x => {
-                      last = x
-                      ctx.collectWithTimestamp(last, System.currentTimeMillis())
-                    })
-              }
-            }
-          }
+            val find = javaQueryFunc.query(last, mongoCollection)
+            if (find != null) javaResultFunc.result(find.iterator).toList else Nil
+          } else Nil
+      }
+      if (records.nonEmpty) {
+        ctx.getCheckpointLock.synchronized {
+          records.foreach(x => ctx.collectWithTimestamp(x, System.currentTimeMillis()))
+          last = records.last
+        }
       }
     }
   }
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.connector.mongo.internal
+
+import org.apache.streampark.common.enums.ApiType
+import org.apache.streampark.common.enums.ApiType.ApiType
+import org.apache.streampark.common.util.{Logger, MongoConfig}
+import org.apache.streampark.flink.connector.function.TransformFunction
+import org.apache.streampark.flink.connector.mongo.bean.MongoSplit
+import org.apache.streampark.flink.util.FlinkUtils
+
+import com.mongodb.MongoClient
+import com.mongodb.client.MongoCollection
+import com.mongodb.client.model.{Aggregates, Filters, Projections, Sorts}
+import org.apache.flink.api.common.state.ListState
+import org.apache.flink.api.common.typeinfo.TypeInformation
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
+import org.apache.flink.streaming.api.functions.source.RichParallelSourceFunction
+import org.apache.flink.streaming.api.functions.source.SourceFunction.SourceContext
+import org.bson.{BsonDocument, Document}
+import org.bson.conversions.Bson
+import org.bson.types.{MaxKey, MinKey}
+
+import java.util
+import java.util.Properties
+
+import org.apache.streampark.common.util.Implicits._
+import scala.collection.mutable.ArrayBuffer
+import scala.util.{Success, Try}
+
+/**
+ * Reads a collection in parallel. The collection is divided into splits by the ranges of a top
+ * level key (the "_id" by default), see [[MongoSplitSourceFunction.split]], the splits are computed
+ * once when the job is built so that all the subtasks share the same splits. Split i is read by
+ * subtask (i % parallelism), every split is
+ * read by one cursor sorted by the key with the given batch size, the documents are emitted in
+ * batches and the checkpoint lock is only held while a batch is emitted. The key of the last
+ * emitted document of every split is checkpointed, a restored split continues after it, so the key
+ * should be unique.
+ */
+class MongoSplitSourceFunction[R](
+    apiType: ApiType = ApiType.SCALA,
+    prop: Properties,
+    collection: String,
+    splitKey: String,
+    filter: Document,
+    initialSplits: Seq[MongoSplit],
+    batchSize: Int)
+  extends RichParallelSourceFunction[R]
+  with CheckpointedFunction
+  with Logger {
+
+  require(collection != null, "[StreamPark] MongoSource collection must not be null")
+  require(
+    splitKey != null && !splitKey.contains("."),
+    s"[StreamPark] MongoSource splitKey must be a top level key, but got $splitKey")
+  require(batchSize > 0, s"[StreamPark] MongoSource batchSize must be positive, but got $batchSize")
+
+  private[this] val filterJson: String = MongoSplit.encodeDocument(filter)
+
+  @volatile private[this] var running = true
+
+  private[this] var scalaResultFunc: Document => R = _
+  private[this] var javaResultFunc: TransformFunction[Document, R] = _
+
+  @transient private[this] var client: MongoClient = _
+
+  @transient private var state: ListState[MongoSplit] = _
+  private val SPLITS_STATE_NAME: String = "mongo-source-split-states"
+  @transient private[this] var splits: Seq[MongoSplit] = _
+
+  // for Scala
+  def this(
+      prop: Properties,
+      collection: String,
+      splitKey: String,
+      filter: Document,
+      splits: Seq[MongoSplit],
+      batchSize: Int,
+      resultFunc: Document => R) = {
+    this(ApiType.SCALA, prop, collection, splitKey, filter, splits, batchSize)
+    require(resultFunc != null, "[StreamPark] MongoSource resultFunc must not be null")
+    this.scalaResultFunc = resultFunc
+  }
+
+  // for JAVA
+  def this(
+      prop: Properties,
+      collection: String,
+      splitKey: String,
+      filter: Document,
+      splits: Seq[MongoSplit],
+      batchSize: Int,
+      resultFunc: TransformFunction[Document, R]) = {
+    this(ApiType.JAVA, prop, collection, splitKey, filter, splits, batchSize)
+    require(resultFunc != null, "[StreamPark] MongoSource resultFunc must not be null")
+    this.javaResultFunc = resultFunc
+  }
+
+  private[this] def database: String = MongoConfig.getProperty(prop, MongoConfig.database)
+
+  private[this] def getCollection: MongoCollection[Document] = {
+    if (client == null) {
+      client = MongoConfig.getClient(prop)
+    }
+    client.getDatabase(database).getCollection(collection)
+  }
+
+  @throws[Exception]
+  override def run(ctx: SourceContext[R]): Unit = {
+    val pending = splits.filterNot(_.finished)
+    logInfo(s"MongoSource subtask ${getRuntimeContext.getIndexOfThisSubtask} splits: $pending")
+    if (pending.nonEmpty) {
+      val mongoCollection = getCollection
+      pending.foreach(split => if (running) read(mongoCollection, split, ctx))
+    }
+  }
+
+  private[this] def read(
+      mongoCollection: MongoCollection[Document],
+      split: MongoSplit,
+      ctx: SourceContext[R]): Unit = {
+    val conditions = new util.ArrayList[Bson]()
+    MongoSplit.decodeDocument(filterJson) match {
+      case null =>
+      case f => conditions.add(f)
+    }
+    split.bounds(splitKey).foreach(conditions.add)
+    val query = if (conditions.isEmpty) new Document() else Filters.and(conditions)
+    val start = System.currentTimeMillis()
+    val cursor = mongoCollection
+      .find(query)
+      .sort(Sorts.ascending(splitKey))
+      .batchSize(batchSize)
+      .iterator()
+    var count = 0L
+    try {
+      val records = new ArrayBuffer[R](batchSize)
+      var lastKey: AnyRef = null
+      while (running && cursor.hasNext) {
+        val document = cursor.next()
+        records += (apiType match {
+          case ApiType.SCALA => scalaResultFunc(document)
+          case ApiType.JAVA => javaResultFunc.transform(document)
+        })
+        lastKey = document.get(splitKey)
+        if (records.size >= batchSize || !cursor.hasNext) {
+          val offset = MongoSplit.encode(lastKey)
+          ctx.getCheckpointLock.synchronized {
+            records.foreach(ctx.collect)
+            split.offset = offset
+          }
+          count += records.size
+          records.clear()
+        }
+      }
+    } finally {
+      cursor.close()
+    }
+    if (running) {
+      ctx.getCheckpointLock.synchronized {
+        split.finished = true
+      }
+      logInfo(
+        s"MongoSource split $split finished, $count documents use ${System.currentTimeMillis() - start} MS")
+    }
+  }
+
+  override def cancel(): Unit = this.running = false
+
+  override def close(): Unit = {
+    super.close()
+    if (client != null) {
+      client.close()
+      client = null
+    }
+  }
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    state.clear()
+    splits.foreach(state.add)
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {
+    state = FlinkUtils.getUnionListState[MongoSplit](context, SPLITS_STATE_NAME)(
+      TypeInformation.of(classOf[MongoSplit]))
+    val parallelism = getRuntimeContext.getNumberOfParallelSubtasks
+    val index = getRuntimeContext.getIndexOfThisSubtask
+    // every subtask gets all the splits from the union state, so the splits are reassigned on
+    // restore with a different parallelism.
+    val allSplits = if (context.isRestored) state.get.toSeq.sortBy(_.id) else initialSplits
+    splits = allSplits.filter(_.id % parallelism == index)
+    logInfo(s"MongoSource initializeState, restored: ${context.isRestored}, splits: $splits")
+  }
+
+}
+
+object MongoSplitSourceFunction {
+
+  // the sampled keys for each split
+  private[this] val samplesPerSplit = 20
+
+  /**
+   * Divide the collection by the ranges of the split key: the chunk ranges when the collection is
+   * sharded by the key, otherwise numSplits ranges between the keys sampled from the collection.
+   */
+  def split(prop: Properties, collection: String, splitKey: String, numSplits: Int): Seq[MongoSplit] = {
+    val client = MongoConfig.getClient(prop)
+    try {
+      val database = MongoConfig.getProperty(prop, MongoConfig.database)
+      val boundaries = chunkBoundaries(client, database, collection, splitKey) match {
+        case chunks if chunks.nonEmpty => chunks
+        case _ =>
+          val mongoCollection = client.getDatabase(database).getCollection(collection)
+          sampleBoundaries(mongoCollection, splitKey, numSplits)
+      }
+      MongoSplit.split(boundaries)
+    } finally {
+      client.close()
+    }
+  }
+
+  /**
+   * The lower bounds of the chunks when the collection is sharded by the split key. The chunks are
+   * keyed by the uuid of the collection since mongodb 5.0, and by the namespace before.
+   */
+  private[this] def chunkBoundaries(
+      client: MongoClient,
+      database: String,
+      collection: String,
+      splitKey: String): Seq[AnyRef] = {
+    Try {
+      val config = client.getDatabase("config")
+      val ns = s"$database.$collection"
+      val chunksOf = config
+        .getCollection("collections", classOf[BsonDocument])
+        .find(Filters.eq("_id", ns))
+        .first() match {
+        case null => Filters.eq("ns", ns)
+        case coll if coll.containsKey("uuid") =>
+          Filters.or(Filters.eq("uuid", coll.get("uuid")), Filters.eq("ns", ns))
+        case _ => Filters.eq("ns", ns)
+      }
+      config
+        .getCollection("chunks")
+        .find(chunksOf)
+        .sort(Sorts.ascending("min"))
+        .map[AnyRef](chunk => chunk.get("min", classOf[Document]).get(splitKey))
+        .into(new util.ArrayList[AnyRef]())
+        .toSeq
+    } match {
+      case Success(bounds) if bounds.nonEmpty && !bounds.contains(null) =>
+        bounds.filterNot(b => b.isInstanceOf[MinKey] || b.isInstanceOf[MaxKey])
+      case _ => Seq.empty
+    }
+  }
+
+  /** Sample the keys of the collection and take every (samplesPerSplit)th key as a boundary. */
+  private[this] def sampleBoundaries(
+      mongoCollection: MongoCollection[Document],
+      splitKey: String,
+      n: Int): Seq[AnyRef] = {
+    if (n <= 1) Seq.empty
+    else {
+      val samples = mongoCollection
+        .aggregate(
+          util.Arrays.asList(
+            Aggregates.sample(n * samplesPerSplit),
+            Aggregates.project(Projections.include(splitKey)),
+            Aggregates.sort(Sorts.ascending(splitKey))))
+        .allowDiskUse(true)
+        .map[AnyRef](_.get(splitKey))
+        .into(new util.ArrayList[AnyRef]())
+        .filter(_ != null)
+      if (samples.isEmpty) Seq.empty
+      else (1 until n).map(i => samples(i * samples.size / n))
+    }
+  }
+
+}
@@ -18,10 +18,11 @@
 package org.apache.streampark.flink.connector.mongo.source
 
 import org.apache.streampark.common.util.Utils
-import org.apache.streampark.flink.connector.mongo.internal.MongoSourceFunction
+import org.apache.streampark.flink.connector.mongo.internal.{MongoChangeStreamSourceFunction, MongoSourceFunction, MongoSplitSourceFunction}
 import org.apache.streampark.flink.core.scala.StreamingContext
 
 import com.mongodb.client.{FindIterable, MongoCollection, MongoCursor}
+import com.mongodb.client.model.changestream.ChangeStreamDocument
 import org.apache.flink.api.common.typeinfo.TypeInformation
 import org.apache.flink.streaming.api.scala.DataStream
 import org.bson.Document
@@ -52,4 +53,47 @@ class MongoSource(
     ctx.addSource(mongoFun)
   }
 
+  /**
+   * Read the collection in parallel by the ranges of the split key, see
+   * [[MongoSplitSourceFunction]]. The splits are computed when the job is built.
+   *
+   * @param collection
+   *   the collection to read
+   * @param splitKey
+   *   the top level and unique key to split the collection, "_id" by default
+   * @param numSplits
+   *   the number of splits when the collection is not sharded by the split key, the parallelism
+   *   by default
+   * @param batchSize
+   *   the batch size of the cursor, also the number of documents emitted under one checkpoint lock
+   * @param filter
+   *   the optional filter of the documents
+   */
+  def getSplitDataStream[R: TypeInformation](
+      collection: String,
+      splitKey: String = "_id",
+      numSplits: Int = 0,
+      batchSize: Int = 1000,
+      filter: Document = null)(fun: Document => R)(implicit
+      prop: Properties = new Properties()): DataStream[R] = {
+    Utils.copyProperties(property, prop)
+    val splits = MongoSplitSourceFunction.split(
+      prop,
+      collection,
+      splitKey,
+      if (numSplits > 0) numSplits else ctx.getParallelism)
+    val splitFun =
+      new MongoSplitSourceFunction[R](prop, collection, splitKey, filter, splits, batchSize, fun)
+    ctx.addSource(splitFun)
+  }
+
+  /** Consume the change stream of the collection, resumed by the checkpointed resume token. */
+  def getChangeStream[R: TypeInformation](collection: String, batchSize: Int = 1000)(
+      fun: ChangeStreamDocument[Document] => R)(implicit
+      prop: Properties = new Properties()): DataStream[R] = {
+    Utils.copyProperties(property, prop)
+    val streamFun = new MongoChangeStreamSourceFunction[R](prop, collection, batchSize, fun)
+    ctx.addSource(streamFun)
+  }
+
 }
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.connector.mongo.bean
+
+import com.mongodb.MongoClient
+import org.bson.{BsonDocument, BsonType, BsonValue, Document}
+import org.bson.conversions.Bson
+import org.bson.types.{Decimal128, MinKey, ObjectId}
+import org.junit.jupiter.api.{Assertions, Test}
+
+import java.util.Date
+
+import org.apache.streampark.common.util.Implicits._
+
+class MongoSplitTest {
+
+  private def ranges(splits: Seq[MongoSplit]): Seq[(Int, AnyRef, AnyRef)] =
+    splits.map(s => (s.id, MongoSplit.decode(s.lower), MongoSplit.decode(s.upper)))
+
+  private def render(filter: Bson): BsonDocument =
+    filter.toBsonDocument(classOf[BsonDocument], MongoClient.getDefaultCodecRegistry)
+
+  // the comparison order of the types used in the tests
+  private val order = Seq(
+    Seq(BsonType.NULL),
+    Seq(BsonType.INT32, BsonType.INT64, BsonType.DOUBLE),
+    Seq(BsonType.STRING),
+    Seq(BsonType.OBJECT_ID),
+    Seq(BsonType.BOOLEAN),
+    Seq(BsonType.DATE_TIME))
+
+  private def orderOf(value: BsonValue): Int = order.indexWhere(_.contains(value.getBsonType))
+
+  private def compare(a: BsonValue, b: BsonValue): Int = a.getBsonType match {
+    case BsonType.INT32 | BsonType.INT64 | BsonType.DOUBLE =>
+      a.asNumber().doubleValue().compareTo(b.asNumber().doubleValue())
+    case BsonType.STRING => a.asString().getValue.compareTo(b.asString().getValue)
+    case BsonType.OBJECT_ID => a.asObjectId().getValue.compareTo(b.asObjectId().getValue)
+    case BsonType.BOOLEAN => a.asBoolean().getValue.compareTo(b.asBoolean().getValue)
+    case BsonType.DATE_TIME => a.asDateTime().getValue.compareTo(b.asDateTime().getValue)
+    case BsonType.NULL => 0
+  }
+
+  /** Evaluates the operators used by the split filters the way the server does. */
+  private def matches(filter: BsonDocument, document: BsonDocument): Boolean =
+    filter.entrySet().forall(
+      entry =>
+        entry.getKey match {
+          case "$or" => entry.getValue.asArray().exists(f => matches(f.asDocument(), document))
+          case "$and" => entry.getValue.asArray().forall(f => matches(f.asDocument(), document))
+          case key =>
+            val value = Option(document.get(key))
+            entry.getValue
+              .asDocument()
+              .entrySet()
+              .forall(
+                op => {
+                  def cmp(f: Int => Boolean): Boolean = value.exists(
+                    v => orderOf(v) == orderOf(op.getValue) && f(compare(v, op.getValue)))
+                  op.getKey match {
+                    case "$gte" => cmp(_ >= 0)
+                    case "$gt" => cmp(_ > 0)
+                    case "$lt" => cmp(_ < 0)
+                    case "$exists" => value.isDefined == op.getValue.asBoolean().getValue
+                    case "$type" =>
+                      val types = op.getValue.asArray().map(_.asString().getValue).toSet
+                      value.exists(v => types.contains(alias(v.getBsonType)))
+                  }
+                })
+        })
+
+  private def alias(bsonType: BsonType): String = bsonType match {
+    case BsonType.NULL => "null"
+    case BsonType.INT32 => "int"
+    case BsonType.INT64 => "long"
+    case BsonType.DOUBLE => "double"
+    case BsonType.STRING => "string"
+    case BsonType.OBJECT_ID => "objectId"
+    case BsonType.BOOLEAN => "bool"
+    case BsonType.DATE_TIME => "date"
+  }
+
+  private def readBy(split: MongoSplit, document: Document): Boolean =
+    split.bounds("k").forall(b => matches(render(b), render(document)))
+
+  @Test
+  def encodeDecode(): Unit = {
+    val values = Seq[AnyRef](
+      new ObjectId(),
+      Long.box(Long.MaxValue),
+      Int.box(7),
+      Double.box(1.5),
+      "key",
+      new Date(1700000000123L),
+      Decimal128.parse("12.345"),
+      new MinKey())
+    values.foreach(v => Assertions.assertEquals(v, MongoSplit.decode(MongoSplit.encode(v))))
+    Assertions.assertNull(MongoSplit.decode(null))
+    // the long keeps its type instead of becoming an int
+    Assertions.assertEquals(
+      classOf[java.lang.Long],
+      MongoSplit.decode(MongoSplit.encode(Long.box(1L))).getClass)
+    val filter = new Document("status", "A").append("n", new Document("$gt", 1))
+    Assertions.assertEquals(filter, MongoSplit.decodeDocument(MongoSplit.encodeDocument(filter)))
+  }
+
+  @Test
+  def splitBoundaries(): Unit = {
+    Assertions.assertEquals(
+      Seq((0, null, 10L), (1, 10L, 20L), (2, 20L, 30L), (3, 30L, null)),
+      ranges(MongoSplit.split(Seq(10L, 20L, 20L, 30L).map(Long.box))))
+    Assertions.assertEquals(Seq((0, null, null)), ranges(MongoSplit.split(Seq.empty)))
+    Assertions.assertEquals(Seq.empty, MongoSplit(0, null, null).bounds("k"))
+  }
+
+  @Test
+  def boundsOfOtherTypes(): Unit = {
+    val id = new ObjectId()
+    Assertions.assertEquals(
+      BsonDocument.parse(
+        s"""{"$$or": [{"_id": {"$$gte": {"$$oid": "$id"}}},
+           |{"_id": {"$$type": ["bool", "date", "timestamp", "regex", "maxKey"]}}]}""".stripMargin),
+      render(MongoSplit.after("_id", MongoSplit.encode(id), inclusive = true)))
+    Assertions.assertEquals(
+      BsonDocument.parse(
+        """{"$or": [{"_id": {"$lt": "m"}}, {"_id": {"$type": ["minKey", "null", "int", "long",
+          |"double", "decimal"]}}, {"_id": {"$exists": false}}]}""".stripMargin),
+      render(MongoSplit.before("_id", MongoSplit.encode("m"))))
+  }
+
+  @Test
+  def everyKeyInOneSplit(): Unit = {
+    val splits = MongoSplit.split(Seq[AnyRef](Long.box(10L), Long.box(20L)))
+    val keys = Seq[AnyRef](
+      null,
+      Int.box(-1),
+      Long.box(10L),
+      Double.box(15.5),
+      Int.box(20),
+      Long.box(99L),
+      "a",
+      new ObjectId(),
+      java.lang.Boolean.TRUE,
+      new Date())
+    val documents = keys.map(k => new Document("k", k)) :+ new Document("other", 1)
+    documents.foreach(
+      document => Assertions.assertEquals(1, splits.count(readBy(_, document)), s"$document"))
+    Assertions.assertTrue(readBy(splits(1), new Document("k", Long.box(10L))))
+    Assertions.assertTrue(readBy(splits(1), new Document("k", Double.box(15.5))))
+    Assertions.assertTrue(readBy(splits(2), new Document("k", Int.box(20))))
+  }
+
+  @Test
+  def resumeAfterOffset(): Unit = {
+    // the keys of the types ordered after the offset are still read after a restore
+    val split = MongoSplit(2, MongoSplit.encode(Long.box(30L)), null)
+    split.offset = MongoSplit.encode("b")
+    Assertions.assertFalse(readBy(split, new Document("k", "a")))
+    Assertions.assertFalse(readBy(split, new Document("k", "b")))
+    Assertions.assertFalse(readBy(split, new Document("k", Int.box(50))))
+    Assertions.assertTrue(readBy(split, new Document("k", "c")))
+    Assertions.assertTrue(readBy(split, new Document("k", new ObjectId())))
+    Assertions.assertTrue(readBy(split, new Document("k", new Date())))
+  }
+
+}
@@ -18,105 +18,315 @@
 package org.apache.streampark.flink.connector.redis.bean
 
 import org.apache.streampark.common.util.Logger
+import org.apache.streampark.flink.connector.redis.conf.RedisClusterConfig
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig
 import org.apache.flink.streaming.connectors.redis.common.config.{FlinkJedisConfigBase, FlinkJedisPoolConfig, FlinkJedisSentinelConfig}
-import org.apache.flink.streaming.connectors.redis.common.container.{RedisContainer => BahirRedisContainer}
+import org.apache.flink.streaming.connectors.redis.common.mapper.RedisCommand
 import org.apache.flink.streaming.connectors.redis.common.mapper.RedisCommand._
-import redis.clients.jedis.{Jedis, JedisPool, JedisSentinelPool}
+import redis.clients.jedis._
+import redis.clients.jedis.exceptions.{JedisAskDataException, JedisClusterMaxAttemptsException, JedisDataException, JedisRedirectionException}
+import redis.clients.jedis.util.JedisClusterCRC16
 
-class RedisContainer(container: BahirRedisContainer) {
+import java.util
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+import scala.util.{Failure, Try}
+
+/**
+ * Holds the connections of the redis sink for the lifetime of the operator. The records are always
+ * written in batches, a batch is sent through one pipeline (or one MULTI/EXEC transaction) per
+ * connection, so a batch costs one round trip instead of two round trips per record. In cluster
+ * mode the batch is grouped by the hash slot of the keys, and the groups of the same node share one
+ * pipeline. A MOVED redirection renews the slot cache before the commands are sent again, an ASK
+ * redirection (a slot being migrated) sends the commands to the asked node after an ASKING, the
+ * slot cache is left as it is.
+ */
+class RedisContainer private (pool: JedisPoolAbstract, cluster: RedisContainer.SlotJedisCluster)
+  extends Logger {
+
+  import RedisContainer._
 
   def open(): Unit = {
-    container.open()
+    if (cluster == null) {
+      val jedis = pool.getResource
+      try jedis.ping()
+      finally jedis.close()
+    } else {
+      require(!cluster.getClusterNodes.isEmpty, "[StreamPark] RedisSink: no reachable cluster node")
+    }
   }
 
-  lazy val jedis: Jedis = {
-    val method = container.getClass.getDeclaredMethod("getInstance")
-    method.setAccessible(true)
-    method.invoke(container).asInstanceOf[Jedis]
+  /** Write the records through pipelines, the records are not atomic. */
+  def pipelined(records: Seq[Record]): Unit = {
+    if (records.nonEmpty) {
+      if (cluster == null) {
+        val jedis = pool.getResource
+        try {
+          val pipeline = jedis.pipelined()
+          val responses = append(pipeline, records.map(Pending(_)))
+          pipeline.sync()
+          checkResponses(responses, redirectable = false)
+        } finally jedis.close()
+      } else {
+        pipelinedOnCluster(records.map(Pending(_)), 1)
+      }
+    }
   }
 
-  def invoke[T](
-      mapper: RedisMapper[T],
-      input: T,
-      transaction: Option[redis.clients.jedis.Transaction]): Unit = {
-    val key = mapper.getKeyFromData(input)
-    val value = mapper.getValueFromData(input)
-    mapper.getCommandDescription.getCommand match {
-      case RPUSH =>
-        transaction match {
-          case Some(t) => t.rpush(key, value)
-          case _ => this.container.rpush(key, value)
+  /**
+   * Write the records in a MULTI/EXEC transaction. In cluster mode a transaction can't span the
+   * slots, so every slot gets its own transaction.
+   */
+  def transaction(records: Seq[Record]): Unit = {
+    if (records.nonEmpty) {
+      if (cluster == null) {
+        val jedis = pool.getResource
+        try execute(jedis, records)
+        finally jedis.close()
+      } else {
+        records.groupBy(r => JedisClusterCRC16.getSlot(r.key)).foreach {
+          case (slot, group) => transactionOnSlot(slot, group, 1)
         }
-      case LPUSH =>
-        transaction match {
-          case Some(t) => t.lpush(key, value)
-          case _ => this.container.lpush(key, value)
-        }
-      case SADD =>
-        transaction match {
-          case Some(t) => t.sadd(key, value)
-          case _ => this.container.sadd(key, value)
-        }
-      case SET =>
-        transaction match {
-          case Some(t) => t.set(key, value)
-          case _ => this.container.set(key, value)
-        }
-      case PFADD =>
-        transaction match {
-          case Some(t) => t.pfadd(key, value)
-          case _ => this.container.pfadd(key, value)
-        }
-      case PUBLISH =>
-        transaction match {
-          case Some(t) => t.publish(key, value)
-          case _ => this.container.publish(key, value)
+      }
+    }
+  }
+
+  private[this] def execute(jedis: Jedis, records: Seq[Record]): Unit = {
+    val transaction = jedis.multi()
+    val responses = append(transaction, records.map(Pending(_)))
+    transaction.exec()
+    checkResponses(responses, redirectable = false)
+  }
+
+  private[this] def transactionOnSlot(slot: Int, records: Seq[Record], attempt: Int): Unit = {
+    val jedis = cluster.getConnectionFromSlot(slot)
+    val aborted =
+      try {
+        execute(jedis, records)
+        None
+      } catch {
+        // the whole transaction is discarded when a queued command is redirected.
+        case e: JedisDataException if e.getMessage != null && e.getMessage.startsWith("EXECABORT") =>
+          Some(e)
+      } finally jedis.close()
+    aborted.foreach {
+      e =>
+        if (attempt >= cluster.attempts) {
+          throw new JedisClusterMaxAttemptsException(s"Too many cluster redirections: $e")
         }
-      case ZADD =>
-        transaction match {
-          case Some(t) => t.zadd(mapper.getCommandDescription.getAdditionalKey, value.toDouble, key)
-          case _ => this.container.zadd(mapper.getCommandDescription.getAdditionalKey, value, key)
+        cluster.renewSlotCache()
+        transactionOnSlot(slot, records, attempt + 1)
+    }
+  }
+
+  private[this] def pipelinedOnCluster(commands: Seq[Pending], attempt: Int): Unit = {
+    // one pipeline per node, the asked commands have their own pipelines sending ASKING
+    val nodes = mutable.LinkedHashMap.empty[(String, Boolean), (Jedis, Pipeline, ArrayBuffer[Sent])]
+    def appendTo(jedis: Jedis, asking: Boolean, group: Seq[Pending]): Unit = {
+      val node = (s"${jedis.getClient.getHost}:${jedis.getClient.getPort}", asking)
+      val (_, pipeline, responses) = nodes.get(node) match {
+        case Some(n) =>
+          jedis.close()
+          n
+        case None =>
+          val n = (jedis, new ClusterPipeline(jedis, asking), ArrayBuffer.empty[Sent])
+          nodes += node -> n
+          n
+      }
+      responses ++= append(pipeline, group)
+    }
+
+    val redirected =
+      try {
+        commands
+          .groupBy(c => Option(c.askingNode).toRight(JedisClusterCRC16.getSlot(c.record.key)))
+          .foreach {
+            case (Left(slot), group) => appendTo(cluster.getConnectionFromSlot(slot), false, group)
+            case (Right(node), group) => appendTo(cluster.getConnectionFromNode(node), true, group)
+          }
+        nodes.values.flatMap {
+          case (_, pipeline, responses) =>
+            pipeline.sync()
+            checkResponses(responses, redirectable = true)
+        }.toList
+      } finally nodes.values.foreach(_._1.close())
+
+    if (redirected.nonEmpty) {
+      // the redirected commands were not executed, it's safe to send them again.
+      if (attempt >= cluster.attempts) {
+        throw new JedisClusterMaxAttemptsException(
+          s"Too many cluster redirections, ${redirected.size} commands failed")
+      }
+      val moved = redirected.count(_.askingNode == null)
+      if (moved > 0) {
+        logWarn(s"RedisSink: $moved commands moved, renew the slot cache and retry")
+        cluster.renewSlotCache()
+      }
+      pipelinedOnCluster(redirected, attempt + 1)
+    }
+  }
+
+  /**
+   * Append the commands of the records, SET with ttl is sent as SETEX, for the other commands the
+   * key expires once per batch right after its first write.
+   */
+  private[this] def append(pipeline: MultiKeyPipelineBase, commands: Seq[Pending]): Seq[Sent] = {
+    val expired = new util.HashSet[String]()
+    commands.map {
+      command =>
+        val record = command.record
+        val response =
+          if (command.expireOnly) null
+          else {
+            record.command match {
+              case SET if record.ttl != Int.MaxValue =>
+                pipeline.setex(record.key, record.ttl, record.value)
+              case SET => pipeline.set(record.key, record.value)
+              case RPUSH => pipeline.rpush(record.key, record.value)
+              case LPUSH => pipeline.lpush(record.key, record.value)
+              case SADD => pipeline.sadd(record.key, record.value)
+              case PFADD => pipeline.pfadd(record.key, record.value)
+              case PUBLISH => pipeline.publish(record.key, record.value)
+              case ZADD => pipeline.zadd(record.key, record.value.toDouble, record.member)
+              case ZREM => pipeline.zrem(record.key, record.member)
+              case HSET => pipeline.hset(record.key, record.member, record.value)
+              case other => throw unsupported(other)
+            }
+          }
+        val expire = record.command match {
+          case SET | PUBLISH => null
+          case _ if record.ttl == Int.MaxValue || !expired.add(record.key) => null
+          case _ => pipeline.expire(record.key, record.ttl)
         }
-      case ZREM =>
-        transaction match {
-          case Some(t) => t.zrem(mapper.getCommandDescription.getAdditionalKey, key)
-          case _ => this.container.zrem(mapper.getCommandDescription.getAdditionalKey, key)
+        Sent(command, response, expire)
+    }
+  }
+
+  /**
+   * Return the redirected commands, or throw the first error. When the command was executed and
+   * only its expire was redirected, the expire alone is sent again.
+   */
+  private[this] def checkResponses(sent: Seq[Sent], redirectable: Boolean): Seq[Pending] = {
+    def redirection(response: Response[_]): Option[JedisRedirectionException] = {
+      if (response == null) None
+      else {
+        Try(response.get()) match {
+          case Failure(e: JedisRedirectionException) if redirectable => Some(e)
+          case Failure(e) => throw e
+          case _ => None
         }
-      case HSET =>
-        transaction match {
-          case Some(t) => t.hset(mapper.getCommandDescription.getAdditionalKey, key, value)
-          case _ => this.container.hset(mapper.getCommandDescription.getAdditionalKey, key, value)
+      }
+    }
+    sent.flatMap {
+      s =>
+        val record = s.command.record
+        redirection(s.response) match {
+          case Some(e) =>
+            // the expire is sent again with the command, its error is checked all the same
+            redirection(s.expire)
+            Some(Pending(record, expireOnly = false, askingNode(e)))
+          case None =>
+            redirection(s.expire).map(e => Pending(record, expireOnly = true, askingNode(e)))
         }
-      case other =>
-        throw new IllegalArgumentException(
-          "[StreamPark] RedisSink:Cannot process such data type: " + other)
     }
   }
 
-  def expire(key: String, ttl: Int): Unit = {
-    ttl match {
-      case Int.MaxValue =>
-      case _ => jedis.expire(key, ttl)
-    }
+  private[this] def askingNode(e: JedisRedirectionException): HostAndPort = e match {
+    case ask: JedisAskDataException => ask.getTargetNode
+    case _ => null
   }
 
   def close(): Unit = {
-    container.close()
+    if (cluster == null) pool.close() else cluster.close()
   }
 
 }
 
 object RedisContainer extends Logger {
 
+  /**
+   * The redis command of a record, the key is the redis key, for ZADD, ZREM and HSET the key is the
+   * additional key and the member is the key of the record.
+   */
+  case class Record(command: RedisCommand, key: String, member: String, value: String, ttl: Int)
+
+  /**
+   * A record to send, the command is skipped when only its expire is sent again. The asking node
+   * is the target of an ASK redirection, null for the commands routed by the slot cache.
+   */
+  private case class Pending(
+      record: Record,
+      expireOnly: Boolean = false,
+      askingNode: HostAndPort = null)
+
+  private case class Sent(command: Pending, response: Response[_], expire: Response[_])
+
+  /** A pipeline that sends ASKING before every command when the commands were asked to the node. */
+  private class ClusterPipeline(jedis: Jedis, asking: Boolean) extends Pipeline {
+
+    setClient(jedis.getClient)
+
+    override protected def getClient(key: String): Client = askingClient()
+
+    override protected def getClient(key: Array[Byte]): Client = askingClient()
+
+    private[this] def askingClient(): Client = {
+      if (asking) {
+        client.asking()
+        // the reply of ASKING is queued before the reply of the command
+        getResponse(BuilderFactory.STRING)
+      }
+      client
+    }
+  }
+
+  def record[T](mapper: RedisMapper[T], input: T, ttl: Int): Record = {
+    val description = mapper.getCommandDescription
+    description.getCommand match {
+      case cmd @ (ZADD | ZREM | HSET) =>
+        Record(
+          cmd,
+          description.getAdditionalKey,
+          mapper.getKeyFromData(input),
+          mapper.getValueFromData(input),
+          ttl)
+      case cmd @ (SET | RPUSH | LPUSH | SADD | PFADD | PUBLISH) =>
+        Record(cmd, mapper.getKeyFromData(input), null, mapper.getValueFromData(input), ttl)
+      case other => throw unsupported(other)
+    }
+  }
+
+  private def unsupported(command: RedisCommand): IllegalArgumentException =
+    new IllegalArgumentException(
+      "[StreamPark] RedisSink:Cannot process such data type: " + command)
+
+  /** Exposes the attempts and the slot cache renewal of the cluster to retry the redirections. */
+  private class SlotJedisCluster(
+      nodes: util.Set[HostAndPort],
+      timeout: Int,
+      maxAttempts: Int,
+      password: String,
+      clientName: String,
+      poolConfig: GenericObjectPoolConfig[_])
+    extends JedisCluster(nodes, timeout, timeout, maxAttempts, password, clientName, poolConfig) {
+
+    def attempts: Int = maxAttempts
+
+    def renewSlotCache(): Unit = connectionHandler.renewSlotCache()
+
+    def getConnectionFromNode(node: HostAndPort): Jedis =
+      connectionHandler.getConnectionFromNode(node)
+  }
+
   def getContainer(jedisConfig: FlinkJedisConfigBase): RedisContainer = {
     val genericObjectPoolConfig = new GenericObjectPoolConfig
     genericObjectPoolConfig.setMaxIdle(jedisConfig.getMaxIdle)
     genericObjectPoolConfig.setMaxTotal(jedisConfig.getMaxTotal)
     genericObjectPoolConfig.setMinIdle(jedisConfig.getMinIdle)
     try {
-      val bahirRedisContainer = jedisConfig match {
+      val redisContainer = jedisConfig match {
         case jedisPoolConfig: FlinkJedisPoolConfig =>
           val jedisPool = new JedisPool(
             genericObjectPoolConfig,
@@ -125,7 +335,16 @@ object RedisContainer extends Logger {
             jedisPoolConfig.getConnectionTimeout,
             jedisPoolConfig.getPassword,
             jedisPoolConfig.getDatabase)
-          new BahirRedisContainer(jedisPool)
+          new RedisContainer(jedisPool, null)
+        case clusterConfig: RedisClusterConfig =>
+          val cluster = new SlotJedisCluster(
+            clusterConfig.cluster.getNodes,
+            clusterConfig.getConnectionTimeout,
+            clusterConfig.cluster.getMaxRedirections,
+            clusterConfig.getPassword,
+            clusterConfig.clientName,
+            genericObjectPoolConfig)
+          new RedisContainer(null, cluster)
         case _ =>
           val jedisSentinelConfig = jedisConfig.asInstanceOf[FlinkJedisSentinelConfig]
           val jedisSentinelPool = new JedisSentinelPool(
@@ -135,9 +354,8 @@ object RedisContainer extends Logger {
             jedisSentinelConfig.getSoTimeout,
             jedisSentinelConfig.getPassword,
             jedisSentinelConfig.getDatabase)
-          new BahirRedisContainer(jedisSentinelPool)
+          new RedisContainer(jedisSentinelPool, null)
       }
-      val redisContainer = new RedisContainer(bahirRedisContainer)
       redisContainer.open()
       redisContainer
     } catch {
@@ -35,7 +35,7 @@ object RedisMapper {
       scalaKeyFun: T => String,
       scalaValueFun: T => String): RedisMapper[T] = {
     require(cmd != null, () => insertFailoverTableNullHint)
-    require(additionalKey != null, () => failoverTableNullHint)
+    require(additionalKey != null, () => additionalFailoverTableNullHint)
     require(scalaKeyFun != null, () => s"Redis scalaKeyFun insert failoverTable must not null")
     require(scalaValueFun != null, () => s"Redis scalaValueFun insert failoverTable must not null")
     new RedisMapper[T](cmd, additionalKey, scalaKeyFun, scalaValueFun)
@@ -54,7 +54,7 @@ object RedisMapper {
   }
 }
 
-class RedisMapper[T](apiType: ApiType = ApiType.scala, cmd: RedisCommand, additionalKey: String)
+class RedisMapper[T](apiType: ApiType = ApiType.SCALA, cmd: RedisCommand, additionalKey: String)
   extends BahirRedisMapper[T] {
 
   private[this] var scalaKeyFun: T => String = _
@@ -64,7 +64,7 @@ class RedisMapper[T](apiType: ApiType = ApiType.scala, cmd: RedisCommand, additi
 
   // for scala
   def this() = {
-    this(ApiType.scala, null, "")
+    this(ApiType.SCALA, null, "")
   }
 
   // for scala
@@ -73,7 +73,7 @@ class RedisMapper[T](apiType: ApiType = ApiType.scala, cmd: RedisCommand, additi
       additionalKey: String,
       scalaKeyFun: T => String,
       scalaValueFun: T => String) = {
-    this(ApiType.scala, cmd, additionalKey)
+    this(ApiType.SCALA, cmd, additionalKey)
     this.scalaKeyFun = scalaKeyFun
     this.scalaValueFun = scalaValueFun
   }
@@ -84,7 +84,7 @@ class RedisMapper[T](apiType: ApiType = ApiType.scala, cmd: RedisCommand, additi
       additionalKey: String,
       javaKeyFun: TransformFunction[T, String],
       javaValueFun: TransformFunction[T, String]) = {
-    this(ApiType.java, cmd, additionalKey)
+    this(ApiType.JAVA, cmd, additionalKey)
     this.javaKeyFun = javaKeyFun
     this.javaValueFun = javaValueFun
   }
@@ -93,13 +93,13 @@ class RedisMapper[T](apiType: ApiType = ApiType.scala, cmd: RedisCommand, additi
     new RedisCommandDescription(cmd, additionalKey)
 
   override def getKeyFromData(r: T): String = apiType match {
-    case ApiType.java => javaKeyFun.transform(r)
-    case ApiType.scala => scalaKeyFun(r)
+    case ApiType.JAVA => javaKeyFun.transform(r)
+    case ApiType.SCALA => scalaKeyFun(r)
   }
 
   override def getValueFromData(r: T): String = apiType match {
-    case ApiType.java => javaValueFun.transform(r)
-    case ApiType.scala => scalaValueFun(r)
+    case ApiType.JAVA => javaValueFun.transform(r)
+    case ApiType.SCALA => scalaValueFun(r)
   }
 
 }
@@ -29,6 +29,13 @@ class RedisConfig(parameters: Properties) extends Serializable {
 
   val port: Int = sinkOption.port.get()
 
+  val batchSize: Int = sinkOption.batchSize.get()
+
+  val flushInterval: Long = sinkOption.flushInterval.get()
+
+  require(batchSize > 0, s"Redis batchSize must be positive, but got $batchSize")
+
+  /** the host:port of the sentinels, or of the nodes in cluster mode. */
   val sentinels: Set[String] =
     if (connectType.equals(sinkOption.DEFAULT_CONNECT_TYPE)) Set()
     else {
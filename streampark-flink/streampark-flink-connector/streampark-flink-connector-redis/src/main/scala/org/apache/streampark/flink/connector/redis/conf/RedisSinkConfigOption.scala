@@ -82,8 +82,26 @@ class RedisSinkConfigOption(prefixStr: String, properties: Properties) extends S
     }
   )
 
+  val batchSize: ConfigOption[Int] = ConfigOption(
+    key = "batchSize",
+    required = false,
+    defaultValue = 1000,
+    classType = classOf[Int],
+    description = "the max number of records sent in one pipeline, 1 means no buffering",
+    handle = k => properties.remove(k).toString.toInt
+  )
+
+  val flushInterval: ConfigOption[Long] = ConfigOption(
+    key = "flushInterval",
+    required = false,
+    defaultValue = 1000L,
+    classType = classOf[Long],
+    description = "the max time(ms) a record waits in the buffer",
+    handle = k => properties.remove(k).toString.toLong
+  )
+
   def getInternalConfig(): Properties = {
-    ConfigUtils.getConf(prop, prefix)(alias = "")
+    ConfigUtils.getConf(prop.toMap.asJava, prefix)("")
   }
 
 }
@@ -25,7 +25,6 @@ import org.apache.flink.api.common.typeutils.base.VoidSerializer
 import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer
 import org.apache.flink.streaming.api.functions.sink.{SinkFunction, TwoPhaseCommitSinkFunction}
 import org.apache.flink.streaming.connectors.redis.common.config.FlinkJedisConfigBase
-import redis.clients.jedis.exceptions.JedisException
 
 class Redis2PCSinkFunction[T](jedisConfig: FlinkJedisConfigBase, mapper: RedisMapper[T], ttl: Int)
   extends TwoPhaseCommitSinkFunction[T, RedisTransaction[T], Void](
@@ -33,6 +32,8 @@ class Redis2PCSinkFunction[T](jedisConfig: FlinkJedisConfigBase, mapper: RedisMa
     VoidSerializer.INSTANCE)
   with Logger {
 
+  @transient private[this] var redisContainer: RedisContainer = _
+
   override def beginTransaction(): RedisTransaction[T] = {
     logInfo("Redis2PCSink beginTransaction.")
     RedisTransaction[T]()
@@ -56,17 +57,8 @@ class Redis2PCSinkFunction[T](jedisConfig: FlinkJedisConfigBase, mapper: RedisMa
   override def commit(redisTransaction: RedisTransaction[T]): Unit = {
     if (redisTransaction.invoked && redisTransaction.mapper.nonEmpty) {
       try {
-        val redisContainer = RedisContainer.getContainer(jedisConfig)
-        val transaction = redisContainer.jedis.multi()
-        redisTransaction.mapper.foreach(
-          x => {
-            redisContainer.invoke[T](x._1, x._2, Some(transaction))
-            val key = mapper.getKeyFromData(x._2)
-            transaction.expire(key, x._3)
-          })
-        transaction.exec()
-        transaction.close()
-        redisContainer.close()
+        val records = redisTransaction.mapper.map(x => RedisContainer.record(x._1, x._2, x._3))
+        container.transaction(records)
         redisTransaction.mapper.clear()
       } catch {
         case t: Exception =>
@@ -76,9 +68,31 @@ class Redis2PCSinkFunction[T](jedisConfig: FlinkJedisConfigBase, mapper: RedisMa
     }
   }
 
+  /**
+   * The container is created on the first commit and reused until the sink is closed, the pending
+   * transactions may be committed in initializeState before the sink is opened.
+   */
+  private[this] def container: RedisContainer = {
+    if (redisContainer == null) {
+      redisContainer = RedisContainer.getContainer(jedisConfig)
+    }
+    redisContainer
+  }
+
   override def abort(transaction: RedisTransaction[T]): Unit = {
     logInfo(s"Redis2PCSink abort,TransactionId:${transaction.transactionId}")
     transaction.mapper.clear()
   }
 
+  override def close(): Unit = {
+    try {
+      super.close()
+    } finally {
+      if (redisContainer != null) {
+        redisContainer.close()
+        redisContainer = null
+      }
+    }
+  }
+
 }
@@ -17,34 +17,115 @@
 
 package org.apache.streampark.flink.connector.redis.internal
 
-import org.apache.streampark.common.util.Logger
+import org.apache.streampark.common.util.{Logger, ThreadUtils}
 import org.apache.streampark.flink.connector.redis.bean.{RedisContainer, RedisMapper}
 
 import org.apache.flink.configuration.Configuration
+import org.apache.flink.runtime.state.{FunctionInitializationContext, FunctionSnapshotContext}
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction
 import org.apache.flink.streaming.api.functions.sink.SinkFunction
 import org.apache.flink.streaming.connectors.redis.{RedisSink => BahirRedisSink}
 import org.apache.flink.streaming.connectors.redis.common.config.FlinkJedisConfigBase
 
 import java.io.IOException
+import java.util.concurrent.{Executors, ScheduledExecutorService, TimeUnit}
 
-class RedisSinkFunction[T](jedisConfig: FlinkJedisConfigBase, mapper: RedisMapper[T], ttl: Int)
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * The records are buffered and written through a pipeline when the buffer is full, the flush
+ * interval is reached, or a checkpoint is taken, so every record in a completed checkpoint has been
+ * written to redis.
+ */
+class RedisSinkFunction[T](
+    jedisConfig: FlinkJedisConfigBase,
+    mapper: RedisMapper[T],
+    ttl: Int,
+    batchSize: Int,
+    flushInterval: Long)
   extends BahirRedisSink[T](jedisConfig, mapper)
+  with CheckpointedFunction
   with Logger {
 
-  private[this] var redisContainer: RedisContainer = _
+  def this(jedisConfig: FlinkJedisConfigBase, mapper: RedisMapper[T], ttl: Int) = {
+    this(jedisConfig, mapper, ttl, 1, 0L)
+  }
+
+  @transient private[this] var redisContainer: RedisContainer = _
+
+  @transient private[this] var buffer: ArrayBuffer[RedisContainer.Record] = _
+
+  @transient private[this] var service: ScheduledExecutorService = _
+
+  @volatile private[this] var failure: Throwable = _
 
   @throws[Exception]
   override def open(parameters: Configuration): Unit = {
     redisContainer = RedisContainer.getContainer(jedisConfig)
+    buffer = new ArrayBuffer[RedisContainer.Record](batchSize)
+    if (batchSize > 1 && flushInterval > 0) {
+      service = Executors.newSingleThreadScheduledExecutor(
+        ThreadUtils.threadFactory("redis-interval-sink"))
+      service.scheduleWithFixedDelay(
+        new Runnable {
+          override def run(): Unit = {
+            try {
+              flush()
+            } catch {
+              case e: Throwable =>
+                logError(s"RedisSink flush error: ${e.getMessage}")
+                failure = e
+            }
+          }
+        },
+        flushInterval,
+        flushInterval,
+        TimeUnit.MILLISECONDS
+      )
+    }
   }
 
   override def invoke(input: T, context: SinkFunction.Context): Unit = {
-    redisContainer.invoke[T](mapper, input, None)
-    val key = mapper.getKeyFromData(input)
-    redisContainer.expire(key, ttl)
+    checkFailure()
+    val record = RedisContainer.record(mapper, input, ttl)
+    buffer.synchronized {
+      buffer += record
+      if (buffer.size >= batchSize) {
+        flush()
+      }
+    }
   }
 
+  private[this] def flush(): Unit = buffer.synchronized {
+    if (buffer.nonEmpty) {
+      redisContainer.pipelined(buffer)
+      buffer.clear()
+    }
+  }
+
+  private[this] def checkFailure(): Unit = {
+    if (failure != null) {
+      throw new IOException("[StreamPark] RedisSink writing records failed.", failure)
+    }
+  }
+
+  override def snapshotState(context: FunctionSnapshotContext): Unit = {
+    checkFailure()
+    flush()
+  }
+
+  override def initializeState(context: FunctionInitializationContext): Unit = {}
+
   @throws[IOException]
-  override def close(): Unit = if (redisContainer != null) redisContainer.close()
+  override def close(): Unit = {
+    if (service != null) {
+      ThreadUtils.shutdownExecutorService(service)
+    }
+    try {
+      if (redisContainer != null && failure == null) flush()
+    } finally {
+      if (redisContainer != null) redisContainer.close()
+    }
+  }
 
 }
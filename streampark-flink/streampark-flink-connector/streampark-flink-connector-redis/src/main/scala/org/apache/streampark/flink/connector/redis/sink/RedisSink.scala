@@ -19,7 +19,7 @@ package org.apache.streampark.flink.connector.redis.sink
 
 import org.apache.streampark.common.util.Utils
 import org.apache.streampark.flink.connector.redis.bean.RedisMapper
-import org.apache.streampark.flink.connector.redis.conf.RedisConfig
+import org.apache.streampark.flink.connector.redis.conf.{RedisClusterConfig, RedisConfig}
 import org.apache.streampark.flink.connector.redis.internal.{Redis2PCSinkFunction, RedisSinkFunction}
 import org.apache.streampark.flink.connector.sink.Sink
 import org.apache.streampark.flink.core.scala.StreamingContext
@@ -29,9 +29,10 @@ import org.apache.flink.streaming.api.CheckpointingMode
 import org.apache.flink.streaming.api.datastream.{DataStream => JavaDataStream, DataStreamSink}
 import org.apache.flink.streaming.api.environment.ExecutionCheckpointingOptions
 import org.apache.flink.streaming.api.scala.DataStream
-import org.apache.flink.streaming.connectors.redis.common.config.{FlinkJedisConfigBase, FlinkJedisPoolConfig, FlinkJedisSentinelConfig}
+import org.apache.flink.streaming.connectors.redis.common.config.{FlinkJedisClusterConfig, FlinkJedisConfigBase, FlinkJedisPoolConfig, FlinkJedisSentinelConfig}
 
 import java.lang.reflect.Field
+import java.net.InetSocketAddress
 import java.util
 import java.util.Properties
 
@@ -136,9 +137,39 @@ class RedisSink(
           })
 
         builder.build()
+
+      case "cluster" =>
+        val nodes = redisConfig.sentinels.map {
+          x =>
+            val index = x.lastIndexOf(redisConfig.sinkOption.SIGN_COLON)
+            new InetSocketAddress(x.substring(0, index), x.substring(index + 1).toInt)
+        }
+        val builder = new FlinkJedisClusterConfig.Builder().setNodes(nodes)
+        // the builder of bahir has no client name, it is passed to the cluster aside
+        val clientName = Option(internalProp.remove("clientName")).map(_.toString).orNull
+        internalProp.foreach(
+          x => {
+            val field = Try(builder.getClass.getDeclaredField(x._1)).getOrElse {
+              throw new IllegalArgumentException(
+                s"""
+                   |Redis config error,property:${x._1} invalid,init FlinkJedisClusterConfig error,property options:
+                   |<Set<InetSocketAddress> nodes>,
+                   |<int timeout>,
+                   |<int maxRedirections>,
+                   |<int maxTotal>,
+                   |<int maxIdle>,
+                   |<int minIdle>,
+                   |<String password>,
+                   |<String clientName>
+                   |""".stripMargin)
+            }
+            setFieldValue(field, builder, x._2)
+          })
+        new RedisClusterConfig(builder.build(), clientName)
+
       case _ =>
         throw throw new IllegalArgumentException(
-          s"Redis connectType must be jedisPool|sentinel $connectType")
+          s"Redis connectType must be jedisPool|sentinel|cluster $connectType")
     }
   }
 
@@ -163,7 +194,13 @@ class RedisSink(
         throw new IllegalArgumentException("Redis sink EXACTLY_ONCE must enable checkpoint")
       case (true, CheckpointingMode.EXACTLY_ONCE) =>
         new Redis2PCSinkFunction[T](config, mapper, ttl)
-      case _ => new RedisSinkFunction[T](config, mapper, ttl)
+      case _ =>
+        new RedisSinkFunction[T](
+          config,
+          mapper,
+          ttl,
+          redisConfig.batchSize,
+          redisConfig.flushInterval)
     }
     val sink = stream.addSink(sinkFun)
     afterSink(sink, parallelism, name, uid)
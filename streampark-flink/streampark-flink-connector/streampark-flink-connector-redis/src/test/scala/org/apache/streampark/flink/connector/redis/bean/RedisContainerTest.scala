@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.connector.redis.bean
+
+import org.apache.streampark.flink.connector.redis.bean.RedisContainer.Record
+import org.apache.streampark.flink.connector.redis.conf.RedisClusterConfig
+
+import org.apache.flink.streaming.connectors.redis.common.config.FlinkJedisClusterConfig
+import org.apache.flink.streaming.connectors.redis.common.mapper.RedisCommand
+import org.junit.jupiter.api.{AfterEach, Assertions, Test}
+import redis.clients.jedis.exceptions.JedisClusterMaxAttemptsException
+import redis.clients.jedis.util.JedisClusterCRC16
+
+import java.io.{BufferedInputStream, InputStream, OutputStream}
+import java.net.{InetSocketAddress, ServerSocket, Socket}
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{ConcurrentHashMap, ConcurrentLinkedQueue}
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
+
+class RedisContainerTest {
+
+  import RedisContainerTest._
+
+  private val slotsRequests = new AtomicInteger()
+
+  @volatile private var owner: FakeNode = _
+
+  private val nodes = ArrayBuffer.empty[FakeNode]
+
+  private var container: RedisContainer = _
+
+  @AfterEach
+  def close(): Unit = {
+    if (container != null) container.close()
+    nodes.foreach(_.close())
+  }
+
+  private def node(): FakeNode = {
+    val n = new FakeNode(() => owner, slotsRequests)
+    nodes += n
+    n
+  }
+
+  private def open(
+      start: FakeNode,
+      maxRedirections: Int = 5,
+      password: String = null,
+      clientName: String = null): RedisContainer = {
+    owner = start
+    val cluster = new FlinkJedisClusterConfig.Builder()
+      .setNodes(Set(new InetSocketAddress("127.0.0.1", start.port)).asJava)
+      .setMaxRedirections(maxRedirections)
+      .setPassword(password)
+      .build()
+    container = RedisContainer.getContainer(new RedisClusterConfig(cluster, clientName))
+    container
+  }
+
+  private def rpush(key: String, value: String, ttl: Int = Int.MaxValue): Record =
+    Record(RedisCommand.RPUSH, key, null, value, ttl)
+
+  @Test
+  def passwordAndClientName(): Unit = {
+    val a = node()
+    open(a, password = "secret", clientName = "streampark-sink").pipelined(Seq(rpush("k", "v")))
+    val handshake = a.log.asScala.map(_.toUpperCase).toSet
+    Assertions.assertTrue(handshake.contains("AUTH SECRET"))
+    Assertions.assertTrue(handshake.contains("CLIENT SETNAME STREAMPARK-SINK"))
+    Assertions.assertEquals(Seq("v"), a.values("k"))
+  }
+
+  @Test
+  def askSendsAskingToTheNodeAndKeepsTheSlotCache(): Unit = {
+    val (a, b) = (node(), node())
+    // k is being migrated from a to b, b only serves it after an ASKING
+    a.redirect = (_, key, _) => if (key == "k") Some(s"ASK ${slot(key)} ${b.address}") else None
+    b.redirect = (_, key, asking) => if (asking) None else Some(s"MOVED ${slot(key)} ${a.address}")
+    open(a).pipelined(Seq(rpush("k", "v1", 60), rpush("o", "v2")))
+
+    Assertions.assertEquals(Seq("v1"), b.values("k"))
+    Assertions.assertEquals(Seq("v2"), a.values("o"))
+    Assertions.assertEquals(
+      Seq("ASKING", "RPUSH k v1", "ASKING", "EXPIRE k 60"),
+      b.commands.filterNot(_ == "PING"))
+    // the slots were only discovered when the cluster was opened
+    Assertions.assertEquals(1, slotsRequests.get())
+  }
+
+  @Test
+  def movedRenewsTheSlotCache(): Unit = {
+    val (a, b) = (node(), node())
+    a.redirect = (_, key, _) => if (owner eq a) None else Some(s"MOVED ${slot(key)} ${b.address}")
+    val redis = open(a)
+    owner = b
+    redis.pipelined(Seq(rpush("k", "v1"), rpush("o", "v2")))
+
+    Assertions.assertEquals(Seq("v1"), b.values("k"))
+    Assertions.assertEquals(Seq("v2"), b.values("o"))
+    Assertions.assertTrue(a.values("k").isEmpty)
+    Assertions.assertEquals(2, slotsRequests.get())
+  }
+
+  @Test
+  def redirectedExpireIsSentAlone(): Unit = {
+    val (a, b) = (node(), node())
+    // k is migrated right after its RPUSH, only the EXPIRE is asked to b
+    a.redirect = (cmd, key, _) =>
+      if (cmd == "EXPIRE") Some(s"ASK ${slot(key)} ${b.address}") else None
+    open(a).pipelined(Seq(rpush("k", "v1", 60)))
+
+    Assertions.assertEquals(Seq("v1"), a.values("k"))
+    Assertions.assertEquals(Seq("ASKING", "EXPIRE k 60"), b.commands.filterNot(_ == "PING"))
+  }
+
+  @Test
+  def tooManyRedirections(): Unit = {
+    val (a, b) = (node(), node())
+    a.redirect = (_, key, _) => Some(s"MOVED ${slot(key)} ${b.address}")
+    b.redirect = (_, key, _) => Some(s"MOVED ${slot(key)} ${a.address}")
+    val redis = open(a, maxRedirections = 2)
+    Assertions.assertThrows(
+      classOf[JedisClusterMaxAttemptsException],
+      () => redis.pipelined(Seq(rpush("k", "v"))))
+  }
+
+}
+
+object RedisContainerTest {
+
+  private def slot(key: String): Int = JedisClusterCRC16.getSlot(key)
+
+  /**
+   * A cluster node speaking enough RESP for the sink: every slot is served by the owner, the keyed
+   * commands are redirected when the redirect function returns the error.
+   */
+  private class FakeNode(owner: () => FakeNode, slotsRequests: AtomicInteger) {
+
+    private val server = new ServerSocket(0)
+
+    val port: Int = server.getLocalPort
+
+    val address: String = s"127.0.0.1:$port"
+
+    /** (command, key, asking) => the redirection error, or None to execute the command */
+    @volatile var redirect: (String, String, Boolean) => Option[String] = (_, _, _) => None
+
+    val log = new ConcurrentLinkedQueue[String]()
+
+    private val lists = new ConcurrentHashMap[String, ConcurrentLinkedQueue[String]]()
+
+    /** the commands of the sink, without the handshake of the connections */
+    def commands: Seq[String] = log.asScala.toList.filterNot {
+      c => c.startsWith("AUTH") || c.startsWith("CLIENT") || c.startsWith("CLUSTER")
+    }
+
+    def values(key: String): Seq[String] =
+      Option(lists.get(key)).map(_.asScala.toList).getOrElse(Nil)
+
+    private val acceptor = new Thread(() => {
+      try {
+        while (true) {
+          val socket = server.accept()
+          val handler = new Thread(() => serve(socket))
+          handler.setDaemon(true)
+          handler.start()
+        }
+      } catch {
+        case _: Exception =>
+      }
+    })
+    acceptor.setDaemon(true)
+    acceptor.start()
+
+    private def serve(socket: Socket): Unit = {
+      val in = new BufferedInputStream(socket.getInputStream)
+      val out = socket.getOutputStream
+      var asking = false
+      try {
+        while (true) {
+          val args = readCommand(in)
+          log.add(args.mkString(" "))
+          val reply = args.head.toUpperCase match {
+            case "ASKING" =>
+              asking = true
+              "+OK"
+            case "AUTH" | "CLIENT" => "+OK"
+            case "PING" => "+PONG"
+            case "CLUSTER" =>
+              slotsRequests.incrementAndGet()
+              val o = owner()
+              s"*1\r\n*3\r\n:0\r\n:16383\r\n*2\r\n$$9\r\n127.0.0.1\r\n:${o.port}"
+            case cmd =>
+              val key = args(1)
+              val reply = redirect(cmd, key, asking) match {
+                case Some(error) => s"-$error"
+                case None =>
+                  cmd match {
+                    case "RPUSH" =>
+                      val list =
+                        lists.computeIfAbsent(key, _ => new ConcurrentLinkedQueue[String]())
+                      args.drop(2).foreach(list.add)
+                      s":${list.size}"
+                    case _ => ":1"
+                  }
+              }
+              asking = false
+              reply
+          }
+          write(out, reply)
+        }
+      } catch {
+        case _: Exception =>
+      } finally socket.close()
+    }
+
+    private def readCommand(in: InputStream): Seq[String] = {
+      val count = readLine(in).drop(1).toInt
+      (0 until count).map {
+        _ =>
+          val length = readLine(in).drop(1).toInt
+          val bytes = in.readNBytes(length + 2)
+          new String(bytes, 0, length, StandardCharsets.UTF_8)
+      }
+    }
+
+    private def readLine(in: InputStream): String = {
+      val line = new StringBuilder
+      var c = in.read()
+      while (c != '\r') {
+        if (c < 0) throw new IllegalStateException("connection closed")
+        line.append(c.toChar)
+        c = in.read()
+      }
+      in.read()
+      line.toString
+    }
+
+    private def write(out: OutputStream, reply: String): Unit = {
+      out.write(s"$reply\r\n".getBytes(StandardCharsets.UTF_8))
+      out.flush()
+    }
+
+    def close(): Unit = server.close()
+  }
+
+}
@@ -63,6 +63,7 @@ class DefaultFlinkK8sWatcher(conf: FlinkTrackConfig = FlinkTrackConfig.defaultCo
   override def close(): Unit = {
     allWatchers.foreach(_.close())
     watchController.close()
+    KubernetesRetriever.closeK8sClient()
   }
 
   def doWatching(trackId: TrackId): Unit = {
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.kubernetes
+
+import org.apache.streampark.common.conf.ConfigKeys
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.common.util.Logger
+
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.Pod
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.apps.Deployment
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.informers.SharedIndexInformer
+
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.{Function => JavaFunction}
+
+import scala.util.Try
+
+/**
+ * In-memory cache of the flink-native-kubernetes deployments and pods, backed by the shared
+ * informers of the [[KubernetesRetriever.k8sClient]]. The informers of a namespace are started on
+ * the first lookup of it, the lookups return None until the informers have synced, in which case
+ * the caller should fall back to the api server.
+ */
+object FlinkK8sResourceCache extends Logger {
+
+  private val APP_INDEX = "app"
+
+  private val RESYNC_PERIOD = 10 * 60 * 1000L
+
+  private[this] class NamespaceInformers(
+      val deployments: SharedIndexInformer[Deployment],
+      val pods: SharedIndexInformer[Pod]) {
+
+    def hasSynced: Boolean = deployments.hasSynced && pods.hasSynced
+
+    def stop(): Unit = {
+      Try(deployments.stop())
+      Try(pods.stop())
+    }
+  }
+
+  private[this] val informers = new ConcurrentHashMap[String, NamespaceInformers]()
+
+  /**
+   * check whether the flink deployment exists in the cache
+   *
+   * @return
+   *   None if the cache of the namespace is not ready
+   */
+  def isDeploymentExists(namespace: String, deploymentName: String): Option[Boolean] = {
+    getDeployment(namespace, deploymentName).map(_.isDefined)
+  }
+
+  /**
+   * get the flink deployment from the cache
+   *
+   * @return
+   *   None if the cache of the namespace is not ready
+   */
+  def getDeployment(namespace: String, deploymentName: String): Option[Option[Deployment]] = {
+    syncedInformers(namespace).map(
+      ns => Option(ns.deployments.getStore.getByKey(s"$namespace/$deploymentName")))
+  }
+
+  /**
+   * get the pods selected by the flink deployment from the cache
+   *
+   * @return
+   *   None if the cache of the namespace is not ready
+   */
+  def getPods(namespace: String, deploymentName: String): Option[List[Pod]] = {
+    syncedInformers(namespace).map {
+      ns =>
+        Option(ns.deployments.getStore.getByKey(s"$namespace/$deploymentName")) match {
+          case None => List.empty[Pod]
+          case Some(deployment) =>
+            val matchLabels = deployment.getSpec.getSelector.getMatchLabels.toMap
+            ns.pods.getIndexer
+              .byIndex(APP_INDEX, matchLabels.getOrElse(APP_INDEX, deploymentName))
+              .filter(pod => {
+                val labels = pod.getMetadata.getLabels
+                matchLabels.forall { case (k, v) => labels != null && labels.get(k) == v }
+              })
+              .toList
+        }
+    }
+  }
+
+  /** stop the informers of all namespaces */
+  def close(): Unit = {
+    informers.values().foreach(_.stop())
+    informers.clear()
+  }
+
+  private[this] def syncedInformers(namespace: String): Option[NamespaceInformers] = {
+    if (namespace == null) None
+    else {
+      Try(informers.computeIfAbsent(namespace, ns => startInformers(ns))).toOption
+        .filter(_.hasSynced)
+    }
+  }
+
+  private[this] def startInformers(namespace: String): NamespaceInformers = {
+    val client = KubernetesRetriever.k8sClient
+    val deployments = client
+      .apps()
+      .deployments()
+      .inNamespace(namespace)
+      .withLabel("type", ConfigKeys.FLINK_NATIVE_KUBERNETES_LABEL)
+      .runnableInformer(RESYNC_PERIOD)
+
+    val pods = client
+      .pods()
+      .inNamespace(namespace)
+      .withLabel("type", ConfigKeys.FLINK_NATIVE_KUBERNETES_LABEL)
+      .runnableInformer(RESYNC_PERIOD)
+    val appIndexer: JavaFunction[Pod, JavaList[String]] = pod => {
+      val labels = pod.getMetadata.getLabels
+      if (labels == null || !labels.containsKey(APP_INDEX)) Collections.emptyList[String]()
+      else Collections.singletonList(labels.get(APP_INDEX))
+    }
+    pods.addIndexers(Map(APP_INDEX -> appIndexer))
+
+    val namespaceInformers = new NamespaceInformers(deployments, pods)
+    Seq(deployments.start(), pods.start()).foreach(
+      _.whenComplete((_, e) => {
+        if (e != null) {
+          // drop the failed informers, they will be restarted on the next lookup
+          logWarn(s"[flink-k8s] start informers of namespace: $namespace failed, error: $e")
+          if (informers.remove(namespace, namespaceInformers)) {
+            namespaceInformers.stop()
+          }
+        }
+      }))
+    logInfo(s"[flink-k8s] start informers of flink deployments and pods in namespace: $namespace")
+    namespaceInformers
+  }
+
+}
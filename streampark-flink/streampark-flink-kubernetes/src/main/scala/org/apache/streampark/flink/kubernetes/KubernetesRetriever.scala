@@ -48,15 +48,42 @@ object KubernetesRetriever extends Logger {
 
   private val DEPLOYMENT_LOST_TIME = collection.mutable.Map[String, Long]()
 
+  @volatile private[this] var sharedK8sClient: KubernetesClient = _
+
   /** get new KubernetesClient */
   @throws(classOf[KubernetesClientException])
   def newK8sClient(): KubernetesClient = {
     new DefaultKubernetesClient()
   }
 
+  /**
+   * get the long-lived KubernetesClient shared by the watchers, the ingress and the helpers, its
+   * http connections and informers are reused, so the caller must not close it.
+   */
+  @throws(classOf[KubernetesClientException])
+  def k8sClient: KubernetesClient = {
+    if (sharedK8sClient == null) {
+      this.synchronized {
+        if (sharedK8sClient == null) {
+          sharedK8sClient = newK8sClient()
+        }
+      }
+    }
+    sharedK8sClient
+  }
+
+  /** close the shared KubernetesClient and the informers on it */
+  def closeK8sClient(): Unit = this.synchronized {
+    FlinkK8sResourceCache.close()
+    if (sharedK8sClient != null) {
+      Try(sharedK8sClient.close())
+      sharedK8sClient = null
+    }
+  }
+
   /** check connection of kubernetes cluster */
   def checkK8sConnection(): Boolean = {
-    Try(newK8sClient().getVersion != null).getOrElse(false)
+    Try(k8sClient.getVersion != null).getOrElse(false)
   }
 
   private val clusterClientServiceLoader =
@@ -102,7 +129,8 @@ object KubernetesRetriever extends Logger {
   }
 
   /**
-   * check whether deployment exists on kubernetes cluster
+   * check whether deployment exists on kubernetes cluster, the informer cache of the namespace is
+   * looked up first, and the api server is only requested until the cache is synced.
    *
    * @param namespace
    *   deployment namespace
@@ -110,48 +138,58 @@ object KubernetesRetriever extends Logger {
    *   deployment name
    */
   def isDeploymentExists(namespace: String, deploymentName: String): Boolean = {
+    FlinkK8sResourceCache.isDeploymentExists(namespace, deploymentName) match {
+      case Some(exists) => exists
+      case None =>
+        Try {
+          val deployment = k8sClient
+            .apps()
+            .deployments()
+            .inNamespace(namespace)
+            .withName(deploymentName)
+            .get()
+          deployment != null &&
+          deployment.getMetadata.getLabels != null &&
+          deployment.getMetadata.getLabels.get("type") == "flink-native-kubernetes"
+        } match {
+          case Success(exists) => exists
+          case Failure(e) => onDeploymentCheckFailed(namespace, deploymentName, e)
+        }
+    }
+  }
 
-    KubernetesRetriever
-      .newK8sClient()
-      .using(client => {
-        client
-          .apps()
-          .deployments()
-          .inNamespace(namespace)
-          .withLabel("type", "flink-native-kubernetes")
-          .list()
-          .getItems
-          .exists(_.getMetadata.getName == deploymentName)
-      }) {
-        e =>
-          logWarn(
+  private[this] def onDeploymentCheckFailed(
+      namespace: String,
+      deploymentName: String,
+      e: Throwable): Boolean = {
+    logWarn(
+      s"""
+         |[StreamPark] check deploymentExists WARN,
+         |namespace: $namespace,
+         |deploymentName: $deploymentName,
+         |error: $e
+         |""".stripMargin)
+    val key = s"${namespace}_$deploymentName"
+    DEPLOYMENT_LOST_TIME.get(key) match {
+      case Some(time) =>
+        val timeOut = 1000 * 60 * 3L
+        if (System.currentTimeMillis() - time >= timeOut) {
+          logError(
             s"""
-               |[StreamPark] check deploymentExists WARN,
+               |[StreamPark] check deploymentExists Failed,
                |namespace: $namespace,
                |deploymentName: $deploymentName,
-               |error: $e
+               |detail: deployment: $deploymentName Not Found more than 3 minutes, $e
                |""".stripMargin)
-          val key = s"${namespace}_$deploymentName"
-          DEPLOYMENT_LOST_TIME.get(key) match {
-            case Some(time) =>
-              val timeOut = 1000 * 60 * 3L
-              if (System.currentTimeMillis() - time >= timeOut) {
-                logError(
-                  s"""
-                     |[StreamPark] check deploymentExists Failed,
-                     |namespace: $namespace,
-                     |deploymentName: $deploymentName,
-                     |detail: deployment: $deploymentName Not Found more than 3 minutes, $e
-                     |""".stripMargin)
-                DEPLOYMENT_LOST_TIME -= key
-                return false
-              }
-              return true
-            case _ =>
-              DEPLOYMENT_LOST_TIME += key -> System.currentTimeMillis()
-              true
-          }
-      }
+          DEPLOYMENT_LOST_TIME -= key
+          false
+        } else {
+          true
+        }
+      case _ =>
+        DEPLOYMENT_LOST_TIME += key -> System.currentTimeMillis()
+        true
+    }
   }
 
   /** retrieve flink jobManager rest url */
@@ -19,40 +19,38 @@ package org.apache.streampark.flink.kubernetes.helper
 
 import org.apache.streampark.common.util.{Logger, SystemPropertyUtils}
 import org.apache.streampark.common.util.Implicits._
-import org.apache.streampark.flink.kubernetes.KubernetesRetriever
+import org.apache.streampark.flink.kubernetes.{FlinkK8sResourceCache, KubernetesRetriever}
 
 import com.google.common.base.Charsets
 import com.google.common.io.Files
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.Pod
-import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.DefaultKubernetesClient
 
 import java.io.File
 
-import scala.util.{Success, Try}
+import scala.util.Try
 
 object KubernetesDeploymentHelper extends Logger {
 
   private[this] def getPods(nameSpace: String, deploymentName: String): List[Pod] = {
-    KubernetesRetriever
-      .newK8sClient()
-      .using(client => {
-        Try {
-          client.pods
-            .inNamespace(nameSpace)
-            .withLabels {
-              client.apps.deployments
-                .inNamespace(nameSpace)
-                .withName(deploymentName)
-                .get
-                .getSpec
-                .getSelector
-                .getMatchLabels
-            }
-            .list
-            .getItems
-            .toList
-        }.getOrElse(List.empty[Pod])
-      })
+    FlinkK8sResourceCache.getPods(nameSpace, deploymentName).getOrElse {
+      val client = KubernetesRetriever.k8sClient
+      Try {
+        client.pods
+          .inNamespace(nameSpace)
+          .withLabels {
+            client.apps.deployments
+              .inNamespace(nameSpace)
+              .withName(deploymentName)
+              .get
+              .getSpec
+              .getSelector
+              .getMatchLabels
+          }
+          .list
+          .getItems
+          .toList
+      }.getOrElse(List.empty[Pod])
+    }
   }
 
   def isDeploymentError(nameSpace: String, deploymentName: String): Boolean = {
@@ -70,23 +68,15 @@ object KubernetesDeploymentHelper extends Logger {
   }
 
   private[this] def deleteDeployment(nameSpace: String, deploymentName: String): Unit = {
-    KubernetesRetriever
-      .newK8sClient()
-      .using(client => {
-        val map = client.apps.deployments.inNamespace(nameSpace)
-        map.withLabel("app", deploymentName).delete
-        map.withName(deploymentName).delete()
-      })
+    val map = KubernetesRetriever.k8sClient.apps.deployments.inNamespace(nameSpace)
+    map.withLabel("app", deploymentName).delete
+    map.withName(deploymentName).delete()
   }
 
   private[this] def deleteConfigMap(nameSpace: String, deploymentName: String): Unit = {
-    KubernetesRetriever
-      .newK8sClient()
-      .using(client => {
-        val map = client.configMaps().inNamespace(nameSpace)
-        map.withLabel("app", deploymentName).delete
-        map.withName(deploymentName).delete()
-      })
+    val map = KubernetesRetriever.k8sClient.configMaps().inNamespace(nameSpace)
+    map.withLabel("app", deploymentName).delete
+    map.withName(deploymentName).delete()
   }
 
   def delete(nameSpace: String, deploymentName: String): Unit = {
@@ -95,46 +85,34 @@ object KubernetesDeploymentHelper extends Logger {
   }
 
   def checkConnection(): Boolean = {
-    Try(new DefaultKubernetesClient) match {
-      case Success(client) =>
-        client.close()
-        true
-      case _ => false
-    }
+    Try(KubernetesRetriever.k8sClient).isSuccess
   }
 
   def watchDeploymentLog(nameSpace: String, jobName: String, jobId: String): String = {
-    KubernetesRetriever
-      .newK8sClient()
-      .using(client => {
-        val path = KubernetesDeploymentHelper.getJobLog(jobId)
-        val file = new File(path)
-        val log = client.apps.deployments
-          .inNamespace(nameSpace)
-          .withName(jobName)
-          .getLog
-        Files.asCharSink(file, Charsets.UTF_8).write(log)
-        path
-      })
+    val path = KubernetesDeploymentHelper.getJobLog(jobId)
+    val file = new File(path)
+    val log = KubernetesRetriever.k8sClient.apps.deployments
+      .inNamespace(nameSpace)
+      .withName(jobName)
+      .getLog
+    Files.asCharSink(file, Charsets.UTF_8).write(log)
+    path
   }
 
   def watchPodTerminatedLog(nameSpace: String, jobName: String, jobId: String): String = {
-    KubernetesRetriever
-      .newK8sClient()
-      .using(client =>
-        Try {
-          val podName = getPods(nameSpace, jobName).head.getMetadata.getName
-          val path = KubernetesDeploymentHelper.getJobErrorLog(jobId)
-          val file = new File(path)
-          val log = client.pods
-            .inNamespace(nameSpace)
-            .withName(podName)
-            .terminated()
-            .withPrettyOutput
-            .getLog
-          Files.asCharSink(file, Charsets.UTF_8).write(log)
-          path
-        }.getOrElse(null))(error => throw error)
+    Try {
+      val podName = getPods(nameSpace, jobName).head.getMetadata.getName
+      val path = KubernetesDeploymentHelper.getJobErrorLog(jobId)
+      val file = new File(path)
+      val log = KubernetesRetriever.k8sClient.pods
+        .inNamespace(nameSpace)
+        .withName(podName)
+        .terminated()
+        .withPrettyOutput
+        .getLog
+      Files.asCharSink(file, Charsets.UTF_8).write(log)
+      path
+    }.getOrElse(null)
   }
 
   private[kubernetes] def getJobLog(jobId: String): String = {
@@ -19,17 +19,16 @@ package org.apache.streampark.flink.kubernetes.ingress
 
 import org.apache.streampark.common.util.Implicits._
 import org.apache.streampark.common.util.Logger
+import org.apache.streampark.flink.kubernetes.KubernetesRetriever
 
 import org.apache.flink.client.program.ClusterClient
-import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.DefaultKubernetesClient
 
 object IngressController extends Logger {
 
   private[this] val VERSION_REGEXP = "(\\d+\\.\\d+)".r
 
-  private lazy val clusterVersion = new DefaultKubernetesClient().using(client => {
-    VERSION_REGEXP.findFirstIn(client.getVersion.getGitVersion).get.toDouble
-  })
+  private lazy val clusterVersion =
+    VERSION_REGEXP.findFirstIn(KubernetesRetriever.k8sClient.getVersion.getGitVersion).get.toDouble
 
   private lazy val ingressStrategy: IngressStrategy = {
     if (clusterVersion >= 1.19) {
@@ -22,7 +22,7 @@ import org.apache.streampark.common.util.FileUtils
 
 import org.apache.flink.client.program.ClusterClient
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.{OwnerReference, OwnerReferenceBuilder}
-import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.DefaultKubernetesClient
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.KubernetesClient
 
 import java.io.File
 
@@ -69,7 +69,7 @@ trait IngressStrategy {
   def getOwnerReference(
       nameSpace: String,
       clusterId: String,
-      client: DefaultKubernetesClient): OwnerReference = {
+      client: KubernetesClient): OwnerReference = {
 
     val deployment = client
       .apps()
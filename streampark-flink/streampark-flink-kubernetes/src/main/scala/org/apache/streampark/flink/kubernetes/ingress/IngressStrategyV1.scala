@@ -18,10 +18,11 @@
 package org.apache.streampark.flink.kubernetes.ingress
 
 import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.kubernetes.KubernetesRetriever
 
 import org.apache.flink.client.program.ClusterClient
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.networking.v1.IngressBuilder
-import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.DefaultKubernetesClient
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.KubernetesClient
 
 import scala.util.{Failure, Success, Try}
 
@@ -31,36 +32,36 @@ class IngressStrategyV1 extends IngressStrategy {
       nameSpace: String,
       clusterId: String,
       clusterClient: ClusterClient[_]): String = {
-    new DefaultKubernetesClient().using(client =>
-      Try {
-        Option(
-          Try(
-            client.network.v1
-              .ingresses()
-              .inNamespace(nameSpace)
-              .withName(clusterId)
-              .get())
-            .getOrElse(null)) match {
-          case Some(ingress) =>
-            Option(ingress)
-              .map(ingress => ingress.getSpec.getRules.head)
-              .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
-              .map { case (host, path) =>
-                val newPath = Option(path).filter(_.nonEmpty).map(_.replaceAll("\\/+$", "")).getOrElse("")
-                s"http://$host$newPath"
-              }
-              .getOrElse(clusterClient.using(_.getWebInterfaceURL))
-          case None => clusterClient.using(_.getWebInterfaceURL)
-        }
-      } match {
-        case Success(value) => value
-        case Failure(e) =>
-          throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
-      })
+    val client = KubernetesRetriever.k8sClient
+    Try {
+      Option(
+        Try(
+          client.network.v1
+            .ingresses()
+            .inNamespace(nameSpace)
+            .withName(clusterId)
+            .get())
+          .getOrElse(null)) match {
+        case Some(ingress) =>
+          Option(ingress)
+            .map(ingress => ingress.getSpec.getRules.head)
+            .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
+            .map { case (host, path) =>
+              val newPath = Option(path).filter(_.nonEmpty).map(_.replaceAll("\\/+$", "")).getOrElse("")
+              s"http://$host$newPath"
+            }
+            .getOrElse(clusterClient.using(_.getWebInterfaceURL))
+        case None => clusterClient.using(_.getWebInterfaceURL)
+      }
+    } match {
+      case Success(value) => value
+      case Failure(e) =>
+        throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
+    }
   }
 
   private[this] def touchIngressBackendRestPort(
-      client: DefaultKubernetesClient,
+      client: KubernetesClient,
       clusterId: String,
       nameSpace: String): Int = {
     var ports = client.services
@@ -75,51 +76,50 @@ class IngressStrategyV1 extends IngressStrategy {
   }
 
   override def configureIngress(domainName: String, clusterId: String, nameSpace: String): Unit = {
-    new DefaultKubernetesClient().using(client => {
-      val ownerReference = getOwnerReference(nameSpace, clusterId, client)
-      val ingressBackendRestServicePort =
-        touchIngressBackendRestPort(client, clusterId, nameSpace)
-      val ingress = new IngressBuilder()
-        .withNewMetadata()
-        .withName(clusterId)
-        .addToAnnotations(buildIngressAnnotations(clusterId, nameSpace))
-        .addToLabels(buildIngressLabels(clusterId))
-        .addToOwnerReferences(ownerReference) // Add OwnerReference
-        .endMetadata()
-        .withNewSpec()
-        .withIngressClassName(ingressClass)
-        .addNewRule()
-        .withHost(domainName)
-        .withNewHttp()
-        .addNewPath()
-        .withPath(s"/$nameSpace/$clusterId/")
-        .withPathType("ImplementationSpecific")
-        .withNewBackend()
-        .withNewService()
-        .withName(s"$clusterId-$REST_SERVICE_IDENTIFICATION")
-        .withNewPort()
-        .withNumber(ingressBackendRestServicePort)
-        .endPort()
-        .endService()
-        .endBackend()
-        .endPath()
-        .addNewPath()
-        .withPath(s"/$nameSpace/$clusterId" + "(/|$)(.*)")
-        .withPathType("ImplementationSpecific")
-        .withNewBackend()
-        .withNewService()
-        .withName(s"$clusterId-$REST_SERVICE_IDENTIFICATION")
-        .withNewPort()
-        .withNumber(ingressBackendRestServicePort)
-        .endPort()
-        .endService()
-        .endBackend()
-        .endPath()
-        .endHttp()
-        .endRule()
-        .endSpec()
-        .build()
-      client.network.v1.ingresses().inNamespace(nameSpace).create(ingress)
-    })
+    val client = KubernetesRetriever.k8sClient
+    val ownerReference = getOwnerReference(nameSpace, clusterId, client)
+    val ingressBackendRestServicePort =
+      touchIngressBackendRestPort(client, clusterId, nameSpace)
+    val ingress = new IngressBuilder()
+      .withNewMetadata()
+      .withName(clusterId)
+      .addToAnnotations(buildIngressAnnotations(clusterId, nameSpace))
+      .addToLabels(buildIngressLabels(clusterId))
+      .addToOwnerReferences(ownerReference) // Add OwnerReference
+      .endMetadata()
+      .withNewSpec()
+      .withIngressClassName(ingressClass)
+      .addNewRule()
+      .withHost(domainName)
+      .withNewHttp()
+      .addNewPath()
+      .withPath(s"/$nameSpace/$clusterId/")
+      .withPathType("ImplementationSpecific")
+      .withNewBackend()
+      .withNewService()
+      .withName(s"$clusterId-$REST_SERVICE_IDENTIFICATION")
+      .withNewPort()
+      .withNumber(ingressBackendRestServicePort)
+      .endPort()
+      .endService()
+      .endBackend()
+      .endPath()
+      .addNewPath()
+      .withPath(s"/$nameSpace/$clusterId" + "(/|$)(.*)")
+      .withPathType("ImplementationSpecific")
+      .withNewBackend()
+      .withNewService()
+      .withName(s"$clusterId-$REST_SERVICE_IDENTIFICATION")
+      .withNewPort()
+      .withNumber(ingressBackendRestServicePort)
+      .endPort()
+      .endService()
+      .endBackend()
+      .endPath()
+      .endHttp()
+      .endRule()
+      .endSpec()
+      .build()
+    client.network.v1.ingresses().inNamespace(nameSpace).create(ingress)
   }
 }
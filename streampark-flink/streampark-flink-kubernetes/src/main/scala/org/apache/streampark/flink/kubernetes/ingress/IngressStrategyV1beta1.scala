@@ -18,12 +18,12 @@
 package org.apache.streampark.flink.kubernetes.ingress
 
 import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.kubernetes.KubernetesRetriever
 
 import org.apache.commons.lang3.StringUtils
 import org.apache.flink.client.program.ClusterClient
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.IntOrString
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.networking.v1beta1.IngressBuilder
-import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.DefaultKubernetesClient
 
 import scala.util.{Failure, Success, Try}
 
@@ -33,29 +33,28 @@ class IngressStrategyV1beta1 extends IngressStrategy {
       nameSpace: String,
       clusterId: String,
       clusterClient: ClusterClient[_]): String = {
-    new DefaultKubernetesClient().using(client => {
-      Try {
-        Option(
-          Try(
-            client.network.v1beta1.ingresses
-              .inNamespace(nameSpace)
-              .withName(clusterId)
-              .get)
-            .getOrElse(null)) match {
-          case Some(ingress) =>
-            Option(ingress)
-              .map(ingress => ingress.getSpec.getRules.head)
-              .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
-              .map { case (host, path) => s"http://$host$path" }
-              .getOrElse(clusterClient.using(_.getWebInterfaceURL))
-          case None => clusterClient.using(_.getWebInterfaceURL)
-        }
-      } match {
-        case Success(value) => value
-        case Failure(e) =>
-          throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
+    val client = KubernetesRetriever.k8sClient
+    Try {
+      Option(
+        Try(
+          client.network.v1beta1.ingresses
+            .inNamespace(nameSpace)
+            .withName(clusterId)
+            .get)
+          .getOrElse(null)) match {
+        case Some(ingress) =>
+          Option(ingress)
+            .map(ingress => ingress.getSpec.getRules.head)
+            .map(rule => rule.getHost -> rule.getHttp.getPaths.head.getPath)
+            .map { case (host, path) => s"http://$host$path" }
+            .getOrElse(clusterClient.using(_.getWebInterfaceURL))
+        case None => clusterClient.using(_.getWebInterfaceURL)
       }
-    })
+    } match {
+      case Success(value) => value
+      case Failure(e) =>
+        throw new RuntimeException(s"[StreamPark] get ingressUrlAddress error: $e")
+    }
   }
 
   override def buildIngressAnnotations(
@@ -70,39 +69,38 @@ class IngressStrategyV1beta1 extends IngressStrategy {
   }
 
   override def configureIngress(domainName: String, clusterId: String, nameSpace: String): Unit = {
-    new DefaultKubernetesClient().using(client => {
-      val ownerReference = getOwnerReference(nameSpace, clusterId, client)
-      val ingress = new IngressBuilder()
-        .withNewMetadata()
-        .withName(clusterId)
-        .addToAnnotations(buildIngressAnnotations(clusterId, nameSpace))
-        .addToLabels(buildIngressLabels(clusterId))
-        .addToOwnerReferences(ownerReference)
-        .endMetadata()
-        .withNewSpec()
-        .addNewRule()
-        .withHost(domainName)
-        .withNewHttp()
-        .addNewPath()
-        .withPath(s"/$nameSpace/$clusterId/")
-        .withNewBackend()
-        .withServiceName(s"$clusterId-rest")
-        .withServicePort(new IntOrString("rest"))
-        .endBackend()
-        .endPath()
-        .addNewPath()
-        .withPath(s"/$nameSpace/$clusterId" + "(/|$)(.*)")
-        .withNewBackend()
-        .withServiceName(s"$clusterId-rest")
-        .withServicePort(new IntOrString("rest"))
-        .endBackend()
-        .endPath()
-        .endHttp()
-        .endRule()
-        .endSpec()
-        .build()
+    val client = KubernetesRetriever.k8sClient
+    val ownerReference = getOwnerReference(nameSpace, clusterId, client)
+    val ingress = new IngressBuilder()
+      .withNewMetadata()
+      .withName(clusterId)
+      .addToAnnotations(buildIngressAnnotations(clusterId, nameSpace))
+      .addToLabels(buildIngressLabels(clusterId))
+      .addToOwnerReferences(ownerReference)
+      .endMetadata()
+      .withNewSpec()
+      .addNewRule()
+      .withHost(domainName)
+      .withNewHttp()
+      .addNewPath()
+      .withPath(s"/$nameSpace/$clusterId/")
+      .withNewBackend()
+      .withServiceName(s"$clusterId-rest")
+      .withServicePort(new IntOrString("rest"))
+      .endBackend()
+      .endPath()
+      .addNewPath()
+      .withPath(s"/$nameSpace/$clusterId" + "(/|$)(.*)")
+      .withNewBackend()
+      .withServiceName(s"$clusterId-rest")
+      .withServicePort(new IntOrString("rest"))
+      .endBackend()
+      .endPath()
+      .endHttp()
+      .endRule()
+      .endSpec()
+      .build()
 
-      client.network.ingress.inNamespace(nameSpace).create(ingress)
-    })
+    client.network.ingress.inNamespace(nameSpace).create(ingress)
   }
 }
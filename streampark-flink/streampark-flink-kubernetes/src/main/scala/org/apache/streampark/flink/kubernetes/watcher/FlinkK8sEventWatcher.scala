@@ -23,7 +23,7 @@ import org.apache.streampark.flink.kubernetes.model.{K8sDeploymentEventCV, K8sEv
 
 import org.apache.flink.kubernetes.kubeclient.resources.{CompatibleKubernetesWatcher, CompKubernetesDeployment}
 import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.api.model.apps.Deployment
-import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.{KubernetesClient, Watcher}
+import org.apache.flink.kubernetes.shaded.io.fabric8.kubernetes.client.{KubernetesClient, Watch, Watcher}
 
 import javax.annotation.concurrent.ThreadSafe
 
@@ -40,9 +40,12 @@ class FlinkK8sEventWatcher(implicit watchController: FlinkK8sWatchController)
 
   private var k8sClient: KubernetesClient = _
 
+  private var deploymentWatch: Watch = _
+
   /** start watcher process */
   override def doStart(): Unit = {
-    k8sClient = Try(KubernetesRetriever.newK8sClient()).getOrElse {
+    // the shared client is not owned by this watcher, only the watch is closed on stop
+    k8sClient = Try(KubernetesRetriever.k8sClient).getOrElse {
       logError("[flink-k8s] FlinkK8sEventWatcher fails to start.")
       return
     }
@@ -52,7 +55,10 @@ class FlinkK8sEventWatcher(implicit watchController: FlinkK8sWatchController)
 
   /** stop watcher process */
   override def doStop(): Unit = {
-    k8sClient.close()
+    if (deploymentWatch != null) {
+      Try(deploymentWatch.close())
+      deploymentWatch = null
+    }
     k8sClient = null
     logInfo("[flink-k8s] FlinkK8sEventWatcher stopped.")
   }
@@ -64,7 +70,7 @@ class FlinkK8sEventWatcher(implicit watchController: FlinkK8sWatchController)
   override def doWatch(): Unit = {
     // watch k8s deployment events
     Try {
-      k8sClient
+      deploymentWatch = k8sClient
         .apps()
         .deployments()
         .withLabel("type", "flink-native-kubernetes")
@@ -38,11 +38,13 @@ case class FlinkDockerfileTemplate(
 
   /** offer content of DockerFile */
   override def offerDockerfileContent: String = {
+    // the rarely changed extra libs first, the job jar on the top layer
     s"""FROM $flinkBaseImage
        |RUN mkdir -p $FLINK_HOME/usrlib
-       |COPY $extraLibName $FLINK_HOME/lib/
-       |COPY $mainJarName $FLINK_HOME/usrlib/$mainJarName
-       |""".stripMargin
+       |""".stripMargin +
+      extraLibInstructions +
+      s"""COPY $mainJarName $FLINK_HOME/usrlib/$mainJarName
+         |""".stripMargin
   }
 
 }
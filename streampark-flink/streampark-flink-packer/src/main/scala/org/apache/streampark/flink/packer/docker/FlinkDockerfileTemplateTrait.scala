@@ -51,6 +51,9 @@ trait FlinkDockerfileTemplateTrait {
   protected val FLINK_LIB_PATH = "lib"
   protected val FLINK_HOME: String = "$FLINK_HOME"
 
+  /** max number of the docker layers of the extra jar libs */
+  protected val MAX_LIB_LAYERS = 32
+
   /** Dockerfile building workspace. */
   lazy val workspace: Path = {
     val path = Paths.get(workspacePath).toAbsolutePath
@@ -73,11 +76,19 @@ trait FlinkDockerfileTemplateTrait {
   }
 
   /**
-   * flink extra jar lib, the jar file in `flinkExtraLibPaths` would be copyed into
-   * `FLINK_LIB_PATH`.
+   * flink extra jar libs grouped into docker layers, the jar file in `flinkExtraLibPaths` would be
+   * copyed into `FLINK_LIB_PATH`.
+   *
+   * The jars are put into `MAX_LIB_LAYERS` buckets by the hash of the jar name, one layer for each
+   * non-empty bucket in the bucket order, so a jar stays in the same layer whatever the other jars
+   * are and however its content changes. The docker build cache of a COPY depends on its parent
+   * layer, so adding, removing or changing a jar rebuilds its layer and all the following ones,
+   * while the layers before it hit the cache. The rebuilt layers of the unchanged buckets hold the
+   * same files as before, the registry only skips them on push when their digests are unchanged.
    */
-  lazy val extraLibName: String = {
-    LfsOperator.mkCleanDirs(s"${workspace.toString}/$FLINK_LIB_PATH")
+  lazy val extraLibLayers: Seq[Seq[String]] = {
+    val libDir = s"${workspace.toString}/$FLINK_LIB_PATH"
+    LfsOperator.mkCleanDirs(libDir)
     flinkExtraLibPaths
       .map(new File(_))
       .filter(_.exists())
@@ -90,10 +101,27 @@ trait FlinkDockerfileTemplateTrait {
             .map(_.getAbsolutePath)
         case f if f.isFile => Array(f.getAbsolutePath)
       }
-      .foreach(LfsOperator.copy(_, s"${workspace.toString}/$FLINK_LIB_PATH"))
-    FLINK_LIB_PATH
+      .foreach(LfsOperator.copy(_, libDir))
+
+    LfsOperator
+      .listDir(libDir)
+      .filter(_.isFile)
+      .map(_.getName)
+      .sorted
+      .toSeq
+      .groupBy(libLayerOf)
+      .toSeq
+      .sortBy(_._1)
+      .map(_._2.map(name => s"$FLINK_LIB_PATH/$name"))
   }
 
+  /** the layer of the extra jar lib, String.hashCode is the same on every jvm */
+  protected def libLayerOf(jarName: String): Int = Math.floorMod(jarName.hashCode, MAX_LIB_LAYERS)
+
+  /** COPY instructions of the flink extra jar libs, one instruction for each layer. */
+  def extraLibInstructions: String =
+    extraLibLayers.map(layer => s"COPY ${layer.mkString(" ")} $FLINK_HOME/lib/\n").mkString
+
   /**
    * write content of DockerFile to outputPath, the output dockerfile name is "dockerfile".
    *
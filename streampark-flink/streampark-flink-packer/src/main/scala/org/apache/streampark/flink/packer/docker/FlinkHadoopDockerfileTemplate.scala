@@ -79,10 +79,10 @@ case class FlinkHadoopDockerfileTemplate(
            |ENV HIVE_CONF_DIR /opt/hive-conf
            |""".stripMargin
     }
+    // the rarely changed extra libs first, the job jar on the top layer
+    dockerfile += "\n" + extraLibInstructions
     dockerfile +=
-      s"""
-         |COPY $extraLibName $FLINK_HOME/lib/
-         |COPY $mainJarName $FLINK_HOME/usrlib/$mainJarName
+      s"""COPY $mainJarName $FLINK_HOME/usrlib/$mainJarName
          |""".stripMargin
     dockerfile
   }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.packer.maven
+
+import org.apache.streampark.common.conf.{InternalConfigHolder, Workspace}
+import org.apache.streampark.common.conf.CommonConfig.{MAVEN_FAT_JAR_CACHE_ENABLED, MAVEN_FAT_JAR_CACHE_MAX_SIZE_MB}
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.common.util.Logger
+
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+import com.google.common.util.concurrent.Striped
+
+import java.io.{File, FileInputStream}
+import java.lang.{Boolean => JavaBool, Long => JavaLong}
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, StandardCopyOption}
+import java.security.{DigestInputStream, MessageDigest}
+import java.util.UUID
+import java.util.concurrent.locks.Lock
+
+import scala.util.Try
+
+/**
+ * Content-addressed cache of the shaded fat-jars.
+ *
+ * The cache key is the SHA-256 of the build descriptor (main class, transformers, filters) and the
+ * content digests of all input jars, so the same jars shaded with the same options are only shaded
+ * once, across builds, applications and console restarts. The entries are stored as
+ * `$FAT_JAR_CACHE_PATH/<key>.jar`, the last modified time of an entry is its last access time, and
+ * the least recently used entries are evicted when the total size exceeds the disk quota.
+ */
+object FatJarCache extends Logger {
+
+  /** bump it when the shading behavior changes, all previous entries become unreachable */
+  private[this] val CACHE_VERSION = "1"
+
+  private[this] val ENTRY_PATTERN = "^[0-9a-f]{64}\\.jar$".r
+
+  private[this] val TMP_SUFFIX = ".tmp"
+
+  /** the temp files older than it are left by the crashed builds */
+  private[this] val TMP_TTL = 24 * 60 * 60 * 1000L
+
+  /** the max number of the input jars whose digest is kept in memory */
+  private[this] val MAX_JAR_DIGESTS = 10000L
+
+  /** digests of the input jars, Cache<absolutePath, (length, lastModified, digest)> */
+  private[this] val jarDigests: Cache[String, (Long, Long, String)] =
+    Caffeine.newBuilder().maximumSize(MAX_JAR_DIGESTS).build()
+
+  /** serialize the build and eviction of the same entry */
+  private[this] val locks = Striped.lock(64)
+
+  def enabled: Boolean = InternalConfigHolder.get[JavaBool](MAVEN_FAT_JAR_CACHE_ENABLED)
+
+  def maxSize: Long =
+    InternalConfigHolder.get[JavaLong](MAVEN_FAT_JAR_CACHE_MAX_SIZE_MB) * 1024 * 1024
+
+  /** the cache directory of the tests, the workspace is used if absent */
+  @volatile private[packer] var testCacheDir: Option[File] = None
+
+  def cacheDir: File = testCacheDir.getOrElse(new File(Workspace.FAT_JAR_CACHE_PATH))
+
+  /**
+   * Compute the cache key of a fat-jar.
+   *
+   * @param jars
+   *   input jars of the fat-jar, the order does not matter
+   * @param descriptor
+   *   everything else affecting the content of the fat-jar, e.g. the main class and transformers
+   */
+  def cacheKey(jars: Iterable[File], descriptor: Seq[String]): String = {
+    val digest = MessageDigest.getInstance("SHA-256")
+    val update = (s: String) => digest.update(s"$s\n".getBytes(StandardCharsets.UTF_8))
+    update(s"version=$CACHE_VERSION")
+    descriptor.foreach(update)
+    jars.map(jarDigest).toSeq.sorted.foreach(update)
+    toHex(digest.digest())
+  }
+
+  /**
+   * Copy the cached fat-jar of the key to the output file, the fat-jar is built by the given
+   * function into a temp file and put into the cache if absent.
+   *
+   * @param key
+   *   cache key computed by [[cacheKey]]
+   * @param outFatJar
+   *   the output file of the fat-jar
+   * @param build
+   *   function building the fat-jar into the given file
+   */
+  def getOrBuild(key: String, outFatJar: File)(build: File => Unit): File = {
+    val entry = new File(cacheDir, s"$key.jar")
+    val lock = locks.get(key)
+    lock.lock()
+    val built =
+      try {
+        val hit = entry.isFile
+        if (hit) {
+          entry.setLastModified(System.currentTimeMillis)
+          logInfo(s"fat-jar cache hit: $key, output: ${outFatJar.getAbsolutePath}")
+        } else {
+          cacheDir.mkdirs()
+          val tmp = new File(cacheDir, s"$key.${UUID.randomUUID()}$TMP_SUFFIX")
+          try {
+            build(tmp)
+            Files.move(tmp.toPath, entry.toPath, StandardCopyOption.ATOMIC_MOVE)
+          } finally {
+            tmp.delete()
+          }
+          logInfo(s"fat-jar cache miss: $key, cached: ${entry.getAbsolutePath}")
+        }
+        // copy rather than link, the output may be changed or deleted by the caller
+        Files.copy(entry.toPath, outFatJar.toPath, StandardCopyOption.REPLACE_EXISTING)
+        !hit
+      } finally {
+        lock.unlock()
+      }
+    // evict out of the entry lock, the eviction locks the evicted entries one by one
+    if (built) {
+      Try(evict(key)).failed.foreach(e => logWarn(s"evict fat-jar cache failed: ${e.getMessage}"))
+    }
+    outFatJar
+  }
+
+  /** Evict the least recently used entries until the total size is within the disk quota. */
+  private[maven] def evict(keep: String): Unit = {
+    val files = Option(cacheDir.listFiles()).getOrElse(Array.empty[File])
+    val now = System.currentTimeMillis
+    files
+      .filter(f => f.getName.endsWith(TMP_SUFFIX) && now - f.lastModified > TMP_TTL)
+      .foreach(_.delete())
+
+    val entries = files
+      .filter(f => f.isFile && ENTRY_PATTERN.findFirstIn(f.getName).isDefined)
+      .map(f => (f, f.length, f.lastModified))
+      .sortBy(_._3)
+    var totalSize = entries.map(_._2).sum
+    val quota = maxSize
+    entries.iterator
+      .takeWhile(_ => totalSize > quota)
+      .foreach {
+        case (file, length, _) =>
+          val key = file.getName.stripSuffix(".jar")
+          if (key != keep) {
+            withLock(locks.get(key)) {
+              if (file.delete()) {
+                totalSize -= length
+                logInfo(s"evict fat-jar cache: $key, size: $length")
+              }
+            }
+          }
+      }
+  }
+
+  /** The digest of the jar content, recomputed only when the jar has been changed. */
+  private[this] def jarDigest(jar: File): String = {
+    val path = jar.getAbsolutePath
+    val length = jar.length
+    val lastModified = jar.lastModified
+    jarDigests.getIfPresent(path) match {
+      case (l, m, digest) if l == length && m == lastModified => digest
+      case _ =>
+        val digest = MessageDigest.getInstance("SHA-256")
+        new DigestInputStream(new FileInputStream(jar), digest).using {
+          in =>
+            val buffer = new Array[Byte](64 * 1024)
+            while (in.read(buffer) != -1) {}
+        }
+        val hex = toHex(digest.digest())
+        jarDigests.put(path, (length, lastModified, hex))
+        hex
+    }
+  }
+
+  private[this] def withLock[T](lock: Lock)(func: => T): T = {
+    lock.lock()
+    try func
+    finally lock.unlock()
+  }
+
+  private[this] def toHex(bytes: Array[Byte]): String = bytes.map("%02x".format(_)).mkString
+
+}
@@ -18,9 +18,9 @@
 package org.apache.streampark.flink.packer.maven
 
 import org.apache.streampark.common.conf.{InternalConfigHolder, Workspace}
-import org.apache.streampark.common.conf.CommonConfig.{MAVEN_AUTH_PASSWORD, MAVEN_AUTH_USER, MAVEN_REMOTE_URL}
+import org.apache.streampark.common.conf.CommonConfig.{MAVEN_AUTH_PASSWORD, MAVEN_AUTH_USER, MAVEN_REMOTE_URL, MAVEN_RESOLVE_SNAPSHOT_TTL_SEC, MAVEN_RESOLVE_THREADS}
 import org.apache.streampark.common.constants.Constants
-import org.apache.streampark.common.util.{AssertUtils, Logger, Utils}
+import org.apache.streampark.common.util.{AssertUtils, Logger, ThreadUtils, Utils}
 import org.apache.streampark.common.util.Implicits._
 
 import com.google.common.collect.Lists
@@ -33,7 +33,7 @@ import org.codehaus.plexus.logging.console.ConsoleLogger
 import org.eclipse.aether.{RepositorySystem, RepositorySystemSession}
 import org.eclipse.aether.artifact.DefaultArtifact
 import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory
-import org.eclipse.aether.repository.{LocalRepository, RemoteRepository}
+import org.eclipse.aether.repository.{LocalRepository, RemoteRepository, RepositoryPolicy}
 import org.eclipse.aether.resolution.{ArtifactDescriptorRequest, ArtifactRequest}
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory
 import org.eclipse.aether.spi.connector.transport.TransporterFactory
@@ -45,6 +45,7 @@ import javax.annotation.{Nonnull, Nullable}
 
 import java.io.File
 import java.util
+import java.util.concurrent.{CompletableFuture, ConcurrentHashMap, ExecutionException, LinkedBlockingQueue, ThreadPoolExecutor, TimeUnit}
 
 import scala.collection.mutable.ArrayBuffer
 import scala.util.Try
@@ -82,6 +83,33 @@ object MavenTool extends Logger {
     List(remoteRepository)
   }
 
+  /** config key of the number of parallel downloads of the maven basic repository connector */
+  private[this] val CONNECTOR_THREADS = "aether.connector.basic.threads"
+
+  private[this] lazy val resolveThreads: Int =
+    InternalConfigHolder.get[JavaInt](MAVEN_RESOLVE_THREADS)
+
+  /** the repository system and session are long-lived and shared by all resolutions */
+  private[this] lazy val mavenEndpoint = getMavenEndpoint()
+
+  private[this] lazy val resolutionIndex =
+    new ResolutionIndex(new File(Workspace.MAVEN_LOCAL_PATH, ".streampark-resolution-index"))
+
+  private[this] lazy val resolveExecutor = {
+    val executor = new ThreadPoolExecutor(
+      resolveThreads,
+      resolveThreads,
+      60L,
+      TimeUnit.SECONDS,
+      new LinkedBlockingQueue[Runnable](),
+      ThreadUtils.threadFactory("streampark-maven-resolver"))
+    executor.allowCoreThreadTimeOut(true)
+    executor
+  }
+
+  /** running resolutions, Map<artifact@remoteRepos, future of the resolved files> */
+  private[this] val resolving = new ConcurrentHashMap[String, CompletableFuture[JavaList[File]]]()
+
   private val isJarFile = (file: File) =>
     file.isFile && Try(Utils.requireCheckJarFile(file.toURI.toURL)).isSuccess
 
@@ -117,22 +145,28 @@ object MavenTool extends Logger {
           libFile.listFiles.filter(isJarFile).foreach(jarSet.add)
         case _ =>
       }
-    logInfo(s"start shaded fat-jar: ${jarLibs.mkString(",")}")
-    // shade jars
+    if (FatJarCache.enabled) {
+      // the same jars shaded with the same options always produce the same fat-jar
+      val descriptor = Seq(
+        s"mainClass=$mainClass",
+        s"transformers=${getResourceTransformers(mainClass).map(_.getClass.getName).mkString(",")}",
+        s"filters=${classOf[ShadeFilter].getName}")
+      val cacheKey = FatJarCache.cacheKey(jarSet, descriptor)
+      FatJarCache.getOrBuild(cacheKey, uberJar)(shade(mainClass, jarSet, _))
+    } else {
+      shade(mainClass, jarSet, uberJar)
+    }
+    logInfo(s"finish build fat-jar: ${uberJar.getAbsolutePath}")
+    uberJar
+  }
+
+  private[this] def shade(mainClass: String, jarSet: JavaSet[File], uberJar: File): Unit = {
+    logInfo(s"start shaded fat-jar: ${jarSet.mkString(",")}")
     val shadeRequest = {
       val req = new ShadeRequest
       req.setJars(jarSet)
       req.setUberJar(uberJar)
-
-      val transformer = ArrayBuffer[ResourceTransformer]()
-      // ref https://ci.apache.org/projects/flink/flink-docs-master/docs/connectors/table/overview/#transform-table-connectorformat-resources
-      transformer += new ServicesResourceTransformer()
-      if (mainClass != null) {
-        val manifest = new ManifestResourceTransformer()
-        manifest.setMainClass(mainClass)
-        transformer += manifest
-      }
-      req.setResourceTransformers(transformer.toList)
+      req.setResourceTransformers(getResourceTransformers(mainClass))
       req.setFilters(List(new ShadeFilter))
       req.setRelocators(Lists.newArrayList())
       req
@@ -140,8 +174,18 @@ object MavenTool extends Logger {
     val shader = new DefaultShader()
     shader.enableLogging(plexusLog)
     shader.shade(shadeRequest)
-    logInfo(s"finish build fat-jar: ${uberJar.getAbsolutePath}")
-    uberJar
+  }
+
+  private[this] def getResourceTransformers(mainClass: String): List[ResourceTransformer] = {
+    val transformer = ArrayBuffer[ResourceTransformer]()
+    // ref https://ci.apache.org/projects/flink/flink-docs-master/docs/connectors/table/overview/#transform-table-connectorformat-resources
+    transformer += new ServicesResourceTransformer()
+    if (mainClass != null) {
+      val manifest = new ManifestResourceTransformer()
+      manifest.setMainClass(mainClass)
+      transformer += manifest
+    }
+    transformer.toList
   }
 
   /**
@@ -175,6 +219,10 @@ object MavenTool extends Logger {
    * Resolve the collectoin of artifacts, Artifacts will be download to ConfigConst.MAVEN_LOCAL_DIR
    * if necessary. notes: Only compile scope dependencies will be resolved.
    *
+   * The artifacts are resolved in parallel, the resolved files of each artifact are recorded in the
+   * [[ResolutionIndex]] and reused by the following resolutions, concurrent resolutions of the same
+   * artifact share one download.
+   *
    * @param mavenArtifacts
    *   collection of maven artifacts
    * @return
@@ -184,8 +232,8 @@ object MavenTool extends Logger {
   def resolveArtifacts(mavenArtifacts: JavaSet[Artifact]): JavaList[File] = {
     if (mavenArtifacts == null) List.empty[File]
     else {
-      val (repoSystem, session) = getMavenEndpoint()
-      val artifacts = mavenArtifacts.map(e => {
+      val remoteRepos = getRemoteRepos()
+      val artifacts = mavenArtifacts.toList.map(e => {
         val artifact =
           new DefaultArtifact(e.groupId, e.artifactId, e.classifier, "jar", e.version)
         artifact.getProperties
@@ -193,30 +241,83 @@ object MavenTool extends Logger {
       })
       logInfo(s"start resolving dependencies: ${artifacts.mkString}")
 
-      val remoteRepos = getRemoteRepos()
-      // read relevant artifact descriptor info
-      // plz don't simplify the following lambda syntax to maintain the readability of the code.
-      val resolvedArtifacts = artifacts
-        .map(artifact => new ArtifactDescriptorRequest(artifact, remoteRepos, null))
-        .map(artDescReq => repoSystem.readArtifactDescriptor(session, artDescReq))
-        .flatMap(_.getDependencies)
-        .filter(_.getScope == "compile")
-        .filter(x => !excludeArtifact.exists(_.eq(x.getArtifact)))
-        .map(_.getArtifact)
-
-      val mergedArtifacts = artifacts ++ resolvedArtifacts
-      logInfo(s"resolved dependencies: ${mergedArtifacts.mkString}")
-
-      // download artifacts
-      val artReqs =
-        mergedArtifacts.map(artifact => new ArtifactRequest(artifact, remoteRepos, null))
-      repoSystem
-        .resolveArtifacts(session, artReqs)
-        .map(_.getArtifact.getFile)
-        .toList
+      val resolved = artifacts
+        .map(artifact => resolveArtifactAsync(artifact, remoteRepos))
+        .map(future => {
+          try {
+            future.get()
+          } catch {
+            case e: ExecutionException => throw e.getCause
+          }
+        })
+        .map(_.toList)
+
+      // the artifacts first, then their dependencies
+      val files = (resolved.map(_.head) ++ resolved.flatMap(_.tail)).distinct
+      logInfo(s"resolved dependencies: ${files.map(_.getName).mkString(",")}")
+      files
     }
   }
 
+  /**
+   * Get the files of the artifact and its dependencies from the resolution index, or resolve them
+   * on the resolver pool if absent, the running resolution of the same artifact is shared.
+   */
+  private[this] def resolveArtifactAsync(
+      artifact: DefaultArtifact,
+      remoteRepos: List[RemoteRepository]): CompletableFuture[JavaList[File]] = {
+    val key = s"$artifact@${remoteRepos.map(_.getUrl).mkString(",")}"
+    val snapshotTtl = InternalConfigHolder.get[JavaLong](MAVEN_RESOLVE_SNAPSHOT_TTL_SEC) * 1000
+    resolutionIndex.get(key, artifact.isSnapshot, snapshotTtl) match {
+      case Some(files) =>
+        logDebug(s"resolution index hit: $key")
+        CompletableFuture.completedFuture(files)
+      case None =>
+        val future = new CompletableFuture[JavaList[File]]()
+        resolving.putIfAbsent(key, future) match {
+          case null =>
+            resolveExecutor.execute(() => {
+              try {
+                val files = resolveArtifact(artifact, remoteRepos)
+                resolutionIndex.put(key, files)
+                resolving.remove(key)
+                future.complete(files)
+              } catch {
+                case e: Throwable =>
+                  resolving.remove(key)
+                  future.completeExceptionally(e)
+              }
+            })
+            future
+          case running =>
+            logInfo(s"wait for the running resolution of $artifact")
+            running
+        }
+    }
+  }
+
+  /** Resolve the artifact and its compile scope dependencies declared in the artifact descriptor. */
+  private[this] def resolveArtifact(
+      artifact: DefaultArtifact,
+      remoteRepos: List[RemoteRepository]): JavaList[File] = {
+    val (repoSystem, session) = mavenEndpoint
+    // read relevant artifact descriptor info
+    val dependencies = repoSystem
+      .readArtifactDescriptor(session, new ArtifactDescriptorRequest(artifact, remoteRepos, null))
+      .getDependencies
+      .filter(_.getScope == "compile")
+      .filter(x => !excludeArtifact.exists(_.eq(x.getArtifact)))
+      .map(_.getArtifact)
+
+    // download artifacts, the connector downloads the artifacts of a request in parallel
+    val artReqs =
+      (artifact +: dependencies).map(artifact => new ArtifactRequest(artifact, remoteRepos, null))
+    repoSystem
+      .resolveArtifacts(session, artReqs)
+      .map(_.getArtifact.getFile)
+      .toList
+  }
+
   /** create composite maven endpoint */
   private[this] def getMavenEndpoint(): (RepositorySystem, RepositorySystemSession) = {
 
@@ -240,6 +341,10 @@ object MavenTool extends Logger {
     def newSession(system: RepositorySystem): RepositorySystemSession = {
       val session = MavenRepositorySystemUtils.newSession
       session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo))
+      session.setConfigProperty(CONNECTOR_THREADS, resolveThreads)
+      // the session is long-lived, how often the SNAPSHOT artifacts are updated is decided by
+      // the snapshot ttl of the resolution index instead of the daily update policy.
+      session.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS)
       session
     }
 
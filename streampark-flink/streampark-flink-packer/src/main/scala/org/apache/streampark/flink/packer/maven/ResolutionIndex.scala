@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.packer.maven
+
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.common.util.Logger
+
+import java.io.{File, FileInputStream, FileOutputStream}
+import java.nio.file.{Files, StandardCopyOption}
+import java.util.Properties
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.util.Try
+
+/**
+ * Persistent index of the resolved artifacts, maps the coordinates of an artifact and the remote
+ * repository to the files of the artifact and its dependencies in the local repository.
+ *
+ * A release artifact never changes, its entry is valid as long as all files exist. The entry of a
+ * SNAPSHOT artifact expires after the snapshot ttl, then the artifact is resolved again.
+ *
+ * @param indexFile
+ *   the file persisting the index, one `key=resolveTime|file1<pathSeparator>file2...` per line
+ */
+class ResolutionIndex(indexFile: File) extends Logger {
+
+  private[this] val entries: ConcurrentHashMap[String, ResolutionIndex.Entry] = load()
+
+  /**
+   * Get the resolved files of the key.
+   *
+   * @return
+   *   None if the artifact has never been resolved, the entry expired or any file was deleted
+   */
+  def get(key: String, snapshot: Boolean, snapshotTtl: Long): Option[JavaList[File]] = {
+    Option(entries.get(key))
+      .filter(e => !snapshot || System.currentTimeMillis - e.resolveTime < snapshotTtl)
+      .map(_.files)
+      .filter(_.forall(_.isFile))
+  }
+
+  def put(key: String, files: JavaList[File]): Unit = {
+    entries.put(key, ResolutionIndex.Entry(System.currentTimeMillis, files))
+    Try(persist()).failed.foreach(
+      e => logWarn(s"persist maven resolution index ${indexFile.getAbsolutePath} failed: ${e.getMessage}"))
+  }
+
+  def size: Int = entries.size
+
+  /** Write the whole index into a temp file, then replace the index file with it. */
+  private[this] def persist(): Unit = this.synchronized {
+    val props = new Properties()
+    entries.foreach {
+      case (key, entry) =>
+        props.setProperty(
+          key,
+          s"${entry.resolveTime}|${entry.files.map(_.getAbsolutePath).mkString(File.pathSeparator)}")
+    }
+    indexFile.getParentFile.mkdirs()
+    val tmp = new File(indexFile.getParentFile, s"${indexFile.getName}.tmp")
+    new FileOutputStream(tmp).using(out => props.store(out, "StreamPark maven resolution index"))
+    Files.move(tmp.toPath, indexFile.toPath, StandardCopyOption.REPLACE_EXISTING)
+  }
+
+  private[this] def load(): ConcurrentHashMap[String, ResolutionIndex.Entry] = {
+    val map = new ConcurrentHashMap[String, ResolutionIndex.Entry]()
+    if (indexFile.isFile) {
+      Try {
+        val props = new Properties()
+        new FileInputStream(indexFile).using(in => props.load(in))
+        props.stringPropertyNames().foreach {
+          key =>
+            val value = props.getProperty(key)
+            val split = value.indexOf('|')
+            val files = value
+              .substring(split + 1)
+              .split(File.pathSeparator)
+              .filter(_.nonEmpty)
+              .map(new File(_))
+              .toList
+            map.put(key, ResolutionIndex.Entry(value.substring(0, split).toLong, files))
+        }
+      }.failed.foreach(
+        e => logWarn(s"load maven resolution index ${indexFile.getAbsolutePath} failed: ${e.getMessage}"))
+    }
+    map
+  }
+
+}
+
+object ResolutionIndex {
+
+  private case class Entry(resolveTime: Long, files: JavaList[File])
+
+}
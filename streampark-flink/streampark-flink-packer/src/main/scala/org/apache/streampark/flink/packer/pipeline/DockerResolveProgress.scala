@@ -64,13 +64,27 @@ class DockerPullProgress(
 }
 
 class DockerBuildProgress(val steps: ArrayBuffer[String], var lastTime: Long) {
+
+  /** start time of the steps, a step lasts until the next step starts */
+  private[this] val stepStartTimes = ArrayBuffer[Long]()
+
   def update(buildStep: String): Unit = {
     if (StringUtils.isNotBlank(buildStep)) {
       steps += buildStep
       lastTime = System.currentTimeMillis
+      stepStartTimes += lastTime
     }
   }
 
+  /** time cost(ms) of the build steps, the last step ends at the given time. */
+  def stepCosts(endTime: Long): Seq[(String, Long)] = {
+    steps.indices.map(
+      i => {
+        val end = if (i + 1 < stepStartTimes.size) stepStartTimes(i + 1) else endTime
+        steps(i).trim -> (end - stepStartTimes(i))
+      })
+  }
+
   def snapshot: DockerBuildSnapshot = DockerBuildSnapshot(steps, lastTime)
 }
 
@@ -78,6 +92,10 @@ class DockerPushProgress(
     val layers: mutable.Map[String, DockerLayerProgress],
     var error: String,
     var lastTime: Long) {
+
+  /** Map<layerId, (first progress time, last progress time)> */
+  private[this] val layerTimes = mutable.Map[String, (Long, Long)]()
+
   // noinspection DuplicatedCode
   def update(pushRsp: PushResponseItem): Unit = {
     val nonPushUpdateState =
@@ -86,6 +104,9 @@ class DockerPushProgress(
     if (nonPushUpdateState) {
       return
     }
+    val now = System.currentTimeMillis
+    val startTime = layerTimes.get(pushRsp.getId).map(_._1).getOrElse(now)
+    layerTimes += pushRsp.getId -> ((startTime, now))
     if (pushRsp.getStatus.contains("complete")) {
       layers += pushRsp.getId -> DockerLayerProgress(pushRsp.getId, pushRsp.getStatus, 1, 1)
       lastTime = System.currentTimeMillis
@@ -104,6 +125,12 @@ class DockerPushProgress(
 
   def snapshot: DockerPushSnapshot =
     DockerPushSnapshot.of(layers.values.toSeq, error, lastTime)
+
+  /** time cost(ms) and the last status of the pushed layers, e.g. "Pushed", "Layer already exists". */
+  def layerCosts: Seq[(DockerLayerProgress, Long)] = {
+    layers.values.toSeq.map(
+      layer => layer -> layerTimes.get(layer.layerId).map(t => t._2 - t._1).getOrElse(0L))
+  }
 }
 
 object DockerPullProgress {
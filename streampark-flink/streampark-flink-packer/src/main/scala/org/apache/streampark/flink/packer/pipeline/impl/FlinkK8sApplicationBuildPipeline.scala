@@ -28,6 +28,7 @@ import org.apache.streampark.flink.packer.pipeline._
 import org.apache.streampark.flink.packer.pipeline.BuildPipeline.executor
 
 import com.github.dockerjava.api.command.PushImageCmd
+import com.github.dockerjava.api.exception.NotFoundException
 import com.github.dockerjava.core.command.{HackBuildImageCmd, HackPullImageCmd, HackPushImageCmd}
 import com.google.common.collect.Sets
 import org.apache.commons.lang3.StringUtils
@@ -140,7 +141,14 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
     execStep(5) {
       usingDockerClient {
         dockerClient =>
-          val imgExists = dockerClient.listImagesCmd().exec().exists(_.getRepoTags.exists(_.contains(baseImageTag)))
+          // look up the exact tag instead of listing all local images
+          val imgExists =
+            try {
+              dockerClient.inspectImageCmd(baseImageTag).exec()
+              true
+            } catch {
+              case _: NotFoundException => false
+            }
           if (imgExists) {
             logInfo(s"found local docker image $baseImageTag, no need to pull from remote.")
           } else {
@@ -191,6 +199,11 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
             })
           val imageId = buildCmdCallback.awaitImageId
           logInfo(s"Built docker image, imageId=$imageId, imageTag=$pushImageTag")
+          val buildSteps = dockerProcess.build
+            .stepCosts(System.currentTimeMillis)
+            .map { case (step, cost) => s"  ${cost}ms $step" }
+            .mkString("\n")
+          logInfo(s"Time cost of docker image build steps, imageTag=$pushImageTag:\n$buildSteps")
       }(err => throw new Exception(s"Build docker image failed. tag=$pushImageTag", err))
     }.getOrElse(throw getError.exception)
 
@@ -211,6 +224,10 @@ class FlinkK8sApplicationBuildPipeline(request: FlinkK8sApplicationBuildRequest)
             })
           pushCmdCallback.awaitCompletion
           logInfo(s"Already pushed docker image, imageTag=$pushImageTag")
+          val pushLayers = dockerProcess.push.layerCosts
+            .map { case (layer, cost) => s"  ${cost}ms ${layer.layerId} ${layer.status} ${layer.totalMb}MB" }
+            .mkString("\n")
+          logInfo(s"Time cost of docker image push layers, imageTag=$pushImageTag:\n$pushLayers")
       }(err => throw new Exception(s"Push docker image failed. tag=$pushImageTag", err))
     }.getOrElse(throw getError.exception)
 
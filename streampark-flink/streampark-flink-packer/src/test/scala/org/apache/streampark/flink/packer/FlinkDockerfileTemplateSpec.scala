@@ -55,7 +55,6 @@ class FlinkDockerfileTemplateSpec extends AnyWordSpec with BeforeAndAfter with M
         """FROM 1.13-scala_2.11
           |RUN mkdir -p $FLINK_HOME/usrlib
           |COPY /WordCountSQL.jar $FLINK_HOME/usrlib/WordCountSQL.jar
-          |COPY lib $FLINK_HOME/lib/
           |""".stripMargin
       "build Dockerfile content" in {
         template.offerDockerfileContent mustBe assertDockerFileContent
@@ -72,6 +71,48 @@ class FlinkDockerfileTemplateSpec extends AnyWordSpec with BeforeAndAfter with M
       }
     }
 
+    "create dockerfile with extra libs" should {
+      "put the extra libs into layers by the name hash" in {
+        val mainJar = new File(outputDir, "main.jar")
+        FileUtils.write(mainJar, "main", "UTF-8")
+        def template(names: Seq[String], version: String): FlinkDockerfileTemplate = {
+          val libs = names.map(
+            name => {
+              val lib = new File(outputDir, s"libs/$name.jar")
+              FileUtils.write(lib, s"$name-$version", "UTF-8")
+              lib.getAbsolutePath
+            })
+          FlinkDockerfileTemplate(
+            new File(outputDir, "workspace").getAbsolutePath,
+            "flink:1.20",
+            mainJar.getAbsolutePath,
+            libs.toSet)
+        }
+        def libLayers(names: Seq[String]): String =
+          names
+            .map(name => s"$name.jar")
+            .groupBy(name => Math.floorMod(name.hashCode, 32))
+            .toSeq
+            .sortBy(_._1)
+            .map(_._2.sorted.map(n => s"lib/$n").mkString("COPY ", " ", " $FLINK_HOME/lib/\n"))
+            .mkString
+
+        val names = Seq("a", "b", "c")
+        template(names, "1").offerDockerfileContent mustBe
+          "FROM flink:1.20\nRUN mkdir -p $FLINK_HOME/usrlib\n" + libLayers(names) +
+          "COPY main.jar $FLINK_HOME/usrlib/main.jar\n"
+
+        // the layers do not depend on the jar content or the number of the jars
+        val manyNames = (1 to 40).map(i => s"lib-$i")
+        val layers = template(manyNames, "1").extraLibLayers
+        layers.size must be <= 32
+        layers.flatten.size mustBe 40
+        template(manyNames, "2").extraLibLayers mustBe layers
+        template(manyNames.take(10), "1").extraLibLayers.foreach(
+          layer => layers.exists(l => layer.forall(l.contains)) mustBe true)
+      }
+    }
+
   }
 
 }
@@ -18,7 +18,7 @@
 package org.apache.streampark.flink.packer
 
 import org.apache.streampark.common.util.Implicits._
-import org.apache.streampark.flink.packer.maven.{Artifact, DependencyInfo, MavenTool}
+import org.apache.streampark.flink.packer.maven.{Artifact, DependencyInfo, FatJarCache, MavenTool}
 
 import org.apache.commons.io.FileUtils
 import org.scalatest.BeforeAndAfterAll
@@ -37,9 +37,11 @@ class MavenToolSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
     val output = new File(outputDir)
     FileUtils.deleteDirectory(output)
     FileUtils.forceMkdir(output)
+    FatJarCache.testCacheDir = Some(new File(outputDir, "fatjar-cache"))
   }
 
   override protected def afterAll(): Unit = {
+    FatJarCache.testCacheDir = None
     FileUtils.deleteDirectory(new File(outputDir))
   }
 
@@ -102,6 +104,20 @@ class MavenToolSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
         new JarFile(fatJarPath).getJarEntry(
           "org/apache/flink/connector/base/source/reader/SourceReaderBase.class") mustNot be(null)
       }
+      "with cached fat-jar" in {
+        val jarLibs = Set(path("jars/commons-cli-1.4.jar"), path("jars/commons-logging-1.2.jar"))
+        val fatJar = MavenTool.buildFatJar(null, jarLibs, outputDir.concat("fat-4.jar"))
+        val entries = () => FatJarCache.cacheDir.listFiles().filter(_.getName.endsWith(".jar"))
+        val entry = entries().find(FileUtils.contentEquals(_, fatJar)).get
+        val entryCount = entries().length
+        entry.setLastModified(0)
+        val cachedFatJar = MavenTool.buildFatJar(null, jarLibs, outputDir.concat("fat-5.jar"))
+        // the hit touches the entry rather than building a new one
+        entry.lastModified must be > 0L
+        entries().length mustBe entryCount
+        cachedFatJar.exists() mustBe true
+        FileUtils.contentEquals(fatJar, cachedFatJar) mustBe true
+      }
     }
 
     "resolve artifacts" should {
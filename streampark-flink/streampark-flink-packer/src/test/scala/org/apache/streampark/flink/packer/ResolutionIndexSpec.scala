@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.streampark.flink.packer
+
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.flink.packer.maven.ResolutionIndex
+
+import org.apache.commons.io.FileUtils
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.must.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import java.io.File
+
+class ResolutionIndexSpec extends AnyWordSpec with BeforeAndAfterAll with Matchers {
+
+  val outputDir = new File("ResolutionIndexSpec-output/")
+  val indexFile = new File(outputDir, "index")
+
+  override protected def beforeAll(): Unit = {
+    FileUtils.deleteDirectory(outputDir)
+    FileUtils.forceMkdir(outputDir)
+  }
+
+  override protected def afterAll(): Unit = {
+    FileUtils.deleteDirectory(outputDir)
+  }
+
+  "ResolutionIndex" should {
+    "reload the resolved files from the index file" in {
+      val files = List(new File(outputDir, "a-1.0.jar"), new File(outputDir, "b-1.0.jar"))
+      files.foreach(_.createNewFile())
+      new ResolutionIndex(indexFile).put("g:a:jar:1.0@central", files)
+
+      val index = new ResolutionIndex(indexFile)
+      index.get("g:a:jar:1.0@central", snapshot = false, 0L).map(_.map(_.getAbsolutePath).toList) mustBe
+        Some(files.map(_.getAbsolutePath))
+      index.get("g:a:jar:2.0@central", snapshot = false, 0L) mustBe None
+    }
+    "expire the snapshot artifacts" in {
+      val files = List(new File(outputDir, "a-1.0-SNAPSHOT.jar"))
+      files.foreach(_.createNewFile())
+      val index = new ResolutionIndex(indexFile)
+      index.put("g:a:jar:1.0-SNAPSHOT@central", files)
+      index.get("g:a:jar:1.0-SNAPSHOT@central", snapshot = true, 60000L) mustNot be(None)
+      Thread.sleep(20)
+      index.get("g:a:jar:1.0-SNAPSHOT@central", snapshot = true, 10L) mustBe None
+    }
+    "miss when the resolved files are deleted" in {
+      val files = List(new File(outputDir, "c-1.0.jar"))
+      files.foreach(_.createNewFile())
+      val index = new ResolutionIndex(indexFile)
+      index.put("g:c:jar:1.0@central", files)
+      files.foreach(_.delete())
+      index.get("g:c:jar:1.0@central", snapshot = false, 0L) mustBe None
+    }
+  }
+
+}
@@ -27,13 +27,13 @@ import java.net.URL
 import java.util.function.{Function => JavaFunc}
 import java.util.regex.Pattern
 
-import scala.collection.mutable.{ListBuffer, Map => MutableMap}
+import scala.collection.mutable.ListBuffer
 
 object FlinkShimsProxy extends Logger {
 
-  private[this] val SHIMS_CLASS_LOADER_CACHE = MutableMap[String, ClassLoader]()
+  private[this] val SHIMS_CLASS_LOADER_CACHE = new ShimsClassLoaderCache("shims")
 
-  private[this] val VERIFY_SQL_CLASS_LOADER_CACHE = MutableMap[String, ClassLoader]()
+  private[this] val VERIFY_SQL_CLASS_LOADER_CACHE = new ShimsClassLoaderCache("verify-sql")
 
   private[this] val FLINK_JAR_PATTERN = Pattern.compile("flink-(.*).jar", Pattern.CASE_INSENSITIVE | Pattern.DOTALL)
 
@@ -68,8 +68,13 @@ object FlinkShimsProxy extends Logger {
    * @return
    */
   def proxy[T](flinkVersion: FlinkVersion, func: ClassLoader => T): T = {
-    val shimsClassLoader = getFlinkShimsClassLoader(flinkVersion)
-    ClassLoaderUtils.runAsClassLoader[T](shimsClassLoader, () => func(shimsClassLoader))
+    SHIMS_CLASS_LOADER_CACHE.execute(
+      flinkVersion.flinkHome,
+      flinkVersion.fullVersion,
+      () => getFlinkShimsClassLoader(flinkVersion)) {
+      shimsClassLoader =>
+        ClassLoaderUtils.runAsClassLoader[T](shimsClassLoader, () => func(shimsClassLoader))
+    }
   }
 
   /**
@@ -83,38 +88,67 @@ object FlinkShimsProxy extends Logger {
    * @return
    */
   def proxy[T](flinkVersion: FlinkVersion, func: JavaFunc[ClassLoader, T]): T = {
-    val shimsClassLoader = getFlinkShimsClassLoader(flinkVersion)
-    ClassLoaderUtils.runAsClassLoader[T](shimsClassLoader, () => func(shimsClassLoader))
+    proxy(flinkVersion, (shimsClassLoader: ClassLoader) => func(shimsClassLoader))
+  }
+
+  /**
+   * Build the shimsClassLoader of the flink version ahead of the first request, and load the given
+   * classes with it, so that the first request does not pay for it.
+   *
+   * @param flinkVersion
+   *   flinkVersion
+   * @param classNames
+   *   the classes to be loaded by the shimsClassLoader
+   */
+  def preload(flinkVersion: FlinkVersion, classNames: String*): Unit = {
+    val start = System.currentTimeMillis()
+    proxy(
+      flinkVersion,
+      (shimsClassLoader: ClassLoader) =>
+        classNames.foreach(name => Class.forName(name, true, shimsClassLoader)))
+    logInfo(
+      s"preload flink shims classloader, flink version: $flinkVersion, time: ${System.currentTimeMillis() - start} ms")
+  }
+
+  /**
+   * Evict the classloaders of the flink home, should be called when the flink environment is
+   * changed or removed. The classloaders are closed a grace period after the running requests on
+   * them are finished.
+   *
+   * @param flinkHome
+   *   flinkHome
+   */
+  def invalidate(flinkHome: String): Unit = {
+    SHIMS_CLASS_LOADER_CACHE.invalidate(flinkHome)
+    VERIFY_SQL_CLASS_LOADER_CACHE.invalidate(flinkHome)
   }
 
   // need to load all flink-table dependencies compatible with different versions
   private def getVerifySqlLibClassLoader(flinkVersion: FlinkVersion): ClassLoader = {
     logInfo(s"Add verify sql lib,flink version: $flinkVersion")
-    VERIFY_SQL_CLASS_LOADER_CACHE.getOrElseUpdate(
-      s"${flinkVersion.fullVersion}", {
-        val getFlinkTable: File => Boolean = _.getName.startsWith("flink-table")
-        // 1) flink/lib/flink-table*
-        val libTableURL = getFlinkHomeLib(flinkVersion.flinkHome, "lib", getFlinkTable)
-
-        // 2) After version 1.15 need add flink/opt/flink-table*
-        val optTableURL = getFlinkHomeLib(flinkVersion.flinkHome, "opt", getFlinkTable)
-        val shimsUrls = ListBuffer[URL](libTableURL ++ optTableURL: _*)
-
-        // 3) add only streampark shims jar
-        addShimsUrls(
-          flinkVersion,
-          file => {
-            if (file.getName.startsWith("streampark-flink-shims")) {
-              shimsUrls += file.toURI.toURL
-            }
-          })
 
-        new ChildFirstClassLoader(
-          shimsUrls.toArray,
-          Thread.currentThread().getContextClassLoader,
-          PARENT_FIRST_PATTERNS,
-          jarName => loadJarFilter(jarName, flinkVersion))
+    val getFlinkTable: File => Boolean = _.getName.startsWith("flink-table")
+    // 1) flink/lib/flink-table*
+    val libTableURL = getFlinkHomeLib(flinkVersion.flinkHome, "lib", getFlinkTable)
+
+    // 2) After version 1.15 need add flink/opt/flink-table*
+    val optTableURL = getFlinkHomeLib(flinkVersion.flinkHome, "opt", getFlinkTable)
+    val shimsUrls = ListBuffer[URL](libTableURL ++ optTableURL: _*)
+
+    // 3) add only streampark shims jar
+    addShimsUrls(
+      flinkVersion,
+      file => {
+        if (file.getName.startsWith("streampark-flink-shims")) {
+          shimsUrls += file.toURI.toURL
+        }
       })
+
+    new ChildFirstClassLoader(
+      shimsUrls.toArray,
+      Thread.currentThread().getContextClassLoader,
+      PARENT_FIRST_PATTERNS,
+      jarName => loadJarFilter(jarName, flinkVersion))
   }
 
   private def loadJarFilter(jarName: String, flinkVersion: FlinkVersion): Boolean = {
@@ -170,37 +204,39 @@ object FlinkShimsProxy extends Logger {
    * @return
    */
   def proxyVerifySql[T](flinkVersion: FlinkVersion, func: JavaFunc[ClassLoader, T]): T = {
-    val shimsClassLoader = getVerifySqlLibClassLoader(flinkVersion)
-    ClassLoaderUtils.runAsClassLoader[T](shimsClassLoader, () => func(shimsClassLoader))
+    VERIFY_SQL_CLASS_LOADER_CACHE.execute(
+      flinkVersion.flinkHome,
+      flinkVersion.fullVersion,
+      () => getVerifySqlLibClassLoader(flinkVersion)) {
+      shimsClassLoader =>
+        ClassLoaderUtils.runAsClassLoader[T](shimsClassLoader, () => func(shimsClassLoader))
+    }
   }
 
   private[this] def getFlinkShimsClassLoader(flinkVersion: FlinkVersion): ClassLoader = {
     logInfo(s"add flink shims urls classloader,flink version: $flinkVersion")
 
-    SHIMS_CLASS_LOADER_CACHE.getOrElseUpdate(
-      s"${flinkVersion.fullVersion}", {
-        // 1) flink/lib
-        val libURL = getFlinkHomeLib(
-          flinkVersion.flinkHome,
-          "lib",
-          file => !file.getName.startsWith("log4j") && file.getName.endsWith(".jar"))
-        val shimsUrls = ListBuffer[URL](libURL: _*)
-
-        // 2) add all shims jar
-        addShimsUrls(
-          flinkVersion,
-          file => {
-            if (file != null) {
-              shimsUrls += file.toURI.toURL
-            }
-          })
+    // 1) flink/lib
+    val libURL = getFlinkHomeLib(
+      flinkVersion.flinkHome,
+      "lib",
+      file => !file.getName.startsWith("log4j") && file.getName.endsWith(".jar"))
+    val shimsUrls = ListBuffer[URL](libURL: _*)
 
-        new ChildFirstClassLoader(
-          shimsUrls.toArray,
-          Thread.currentThread().getContextClassLoader,
-          PARENT_FIRST_PATTERNS,
-          jarName => loadJarFilter(jarName, flinkVersion))
+    // 2) add all shims jar
+    addShimsUrls(
+      flinkVersion,
+      file => {
+        if (file != null) {
+          shimsUrls += file.toURI.toURL
+        }
       })
+
+    new ChildFirstClassLoader(
+      shimsUrls.toArray,
+      Thread.currentThread().getContextClassLoader,
+      PARENT_FIRST_PATTERNS,
+      jarName => loadJarFilter(jarName, flinkVersion))
   }
 
   private[this] def getFlinkHomeLib(
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.streampark.flink.proxy
+
+import org.apache.streampark.common.util.Implicits._
+import org.apache.streampark.common.util.{Logger, ThreadUtils}
+
+import java.net.URLClassLoader
+import java.util.concurrent.{ConcurrentHashMap, Executors, ScheduledExecutorService, TimeUnit}
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger}
+
+import scala.annotation.tailrec
+import scala.util.Try
+
+/**
+ * A concurrent cache of the classloaders of the flink environments, keyed by the flink home and the
+ * flink version. Each classloader is built once even if requested concurrently, an evicted
+ * classloader is closed a grace period after the calls running on it are finished, since the
+ * objects returned by those calls may still load classes or resources from it.
+ */
+private[proxy] class ShimsClassLoaderCache(name: String) extends Logger {
+
+  private[this] val cache = new ConcurrentHashMap[String, CachedClassLoader]()
+
+  def execute[T](flinkHome: String, version: String, build: () => ClassLoader)(
+      func: ClassLoader => T): T = {
+    val key = s"$flinkHome@$version"
+
+    @tailrec def acquire(): CachedClassLoader = {
+      val cached = cache.computeIfAbsent(
+        key,
+        _ => {
+          val start = System.currentTimeMillis()
+          val classLoader = build()
+          val loadTime = System.currentTimeMillis() - start
+          logInfo(s"[$name] classloader of flink: $version ($flinkHome) built in $loadTime ms")
+          new CachedClassLoader(flinkHome, version, classLoader)
+        })
+      if (cached.acquire()) cached else acquire()
+    }
+
+    val cached = acquire()
+    try {
+      func(cached.classLoader)
+    } finally {
+      cached.release()
+    }
+  }
+
+  /** evict the classloaders of the flink home, they are closed after they are no longer in use */
+  def invalidate(flinkHome: String): Unit = {
+    cache.values()
+      .filter(_.flinkHome == flinkHome)
+      .foreach(
+        cached => {
+          if (cache.remove(s"${cached.flinkHome}@${cached.version}", cached)) {
+            logInfo(s"[$name] evict classloader of flink: ${cached.version} (${cached.flinkHome})")
+            cached.retire()
+          }
+        })
+  }
+
+  private[this] class CachedClassLoader(
+      val flinkHome: String,
+      val version: String,
+      val classLoader: ClassLoader) {
+
+    private[this] val references = new AtomicInteger(0)
+
+    private[this] val closed = new AtomicBoolean(false)
+
+    @volatile private[this] var retired = false
+
+    def acquire(): Boolean = {
+      references.incrementAndGet()
+      if (retired) {
+        release()
+        false
+      } else {
+        true
+      }
+    }
+
+    def release(): Unit = {
+      if (references.decrementAndGet() == 0 && retired) {
+        scheduleClose()
+      }
+    }
+
+    def retire(): Unit = {
+      retired = true
+      if (references.get() == 0) {
+        scheduleClose()
+      }
+    }
+
+    private[this] def scheduleClose(): Unit = {
+      if (closed.compareAndSet(false, true)) {
+        classLoader match {
+          case loader: URLClassLoader =>
+            ShimsClassLoaderCache.CLOSER.schedule(
+              new Runnable {
+                override def run(): Unit = {
+                  logInfo(s"[$name] close classloader of flink: $version ($flinkHome)")
+                  Try(loader.close()).failed.foreach(
+                    e => logWarn(s"[$name] close classloader of flink: $version failed, $e"))
+                }
+              },
+              ShimsClassLoaderCache.CLOSE_GRACE_PERIOD_MS,
+              TimeUnit.MILLISECONDS)
+          case _ =>
+        }
+      }
+    }
+  }
+
+}
+
+private[proxy] object ShimsClassLoaderCache {
+
+  /** the delay between the last release of an evicted classloader and closing it */
+  val CLOSE_GRACE_PERIOD_MS: Long = TimeUnit.MINUTES.toMillis(5)
+
+  private val CLOSER: ScheduledExecutorService =
+    Executors.newSingleThreadScheduledExecutor(
+      ThreadUtils.threadFactory("streampark-shims-classloader-closer"))
+
+}